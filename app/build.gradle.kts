@@ -2,6 +2,8 @@ plugins {
     alias(libs.plugins.android.application)
     id("com.google.gms.google-services")
     alias(libs.plugins.google.firebase.crashlytics)
+    // Consumes the profiles generated by :baselineprofile
+    alias(libs.plugins.baselineprofile)
 }
 
 android {
@@ -30,7 +32,8 @@ android {
 
     buildTypes {
         release {
-            isMinifyEnabled = false
+            isMinifyEnabled = true
+            isShrinkResources = true
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
                 "proguard-rules.pro"
@@ -38,13 +41,27 @@ android {
         }
     }
 
+    // The baselineprofile plugin adds nonMinifiedRelease (profile generation) and benchmarkRelease
+    // (measurements) copied from release. Release has no signing config of its own here, so sign
+    // them with the debug key to make them installable on test devices.
+    buildTypes.matching { it.name == "nonMinifiedRelease" || it.name == "benchmarkRelease" }.configureEach {
+        signingConfig = signingConfigs.getByName("debug")
+    }
+
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
 
+    testOptions {
+        // Unit tests cover plain-Java classes that log through android.util.Log
+        unitTests.isReturnDefaultValues = true
+    }
+
     buildFeatures {
         viewBinding = true
+        // BuildConfig.DEBUG gates AppLog's debug output
+        buildConfig = true
     }
 
     // Disable APK splits to ensure compatibility with all devices
@@ -55,6 +72,14 @@ android {
     }
 }
 
+baselineProfile {
+    // Profiles are regenerated on demand (:app:generateBaselineProfile) and committed,
+    // not on every release build
+    automaticGenerationDuringBuild = false
+    // Also lays out the dex files so startup classes are loaded together
+    dexLayoutOptimization = true
+}
+
 dependencies {
     // AndroidX Core Libraries
     implementation(libs.appcompat)
@@ -91,6 +116,9 @@ dependencies {
     // Image Loading
     implementation("com.github.bumptech.glide:glide:4.16.0")
     annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
+    implementation("com.github.bumptech.glide:recyclerview-integration:4.16.0") {
+        isTransitive = false
+    }
 
     // Cloudinary for media storage
     implementation("com.cloudinary:cloudinary-android:3.0.2")
@@ -101,6 +129,10 @@ dependencies {
     // OpenStreetMap (osmdroid)
     implementation("org.osmdroid:osmdroid-android:6.1.14")
 
+    // Installs the baseline profile on devices whose store doesn't deliver cloud profiles
+    implementation(libs.profileinstaller)
+    baselineProfile(project(":baselineprofile"))
+
     // Testing
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
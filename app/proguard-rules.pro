@@ -18,4 +18,26 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+
+# Strip verbose/debug logging from release builds. R8 drops these calls and, since the
+# arguments have no side effects of their own, the string building that feeds them.
+-assumenosideeffects class com.example.soukify.utils.log.AppLog {
+    public static void v(...);
+    public static void d(...);
+}
+-assumenosideeffects class android.util.Log {
+    public static int v(...);
+    public static int d(...);
+}
+
+# Keep line numbers for Crashlytics; the plugin uploads the mapping file to deobfuscate the rest.
+-keepattributes SourceFile,LineNumberTable
+-renamesourcefileattribute SourceFile
+-keep public class * extends java.lang.Exception
+
+# Firestore maps documents onto the models by reflection (toObject, set, @PropertyName, @Exclude):
+# their no-arg constructors, fields and accessors must keep their names, and generic signatures
+# are needed for List/Map fields.
+-keepattributes Signature,*Annotation*,InnerClasses,EnclosingMethod
+-keep class com.example.soukify.data.models.** { *; }
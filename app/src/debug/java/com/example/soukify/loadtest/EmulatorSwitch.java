@@ -0,0 +1,103 @@
+package com.example.soukify.loadtest;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.soukify.utils.log.AppLog;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+/**
+ * Emulator Switch - Points the default Firebase instances at the local emulators (debug builds)
+ *
+ * Firestore only accepts useEmulator() before its first use, and SoukifyApplication touches it
+ * during startup. Content providers are created before Application.onCreate, so the switch lives
+ * here. The target is persisted by {@link LoadHarnessActivity}; a process restart applies it.
+ */
+public class EmulatorSwitch extends ContentProvider {
+    private static final String TAG = "EmulatorSwitch";
+
+    static final String PREFS_NAME = "load_harness_prefs";
+    static final String KEY_HOST = "emulator_host";
+
+    // Host loopback as seen from the Android emulator
+    public static final String DEFAULT_HOST = "10.0.2.2";
+    public static final int FIRESTORE_PORT = 8080;
+    public static final int AUTH_PORT = 9099;
+
+    private static volatile String activeHost;
+
+    @Override
+    public boolean onCreate() {
+        Context context = getContext();
+        if (context == null) return false;
+        String host = prefs(context).getString(KEY_HOST, null);
+        if (host == null || host.isEmpty()) return true;
+
+        if (FirebaseApp.getApps(context).isEmpty()) {
+            FirebaseApp.initializeApp(context);
+        }
+        FirebaseFirestore.getInstance().useEmulator(host, FIRESTORE_PORT);
+        FirebaseAuth.getInstance().useEmulator(host, AUTH_PORT);
+        activeHost = host;
+        AppLog.w(TAG, "Firebase is using the emulators on {}", host);
+        return true;
+    }
+
+    /**
+     * Host of the emulators this process is connected to, or null when it talks to production
+     */
+    @Nullable
+    public static String getActiveHost() {
+        return activeHost;
+    }
+
+    /**
+     * Persist the emulator host for the next process start; null or empty switches back to production
+     */
+    static void setHost(Context context, @Nullable String host) {
+        prefs(context).edit().putString(KEY_HOST, host).commit();
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Nullable
+    @Override
+    public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable String selection,
+                        @Nullable String[] selectionArgs, @Nullable String sortOrder) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public String getType(@NonNull Uri uri) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public Uri insert(@NonNull Uri uri, @Nullable ContentValues values) {
+        return null;
+    }
+
+    @Override
+    public int delete(@NonNull Uri uri, @Nullable String selection, @Nullable String[] selectionArgs) {
+        return 0;
+    }
+
+    @Override
+    public int update(@NonNull Uri uri, @Nullable ContentValues values, @Nullable String selection,
+                      @Nullable String[] selectionArgs) {
+        return 0;
+    }
+}
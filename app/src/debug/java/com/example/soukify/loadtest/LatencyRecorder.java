@@ -0,0 +1,55 @@
+package com.example.soukify.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Latency Recorder - Collects per-operation latencies and reports percentiles
+ *
+ * Samples are kept raw (a load run is at most a few thousand operations) and sorted once when the
+ * report is built, so percentiles are exact rather than bucketed.
+ */
+public class LatencyRecorder {
+    private final String name;
+    private long[] samples = new long[256];
+    private int count;
+    private int errors;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long nanos) {
+        if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+        samples[count++] = nanos;
+    }
+
+    public synchronized void recordError() {
+        errors++;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Latency at the given percentile (0-100) in milliseconds, nearest-rank
+     */
+    public synchronized double percentileMillis(double percentile) {
+        if (count == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))] / 1_000_000.0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "%-16s n=%-5d err=%-3d p50=%7.1fms p90=%7.1fms p99=%7.1fms",
+                name, count, errors, percentileMillis(50), percentileMillis(90), percentileMillis(99));
+    }
+}
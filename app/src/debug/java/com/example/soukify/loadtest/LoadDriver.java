@@ -0,0 +1,228 @@
+package com.example.soukify.loadtest;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.soukify.data.chat.ChatOutbox;
+import com.example.soukify.data.models.Conversation;
+import com.example.soukify.data.models.ProductModel;
+import com.example.soukify.data.remote.FirestoreMeter;
+import com.example.soukify.data.repositories.ChatRepository;
+import com.example.soukify.data.repositories.FavoritesTableRepository;
+import com.example.soukify.data.repositories.ProductRepository;
+import com.example.soukify.data.repositories.ShopRepository;
+import com.example.soukify.utils.log.AppLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Load Driver - Runs the app's repository flows against a seeded {@link SyntheticMarketplace}
+ *
+ * Each flow goes through the same repository code the screens use, so the reported latencies and
+ * Firestore operation counts (from {@link FirestoreMeter}) reflect what users pay. Flows run one
+ * after another; within a flow up to {@code concurrency} operations are in flight. Everything is
+ * started and completed on the main thread, like the UI callers.
+ */
+public class LoadDriver {
+    private static final String TAG = "LoadDriver";
+
+    private final Application application;
+    private final SyntheticMarketplace marketplace;
+    private final String userId;
+    private final int iterations;
+    private final int concurrency;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Flow> flows = new ArrayList<>();
+    private final StringBuilder report = new StringBuilder();
+
+    /**
+     * One unit of work; must call exactly one of the callbacks, from any thread
+     */
+    private interface FlowBody {
+        void run(int iteration, Runnable onDone, Runnable onError);
+    }
+
+    private static final class Flow {
+        final String name;
+        final FlowBody body;
+
+        Flow(String name, FlowBody body) {
+            this.name = name;
+            this.body = body;
+        }
+    }
+
+    public interface ReportListener {
+        void onFlowFinished(String line);
+
+        void onFinished(String report);
+    }
+
+    public LoadDriver(Application application, SyntheticMarketplace marketplace, String userId,
+                      int iterations, int concurrency) {
+        this.application = application;
+        this.marketplace = marketplace;
+        this.userId = userId;
+        this.iterations = iterations;
+        this.concurrency = Math.max(1, concurrency);
+        registerFlows();
+    }
+
+    // ==================== FLOWS ====================
+
+    private void registerFlows() {
+        SyntheticMarketplace.Volumes volumes = marketplace.getVolumes();
+        int shops = Math.max(1, volumes.shops);
+        int productsPerShop = Math.max(1, volumes.productsPerShop);
+
+        ShopRepository shopRepository = new ShopRepository(application);
+        flows.add(new Flow("shopDetail", (i, done, error) ->
+                shopRepository.getShopById(SyntheticMarketplace.shopId(i % shops))
+                        .addOnSuccessListener(snapshot -> done.run())
+                        .addOnFailureListener(e -> error.run())));
+
+        ProductRepository productRepository = ProductRepository.getInstance(application);
+        flows.add(new Flow("shopProducts", (i, done, error) ->
+                productRepository.loadShopProducts(SyntheticMarketplace.shopId(i % shops),
+                        new ProductRepository.OnProductsLoadedListener() {
+                            @Override
+                            public void onProductsLoaded(List<ProductModel> products) {
+                                done.run();
+                            }
+
+                            @Override
+                            public void onError(String message) {
+                                error.run();
+                            }
+                        })));
+
+        FavoritesTableRepository favoritesRepository = FavoritesTableRepository.getInstance(application);
+        flows.add(new Flow("favoriteCheck", (i, done, error) ->
+                favoritesRepository.checkProductFavoriteOnce(
+                        SyntheticMarketplace.productId(i % shops, i % productsPerShop),
+                        new FavoritesTableRepository.OnFavoriteCheckedListener() {
+                            @Override
+                            public void onChecked(boolean isFavorited) {
+                                done.run();
+                            }
+
+                            @Override
+                            public void onError(String message) {
+                                error.run();
+                            }
+                        })));
+
+        ChatRepository chatRepository = new ChatRepository();
+        flows.add(new Flow("chatSend", (i, done, error) -> {
+            int shop = i % shops;
+            chatRepository.getOrCreateConversation(userId, marketplace.ownerOf(shop),
+                    SyntheticMarketplace.shopId(shop), "Boutique " + shop, "",
+                    new ChatRepository.OnConversationLoadedListener() {
+                        @Override
+                        public void onSuccess(Conversation conversation) {
+                            // Timed until Firestore confirms the message, not until it is queued
+                            ChatOutbox.get().enqueueAndAwaitDelivery(conversation.getId(), "Message de charge " + i)
+                                    .addOnSuccessListener(message -> done.run())
+                                    .addOnFailureListener(e -> error.run());
+                        }
+
+                        @Override
+                        public void onFailure(String message) {
+                            error.run();
+                        }
+                    });
+        }));
+    }
+
+    // ==================== EXECUTION ====================
+
+    /**
+     * Run every flow in order; must be called on the main thread
+     */
+    public void start(ReportListener listener) {
+        FirestoreMeter.setEnabled(true);
+        report.setLength(0);
+        runFlow(0, listener);
+    }
+
+    private void runFlow(int index, ReportListener listener) {
+        if (index >= flows.size()) {
+            FirestoreMeter.logSummary();
+            listener.onFinished(report.toString());
+            return;
+        }
+        Flow flow = flows.get(index);
+        String screen = "LoadHarness:" + flow.name;
+        FirestoreMeter.enterScreen(screen);
+        new FlowRun(flow, recorder -> {
+            FirestoreMeter.Usage usage = FirestoreMeter.getVisitUsage(screen);
+            String line = String.format(Locale.US, "%s reads=%d (%.2f/op) cached=%d writes=%d",
+                    recorder, usage.getReads(), (double) usage.getReads() / Math.max(1, iterations),
+                    usage.getCachedReads(), usage.getWrites());
+            AppLog.i(TAG, line);
+            report.append(line).append('\n');
+            listener.onFlowFinished(line);
+            runFlow(index + 1, listener);
+        }).start();
+    }
+
+    // State of one flow: keeps `concurrency` iterations in flight until all have completed
+    private final class FlowRun {
+        private final Flow flow;
+        private final Consumer<LatencyRecorder> onComplete;
+        private final LatencyRecorder recorder;
+        private int started;
+        private int finished;
+
+        FlowRun(Flow flow, Consumer<LatencyRecorder> onComplete) {
+            this.flow = flow;
+            this.onComplete = onComplete;
+            this.recorder = new LatencyRecorder(flow.name);
+        }
+
+        void start() {
+            if (iterations <= 0) {
+                onComplete.accept(recorder);
+                return;
+            }
+            while (started < Math.min(concurrency, iterations)) launch();
+        }
+
+        private void launch() {
+            int iteration = started++;
+            long startedAt = System.nanoTime();
+            boolean[] reported = new boolean[1];
+            Runnable done = () -> mainHandler.post(() -> {
+                if (reported[0]) return;
+                reported[0] = true;
+                recorder.record(System.nanoTime() - startedAt);
+                onIterationFinished();
+            });
+            Runnable error = () -> mainHandler.post(() -> {
+                if (reported[0]) return;
+                reported[0] = true;
+                recorder.recordError();
+                onIterationFinished();
+            });
+            try {
+                flow.body.run(iteration, done, error);
+            } catch (RuntimeException e) {
+                AppLog.e(TAG, "Flow {} failed to start", flow.name, e);
+                error.run();
+            }
+        }
+
+        private void onIterationFinished() {
+            finished++;
+            if (started < iterations) {
+                launch();
+            } else if (finished == iterations) {
+                onComplete.accept(recorder);
+            }
+        }
+    }
+}
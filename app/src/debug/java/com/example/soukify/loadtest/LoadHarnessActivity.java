@@ -0,0 +1,183 @@
+package com.example.soukify.loadtest;
+
+import android.content.Intent;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.os.Process;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.soukify.services.NotificationSenderService;
+import com.example.soukify.utils.concurrent.AppExecutors;
+import com.example.soukify.utils.log.AppLog;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Load Harness Activity - Seeds the Firestore emulator and drives the app's flows against it
+ *
+ * Debug builds only. Start the emulators from the project root ({@code firebase emulators:start}),
+ * then launch with adb:
+ *
+ * <pre>
+ * adb shell am start -n com.example.soukify/.loadtest.LoadHarnessActivity \
+ *     --es emulatorHost 10.0.2.2 --ei shops 2000 --ei productsPerShop 15 --ei users 5000 \
+ *     --el seed 7 --ei iterations 200 --ei concurrency 16
+ * </pre>
+ *
+ * When the requested host differs from the one the process is connected to, the host is saved and
+ * the process exits; launch the same command again. {@code --es emulatorHost ""} switches back to
+ * production, in which case nothing is seeded. {@code --ez skipSeed true} reruns the flows on an
+ * existing dataset. Results are shown on screen and logged under the LoadDriver tag.
+ *
+ * Pushes go to a local {@link PushStubServer} for the whole run, never to OneSignal; after the
+ * flows a {@link PushBatchCheck} verifies that message bursts are coalesced.
+ */
+public class LoadHarnessActivity extends AppCompatActivity {
+    private static final String TAG = "LoadHarness";
+
+    public static final String EXTRA_EMULATOR_HOST = "emulatorHost";
+    public static final String EXTRA_SEED = "seed";
+    public static final String EXTRA_SKIP_SEED = "skipSeed";
+    public static final String EXTRA_ITERATIONS = "iterations";
+    public static final String EXTRA_CONCURRENCY = "concurrency";
+
+    private TextView output;
+    private final PushStubServer pushStub = new PushStubServer();
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        output = new TextView(this);
+        output.setTypeface(Typeface.MONOSPACE);
+        int padding = (int) (12 * getResources().getDisplayMetrics().density);
+        output.setPadding(padding, padding, padding, padding);
+        ScrollView scroll = new ScrollView(this);
+        scroll.addView(output);
+        setContentView(scroll);
+
+        if (savedInstanceState == null) handle(getIntent());
+    }
+
+    private void handle(Intent intent) {
+        String requestedHost = intent.hasExtra(EXTRA_EMULATOR_HOST)
+                ? intent.getStringExtra(EXTRA_EMULATOR_HOST)
+                : EmulatorSwitch.DEFAULT_HOST;
+        if (requestedHost != null && requestedHost.isEmpty()) requestedHost = null;
+
+        if (!Objects.equals(requestedHost, EmulatorSwitch.getActiveHost())) {
+            // useEmulator() only works before Firestore's first use: persist and restart
+            EmulatorSwitch.setHost(this, requestedHost);
+            AppLog.w(TAG, "Emulator host set to {}, relaunch to apply", requestedHost);
+            append("Emulator host saved (" + requestedHost + "). The process will exit; launch again.");
+            output.postDelayed(() -> {
+                finishAffinity();
+                Process.killProcess(Process.myPid());
+            }, 1500);
+            return;
+        }
+        if (requestedHost == null) {
+            append("Connected to production: refusing to seed or load it.");
+            return;
+        }
+
+        SyntheticMarketplace.Volumes volumes = readVolumes(intent);
+        int iterations = intent.getIntExtra(EXTRA_ITERATIONS, 200);
+        int concurrency = intent.getIntExtra(EXTRA_CONCURRENCY, 8);
+        boolean skipSeed = intent.getBooleanExtra(EXTRA_SKIP_SEED, false);
+        append("Emulator: " + requestedHost);
+        append("Volumes: " + volumes);
+
+        FirebaseAuth auth = FirebaseAuth.getInstance();
+        FirebaseUser current = auth.getCurrentUser();
+        if (current != null) {
+            run(current.getUid(), volumes, skipSeed, iterations, concurrency);
+        } else {
+            auth.signInAnonymously()
+                    .addOnSuccessListener(this, result ->
+                            run(result.getUser().getUid(), volumes, skipSeed, iterations, concurrency))
+                    .addOnFailureListener(this, e -> append("Anonymous sign-in failed: " + e.getMessage()));
+        }
+    }
+
+    private void run(String uid, SyntheticMarketplace.Volumes volumes, boolean skipSeed,
+                     int iterations, int concurrency) {
+        append("Signed in as " + uid);
+        try {
+            pushStub.start();
+            NotificationSenderService.setEndpoint(pushStub.getUrl());
+        } catch (IOException e) {
+            append("Could not start the push stub, not running: " + e.getMessage());
+            return;
+        }
+        SyntheticMarketplace marketplace = new SyntheticMarketplace(FirebaseFirestore.getInstance(), volumes);
+        if (skipSeed) {
+            drive(marketplace, uid, iterations, concurrency);
+            return;
+        }
+        AppExecutors.get().serial("load-harness").execute(() -> {
+            try {
+                marketplace.seed(uid, (phase, written, total) ->
+                        runOnUiThread(() -> append("Seeding " + phase + ": " + written + "/" + total)));
+                runOnUiThread(() -> drive(marketplace, uid, iterations, concurrency));
+            } catch (Exception e) {
+                AppLog.e(TAG, "Seeding failed", e);
+                runOnUiThread(() -> append("Seeding failed: " + e));
+            }
+        });
+    }
+
+    private void drive(SyntheticMarketplace marketplace, String uid, int iterations, int concurrency) {
+        if (isFinishing()) return;
+        append("Running " + iterations + " iterations per flow, concurrency " + concurrency);
+        new LoadDriver(getApplication(), marketplace, uid, iterations, concurrency)
+                .start(new LoadDriver.ReportListener() {
+                    @Override
+                    public void onFlowFinished(String line) {
+                        append(line);
+                    }
+
+                    @Override
+                    public void onFinished(String report) {
+                        if (isFinishing()) return;
+                        new PushBatchCheck(pushStub).run(line -> {
+                            AppLog.i(TAG, line);
+                            append(line);
+                            append("Done.");
+                        });
+                    }
+                });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        NotificationSenderService.setEndpoint(null);
+        pushStub.stop();
+    }
+
+    private static SyntheticMarketplace.Volumes readVolumes(Intent intent) {
+        SyntheticMarketplace.Volumes volumes = new SyntheticMarketplace.Volumes();
+        volumes.seed = intent.getLongExtra(EXTRA_SEED, volumes.seed);
+        volumes.shops = intent.getIntExtra("shops", volumes.shops);
+        volumes.productsPerShop = intent.getIntExtra("productsPerShop", volumes.productsPerShop);
+        volumes.imagesPerProduct = intent.getIntExtra("imagesPerProduct", volumes.imagesPerProduct);
+        volumes.users = intent.getIntExtra("users", volumes.users);
+        volumes.favoritesPerUser = intent.getIntExtra("favoritesPerUser", volumes.favoritesPerUser);
+        volumes.conversations = intent.getIntExtra("conversations", volumes.conversations);
+        volumes.messagesPerConversation = intent.getIntExtra("messagesPerConversation", volumes.messagesPerConversation);
+        volumes.citiesPerRegion = intent.getIntExtra("citiesPerRegion", volumes.citiesPerRegion);
+        return volumes;
+    }
+
+    private void append(String line) {
+        output.append(line);
+        output.append("\n");
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.soukify.loadtest;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.soukify.services.MessageNotificationCoalescer;
+import com.example.soukify.services.NotificationSenderService;
+
+import org.json.JSONObject;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Push Batch Check - Verifies that a burst of chat messages becomes one push per conversation
+ *
+ * Sends {@link #BURST} messages to one conversation and a single message to another through the
+ * real NotificationSenderService, pointed at a {@link PushStubServer}, then counts what reached the
+ * stub once the coalescing window has passed. Recipients are ids without a user document, so no
+ * preference can suppress the pushes.
+ */
+public class PushBatchCheck {
+    private static final int BURST = 10;
+    // Window plus time for the preference read and the HTTP call
+    private static final long SETTLE_MS = MessageNotificationCoalescer.COALESCE_WINDOW_MS + 5_000;
+
+    private final PushStubServer server;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    public PushBatchCheck(PushStubServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Run the check; {@code onResult} receives one report line on the main thread
+     */
+    public void run(Consumer<String> onResult) {
+        server.clear();
+        NotificationSenderService.setEndpoint(server.getUrl());
+        NotificationSenderService sender = new NotificationSenderService();
+        long run = System.currentTimeMillis();
+        String burstConversation = "conv_push_check_burst_" + run;
+        String singleConversation = "conv_push_check_single_" + run;
+        for (int i = 1; i <= BURST; i++) {
+            sender.sendMessageNotification("push-check-a-" + run, "Client", "Message " + i, burstConversation);
+        }
+        sender.sendMessageNotification("push-check-b-" + run, "Client", "Bonjour", singleConversation);
+
+        handler.postDelayed(() -> {
+            List<JSONObject> requests = server.getRequests();
+            String burstHeading = null;
+            int burstPushes = 0;
+            int singlePushes = 0;
+            for (JSONObject request : requests) {
+                JSONObject data = request.optJSONObject("data");
+                String conversationId = data != null ? data.optString("conversationId") : "";
+                if (burstConversation.equals(conversationId)) {
+                    burstPushes++;
+                    JSONObject headings = request.optJSONObject("headings");
+                    if (headings != null) burstHeading = headings.optString("en");
+                } else if (singleConversation.equals(conversationId)) {
+                    singlePushes++;
+                }
+            }
+            boolean passed = burstPushes == 1 && singlePushes == 1
+                    && burstHeading != null && burstHeading.startsWith(BURST + " new messages");
+            onResult.accept((passed ? "PASS" : "FAIL") + " pushBatching: " + (BURST + 1) + " messages -> "
+                    + requests.size() + " pushes (burst=" + burstPushes + " \"" + burstHeading + "\", single="
+                    + singlePushes + ")");
+        }, SETTLE_MS);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.soukify.loadtest;
+
+import com.example.soukify.utils.log.AppLog;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Push Stub Server - Local stand-in for the OneSignal REST endpoint (debug builds)
+ *
+ * Accepts every POST on the loopback interface, answers 200 and keeps the JSON body, so load runs
+ * never reach real devices and tests can check how many pushes were actually sent. Point
+ * NotificationSenderService at {@link #getUrl()} while it runs.
+ */
+public class PushStubServer {
+    private static final String TAG = "PushStubServer";
+
+    private final List<JSONObject> requests = new ArrayList<>();
+    private ServerSocket socket;
+    private Thread acceptor;
+
+    public synchronized void start() throws IOException {
+        if (socket != null) return;
+        socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::acceptLoop, TAG);
+        acceptor.setDaemon(true);
+        acceptor.start();
+        AppLog.i(TAG, "Listening on {}", getUrl());
+    }
+
+    public synchronized void stop() {
+        if (socket == null) return;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Closing is all we wanted
+        }
+        socket = null;
+        acceptor = null;
+    }
+
+    public synchronized String getUrl() {
+        return "http://127.0.0.1:" + socket.getLocalPort() + "/api/v1/notifications";
+    }
+
+    /**
+     * Bodies of the pushes received so far, oldest first
+     */
+    public synchronized List<JSONObject> getRequests() {
+        return new ArrayList<>(requests);
+    }
+
+    public synchronized void clear() {
+        requests.clear();
+    }
+
+    private void acceptLoop() {
+        ServerSocket server;
+        synchronized (this) {
+            server = socket;
+        }
+        while (server != null && !server.isClosed()) {
+            try (Socket client = server.accept()) {
+                handle(client);
+            } catch (IOException e) {
+                if (!server.isClosed()) AppLog.w(TAG, "Stub request failed", e);
+            }
+        }
+    }
+
+    private void handle(Socket client) throws IOException {
+        InputStream in = new BufferedInputStream(client.getInputStream());
+        int contentLength = 0;
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            String lower = line.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("content-length:")) {
+                contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
+            }
+        }
+        byte[] body = new byte[contentLength];
+        int read = 0;
+        while (read < contentLength) {
+            int n = in.read(body, read, contentLength - read);
+            if (n < 0) break;
+            read += n;
+        }
+        try {
+            JSONObject json = new JSONObject(new String(body, 0, read, StandardCharsets.UTF_8));
+            synchronized (this) {
+                requests.add(json);
+            }
+        } catch (JSONException e) {
+            AppLog.w(TAG, "Ignoring a request without a JSON body", e);
+        }
+
+        byte[] response = "{\"id\":\"stub\"}".getBytes(StandardCharsets.UTF_8);
+        OutputStream out = client.getOutputStream();
+        out.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + response.length
+                + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(response);
+        out.flush();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int c;
+        while ((c = in.read()) >= 0 && c != '\n') {
+            if (c != '\r') line.write(c);
+        }
+        return line.toString(StandardCharsets.US_ASCII.name());
+    }
+}
@@ -0,0 +1,384 @@
+package com.example.soukify.loadtest;
+
+import com.example.soukify.data.models.FavoriteModel;
+import com.example.soukify.data.models.ProductModel;
+import com.example.soukify.data.models.ShopModel;
+import com.example.soukify.utils.log.AppLog;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Synthetic Marketplace - Deterministic generator of production-shaped Firestore data
+ *
+ * Shops, products and favorites are written through the same model classes the app writes, so the
+ * documents have the production field set. Every id and value derives from the seed and the entity
+ * index, so two runs with the same {@link Volumes} produce identical datasets and a shop's products
+ * can be addressed without reading anything back (see {@link #shopId}, {@link #productId}).
+ *
+ * Writes go out in 500-operation batches with a bounded number of batches in flight. Must run on a
+ * background thread; it blocks on the batch commits.
+ */
+public class SyntheticMarketplace {
+    private static final String TAG = "SyntheticMarketplace";
+
+    private static final int BATCH_LIMIT = 500;
+    private static final int BATCHES_IN_FLIGHT = 4;
+    private static final long COMMIT_TIMEOUT_SECONDS = 120;
+
+    private static final String[] REGIONS = {
+            "Tanger-Tétouan-Al Hoceïma", "Oriental", "Fès-Meknès", "Rabat-Salé-Kénitra",
+            "Béni Mellal-Khénifra", "Casablanca-Settat", "Marrakech-Safi", "Drâa-Tafilalet",
+            "Souss-Massa", "Guelmim-Oued Noun", "Laâyoune-Sakia El Hamra", "Dakhla-Oued Ed-Dahab"
+    };
+    private static final String[] CATEGORIES = {
+            "Poterie", "Tapis", "Maroquinerie", "Bijoux", "Textile", "Bois", "Cosmétique", "Épices"
+    };
+    private static final String[] PRODUCT_TYPES = {
+            "Vase", "Tajine", "Tapis berbère", "Sac", "Babouches", "Collier", "Caftan", "Coffret", "Huile d'argan"
+    };
+    private static final String[] WORDS = {
+            "artisanal", "traditionnel", "fait main", "authentique", "berbère", "ancien", "moderne",
+            "coloré", "naturel", "brodé", "gravé", "tissé"
+    };
+
+    private final FirebaseFirestore db;
+    private final Volumes volumes;
+    private final Deque<Task<Void>> inFlight = new ArrayDeque<>();
+    private WriteBatch batch;
+    private int batchOps;
+    private long documentsWritten;
+
+    /**
+     * Dataset size. Counts are per parent entity where the name says so.
+     */
+    public static final class Volumes {
+        public long seed = 42;
+        public int shops = 1_000;
+        public int productsPerShop = 10;
+        public int imagesPerProduct = 3;
+        public int users = 2_000;
+        public int favoritesPerUser = 5;
+        public int conversations = 500;
+        public int messagesPerConversation = 20;
+        public int citiesPerRegion = 8;
+
+        public long totalDocuments() {
+            long products = (long) shops * productsPerShop;
+            return REGIONS.length * (1L + citiesPerRegion) + users + shops + products
+                    + products * imagesPerProduct + (long) users * favoritesPerUser
+                    + conversations * (1L + messagesPerConversation);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "seed=%d shops=%d products/shop=%d images/product=%d users=%d "
+                            + "favorites/user=%d conversations=%d messages/conversation=%d (~%d documents)",
+                    seed, shops, productsPerShop, imagesPerProduct, users, favoritesPerUser,
+                    conversations, messagesPerConversation, totalDocuments());
+        }
+    }
+
+    public interface ProgressListener {
+        void onProgress(String phase, long documentsWritten, long totalDocuments);
+    }
+
+    public SyntheticMarketplace(FirebaseFirestore db, Volumes volumes) {
+        this.db = db;
+        this.volumes = volumes;
+    }
+
+    // ==================== DETERMINISTIC IDS ====================
+
+    public static String shopId(int shop) {
+        return String.format(Locale.US, "shop_%06d", shop);
+    }
+
+    public static String productId(int shop, int product) {
+        return String.format(Locale.US, "product_%06d_%03d", shop, product);
+    }
+
+    public static String userId(int user) {
+        return String.format(Locale.US, "user_%06d", user);
+    }
+
+    public static String regionId(int region) {
+        return String.format(Locale.US, "region_%02d", region);
+    }
+
+    public static String cityId(int region, int city) {
+        return String.format(Locale.US, "city_%02d_%03d", region, city);
+    }
+
+    public static String conversationId(String buyerId, String shopId) {
+        // Same scheme as ChatRepository.getOrCreateConversation
+        return "conv_" + buyerId + "_" + shopId;
+    }
+
+    /**
+     * Owner of a shop. Owners are the first users, one per shop up to the user count.
+     */
+    public String ownerOf(int shop) {
+        return userId(shop % Math.max(1, volumes.users));
+    }
+
+    public Volumes getVolumes() {
+        return volumes;
+    }
+
+    // ==================== SEEDING ====================
+
+    /**
+     * Write the whole dataset. {@code extraFavoritesFor} gets a deterministic favorites set too,
+     * typically the uid the harness is signed in with.
+     */
+    public long seed(String extraFavoritesFor, ProgressListener progress) throws Exception {
+        long total = volumes.totalDocuments();
+        long startedAt = System.currentTimeMillis();
+
+        seedRegions();
+        report(progress, "regions", total);
+        seedUsers();
+        report(progress, "users", total);
+        seedShops(progress, total);
+        seedFavorites(extraFavoritesFor);
+        report(progress, "favorites", total);
+        seedConversations();
+        flush();
+        drain(0);
+        report(progress, "done", total);
+
+        AppLog.i(TAG, "Seeded {} documents in {} ms", documentsWritten, System.currentTimeMillis() - startedAt);
+        return documentsWritten;
+    }
+
+    private void seedRegions() throws Exception {
+        for (int r = 0; r < REGIONS.length; r++) {
+            Map<String, Object> region = new HashMap<>();
+            region.put("name", REGIONS[r]);
+            region.put("name_fr", REGIONS[r]);
+            region.put("name_ar", REGIONS[r]);
+            DocumentReference regionRef = db.collection("regions").document(regionId(r));
+            put(regionRef, region);
+            for (int c = 0; c < volumes.citiesPerRegion; c++) {
+                Map<String, Object> city = new HashMap<>();
+                String name = "Ville " + (r + 1) + "-" + (c + 1);
+                city.put("name", name);
+                city.put("name_fr", name);
+                city.put("name_ar", name);
+                city.put("regionId", regionId(r));
+                put(regionRef.collection("cities").document(cityId(r, c)), city);
+            }
+        }
+    }
+
+    private void seedUsers() throws Exception {
+        Random random = random("users");
+        for (int u = 0; u < volumes.users; u++) {
+            Map<String, Object> user = new HashMap<>();
+            user.put("userId", userId(u));
+            user.put("fullName", "Utilisateur " + u);
+            user.put("email", userId(u) + "@example.test");
+            user.put("phoneNumber", String.format(Locale.US, "06%08d", random.nextInt(100_000_000)));
+            user.put("profileImage", "");
+            user.put("createdAt", baseTime() - random.nextInt(365) * 86_400_000L);
+            Map<String, Object> preferences = new HashMap<>();
+            preferences.put("push", random.nextInt(10) > 0);
+            preferences.put("newProducts", true);
+            preferences.put("shopPromotions", random.nextBoolean());
+            user.put("notificationPreferences", preferences);
+            put(db.collection("users").document(userId(u)), user);
+        }
+    }
+
+    private void seedShops(ProgressListener progress, long total) throws Exception {
+        Random random = random("shops");
+        for (int s = 0; s < volumes.shops; s++) {
+            int region = random.nextInt(REGIONS.length);
+            int city = random.nextInt(Math.max(1, volumes.citiesPerRegion));
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String name = category + " " + WORDS[random.nextInt(WORDS.length)] + " " + s;
+
+            ShopModel shop = new ShopModel(shopId(s), ownerOf(s), name, category,
+                    String.format(Locale.US, "05%08d", random.nextInt(100_000_000)),
+                    "contact" + s + "@example.test", "Rue " + random.nextInt(200), REGIONS[region],
+                    "https://res.cloudinary.com/demo/image/upload/sample.jpg", regionId(region), cityId(region, city));
+            shop.setDescription(sentence(random, 12));
+            shop.setRating(Math.round(random.nextDouble() * 50) / 10.0);
+            shop.setReviews(random.nextInt(300));
+            shop.setHasPromotion(random.nextInt(10) == 0);
+            shop.setHasLivraison(random.nextBoolean());
+            shop.setSearchCount(random.nextInt(5_000));
+            shop.setCreatedAt(baseTime() - random.nextInt(730) * 86_400_000L);
+            ArrayList<String> likedBy = new ArrayList<>();
+            int likes = random.nextInt(Math.min(50, volumes.users) + 1);
+            for (int i = 0; i < likes; i++) likedBy.add(userId(random.nextInt(volumes.users)));
+            shop.setLikedByUserIds(likedBy);
+            shop.setLikesCount(likedBy.size());
+            put(db.collection("shops").document(shopId(s)), shop);
+
+            seedProducts(s, random);
+            if (s % 1_000 == 999) report(progress, "shops", total);
+        }
+    }
+
+    private void seedProducts(int shop, Random random) throws Exception {
+        for (int p = 0; p < volumes.productsPerShop; p++) {
+            String productId = productId(shop, p);
+            List<String> imageIds = new ArrayList<>();
+            for (int i = 0; i < volumes.imagesPerProduct; i++) {
+                String imageId = productId + "_img" + i;
+                imageIds.add(imageId);
+                Map<String, Object> image = new HashMap<>();
+                image.put("imageId", imageId);
+                image.put("productId", productId);
+                image.put("imageUrl", "https://res.cloudinary.com/demo/image/upload/v1/" + imageId + ".jpg");
+                image.put("createdAt", baseTime() + i);
+                put(db.collection("product_images").document(imageId), image);
+            }
+
+            ProductModel product = new ProductModel();
+            product.setProductId(productId);
+            product.setShopId(shopId(shop));
+            product.setName(PRODUCT_TYPES[random.nextInt(PRODUCT_TYPES.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+            product.setDescription(sentence(random, 20));
+            product.setProductType(PRODUCT_TYPES[random.nextInt(PRODUCT_TYPES.length)]);
+            product.setPrice(Math.round(random.nextDouble() * 200_000) / 100.0);
+            product.setCurrency("MAD");
+            product.setBasePrice(product.getPrice());
+            product.setImageIds(imageIds);
+            product.setLikesCount(random.nextInt(100));
+            product.setCreatedAt(baseTime() - random.nextInt(365) * 86_400_000L);
+            put(db.collection("products").document(productId), product);
+        }
+    }
+
+    private void seedFavorites(String extraUser) throws Exception {
+        Random random = random("favorites");
+        for (int u = 0; u < volumes.users; u++) {
+            seedFavoritesFor(userId(u), random);
+        }
+        if (extraUser != null) seedFavoritesFor(extraUser, random("favorites:" + extraUser));
+    }
+
+    private void seedFavoritesFor(String userId, Random random) throws Exception {
+        for (int f = 0; f < volumes.favoritesPerUser; f++) {
+            int shop = random.nextInt(Math.max(1, volumes.shops));
+            boolean product = volumes.productsPerShop > 0 && random.nextBoolean();
+            FavoriteModel favorite = product
+                    ? FavoriteModel.forProduct(userId, productId(shop, random.nextInt(volumes.productsPerShop)))
+                    : FavoriteModel.forShop(userId, shopId(shop));
+            String favoriteId = userId + "_" + favorite.getItemType() + "_" + favorite.getItemId();
+            favorite.setFavoriteId(favoriteId);
+            put(db.collection("favorites").document(favoriteId), favorite);
+        }
+    }
+
+    private void seedConversations() throws Exception {
+        Random random = random("conversations");
+        for (int c = 0; c < volumes.conversations && volumes.shops > 0; c++) {
+            int shop = random.nextInt(volumes.shops);
+            String buyer = userId(random.nextInt(Math.max(1, volumes.users)));
+            String seller = ownerOf(shop);
+            String conversationId = conversationId(buyer, shopId(shop));
+            long time = baseTime() - random.nextInt(30) * 86_400_000L;
+
+            DocumentReference conversationRef = db.collection("Conversation").document(conversationId);
+            Map<String, Object> conversation = new HashMap<>();
+            conversation.put("id", conversationId);
+            conversation.put("buyerId", buyer);
+            conversation.put("buyerName", "Utilisateur " + buyer.substring(5));
+            conversation.put("buyerImage", "");
+            conversation.put("sellerId", seller);
+            conversation.put("shopId", shopId(shop));
+            conversation.put("shopName", "Boutique " + shop);
+            conversation.put("shopImage", "");
+            conversation.put("unreadCountBuyer", random.nextInt(3));
+            conversation.put("unreadCountSeller", random.nextInt(3));
+            conversation.put("createdAt", new Date(time));
+
+            String lastMessage = "";
+            for (int m = 0; m < volumes.messagesPerConversation; m++) {
+                boolean fromBuyer = m % 2 == 0;
+                lastMessage = sentence(random, 8);
+                Map<String, Object> message = new HashMap<>();
+                message.put("conversationId", conversationId);
+                message.put("senderId", fromBuyer ? buyer : seller);
+                message.put("senderName", fromBuyer ? "Acheteur" : "Vendeur");
+                message.put("text", lastMessage);
+                message.put("timestamp", time + m * 60_000L);
+                message.put("isRead", m < volumes.messagesPerConversation - 2);
+                message.put("createdAt", new Date(time + m * 60_000L));
+                put(conversationRef.collection("messages").document(String.format(Locale.US, "msg_%04d", m)), message);
+            }
+            conversation.put("lastMessage", lastMessage);
+            conversation.put("lastMessageTimestamp", time + volumes.messagesPerConversation * 60_000L);
+            put(conversationRef, conversation);
+        }
+    }
+
+    // ==================== BATCHING ====================
+
+    private void put(DocumentReference ref, Object data) throws Exception {
+        if (batch == null) batch = db.batch();
+        batch.set(ref, data);
+        documentsWritten++;
+        if (++batchOps >= BATCH_LIMIT) flush();
+    }
+
+    private void flush() throws Exception {
+        if (batch == null || batchOps == 0) return;
+        inFlight.addLast(batch.commit());
+        batch = null;
+        batchOps = 0;
+        drain(BATCHES_IN_FLIGHT);
+    }
+
+    // Keep at most `limit` commits outstanding so the emulator isn't flooded
+    private void drain(int limit) throws ExecutionException, InterruptedException, TimeoutException {
+        while (inFlight.size() > limit) {
+            Tasks.await(inFlight.removeFirst(), COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    // One stream per entity kind: changing one volume doesn't reshuffle the others
+    private Random random(String stream) {
+        return new Random(volumes.seed * 31 + stream.hashCode());
+    }
+
+    // Fixed epoch so datasets are identical across runs
+    private static long baseTime() {
+        return 1_735_689_600_000L; // 2025-01-01T00:00:00Z
+    }
+
+    private static String sentence(Random random, int maxWords) {
+        int count = 3 + random.nextInt(Math.max(1, maxWords - 2));
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) out.append(' ');
+            out.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return out.toString();
+    }
+
+    private void report(ProgressListener progress, String phase, long total) {
+        if (progress != null) progress.onProgress(phase, documentsWritten, total);
+    }
+}
@@ -36,7 +36,7 @@ public class MainActivity extends AppCompatActivity {
         navController = Navigation.findNavController(this, R.id.nav_host_fragment_activity_main);
         NavigationUI.setupWithNavController(binding.navView, navController);
 
-        // Load user's likes from Firestore on app startup if user is logged in
+        // Pull like changes made on other devices since the last launch if user is logged in
         if (FirebaseAuth.getInstance().getCurrentUser() != null) {
             UserProductPreferencesRepository userPreferences = new UserProductPreferencesRepository(this);
             userPreferences.loadUserLikesFromFirebase(new UserProductPreferencesRepository.OnLikesLoadedListener() {
@@ -3,8 +3,20 @@ package com.example.soukify;
 import android.app.Application;
 import android.util.Log;
 
+import com.example.soukify.data.chat.ChatOutbox;
+import com.example.soukify.data.counters.ImpressionPipeline;
+import com.example.soukify.data.currency.ExchangeRateService;
+import com.example.soukify.data.profiles.UserProfileCache;
+import com.example.soukify.data.remote.FirestoreMeter;
 import com.example.soukify.data.repositories.AuthPreferenceManager;
+import com.example.soukify.data.repositories.ShopDeletionEngine;
+import com.example.soukify.data.trending.TrendingTracker;
+import com.example.soukify.services.MessageNotificationCoalescer;
+import com.example.soukify.ui.debug.FirestoreUsageOverlay;
+import com.example.soukify.ui.debug.ScreenReadBudgets;
 import com.example.soukify.utils.LocaleHelper;
+import com.example.soukify.utils.concurrent.AppExecutors;
+import com.example.soukify.utils.log.AppLog;
 import com.google.firebase.FirebaseApp;
 import com.onesignal.OneSignal;
 import com.onesignal.debug.LogLevel;
@@ -19,9 +31,32 @@ public class SoukifyApplication extends Application {
         super.attachBaseContext(LocaleHelper.onAttach(base));
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level == TRIM_MEMORY_UI_HIDDEN) {
+            // App just went to the background: a good point to record executor lane and Firestore metrics
+            AppExecutors.get().logStats();
+            FirestoreMeter.logSummary();
+            // Don't leave trending events waiting for a process that may be killed
+            TrendingTracker.get().flush();
+            ImpressionPipeline.get().flush();
+            MessageNotificationCoalescer.get().flushAll();
+        }
+    }
+
     @Override
     public void onCreate() {
         super.onCreate();
+
+        // Send the most recent log lines along with crash reports
+        AppLog.installCrashReporting();
+
+        // Attribute Firestore reads to screens; the on-screen counters are for debug builds only
+        if (FirestoreMeter.isEnabled()) {
+            ScreenReadBudgets.install();
+            FirestoreUsageOverlay.install(this, AppLog.DEBUG);
+        }
         
         try {
             // Initialize Firebase with error handling
@@ -29,13 +64,27 @@ public class SoukifyApplication extends Application {
                 FirebaseApp.initializeApp(this);
             }
             Log.d(TAG, "Firebase initialized successfully");
+
+            // Exchange rates for price display and base-currency prices; refreshed in the background
+            ExchangeRateService.init(this);
+            // Names and avatars for chat; follows the signed-in user's own profile
+            UserProfileCache.init();
+            // Durable queue of chat messages; resumes delivering what a killed process left behind
+            ChatOutbox.init(this);
+            // Collects views, likes, favorites and messages into the trending scores
+            TrendingTracker.init(this);
+            // Buffered view and impression counters; replays journals a killed process left behind
+            ImpressionPipeline.init(this);
             
             // Initialize AuthPreferenceManager for persistent like/favorite state
             AuthPreferenceManager.getInstance(this);
             Log.d(TAG, "AuthPreferenceManager initialized successfully");
+
+            // Finish shop deletions that were interrupted by a crash or process death
+            ShopDeletionEngine.getInstance(this).resumePending();
             
             // Active les logs détaillés OneSignal pour le débogage (Utile pour voir ce que fait l'Oppo)
-            OneSignal.getDebug().setLogLevel(LogLevel.VERBOSE);
+            OneSignal.getDebug().setLogLevel(AppLog.DEBUG ? LogLevel.VERBOSE : LogLevel.WARN);
             
             // Initialize OneSignal for push notifications (used for Chat)
             OneSignal.initWithContext(this, "3e5e2256-41bb-473c-ae7b-a2e35cbfad9a");
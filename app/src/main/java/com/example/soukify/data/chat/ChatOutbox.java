@@ -0,0 +1,400 @@
+package com.example.soukify.data.chat;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.soukify.data.models.Message;
+import com.example.soukify.data.profiles.UserProfile;
+import com.example.soukify.data.profiles.UserProfileCache;
+import com.example.soukify.data.remote.FirestoreMeter;
+import com.example.soukify.data.trending.TrendingEvent;
+import com.example.soukify.data.trending.TrendingTracker;
+import com.example.soukify.services.NotificationSenderService;
+import com.example.soukify.utils.concurrent.AppExecutors;
+import com.example.soukify.utils.log.AppLog;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Chat Outbox - Durable, ordered queue of chat messages waiting to reach Firestore
+ *
+ * {@link #enqueue} writes the message to a local file and publishes it as pending before anything
+ * touches the network, so it shows in the conversation at once and survives the app being killed;
+ * the returned task fails instead when the message could not be written down. A single sender then
+ * delivers the signed-in user's messages oldest first, one at a time, so a conversation never
+ * receives messages out of order. Messages queued by another account stay in the file, untouched,
+ * until that account signs in again.
+ *
+ * Each message carries a client id that becomes its Firestore document id. It is delivered by a
+ * transaction that creates the message and updates the conversation summary (last message and
+ * unread counter) together, unless that document already exists. A retry after a lost
+ * acknowledgement, or a replay after process death, therefore never duplicates the message or
+ * double-counts it as unread. Transactions need the network, so an offline send waits in the queue
+ * rather than in Firestore's own write queue. Failures are retried with exponential backoff. A
+ * message whose conversation no longer exists, or that the rules reject, is dropped and reported
+ * through {@link #getDropped}.
+ *
+ * Safe to call from any thread; all file and queue work happens on a serial background lane.
+ */
+public class ChatOutbox {
+    private static final String TAG = "ChatOutbox";
+
+    private static final String COLLECTION_CONVERSATIONS = "Conversation";
+    private static final String COLLECTION_MESSAGES = "messages";
+    private static final String OUTBOX_FILE = "chat_outbox.json";
+
+    private static final long INITIAL_BACKOFF_MS = 2_000;
+    private static final long MAX_BACKOFF_MS = 5 * 60_000;
+
+    private static volatile ChatOutbox instance;
+
+    private final FirebaseFirestore db;
+    private final File file;
+    private final NotificationSenderService notificationSenderService = new NotificationSenderService();
+    private final Executor lane = AppExecutors.get().serial(TAG);
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable scheduledDelivery = this::deliver;
+    private final MutableLiveData<List<Message>> pending = new MutableLiveData<>(Collections.emptyList());
+    private final MutableLiveData<Message> dropped = new MutableLiveData<>();
+
+    // Lane-confined
+    private final List<Message> queue = new ArrayList<>();
+    // Callers waiting for a message to reach Firestore, by message id
+    private final Map<String, TaskCompletionSource<Message>> awaitingDelivery = new HashMap<>();
+    private boolean delivering;
+    private long backoffMs = INITIAL_BACKOFF_MS;
+
+    /**
+     * Outcome of one delivery attempt that reached Firestore
+     */
+    private static final class Delivery {
+        final boolean written;
+        final String buyerId;
+        final String sellerId;
+        final String shopId;
+
+        Delivery(boolean written, String buyerId, String sellerId, String shopId) {
+            this.written = written;
+            this.buyerId = buyerId;
+            this.sellerId = sellerId;
+            this.shopId = shopId;
+        }
+    }
+
+    private ChatOutbox(Context context, FirebaseFirestore db) {
+        this.db = db;
+        this.file = new File(context.getFilesDir(), OUTBOX_FILE);
+    }
+
+    /**
+     * Create the outbox and resume delivering messages left by a previous process; called once from
+     * SoukifyApplication.onCreate
+     */
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new ChatOutbox(context.getApplicationContext(), FirebaseFirestore.getInstance());
+            instance.lane.execute(() -> {
+                instance.load();
+                instance.publish();
+                instance.deliverNext();
+            });
+        }
+    }
+
+    public static ChatOutbox get() {
+        ChatOutbox outbox = instance;
+        if (outbox == null) throw new IllegalStateException("ChatOutbox.init() was not called");
+        return outbox;
+    }
+
+    // ==================== QUEUE ====================
+
+    /**
+     * Queue {@code text} for {@code conversationId} as the signed-in user. The task completes with
+     * the pending message once it is persisted and published through {@link #getPending}, and fails
+     * if it could not be persisted; the message is then not queued at all.
+     */
+    public Task<Message> enqueue(String conversationId, String text) {
+        return enqueue(conversationId, text, null);
+    }
+
+    /**
+     * Like {@link #enqueue}, but the task completes only once Firestore has confirmed the message,
+     * and fails if it could not be persisted or was dropped. Meant for measuring end-to-end send
+     * latency; screens show the message as soon as it is pending.
+     */
+    public Task<Message> enqueueAndAwaitDelivery(String conversationId, String text) {
+        TaskCompletionSource<Message> delivered = new TaskCompletionSource<>();
+        enqueue(conversationId, text, delivered)
+                .addOnFailureListener(lane, delivered::setException);
+        return delivered.getTask();
+    }
+
+    private Task<Message> enqueue(String conversationId, String text, TaskCompletionSource<Message> delivered) {
+        String senderId = FirebaseAuth.getInstance().getUid();
+        if (senderId == null || conversationId == null || text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Cannot queue a message without sender, conversation or text");
+        }
+        Message message = new Message(conversationId, senderId, null, text.trim());
+        message.setId(UUID.randomUUID().toString());
+        message.setPending(true);
+        TaskCompletionSource<Message> queued = new TaskCompletionSource<>();
+        lane.execute(() -> {
+            queue.add(message);
+            try {
+                persist();
+            } catch (IOException | JSONException e) {
+                // Not durable, so not accepted: the caller keeps the text and can try again
+                queue.remove(message);
+                AppLog.w(TAG, "Could not persist outbox", e);
+                queued.setException(e);
+                return;
+            }
+            // Registered before delivery can start, so the outcome can't be missed
+            if (delivered != null) awaitingDelivery.put(message.getId(), delivered);
+            publish();
+            queued.setResult(message);
+            deliverNext();
+        });
+        return queued.getTask();
+    }
+
+    /**
+     * Messages not yet confirmed by Firestore, oldest first, for every conversation
+     */
+    public LiveData<List<Message>> getPending() {
+        return pending;
+    }
+
+    /**
+     * The last message given up on; it was removed from the outbox and never reached the recipient
+     */
+    public LiveData<Message> getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Retry now instead of waiting for the backoff, e.g. when the chat screen comes back
+     */
+    public void retryNow() {
+        handler.removeCallbacks(scheduledDelivery);
+        lane.execute(() -> {
+            backoffMs = INITIAL_BACKOFF_MS;
+            deliverNext();
+        });
+    }
+
+    private void publish() {
+        pending.postValue(Collections.unmodifiableList(new ArrayList<>(queue)));
+    }
+
+    // ==================== DELIVERY ====================
+
+    private void deliver() {
+        lane.execute(this::deliverNext);
+    }
+
+    // Lane only
+    private void deliverNext() {
+        if (delivering) return;
+        Message head = nextOf(FirebaseAuth.getInstance().getUid());
+        if (head == null) return;
+        delivering = true;
+
+        // The sender's own profile is held by the cache, so this costs no read
+        UserProfileCache.get().getProfile(head.getSenderId())
+                .continueWithTask(lane, profile -> write(head, profile.getResult()))
+                .addOnCompleteListener(lane, task -> {
+                    delivering = false;
+                    if (task.isSuccessful()) {
+                        onDelivered(head, task.getResult());
+                        backoffMs = INITIAL_BACKOFF_MS;
+                        deliverNext();
+                    } else if (isPermanent(task.getException())) {
+                        AppLog.e(TAG, "Dropping message {}", head.getId(), task.getException());
+                        remove(head);
+                        dropped.postValue(head);
+                        TaskCompletionSource<Message> awaiting = awaitingDelivery.remove(head.getId());
+                        if (awaiting != null) awaiting.setException(task.getException());
+                        deliverNext();
+                    } else {
+                        AppLog.w(TAG, "Message delivery failed, retrying in " + backoffMs + " ms", task.getException());
+                        handler.postDelayed(scheduledDelivery, backoffMs);
+                        backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+                    }
+                });
+    }
+
+    /**
+     * Oldest message queued by {@code senderId}. Messages of another account wait until it signs in
+     * again (the rules would reject them) without holding up this one's.
+     */
+    private Message nextOf(String senderId) {
+        if (senderId == null) return null;
+        for (Message message : queue) {
+            if (senderId.equals(message.getSenderId())) return message;
+        }
+        return null;
+    }
+
+    private Task<Delivery> write(Message message, UserProfile sender) {
+        DocumentReference conversationRef = db.collection(COLLECTION_CONVERSATIONS).document(message.getConversationId());
+        DocumentReference messageRef = conversationRef.collection(COLLECTION_MESSAGES).document(message.getId());
+        message.setSenderName(sender.getFullName());
+
+        Task<Delivery> task = db.runTransaction(transaction -> {
+            DocumentSnapshot conversation = transaction.get(conversationRef);
+            if (!conversation.exists()) {
+                throw new FirebaseFirestoreException("Conversation " + conversationRef.getId() + " no longer exists",
+                        FirebaseFirestoreException.Code.NOT_FOUND);
+            }
+            String buyerId = conversation.getString("buyerId");
+            Delivery delivery = new Delivery(false, buyerId, conversation.getString("sellerId"),
+                    conversation.getString("shopId"));
+            // Already written by an attempt whose result never arrived
+            if (transaction.get(messageRef).exists()) return delivery;
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("conversationId", message.getConversationId());
+            data.put("senderId", message.getSenderId());
+            data.put("senderName", message.getSenderName());
+            data.put("text", message.getText());
+            // The time it was sent, not delivered, so queued messages keep their place
+            data.put("timestamp", message.getTimestamp());
+            data.put("isRead", false);
+            data.put("createdAt", FieldValue.serverTimestamp());
+            transaction.set(messageRef, data);
+
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("lastMessage", message.getText());
+            summary.put("lastMessageTimestamp", message.getTimestamp());
+            summary.put(message.getSenderId().equals(buyerId) ? "unreadCountSeller" : "unreadCountBuyer",
+                    FieldValue.increment(1));
+            transaction.update(conversationRef, summary);
+            return new Delivery(true, delivery.buyerId, delivery.sellerId, delivery.shopId);
+        });
+        return FirestoreMeter.write("ChatOutbox.deliver", 2, task);
+    }
+
+    // Lane only
+    private void onDelivered(Message message, Delivery delivery) {
+        remove(message);
+        AppLog.d(TAG, "Delivered message {} to {}", message.getId(), message.getConversationId());
+        TaskCompletionSource<Message> awaiting = awaitingDelivery.remove(message.getId());
+        if (awaiting != null) awaiting.setResult(message);
+        if (!delivery.written) return;
+
+        boolean senderIsBuyer = message.getSenderId().equals(delivery.buyerId);
+        if (senderIsBuyer) {
+            // Buyers writing to a shop is the strongest demand signal we have
+            TrendingTracker.get().recordShop(delivery.shopId, TrendingEvent.MESSAGE);
+        }
+        String recipientId = senderIsBuyer ? delivery.sellerId : delivery.buyerId;
+        if (recipientId != null) {
+            notificationSenderService.sendMessageNotification(recipientId, message.getSenderName(),
+                    message.getText(), message.getConversationId());
+        }
+    }
+
+    // Lane only
+    private void remove(Message message) {
+        queue.remove(message);
+        try {
+            persist();
+        } catch (IOException | JSONException e) {
+            // The file still lists the message; replaying it later is harmless, delivery is idempotent
+            AppLog.w(TAG, "Could not persist outbox", e);
+        }
+        publish();
+    }
+
+    private static boolean isPermanent(Exception error) {
+        if (!(error instanceof FirebaseFirestoreException)) return false;
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) error).getCode();
+        return code == FirebaseFirestoreException.Code.NOT_FOUND
+                || code == FirebaseFirestoreException.Code.PERMISSION_DENIED
+                || code == FirebaseFirestoreException.Code.INVALID_ARGUMENT;
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    // Lane only
+    private void load() {
+        if (!file.exists()) return;
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            JSONArray entries = new JSONArray(new String(bytes, 0, read, StandardCharsets.UTF_8));
+            for (int i = 0; i < entries.length(); i++) {
+                JSONObject entry = entries.getJSONObject(i);
+                Message message = new Message(entry.getString("conversationId"), entry.getString("senderId"),
+                        null, entry.getString("text"));
+                message.setId(entry.getString("id"));
+                message.setTimestamp(entry.getLong("timestamp"));
+                message.setPending(true);
+                queue.add(message);
+            }
+            if (!queue.isEmpty()) AppLog.i(TAG, "Resuming {} queued messages", queue.size());
+        } catch (IOException | JSONException e) {
+            AppLog.w(TAG, "Discarding unreadable outbox", e);
+            file.delete();
+        }
+    }
+
+    // Lane only
+    private void persist() throws IOException, JSONException {
+        // Write a temp file and rename, so a crash mid-write leaves the previous queue intact
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            JSONArray entries = new JSONArray();
+            for (Message message : queue) {
+                JSONObject entry = new JSONObject();
+                entry.put("id", message.getId());
+                entry.put("conversationId", message.getConversationId());
+                entry.put("senderId", message.getSenderId());
+                entry.put("text", message.getText());
+                entry.put("timestamp", message.getTimestamp());
+                entries.put(entry);
+            }
+            out.write(entries.toString().getBytes(StandardCharsets.UTF_8));
+            // The message is only shown as sent-pending once it can't be lost
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package com.example.soukify.data.counters;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.soukify.data.remote.FirestoreMeter;
+import com.example.soukify.utils.concurrent.AppExecutors;
+import com.example.soukify.utils.log.AppLog;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Source;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Impression Pipeline - Buffered, exactly-once view and impression counters
+ *
+ * Recording a view or an impression appends one line to a journal file; nothing touches the
+ * network. A flush seals the journal under a new sequence number, coalesces it into one delta per
+ * document and field, and applies the deltas as FieldValue.increment updates in Firestore
+ * transactions that also create a marker document for that sequence. A transaction first checks the
+ * marker, so a sealed journal that is replayed after process death (or after a commit whose result
+ * never arrived) is applied exactly once. Transactions never queue offline, so there is no pending
+ * write that could land later and count twice; an offline flush fails and is retried with
+ * exponential backoff. Counters of documents deleted in the meantime are dropped. A journal the
+ * server rejects outright (rules, malformed data) would fail the same way forever, so it is moved
+ * aside as quarantined and the journals after it go ahead.
+ *
+ * Flushes run five minutes after the first pending event, when the app goes to the background
+ * (SoukifyApplication), and on startup for journals left behind by a previous process. Markers carry
+ * an expireAt timestamp for a Firestore TTL policy on the counter_flushes collection; the rules
+ * allowing their creation are in firestore.rules.
+ *
+ * Safe to call from any thread; all file work happens on a serial background lane.
+ */
+public class ImpressionPipeline {
+    private static final String TAG = "ImpressionPipeline";
+
+    public static final String SHOPS = "shops";
+    public static final String PRODUCTS = "products";
+
+    // Shop views have always been counted in searchCount, which the trend sort fallback reads
+    public static final String FIELD_SHOP_VIEWS = "searchCount";
+    public static final String FIELD_PRODUCT_VIEWS = "viewCount";
+    public static final String FIELD_IMPRESSIONS = "impressionCount";
+
+    private static final String MARKERS_COLLECTION = "counter_flushes";
+    private static final String JOURNAL_DIR = "impression_journal";
+    private static final String ACTIVE_JOURNAL = "active.log";
+    private static final String SEALED_PREFIX = "sealed-";
+    private static final String SEALED_SUFFIX = ".log";
+    private static final String QUARANTINED_PREFIX = "quarantined-";
+    // Kept only to look at; older ones are deleted
+    private static final int MAX_QUARANTINED = 10;
+    private static final String PREFS_NAME = "impression_pipeline";
+    private static final String KEY_INSTALLATION_ID = "installation_id";
+    private static final String KEY_NEXT_SEQUENCE = "next_sequence";
+
+    private static final long FLUSH_DELAY_MS = 5 * 60_000;
+    private static final long INITIAL_RETRY_MS = 30_000;
+    private static final long MAX_RETRY_MS = 30 * 60_000;
+    private static final long MARKER_TTL_MS = 30L * 24 * 60 * 60 * 1000;
+    // Transactions are capped at 500 writes; one of them is the marker
+    private static final int MAX_DOCUMENTS_PER_TRANSACTION = 400;
+
+    private static volatile ImpressionPipeline instance;
+
+    private final FirebaseFirestore firestore;
+    private final File directory;
+    private final SharedPreferences prefs;
+    private final String installationId;
+    private final Executor lane = AppExecutors.get().serial(TAG);
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable scheduledFlush = this::flush;
+    private final Runnable scheduledRetry = () -> lane.execute(this::applySealed);
+
+    // Lane-confined
+    private OutputStream journal;
+    private boolean flushing;
+    private long retryMs = INITIAL_RETRY_MS;
+    // Any thread
+    private volatile boolean flushScheduled;
+
+    private ImpressionPipeline(Context context, FirebaseFirestore firestore) {
+        this.firestore = firestore;
+        this.directory = new File(context.getFilesDir(), JOURNAL_DIR);
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String id = prefs.getString(KEY_INSTALLATION_ID, null);
+        if (id == null) {
+            id = UUID.randomUUID().toString();
+            prefs.edit().putString(KEY_INSTALLATION_ID, id).apply();
+        }
+        this.installationId = id;
+    }
+
+    /**
+     * Create the pipeline and replay journals left by a previous process; called once from
+     * SoukifyApplication.onCreate
+     */
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new ImpressionPipeline(context.getApplicationContext(), FirebaseFirestore.getInstance());
+            instance.lane.execute(instance::recover);
+        }
+    }
+
+    public static ImpressionPipeline get() {
+        ImpressionPipeline pipeline = instance;
+        if (pipeline == null) throw new IllegalStateException("ImpressionPipeline.init() was not called");
+        return pipeline;
+    }
+
+    // ==================== RECORDING ====================
+
+    public void recordShopView(String shopId) {
+        record(SHOPS, shopId, FIELD_SHOP_VIEWS);
+    }
+
+    public void recordShopImpression(String shopId) {
+        record(SHOPS, shopId, FIELD_IMPRESSIONS);
+    }
+
+    public void recordProductView(String productId) {
+        record(PRODUCTS, productId, FIELD_PRODUCT_VIEWS);
+    }
+
+    public void recordProductImpression(String productId) {
+        record(PRODUCTS, productId, FIELD_IMPRESSIONS);
+    }
+
+    private void record(String collection, String documentId, String field) {
+        if (documentId == null || documentId.isEmpty() || documentId.indexOf('\t') >= 0) return;
+        String key = collection + '\t' + documentId + '\t' + field;
+        lane.execute(() -> {
+            try {
+                // The OS keeps the bytes once write() returns, so a killed process loses nothing
+                journal().write((key + '\n').getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                AppLog.w(TAG, "Could not journal {}", key, e);
+            }
+        });
+        if (!flushScheduled) {
+            flushScheduled = true;
+            handler.postDelayed(scheduledFlush, FLUSH_DELAY_MS);
+        }
+    }
+
+    // ==================== FLUSHING ====================
+
+    /**
+     * Seal the active journal and apply every sealed journal. Returns immediately.
+     */
+    public void flush() {
+        handler.removeCallbacks(scheduledFlush);
+        flushScheduled = false;
+        lane.execute(() -> {
+            seal();
+            applySealed();
+        });
+    }
+
+    private void recover() {
+        File[] sealed = sealedJournals();
+        File active = new File(directory, ACTIVE_JOURNAL);
+        if (sealed.length > 0 || active.length() > 0) {
+            AppLog.i(TAG, "Replaying {} sealed journals", sealed.length);
+            seal();
+            applySealed();
+        }
+    }
+
+    // Lane only
+    private void seal() {
+        File active = new File(directory, ACTIVE_JOURNAL);
+        closeJournal();
+        if (active.length() == 0) return;
+
+        long sequence = prefs.getLong(KEY_NEXT_SEQUENCE, 1);
+        // Persist first: a sequence must never be reused, skipping one is harmless
+        prefs.edit().putLong(KEY_NEXT_SEQUENCE, sequence + 1).commit();
+        File sealed = new File(directory, SEALED_PREFIX + sequence + SEALED_SUFFIX);
+        if (!active.renameTo(sealed)) {
+            AppLog.e(TAG, "Could not seal {}", active);
+        }
+    }
+
+    // Lane only. Applies sealed journals one at a time, oldest first. Always works from the file, so a
+    // replay splits it into exactly the same chunks and markers as the first attempt.
+    private void applySealed() {
+        if (flushing) return;
+        File[] sealed = sealedJournals();
+        if (sealed.length == 0) return;
+        flushing = true;
+
+        File journalFile = sealed[0];
+        long sequence = sequenceOf(journalFile);
+        Map<String, Long> deltas = readJournal(journalFile);
+        List<Task<Boolean>> chunks = new ArrayList<>();
+        List<List<Map.Entry<String, Long>>> parts = partition(deltas);
+        for (int i = 0; i < parts.size(); i++) {
+            chunks.add(applyChunk(installationId + "_" + sequence + "_" + i, parts.get(i)));
+        }
+
+        Tasks.whenAllComplete(chunks).addOnCompleteListener(lane, done -> {
+            flushing = false;
+            Exception rejected = null;
+            for (Task<Boolean> chunk : chunks) {
+                if (chunk.isSuccessful()) continue;
+                if (!isPermanent(chunk.getException())) {
+                    // Chunks that did apply are skipped on the retry through their markers
+                    AppLog.w(TAG, "Flush {} failed, will retry", sequence, chunk.getException());
+                    handler.removeCallbacks(scheduledRetry);
+                    handler.postDelayed(scheduledRetry, retryMs);
+                    retryMs = Math.min(retryMs * 2, MAX_RETRY_MS);
+                    return;
+                }
+                rejected = chunk.getException();
+            }
+            retryMs = INITIAL_RETRY_MS;
+            if (rejected != null) {
+                AppLog.e(TAG, "Flush {} rejected, quarantining it", sequence, rejected);
+                quarantine(journalFile, sequence);
+            } else {
+                if (!journalFile.delete()) AppLog.w(TAG, "Could not delete {}", journalFile);
+                AppLog.d(TAG, "Flushed journal {} ({} counters)", sequence, deltas.size());
+            }
+            applySealed();
+        });
+    }
+
+    /**
+     * Errors a retry can't fix: the same journal would be rejected the same way every time
+     */
+    static boolean isPermanent(Exception error) {
+        if (!(error instanceof FirebaseFirestoreException)) return false;
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) error).getCode();
+        return code == FirebaseFirestoreException.Code.PERMISSION_DENIED
+                || code == FirebaseFirestoreException.Code.INVALID_ARGUMENT;
+    }
+
+    /**
+     * Apply one chunk of deltas together with its marker, unless the marker already exists.
+     * Resolves to true when the deltas were written by this call.
+     */
+    private Task<Boolean> applyChunk(String markerId, List<Map.Entry<String, Long>> entries) {
+        DocumentReference marker = firestore.collection(MARKERS_COLLECTION).document(markerId);
+        // Group per document so each gets a single update with all its fields
+        Map<DocumentReference, Map<String, Object>> updates = new HashMap<>();
+        for (Map.Entry<String, Long> entry : entries) {
+            String[] parts = entry.getKey().split("\t", 3);
+            DocumentReference document = firestore.collection(parts[0]).document(parts[1]);
+            Map<String, Object> fields = updates.get(document);
+            if (fields == null) {
+                fields = new HashMap<>();
+                updates.put(document, fields);
+            }
+            fields.put(parts[2], FieldValue.increment(entry.getValue()));
+        }
+
+        return runChunk(marker, updates).continueWithTask(lane, task -> {
+            Exception error = task.getException();
+            if (!(error instanceof FirebaseFirestoreException)
+                    || ((FirebaseFirestoreException) error).getCode() != FirebaseFirestoreException.Code.NOT_FOUND) {
+                return task;
+            }
+            // A counted shop or product was deleted since. Nothing was applied, so retrying the same
+            // marker with only the documents that still exist is safe.
+            return dropMissing(updates).continueWithTask(lane, remaining -> runChunk(marker, remaining.getResult()));
+        });
+    }
+
+    private Task<Boolean> runChunk(DocumentReference marker, Map<DocumentReference, Map<String, Object>> updates) {
+        Task<Boolean> task = firestore.runTransaction(transaction -> {
+            if (transaction.get(marker).exists()) return false;
+            for (Map.Entry<DocumentReference, Map<String, Object>> update : updates.entrySet()) {
+                transaction.update(update.getKey(), update.getValue());
+            }
+            Map<String, Object> markerData = new HashMap<>();
+            markerData.put("installationId", installationId);
+            markerData.put("documents", updates.size());
+            markerData.put("appliedAt", FieldValue.serverTimestamp());
+            markerData.put("expireAt", new Date(System.currentTimeMillis() + MARKER_TTL_MS));
+            transaction.set(marker, markerData);
+            return true;
+        });
+        return FirestoreMeter.write("ImpressionPipeline.flush", updates.size() + 1, task);
+    }
+
+    private Task<Map<DocumentReference, Map<String, Object>>> dropMissing(
+            Map<DocumentReference, Map<String, Object>> updates) {
+        List<DocumentReference> documents = new ArrayList<>(updates.keySet());
+        List<Task<DocumentSnapshot>> reads = new ArrayList<>();
+        for (DocumentReference document : documents) {
+            reads.add(FirestoreMeter.read("ImpressionPipeline.exists", document.get(Source.SERVER)));
+        }
+        return Tasks.whenAllSuccess(reads).continueWith(lane, task -> {
+            Map<DocumentReference, Map<String, Object>> remaining = new HashMap<>();
+            List<Object> snapshots = task.getResult();
+            for (int i = 0; i < documents.size(); i++) {
+                if (((DocumentSnapshot) snapshots.get(i)).exists()) {
+                    remaining.put(documents.get(i), updates.get(documents.get(i)));
+                } else {
+                    AppLog.d(TAG, "Dropping counters of deleted {}", documents.get(i).getPath());
+                }
+            }
+            return remaining;
+        });
+    }
+
+    // ==================== JOURNAL FILES ====================
+
+    private OutputStream journal() throws IOException {
+        if (journal == null) {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            journal = new FileOutputStream(new File(directory, ACTIVE_JOURNAL), true);
+        }
+        return journal;
+    }
+
+    private void closeJournal() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException ignored) {
+            // Everything written is already in the file
+        }
+        journal = null;
+    }
+
+    // Lane only. Moves a rejected journal out of the way of the ones after it.
+    private void quarantine(File journalFile, long sequence) {
+        File quarantined = new File(directory, QUARANTINED_PREFIX + sequence + SEALED_SUFFIX);
+        if (!journalFile.renameTo(quarantined) && !journalFile.delete()) {
+            AppLog.e(TAG, "Could not quarantine {}", journalFile);
+            return;
+        }
+        File[] all = directory.listFiles((dir, name) -> name.startsWith(QUARANTINED_PREFIX));
+        if (all == null || all.length <= MAX_QUARANTINED) return;
+        Arrays.sort(all, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < all.length - MAX_QUARANTINED; i++) {
+            if (!all[i].delete()) AppLog.w(TAG, "Could not delete {}", all[i]);
+        }
+    }
+
+    private File[] sealedJournals() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEALED_PREFIX) && name.endsWith(SEALED_SUFFIX));
+        if (files == null) return new File[0];
+        Arrays.sort(files, (a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)));
+        return files;
+    }
+
+    private static long sequenceOf(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(SEALED_PREFIX.length(), name.length() - SEALED_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Coalesce a journal into per-counter deltas. A line cut short by process death has no newline
+     * and is ignored, as are lines that don't name a known counter.
+     */
+    static Map<String, Long> readJournal(File file) {
+        Map<String, Long> deltas = new TreeMap<>();
+        byte[] bytes;
+        try (InputStream in = new FileInputStream(file)) {
+            bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+        } catch (IOException e) {
+            AppLog.e(TAG, "Could not read journal {}", file, e);
+            return deltas;
+        }
+        String content = new String(bytes, StandardCharsets.UTF_8);
+        int start = 0;
+        int end;
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            String line = content.substring(start, end);
+            start = end + 1;
+            if (isValid(line)) deltas.merge(line, 1L, Long::sum);
+        }
+        return deltas;
+    }
+
+    private static boolean isValid(String key) {
+        String[] parts = key.split("\t", -1);
+        if (parts.length != 3 || parts[1].isEmpty()) return false;
+        if (SHOPS.equals(parts[0])) {
+            return FIELD_SHOP_VIEWS.equals(parts[2]) || FIELD_IMPRESSIONS.equals(parts[2]);
+        }
+        if (PRODUCTS.equals(parts[0])) {
+            return FIELD_PRODUCT_VIEWS.equals(parts[2]) || FIELD_IMPRESSIONS.equals(parts[2]);
+        }
+        return false;
+    }
+
+    // Deterministic split (sorted keys, fixed documents per chunk) so a replay reuses the same markers
+    private static List<List<Map.Entry<String, Long>>> partition(Map<String, Long> deltas) {
+        List<Map.Entry<String, Long>> sorted = new ArrayList<>(new TreeMap<>(deltas).entrySet());
+        List<List<Map.Entry<String, Long>>> parts = new ArrayList<>();
+        List<Map.Entry<String, Long>> current = new ArrayList<>();
+        String currentDocument = null;
+        int documents = 0;
+        for (Map.Entry<String, Long> entry : sorted) {
+            String document = entry.getKey().substring(0, entry.getKey().lastIndexOf('\t'));
+            if (!document.equals(currentDocument)) {
+                if (documents == MAX_DOCUMENTS_PER_TRANSACTION) {
+                    parts.add(current);
+                    current = new ArrayList<>();
+                    documents = 0;
+                }
+                currentDocument = document;
+                documents++;
+            }
+            current.add(entry);
+        }
+        if (!current.isEmpty()) parts.add(current);
+        return parts.isEmpty() ? Collections.emptyList() : parts;
+    }
+}
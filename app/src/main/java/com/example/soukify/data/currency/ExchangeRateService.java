@@ -0,0 +1,160 @@
+package com.example.soukify.data.currency;
+
+import android.content.Context;
+
+import com.example.soukify.utils.concurrent.AppExecutors;
+import com.example.soukify.utils.log.AppLog;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+
+/**
+ * Exchange Rate Service - Current exchange rates, persisted locally and refreshed in the background
+ *
+ * Conversions read an in-memory {@link RateTable} and never block. At startup the table persisted
+ * by the last refresh is loaded (the bundled table is used until then, or if nothing was persisted),
+ * and a refresh from the {@link RateSource} runs when that table is older than
+ * {@link #REFRESH_INTERVAL_MS}. A fetched table is never adopted over a newer version, and is written to
+ * disk before it is published.
+ *
+ * Safe to call from any thread.
+ */
+public class ExchangeRateService {
+    private static final String TAG = "ExchangeRateService";
+
+    private static final String RATES_FILE = "exchange_rates.json";
+    public static final long REFRESH_INTERVAL_MS = 12 * 60 * 60 * 1000L;
+
+    private static volatile ExchangeRateService instance;
+
+    private final File file;
+    private final Executor lane = AppExecutors.get().serial(TAG);
+    private volatile RateSource source;
+    private volatile RateTable table = RateTable.BUNDLED;
+    // Lane-confined
+    private boolean refreshing;
+
+    private ExchangeRateService(Context context, RateSource source) {
+        this.file = new File(context.getFilesDir(), RATES_FILE);
+        this.source = source;
+    }
+
+    /**
+     * Create the service, load the persisted table and refresh it if stale; called once from
+     * SoukifyApplication.onCreate
+     */
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new ExchangeRateService(context.getApplicationContext(),
+                    new FirestoreRateSource(FirebaseFirestore.getInstance()));
+            instance.lane.execute(() -> {
+                instance.load();
+                instance.refreshIfStale();
+            });
+        }
+    }
+
+    public static ExchangeRateService get() {
+        ExchangeRateService service = instance;
+        if (service == null) throw new IllegalStateException("ExchangeRateService.init() was not called");
+        return service;
+    }
+
+    public RateTable getTable() {
+        return table;
+    }
+
+    public double convert(double amount, String from, String to) {
+        return table.convert(amount, from, to);
+    }
+
+    public double toBase(double amount, String from) {
+        return table.toBase(amount, from);
+    }
+
+    /**
+     * Replace where rates come from, e.g. with a fixed table in debug builds
+     */
+    public void setSource(RateSource source) {
+        this.source = source;
+    }
+
+    // ==================== REFRESH ====================
+
+    public void refreshIfStale() {
+        lane.execute(() -> {
+            if (System.currentTimeMillis() - table.getFetchedAt() >= REFRESH_INTERVAL_MS) {
+                refresh();
+            }
+        });
+    }
+
+    public void refresh() {
+        lane.execute(() -> {
+            if (refreshing) return;
+            refreshing = true;
+            source.fetch().addOnCompleteListener(lane, task -> {
+                refreshing = false;
+                if (!task.isSuccessful()) {
+                    AppLog.w(TAG, "Rate refresh failed, keeping the current table", task.getException());
+                    return;
+                }
+                RateTable fetched = task.getResult();
+                if (fetched.getVersion() < table.getVersion()) {
+                    AppLog.w(TAG, "Ignoring rates version {} older than {}", fetched.getVersion(), table.getVersion());
+                    return;
+                }
+                // Same version is re-adopted too, so its fetch time moves forward and it isn't refetched on every start
+                persist(fetched);
+                table = fetched;
+                AppLog.i(TAG, "Rates at version {}", fetched.getVersion());
+            });
+        });
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    private void load() {
+        if (!file.exists()) return;
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            RateTable persisted = RateTable.fromJson(new JSONObject(new String(bytes, 0, read, StandardCharsets.UTF_8)));
+            if (persisted.getVersion() > table.getVersion()) {
+                table = persisted;
+            }
+        } catch (IOException | JSONException e) {
+            AppLog.w(TAG, "Discarding unreadable rate table", e);
+            file.delete();
+        }
+    }
+
+    private void persist(RateTable rates) {
+        // Write a temp file and rename, so a crash mid-write leaves the previous table intact
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            out.write(rates.toJson().toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | JSONException e) {
+            AppLog.w(TAG, "Could not persist rate table", e);
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            AppLog.w(TAG, "Could not replace {}", file);
+        }
+    }
+}
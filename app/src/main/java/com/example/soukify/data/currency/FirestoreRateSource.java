@@ -0,0 +1,47 @@
+package com.example.soukify.data.currency;
+
+import com.example.soukify.data.remote.FirestoreMeter;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Firestore Rate Source - Reads the rate table from config/exchange_rates
+ *
+ * The document holds {version: number, rates: {"USD": 0.10, ...}} with rates per one MAD. Whoever
+ * publishes new rates bumps the version.
+ */
+public class FirestoreRateSource implements RateSource {
+    private static final String CONFIG_COLLECTION = "config";
+    private static final String RATES_DOCUMENT = "exchange_rates";
+
+    private final FirebaseFirestore firestore;
+
+    public FirestoreRateSource(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+    }
+
+    @Override
+    public Task<RateTable> fetch() {
+        return FirestoreMeter.read("FirestoreRateSource.fetch",
+                firestore.collection(CONFIG_COLLECTION).document(RATES_DOCUMENT).get())
+                .continueWith(task -> {
+                    DocumentSnapshot document = task.getResult();
+                    Object values = document.get("rates");
+                    Long version = document.getLong("version");
+                    if (!(values instanceof Map) || version == null) {
+                        throw new IllegalStateException("No exchange rates published");
+                    }
+                    Map<String, Double> rates = new HashMap<>();
+                    for (Map.Entry<?, ?> rate : ((Map<?, ?>) values).entrySet()) {
+                        if (rate.getValue() instanceof Number) {
+                            rates.put(String.valueOf(rate.getKey()), ((Number) rate.getValue()).doubleValue());
+                        }
+                    }
+                    return new RateTable(version, System.currentTimeMillis(), rates);
+                });
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.soukify.data.currency;
+
+import com.google.android.gms.tasks.Task;
+
+/**
+ * Rate Source - Where {@link ExchangeRateService} fetches fresh rate tables from
+ */
+public interface RateSource {
+
+    /**
+     * Fetch the latest table; fail the task when no table is available
+     */
+    Task<RateTable> fetch();
+}
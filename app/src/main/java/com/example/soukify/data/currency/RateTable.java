@@ -0,0 +1,106 @@
+package com.example.soukify.data.currency;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rate Table - One immutable, versioned set of exchange rates
+ *
+ * Rates are units of a currency per one unit of {@link #BASE_CURRENCY}. A table is never replaced by
+ * one with a lower version, so an old cached answer can never roll rates back.
+ */
+public final class RateTable {
+    public static final String BASE_CURRENCY = "MAD";
+
+    /**
+     * Shipped with the app; used until a refresh succeeds and when nothing has been persisted yet
+     */
+    public static final RateTable BUNDLED;
+
+    static {
+        Map<String, Double> rates = new HashMap<>();
+        rates.put("MAD", 1.0);
+        rates.put("USD", 0.10);  // 1 MAD = 0.10 USD
+        rates.put("EUR", 0.092); // 1 MAD = 0.092 EUR
+        BUNDLED = new RateTable(0, 0, rates);
+    }
+
+    private final long version;
+    private final long fetchedAt;
+    private final Map<String, Double> rates;
+
+    public RateTable(long version, long fetchedAt, Map<String, Double> rates) {
+        this.version = version;
+        this.fetchedAt = fetchedAt;
+        Map<String, Double> normalized = new HashMap<>();
+        for (Map.Entry<String, Double> rate : rates.entrySet()) {
+            if (rate.getKey() != null && rate.getValue() != null && rate.getValue() > 0) {
+                normalized.put(rate.getKey().toUpperCase(Locale.ROOT), rate.getValue());
+            }
+        }
+        normalized.put(BASE_CURRENCY, 1.0);
+        this.rates = Collections.unmodifiableMap(normalized);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public Map<String, Double> getRates() {
+        return rates;
+    }
+
+    public boolean supports(String currency) {
+        return currency != null && rates.containsKey(currency.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Convert between currencies through the base; an unknown currency leaves the amount unchanged
+     */
+    public double convert(double amount, String from, String to) {
+        if (from == null || to == null || from.equalsIgnoreCase(to)) return amount;
+        Double fromRate = rates.get(from.toUpperCase(Locale.ROOT));
+        Double toRate = rates.get(to.toUpperCase(Locale.ROOT));
+        if (fromRate == null || toRate == null) return amount;
+        return amount / fromRate * toRate;
+    }
+
+    public double toBase(double amount, String from) {
+        return convert(amount, from, BASE_CURRENCY);
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("version", version);
+        json.put("fetchedAt", fetchedAt);
+        JSONObject values = new JSONObject();
+        for (Map.Entry<String, Double> rate : rates.entrySet()) {
+            values.put(rate.getKey(), rate.getValue());
+        }
+        json.put("rates", values);
+        return json;
+    }
+
+    static RateTable fromJson(JSONObject json) throws JSONException {
+        Map<String, Double> rates = new HashMap<>();
+        JSONObject values = json.getJSONObject("rates");
+        Iterator<String> keys = values.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            rates.put(key, values.getDouble(key));
+        }
+        return new RateTable(json.getLong("version"), json.optLong("fetchedAt"), rates);
+    }
+}
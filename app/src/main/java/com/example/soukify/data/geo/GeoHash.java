@@ -0,0 +1,116 @@
+package com.example.soukify.data.geo;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * GeoHash - Base-32 geohash encoding and bounding-box cover
+ *
+ * A geohash names a lat/lon cell; each extra character splits the cell into 32, and every point
+ * of a cell has that cell's hash as prefix. Stored on shops, it turns "shops in this area" into a
+ * few Firestore range queries on one field, one per covering cell.
+ */
+public final class GeoHash {
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    public static final int MAX_PRECISION = 12;
+
+    private GeoHash() {}
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int value = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    value = value * 2 + 1;
+                    minLon = mid;
+                } else {
+                    value = value * 2;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    value = value * 2 + 1;
+                    minLat = mid;
+                } else {
+                    value = value * 2;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(value));
+                bit = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Cells of the longest precision whose cover of the box has at most {@code maxCells} cells,
+     * capped at {@code maxPrecision}. Every point of the box falls in one of the returned cells.
+     */
+    public static Set<String> cover(double north, double east, double south, double west,
+                                    int maxCells, int maxPrecision) {
+        int precision = 1;
+        while (precision < maxPrecision && cellCount(north, east, south, west, precision + 1) <= maxCells) {
+            precision++;
+        }
+        return cover(north, east, south, west, precision);
+    }
+
+    /**
+     * Every cell of {@code precision} that intersects the box, west to east and south to north
+     */
+    public static Set<String> cover(double north, double east, double south, double west, int precision) {
+        double cellWidth = cellWidth(precision);
+        double cellHeight = cellHeight(precision);
+        long firstColumn = column(west, cellWidth);
+        long lastColumn = column(east, cellWidth);
+        long firstRow = row(south, cellHeight);
+        long lastRow = row(north, cellHeight);
+
+        Set<String> cells = new LinkedHashSet<>();
+        for (long r = firstRow; r <= lastRow; r++) {
+            double latitude = -90 + (r + 0.5) * cellHeight;
+            for (long c = firstColumn; c <= lastColumn; c++) {
+                cells.add(encode(latitude, -180 + (c + 0.5) * cellWidth, precision));
+            }
+        }
+        return cells;
+    }
+
+    static long cellCount(double north, double east, double south, double west, int precision) {
+        double cellWidth = cellWidth(precision);
+        double cellHeight = cellHeight(precision);
+        return (column(east, cellWidth) - column(west, cellWidth) + 1)
+                * (row(north, cellHeight) - row(south, cellHeight) + 1);
+    }
+
+    // Longitude gets the extra bit when the precision's bit count is odd
+    private static double cellWidth(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+
+    private static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    private static long column(double longitude, double cellWidth) {
+        long last = Math.round(360.0 / cellWidth) - 1;
+        return Math.max(0, Math.min(last, (long) Math.floor((longitude + 180) / cellWidth)));
+    }
+
+    private static long row(double latitude, double cellHeight) {
+        long last = Math.round(180.0 / cellHeight) - 1;
+        return Math.max(0, Math.min(last, (long) Math.floor((latitude + 90) / cellHeight)));
+    }
+}
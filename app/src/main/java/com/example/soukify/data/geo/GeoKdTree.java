@@ -0,0 +1,83 @@
+package com.example.soukify.data.geo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * GeoKdTree - Static 2-d tree over GeoPlace entries for nearest-neighbour lookups
+ * Points are projected with an equirectangular approximation around a reference latitude,
+ * which is accurate enough at country scale and keeps the inner loop to plain arithmetic.
+ */
+public final class GeoKdTree {
+
+    private final GeoPlace[] places;
+    private final double[] xs;
+    private final double[] ys;
+    private final double cosRefLat;
+
+    public GeoKdTree(List<GeoPlace> input, double referenceLatitude) {
+        this.cosRefLat = Math.cos(Math.toRadians(referenceLatitude));
+        this.places = input.toArray(new GeoPlace[0]);
+        this.xs = new double[places.length];
+        this.ys = new double[places.length];
+        build(0, places.length, 0);
+        for (int i = 0; i < places.length; i++) {
+            xs[i] = projectX(places[i].getLongitude());
+            ys[i] = places[i].getLatitude();
+        }
+    }
+
+    public int size() {
+        return places.length;
+    }
+
+    /**
+     * Nearest place to the given point, or null when the tree is empty
+     */
+    public GeoPlace nearest(double latitude, double longitude) {
+        if (places.length == 0) return null;
+        double[] best = {Double.MAX_VALUE};
+        int[] bestIndex = {-1};
+        search(0, places.length, 0, projectX(longitude), latitude, best, bestIndex);
+        return places[bestIndex[0]];
+    }
+
+    private double projectX(double longitude) {
+        return longitude * cosRefLat;
+    }
+
+    // Median-split build; the median of each range becomes the node at its middle index
+    private void build(int from, int to, int depth) {
+        if (to - from <= 1) return;
+        final boolean byX = (depth & 1) == 0;
+        Arrays.sort(places, from, to, byX
+                ? Comparator.comparingDouble((GeoPlace p) -> p.getLongitude())
+                : Comparator.comparingDouble((GeoPlace p) -> p.getLatitude()));
+        int mid = (from + to) >>> 1;
+        build(from, mid, depth + 1);
+        build(mid + 1, to, depth + 1);
+    }
+
+    private void search(int from, int to, int depth, double qx, double qy, double[] best, int[] bestIndex) {
+        if (from >= to) return;
+        int mid = (from + to) >>> 1;
+
+        double dx = xs[mid] - qx;
+        double dy = ys[mid] - qy;
+        double d = dx * dx + dy * dy;
+        if (d < best[0]) {
+            best[0] = d;
+            bestIndex[0] = mid;
+        }
+
+        double diff = (depth & 1) == 0 ? qx - xs[mid] : qy - ys[mid];
+        if (diff < 0) {
+            search(from, mid, depth + 1, qx, qy, best, bestIndex);
+            if (diff * diff < best[0]) search(mid + 1, to, depth + 1, qx, qy, best, bestIndex);
+        } else {
+            search(mid + 1, to, depth + 1, qx, qy, best, bestIndex);
+            if (diff * diff < best[0]) search(from, mid, depth + 1, qx, qy, best, bestIndex);
+        }
+    }
+}
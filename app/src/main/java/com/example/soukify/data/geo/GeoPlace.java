@@ -0,0 +1,40 @@
+package com.example.soukify.data.geo;
+
+/**
+ * GeoPlace - Immutable gazetteer entry (city + region + coordinates)
+ * Names match the city/region names used by LocationRepository and stored on shops
+ */
+public final class GeoPlace {
+    private final String cityName;
+    private final String regionName;
+    private final double latitude;
+    private final double longitude;
+
+    public GeoPlace(String cityName, String regionName, double latitude, double longitude) {
+        this.cityName = cityName;
+        this.regionName = regionName;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    @Override
+    public String toString() {
+        return cityName + " (" + regionName + ")";
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.soukify.data.geo;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import com.example.soukify.utils.concurrent.AppExecutors;
+
+import org.osmdroid.config.Configuration;
+import org.osmdroid.config.IConfigurationProvider;
+import org.osmdroid.tileprovider.MapTileProviderBase;
+import org.osmdroid.tileprovider.cachemanager.CacheManager;
+import org.osmdroid.tileprovider.modules.TileSourcePolicyException;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+import org.osmdroid.util.BoundingBox;
+import org.osmdroid.views.MapView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Map Tile Cache - osmdroid cache configuration, bundled offline tile packs and area prefetch
+ *
+ * Tile packs are MBTiles files shipped under assets/tiles/. They are copied once into the osmdroid
+ * base directory, where the default tile provider picks archives up before falling back to the
+ * disk cache and the network. Packs must be rendered from OpenStreetMap data (e.g. a Geofabrik
+ * extract) for {@link #moroccoBounds()}, zooms 5-10 keeping a country pack small; they cannot be
+ * scraped from tile.openstreetmap.org, whose usage policy forbids bulk downloading.
+ *
+ * For the same reason, area prefetch only runs against tile sources whose policy accepts bulk
+ * downloads. With the default MAPNIK source it does nothing and tiles are cached as they are viewed.
+ */
+public class MapTileCache {
+    private static final String TAG = "MapTileCache";
+
+    private static final String PREFS_NAME = "map_tile_prefs";
+    private static final String KEY_CACHE_BUDGET_MB = "tile_cache_budget_mb";
+    private static final String KEY_COUNTRY_SEEDED = "country_low_zoom_seeded";
+    private static final String ASSET_TILES_DIR = "tiles";
+    private static final String INSTALL_KEY = "map-tile-install";
+
+    public static final int DEFAULT_CACHE_BUDGET_MB = 150;
+    public static final int MIN_CACHE_BUDGET_MB = 20;
+
+    // Morocco bounding box (approximate), also the map's scroll limits
+    private static final double MOROCCO_NORTH = 36.0;
+    private static final double MOROCCO_SOUTH = 21.0;
+    private static final double MOROCCO_WEST = -17.5;
+    private static final double MOROCCO_EAST = -1.0;
+
+    // Country-wide seed covers the zooms the home map opens at
+    private static final int COUNTRY_MIN_ZOOM = 5;
+    private static final int COUNTRY_MAX_ZOOM = 8;
+
+    // City prefetch: roughly a 30 km square at street-level zooms
+    private static final double CITY_HALF_SPAN_DEGREES = 0.15;
+    private static final int CITY_MIN_ZOOM = 10;
+    private static final int CITY_MAX_ZOOM = 14;
+
+    private static volatile boolean configured;
+
+    private MapTileCache() {}
+
+    /**
+     * Apply cache locations and budgets. Must run before the first MapView is created.
+     */
+    public static synchronized void configure(Context context) {
+        if (configured) return;
+        Context appContext = context.getApplicationContext();
+        IConfigurationProvider config = Configuration.getInstance();
+        config.load(appContext, appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE));
+        config.setUserAgentValue(appContext.getPackageName());
+
+        // Keep tiles in app-private storage so no storage permission is needed
+        File basePath = new File(appContext.getFilesDir(), "osmdroid");
+        File tileCache = new File(appContext.getCacheDir(), "osmdroid_tiles");
+        config.setOsmdroidBasePath(basePath);
+        config.setOsmdroidTileCache(tileCache);
+
+        long budgetBytes = getCacheBudgetMb(appContext) * 1024L * 1024L;
+        config.setTileFileSystemCacheMaxBytes(budgetBytes);
+        config.setTileFileSystemCacheTrimBytes(budgetBytes * 8 / 10);
+
+        // Larger in-memory cache and more parallel fetches for smoother panning
+        config.setCacheMapTileCount((short) 48);
+        config.setTileDownloadThreads((short) 4);
+        config.setTileFileSystemThreads((short) 4);
+
+        // Map tiles rarely change: keep cached tiles valid for a month
+        config.setExpirationExtendedDuration(30L * 24 * 60 * 60 * 1000);
+        configured = true;
+    }
+
+    /**
+     * Bounding box of Morocco; a new instance per call since BoundingBox is mutable
+     */
+    public static BoundingBox moroccoBounds() {
+        return new BoundingBox(MOROCCO_NORTH, MOROCCO_EAST, MOROCCO_SOUTH, MOROCCO_WEST);
+    }
+
+    public static int getCacheBudgetMb(Context context) {
+        return getPrefs(context).getInt(KEY_CACHE_BUDGET_MB, DEFAULT_CACHE_BUDGET_MB);
+    }
+
+    /**
+     * Change the disk cache budget. Takes effect immediately for trimming.
+     */
+    public static void setCacheBudgetMb(Context context, int budgetMb) {
+        int value = Math.max(MIN_CACHE_BUDGET_MB, budgetMb);
+        getPrefs(context).edit().putInt(KEY_CACHE_BUDGET_MB, value).apply();
+        long budgetBytes = value * 1024L * 1024L;
+        Configuration.getInstance().setTileFileSystemCacheMaxBytes(budgetBytes);
+        Configuration.getInstance().setTileFileSystemCacheTrimBytes(budgetBytes * 8 / 10);
+    }
+
+    /**
+     * Copy bundled MBTiles packs into the osmdroid base directory in the background.
+     * The callback runs on the main thread and only when at least one pack was newly installed,
+     * in which case the map's tile provider has to be recreated to see it.
+     */
+    public static void installBundledArchives(Context context, Runnable onInstalled) {
+        Context appContext = context.getApplicationContext();
+        AppExecutors.get().serial(INSTALL_KEY).execute(() -> {
+            boolean installed = false;
+            try {
+                AssetManager assets = appContext.getAssets();
+                String[] files = assets.list(ASSET_TILES_DIR);
+                if (files == null) return;
+
+                File targetDir = Configuration.getInstance().getOsmdroidBasePath();
+                if (!targetDir.exists() && !targetDir.mkdirs()) return;
+
+                for (String name : files) {
+                    if (!name.endsWith(".mbtiles")) continue;
+                    File target = new File(targetDir, name);
+                    if (target.exists() && target.length() > 0) continue;
+                    copyAsset(assets, ASSET_TILES_DIR + "/" + name, target);
+                    installed = true;
+                    Log.d(TAG, "Installed offline tile pack " + name);
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to install offline tile packs", e);
+            }
+            if (installed && onInstalled != null) {
+                AppExecutors.get().mainThread().execute(onInstalled);
+            }
+        });
+    }
+
+    /**
+     * Download the low zooms for the whole country once, so later launches open from disk. Only
+     * for tile sources that allow bulk downloads; see {@link #canBulkDownload}.
+     */
+    public static void seedCountryOnce(MapView mapView) {
+        SharedPreferences prefs = getPrefs(mapView.getContext());
+        if (prefs.getBoolean(KEY_COUNTRY_SEEDED, false) || !canBulkDownload(mapView)) return;
+
+        download(mapView, moroccoBounds(), COUNTRY_MIN_ZOOM, COUNTRY_MAX_ZOOM, () ->
+                prefs.edit().putBoolean(KEY_COUNTRY_SEEDED, true).apply());
+    }
+
+    /**
+     * Prefetch street-level tiles around a point (typically the user's city). Only for tile
+     * sources that allow bulk downloads; see {@link #canBulkDownload}.
+     */
+    public static void prefetchAround(MapView mapView, double latitude, double longitude) {
+        if (!canBulkDownload(mapView)) return;
+        BoundingBox area = new BoundingBox(
+                Math.min(MOROCCO_NORTH, latitude + CITY_HALF_SPAN_DEGREES),
+                Math.min(MOROCCO_EAST, longitude + CITY_HALF_SPAN_DEGREES),
+                Math.max(MOROCCO_SOUTH, latitude - CITY_HALF_SPAN_DEGREES),
+                Math.max(MOROCCO_WEST, longitude - CITY_HALF_SPAN_DEGREES));
+        download(mapView, area, CITY_MIN_ZOOM, CITY_MAX_ZOOM, null);
+    }
+
+    /**
+     * Whether the map's tile source permits bulk downloads (OpenStreetMap's own servers do not)
+     * and its provider has a disk cache to write them to
+     */
+    public static boolean canBulkDownload(MapView mapView) {
+        MapTileProviderBase provider = mapView.getTileProvider();
+        ITileSource source = provider.getTileSource();
+        return source instanceof OnlineTileSourceBase
+                && ((OnlineTileSourceBase) source).getTileSourcePolicy().acceptsBulkDownload()
+                && provider.getTileWriter() != null;
+    }
+
+    private static void download(MapView mapView, BoundingBox area, int minZoom, int maxZoom, Runnable onComplete) {
+        CacheManager cacheManager;
+        try {
+            cacheManager = new CacheManager(mapView);
+        } catch (TileSourcePolicyException e) {
+            // Callers check canBulkDownload first, so this is a bug rather than a condition to skip
+            throw new IllegalStateException("Bulk download refused by the tile source policy", e);
+        }
+        cacheManager.downloadAreaAsyncNoUI(mapView.getContext(), area, minZoom, maxZoom,
+                new CacheManager.CacheManagerCallback() {
+                    @Override
+                    public void onTaskComplete() {
+                        Log.d(TAG, "Prefetch complete for zooms " + minZoom + "-" + maxZoom);
+                        if (onComplete != null) onComplete.run();
+                    }
+
+                    @Override
+                    public void onTaskFailed(int errors) {
+                        Log.d(TAG, "Prefetch finished with " + errors + " failed tiles");
+                    }
+
+                    @Override
+                    public void updateProgress(int progress, int currentZoomLevel, int zoomMin, int zoomMax) {
+                    }
+
+                    @Override
+                    public void downloadStarted() {
+                    }
+
+                    @Override
+                    public void setPossibleTilesInArea(int total) {
+                    }
+                });
+    }
+
+    private static void copyAsset(AssetManager assets, String assetPath, File target) throws IOException {
+        File temp = new File(target.getParentFile(), target.getName() + ".tmp");
+        try (InputStream in = assets.open(assetPath);
+             OutputStream out = new FileOutputStream(temp)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        // Rename last so a half-copied pack is never picked up by the tile provider
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Could not move " + temp + " to " + target);
+        }
+    }
+
+    private static SharedPreferences getPrefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.soukify.data.geo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Morocco Gazetteer - Bundled offline table of Moroccan cities with their region and coordinates
+ * City and region names follow LocationRepository so results can be used directly as shop filters
+ */
+public final class MoroccoGazetteer {
+
+    // {region, city, latitude, longitude}
+    private static final Object[][] PLACES = {
+        {"Tanger-Tétouan-Al Hoceima", "Tangier", 35.7595, -5.8340},
+        {"Tanger-Tétouan-Al Hoceima", "Tétouan", 35.5785, -5.3684},
+        {"Tanger-Tétouan-Al Hoceima", "Al Hoceima", 35.2517, -3.9372},
+        {"Tanger-Tétouan-Al Hoceima", "Chefchaouen", 35.1688, -5.2636},
+        {"Tanger-Tétouan-Al Hoceima", "Larache", 35.1932, -6.1557},
+        {"Tanger-Tétouan-Al Hoceima", "Martil", 35.6167, -5.2750},
+        {"Tanger-Tétouan-Al Hoceima", "M'diq", 35.6858, -5.3253},
+        {"Tanger-Tétouan-Al Hoceima", "Fnideq", 35.8500, -5.3575},
+        {"Tanger-Tétouan-Al Hoceima", "Ksar El Kebir", 35.0000, -5.9000},
+        {"Tanger-Tétouan-Al Hoceima", "Assilah", 35.4650, -6.0342},
+        {"Tanger-Tétouan-Al Hoceima", "Ouezzane", 34.7970, -5.5830},
+        {"Tanger-Tétouan-Al Hoceima", "Imzouren", 35.1450, -3.8500},
+
+        {"L'Oriental", "Oujda", 34.6867, -1.9114},
+        {"L'Oriental", "Nador", 35.1681, -2.9335},
+        {"L'Oriental", "Berkane", 34.9200, -2.3200},
+        {"L'Oriental", "Jerada", 34.3100, -2.1600},
+        {"L'Oriental", "Taourirt", 34.4073, -2.8973},
+        {"L'Oriental", "Ahfir", 34.9533, -2.1000},
+        {"L'Oriental", "Beni Ansar", 35.2600, -2.9300},
+        {"L'Oriental", "El Aaroui", 35.0000, -3.0300},
+        {"L'Oriental", "Zaio", 34.9400, -2.7300},
+        {"L'Oriental", "Driouch", 34.9800, -3.3900},
+        {"L'Oriental", "Figuig", 32.1090, -1.2290},
+        {"L'Oriental", "Saidia", 35.0850, -2.2390},
+
+        {"Fès-Meknès", "Fès", 34.0181, -5.0078},
+        {"Fès-Meknès", "Meknès", 33.8935, -5.5473},
+        {"Fès-Meknès", "Ifrane", 33.5228, -5.1106},
+        {"Fès-Meknès", "El Hajeb", 33.6900, -5.3700},
+        {"Fès-Meknès", "Sefrou", 33.8300, -4.8350},
+        {"Fès-Meknès", "Boulemane", 33.3600, -4.7300},
+        {"Fès-Meknès", "Azrou", 33.4340, -5.2210},
+        {"Fès-Meknès", "Missour", 33.0500, -3.9900},
+        {"Fès-Meknès", "Kariat Ba Mohamed", 34.3700, -5.2000},
+        {"Fès-Meknès", "Imouzzer Kandar", 33.7300, -5.0100},
+        {"Fès-Meknès", "Taza", 34.2100, -4.0100},
+        {"Fès-Meknès", "Moulay Yacoub", 34.0870, -5.1800},
+
+        {"Rabat-Salé-Kénitra", "Rabat", 34.0209, -6.8416},
+        {"Rabat-Salé-Kénitra", "Salé", 34.0531, -6.7985},
+        {"Rabat-Salé-Kénitra", "Kénitra", 34.2610, -6.5802},
+        {"Rabat-Salé-Kénitra", "Témara", 33.9287, -6.9063},
+        {"Rabat-Salé-Kénitra", "Skhirate", 33.8500, -7.0300},
+        {"Rabat-Salé-Kénitra", "Khemisset", 33.8240, -6.0660},
+        {"Rabat-Salé-Kénitra", "Sidi Slimane", 34.2600, -5.9300},
+        {"Rabat-Salé-Kénitra", "Sidi Kacem", 34.2260, -5.7070},
+        {"Rabat-Salé-Kénitra", "Tiflet", 33.8940, -6.3060},
+        {"Rabat-Salé-Kénitra", "Rommani", 33.5300, -6.6000},
+        {"Rabat-Salé-Kénitra", "Bouknadel", 34.1300, -6.7400},
+        {"Rabat-Salé-Kénitra", "Ain El Aouda", 33.8100, -6.7900},
+
+        {"Béni Mellal-Khénifra", "Beni Mellal", 32.3373, -6.3498},
+        {"Béni Mellal-Khénifra", "Khénifra", 32.9350, -5.6690},
+        {"Béni Mellal-Khénifra", "Azilal", 31.9600, -6.5700},
+        {"Béni Mellal-Khénifra", "Fquih Ben Salah", 32.5000, -6.6900},
+        {"Béni Mellal-Khénifra", "Khouribga", 32.8811, -6.9063},
+        {"Béni Mellal-Khénifra", "Oued Zem", 32.8630, -6.5740},
+        {"Béni Mellal-Khénifra", "Zaouiat Cheikh", 32.6400, -5.9200},
+        {"Béni Mellal-Khénifra", "Demnate", 31.7300, -7.0000},
+        {"Béni Mellal-Khénifra", "El Ksiba", 32.5700, -6.0300},
+        {"Béni Mellal-Khénifra", "Afourer", 32.2100, -6.5400},
+        {"Béni Mellal-Khénifra", "Aghbala", 32.4800, -5.6400},
+
+        {"Casablanca-Settat", "Casablanca", 33.5731, -7.5898},
+        {"Casablanca-Settat", "Settat", 33.0010, -7.6166},
+        {"Casablanca-Settat", "Mohammedia", 33.6861, -7.3829},
+        {"Casablanca-Settat", "Berrechid", 33.2655, -7.5875},
+        {"Casablanca-Settat", "El Jadida", 33.2316, -8.5007},
+        {"Casablanca-Settat", "Benslimane", 33.6100, -7.1200},
+        {"Casablanca-Settat", "Bouznika", 33.7890, -7.1590},
+        {"Casablanca-Settat", "Nouaceur", 33.3670, -7.5800},
+        {"Casablanca-Settat", "Médiouna", 33.4500, -7.5100},
+        {"Casablanca-Settat", "Deroua", 33.3700, -7.5300},
+        {"Casablanca-Settat", "Bouskoura", 33.4490, -7.6480},
+        {"Casablanca-Settat", "Azemmour", 33.2880, -8.3420},
+
+        {"Marrakech-Safi", "Marrakech", 31.6295, -7.9811},
+        {"Marrakech-Safi", "Safi", 32.2994, -9.2372},
+        {"Marrakech-Safi", "Essaouira", 31.5085, -9.7595},
+        {"Marrakech-Safi", "El Kelaa des Sraghna", 32.0500, -7.4000},
+        {"Marrakech-Safi", "Benguerir", 32.2300, -7.9500},
+        {"Marrakech-Safi", "Chichaoua", 31.5400, -8.7600},
+        {"Marrakech-Safi", "Youssoufia", 32.2460, -8.5290},
+        {"Marrakech-Safi", "Imintanoute", 31.1700, -8.8500},
+        {"Marrakech-Safi", "Ait Ourir", 31.5600, -7.6600},
+        {"Marrakech-Safi", "Amizmiz", 31.2200, -8.2400},
+        {"Marrakech-Safi", "Sidi Bou Othmane", 31.9000, -7.9400},
+        {"Marrakech-Safi", "Jemaa Shaim", 32.3500, -8.8500},
+
+        {"Drâa-Tafilalet", "Errachidia", 31.9314, -4.4244},
+        {"Drâa-Tafilalet", "Ouarzazate", 30.9189, -6.8934},
+        {"Drâa-Tafilalet", "Midelt", 32.6852, -4.7450},
+        {"Drâa-Tafilalet", "Zagora", 30.3300, -5.8400},
+        {"Drâa-Tafilalet", "Tinghir", 31.5147, -5.5328},
+        {"Drâa-Tafilalet", "Kelaat Mgouna", 31.2400, -6.1300},
+        {"Drâa-Tafilalet", "Boumalne Dades", 31.3700, -5.9900},
+        {"Drâa-Tafilalet", "Goulmima", 31.6900, -4.9600},
+        {"Drâa-Tafilalet", "Rich", 32.2600, -4.5000},
+        {"Drâa-Tafilalet", "Erfoud", 31.4300, -4.2300},
+        {"Drâa-Tafilalet", "Rissani", 31.2800, -4.2600},
+        {"Drâa-Tafilalet", "Tinejdad", 31.5100, -5.0300},
+        {"Drâa-Tafilalet", "Agdz", 30.7000, -6.4500},
+        {"Drâa-Tafilalet", "Nkob", 30.8700, -5.8700},
+
+        {"Souss-Massa", "Agadir", 30.4278, -9.5981},
+        {"Souss-Massa", "Inezgane", 30.3550, -9.5370},
+        {"Souss-Massa", "Ait Melloul", 30.3340, -9.4970},
+        {"Souss-Massa", "Taroudant", 30.4700, -8.8770},
+        {"Souss-Massa", "Tiznit", 29.6974, -9.7316},
+        {"Souss-Massa", "Biougra", 30.2150, -9.3710},
+        {"Souss-Massa", "Oulad Teima", 30.3940, -9.2090},
+        {"Souss-Massa", "Dcheira El Jihadia", 30.3740, -9.5360},
+        {"Souss-Massa", "Drargua", 30.4400, -9.4800},
+        {"Souss-Massa", "Massa", 30.0000, -9.6500},
+        {"Souss-Massa", "Lqliâa", 30.3300, -9.4600},
+        {"Souss-Massa", "Temsia", 30.3600, -9.4100},
+        {"Souss-Massa", "Tafraout", 29.7200, -8.9700},
+        {"Souss-Massa", "Sidi Ifni", 29.3797, -10.1730},
+        {"Souss-Massa", "Tata", 29.7428, -7.9725},
+
+        {"Guelmim-Oued Noun", "Guelmim", 28.9870, -10.0574},
+        {"Guelmim-Oued Noun", "Tan-Tan", 28.4380, -11.1030},
+        {"Guelmim-Oued Noun", "Assa", 28.6100, -9.4300},
+        {"Guelmim-Oued Noun", "Bouizakarne", 29.1700, -9.7300},
+        {"Guelmim-Oued Noun", "Ifrane Atlas Saghir", 29.2100, -9.4900},
+        {"Guelmim-Oued Noun", "Ouatia", 28.4900, -11.3300},
+        {"Guelmim-Oued Noun", "Taghjijt", 29.0600, -9.4300},
+        {"Guelmim-Oued Noun", "Tighmert", 28.9200, -10.0200},
+        {"Guelmim-Oued Noun", "Zag", 28.0200, -9.3300},
+
+        {"Laâyoune-Sakia El Hamra", "Laâyoune", 27.1253, -13.1625},
+        {"Laâyoune-Sakia El Hamra", "Boujdour", 26.1260, -14.4840},
+        {"Laâyoune-Sakia El Hamra", "Tarfaya", 27.9390, -12.9260},
+        {"Laâyoune-Sakia El Hamra", "El Marsa", 27.0900, -13.4100},
+        {"Laâyoune-Sakia El Hamra", "Es-Semara", 26.7400, -11.6700},
+
+        {"Dakhla-Oued Ed-Dahab", "Dakhla", 23.6848, -15.9580},
+        {"Dakhla-Oued Ed-Dahab", "Aousserd", 22.5500, -14.3300},
+        {"Dakhla-Oued Ed-Dahab", "Bir Gandouz", 21.6000, -16.4700},
+        {"Dakhla-Oued Ed-Dahab", "Guerguerat", 21.3700, -16.9600}
+    };
+
+    private static volatile List<GeoPlace> places;
+    private static volatile Map<String, GeoPlace> placesByName;
+
+    private MoroccoGazetteer() {}
+
+    /**
+     * Get every bundled place. The list is built once and shared.
+     */
+    public static List<GeoPlace> getPlaces() {
+        List<GeoPlace> result = places;
+        if (result == null) {
+            synchronized (MoroccoGazetteer.class) {
+                result = places;
+                if (result == null) {
+                    List<GeoPlace> list = new ArrayList<>(PLACES.length);
+                    Map<String, GeoPlace> byName = new HashMap<>();
+                    for (Object[] row : PLACES) {
+                        GeoPlace place = new GeoPlace((String) row[1], (String) row[0],
+                                (Double) row[2], (Double) row[3]);
+                        list.add(place);
+                        byName.put(place.getCityName().toLowerCase(Locale.ROOT), place);
+                    }
+                    placesByName = byName;
+                    result = Collections.unmodifiableList(list);
+                    places = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find a bundled place by its exact city name, or null
+     */
+    public static GeoPlace findByCityName(String cityName) {
+        if (cityName == null) return null;
+        getPlaces();
+        return placesByName.get(cityName.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.soukify.data.geo;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+import android.util.Log;
+
+import com.example.soukify.utils.concurrent.AppExecutors;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Offline Reverse Geocoder - Resolves coordinates to the nearest bundled city and region
+ * Lookups run against an in-memory k-d tree built from MoroccoGazetteer and never touch the network.
+ * The platform Geocoder can optionally be used afterwards to refine the locality name.
+ */
+public class OfflineReverseGeocoder {
+    private static final String TAG = "OfflineReverseGeocoder";
+
+    // Roughly the middle of Morocco's latitude span, used for the projection
+    private static final double REFERENCE_LATITUDE = 31.0;
+
+    // Network refinements run one at a time, in request order
+    private static final String REFINE_KEY = "reverse-geocoder";
+
+    private static volatile OfflineReverseGeocoder instance;
+
+    private final GeoKdTree tree;
+
+    public interface RefineCallback {
+        void onRefined(String localityName);
+    }
+
+    /**
+     * Result of an offline lookup
+     */
+    public static final class Result {
+        private final GeoPlace place;
+        private final double distanceMeters;
+
+        Result(GeoPlace place, double distanceMeters) {
+            this.place = place;
+            this.distanceMeters = distanceMeters;
+        }
+
+        public GeoPlace getPlace() {
+            return place;
+        }
+
+        public String getCityName() {
+            return place.getCityName();
+        }
+
+        public String getRegionName() {
+            return place.getRegionName();
+        }
+
+        public double getDistanceMeters() {
+            return distanceMeters;
+        }
+    }
+
+    private OfflineReverseGeocoder() {
+        tree = new GeoKdTree(MoroccoGazetteer.getPlaces(), REFERENCE_LATITUDE);
+    }
+
+    public static OfflineReverseGeocoder getInstance() {
+        if (instance == null) {
+            synchronized (OfflineReverseGeocoder.class) {
+                if (instance == null) {
+                    instance = new OfflineReverseGeocoder();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Resolve a point to the nearest bundled city. Safe to call on the main thread.
+     */
+    public Result resolve(double latitude, double longitude) {
+        GeoPlace place = tree.nearest(latitude, longitude);
+        if (place == null) return null;
+        return new Result(place, distanceMeters(latitude, longitude, place.getLatitude(), place.getLongitude()));
+    }
+
+    /**
+     * Ask the platform Geocoder for a locality name in the background.
+     * The callback runs on the main thread and only fires when a non-empty name was found.
+     */
+    public void refineWithNetwork(Context context, double latitude, double longitude, RefineCallback callback) {
+        if (!Geocoder.isPresent() || callback == null) return;
+        Context appContext = context.getApplicationContext();
+        AppExecutors.get().serial(REFINE_KEY).execute(() -> {
+            try {
+                Geocoder geocoder = new Geocoder(appContext, Locale.getDefault());
+                List<Address> addresses = geocoder.getFromLocation(latitude, longitude, 1);
+                if (addresses == null || addresses.isEmpty()) return;
+
+                Address address = addresses.get(0);
+                String name = address.getLocality();
+                if (name == null || name.isEmpty()) {
+                    name = address.getSubAdminArea();
+                }
+                if (name != null && !name.isEmpty()) {
+                    String finalName = name;
+                    AppExecutors.get().mainThread().execute(() -> callback.onRefined(finalName));
+                }
+            } catch (Exception e) {
+                Log.d(TAG, "Network geocoder unavailable: " + e.getMessage());
+            }
+        });
+    }
+
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 6371000.0 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
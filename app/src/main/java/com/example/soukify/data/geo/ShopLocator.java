@@ -0,0 +1,56 @@
+package com.example.soukify.data.geo;
+
+import com.example.soukify.data.models.ShopModel;
+
+/**
+ * Shop Locator - Places a shop on the map from its stored location text
+ * Shops only carry "address, city, region", so the city is matched against the gazetteer
+ * and a small deterministic offset (derived from the shop id) spreads shops of the same city.
+ */
+public final class ShopLocator {
+
+    // ~2 km spread around the city centre
+    private static final double MAX_OFFSET_DEGREES = 0.02;
+    // ~5 m cells; area queries only ever use a prefix
+    private static final int GEOHASH_PRECISION = 9;
+
+    private ShopLocator() {}
+
+    /**
+     * Returns {latitude, longitude} for the shop, or null when its city is unknown
+     */
+    public static double[] locate(ShopModel shop) {
+        if (shop == null) return null;
+        GeoPlace place = findCity(shop.getLocation());
+        if (place == null) return null;
+
+        int hash = shop.getShopId() != null ? shop.getShopId().hashCode() : 0;
+        double dLat = ((hash & 0xFFFF) / 65535.0 - 0.5) * 2 * MAX_OFFSET_DEGREES;
+        double dLon = (((hash >>> 16) & 0xFFFF) / 65535.0 - 0.5) * 2 * MAX_OFFSET_DEGREES;
+        return new double[]{place.getLatitude() + dLat, place.getLongitude() + dLon};
+    }
+
+    /**
+     * Geohash of {@link #locate}, stored on the shop so the map can query an area; null when its
+     * city is unknown
+     */
+    public static String geohash(ShopModel shop) {
+        double[] position = locate(shop);
+        return position != null ? GeoHash.encode(position[0], position[1], GEOHASH_PRECISION) : null;
+    }
+
+    private static GeoPlace findCity(String location) {
+        if (location == null || location.isEmpty()) return null;
+        String[] parts = location.split(",");
+        // Format written by ShopFragment is "address, city, region": try the city slot first
+        if (parts.length >= 2) {
+            GeoPlace place = MoroccoGazetteer.findByCityName(parts[parts.length - 2].trim());
+            if (place != null) return place;
+        }
+        for (int i = parts.length - 1; i >= 0; i--) {
+            GeoPlace place = MoroccoGazetteer.findByCityName(parts[i].trim());
+            if (place != null) return place;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.soukify.data.hours;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Open Now Index - Which shops of a catalog are open at a given time, by hour of the week
+ *
+ * Each shop gets a slot, and each of the 168 hours of the week has two bit sets over the slots:
+ * shops open for that whole hour, and shops open for part of it. A lookup is a slot lookup and
+ * two bit tests, plus a check of the shop's own ranges only in the rare partial hour. Shops are
+ * indexed as they enter the catalog ({@link #put}), so filtering never parses or decodes a
+ * schedule.
+ *
+ * Not thread-safe; owned by the catalog it indexes.
+ */
+public class OpenNowIndex {
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<WeeklySchedule> schedules = new ArrayList<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet[] fullByHour = new BitSet[WeeklySchedule.HOURS_PER_WEEK];
+    private final BitSet[] partialByHour = new BitSet[WeeklySchedule.HOURS_PER_WEEK];
+
+    public OpenNowIndex() {
+        for (int hour = 0; hour < WeeklySchedule.HOURS_PER_WEEK; hour++) {
+            fullByHour[hour] = new BitSet();
+            partialByHour[hour] = new BitSet();
+        }
+    }
+
+    public void put(String shopId, WeeklySchedule schedule) {
+        Integer slot = slots.get(shopId);
+        if (slot == null) {
+            slot = freeSlots.isEmpty() ? schedules.size() : freeSlots.poll();
+            slots.put(shopId, slot);
+            if (slot == schedules.size()) schedules.add(null);
+        } else if (schedules.get(slot) == schedule) {
+            return;
+        } else {
+            unindex(slot);
+        }
+        schedules.set(slot, schedule);
+        for (int hour = 0; hour < WeeklySchedule.HOURS_PER_WEEK; hour++) {
+            if (schedule.isFullHour(hour)) fullByHour[hour].set(slot);
+            else if (schedule.isPartialHour(hour)) partialByHour[hour].set(slot);
+        }
+    }
+
+    public void remove(String shopId) {
+        Integer slot = slots.remove(shopId);
+        if (slot == null) return;
+        unindex(slot);
+        schedules.set(slot, null);
+        freeSlots.add(slot);
+    }
+
+    public void clear() {
+        slots.clear();
+        schedules.clear();
+        freeSlots.clear();
+        for (int hour = 0; hour < WeeklySchedule.HOURS_PER_WEEK; hour++) {
+            fullByHour[hour].clear();
+            partialByHour[hour].clear();
+        }
+    }
+
+    /**
+     * Whether the shop is open at {@code minuteOfWeek}; false for shops not in the index
+     */
+    public boolean isOpen(String shopId, int minuteOfWeek) {
+        Integer slot = slots.get(shopId);
+        if (slot == null) return false;
+        int hour = Math.floorMod(minuteOfWeek, WeeklySchedule.MINUTES_PER_WEEK) / 60;
+        if (fullByHour[hour].get(slot)) return true;
+        return partialByHour[hour].get(slot) && schedules.get(slot).isOpenAt(minuteOfWeek);
+    }
+
+    private void unindex(int slot) {
+        for (int hour = 0; hour < WeeklySchedule.HOURS_PER_WEEK; hour++) {
+            fullByHour[hour].clear(slot);
+            partialByHour[hour].clear(slot);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.soukify.data.hours;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Weekly Schedule - A shop's opening hours as minute ranges over the week
+ *
+ * Ranges are [start, end) minutes counted from Monday 00:00, sorted and merged, so "Mon 9:00-17:00"
+ * is [540, 1020) and an overnight "Fri 20:00-2:00" runs into Saturday. They are stored on the shop
+ * as a flat list ({@link #toRanges()}). Building a schedule also derives two 168-bit masks over the
+ * hours of the week: hours open from start to end, and hours open for part of their minutes.
+ * {@link #isOpenAt} answers from the first mask and only looks at the ranges of a partial hour,
+ * so a check costs the same whatever the schedule.
+ *
+ * Immutable. {@link #parseLegacy} reads the "Mon: 9:00-17:00 | Tue: …" strings of older shops.
+ */
+public final class WeeklySchedule {
+    public static final int DAYS = 7;
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = DAYS * MINUTES_PER_DAY;
+    public static final int HOURS_PER_WEEK = DAYS * 24;
+    // Shops enter their hours in Moroccan local time, wherever the buyer's device is set
+    public static final String SHOP_TIME_ZONE = "Africa/Casablanca";
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    // 1970-01-01 was a Thursday: day 3 of a week starting on Monday
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+    // Day abbreviations of the legacy workingHours string, Monday first
+    private static final String[] LEGACY_DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    private static final int MASK_WORDS = (HOURS_PER_WEEK + 63) / 64;
+
+    public static final WeeklySchedule EMPTY = new WeeklySchedule(new int[0]);
+
+    // start0, end0, start1, end1, … in minutes of the week
+    private final int[] ranges;
+    private final long[] fullHours = new long[MASK_WORDS];
+    private final long[] partialHours = new long[MASK_WORDS];
+
+    private WeeklySchedule(int[] ranges) {
+        this.ranges = ranges;
+        for (int i = 0; i < ranges.length; i += 2) {
+            int start = ranges[i];
+            int end = ranges[i + 1];
+            for (int hour = start / 60; hour * 60 < end; hour++) {
+                boolean full = start <= hour * 60 && end >= (hour + 1) * 60;
+                set(full ? fullHours : partialHours, hour);
+            }
+        }
+    }
+
+    /**
+     * Collects opening ranges per day; overlapping and touching ranges are merged
+     */
+    public static final class Builder {
+        private final List<int[]> ranges = new ArrayList<>();
+
+        /**
+         * Open on {@code day} (0 = Monday) from {@code fromMinute} to {@code toMinute} of that
+         * day. An end at or before the start closes the next day, as in "20:00-2:00".
+         */
+        public Builder add(int day, int fromMinute, int toMinute) {
+            if (day < 0 || day >= DAYS || fromMinute < 0 || fromMinute >= MINUTES_PER_DAY
+                    || toMinute < 0 || toMinute > MINUTES_PER_DAY) {
+                return this;
+            }
+            int start = day * MINUTES_PER_DAY + fromMinute;
+            int end = day * MINUTES_PER_DAY + toMinute;
+            if (toMinute <= fromMinute) end += MINUTES_PER_DAY;
+            addWeekRange(start, end);
+            return this;
+        }
+
+        private void addWeekRange(int start, int end) {
+            if (end > MINUTES_PER_WEEK) {
+                // Sunday night into Monday morning
+                ranges.add(new int[]{start, MINUTES_PER_WEEK});
+                ranges.add(new int[]{0, end - MINUTES_PER_WEEK});
+            } else if (end > start) {
+                ranges.add(new int[]{start, end});
+            }
+        }
+
+        public WeeklySchedule build() {
+            if (ranges.isEmpty()) return EMPTY;
+            ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+            int[] merged = new int[ranges.size() * 2];
+            int count = 0;
+            for (int[] range : ranges) {
+                if (count > 0 && range[0] <= merged[count - 1]) {
+                    merged[count - 1] = Math.max(merged[count - 1], range[1]);
+                } else {
+                    merged[count++] = range[0];
+                    merged[count++] = range[1];
+                }
+            }
+            return new WeeklySchedule(Arrays.copyOf(merged, count));
+        }
+    }
+
+    // ==================== QUERIES ====================
+
+    public boolean isEmpty() {
+        return ranges.length == 0;
+    }
+
+    /**
+     * Whether the shop is open at {@code minuteOfWeek} (0 = Monday 00:00)
+     */
+    public boolean isOpenAt(int minuteOfWeek) {
+        minuteOfWeek = Math.floorMod(minuteOfWeek, MINUTES_PER_WEEK);
+        int hour = minuteOfWeek / 60;
+        if (isSet(fullHours, hour)) return true;
+        if (!isSet(partialHours, hour)) return false;
+        // A partial hour touches at most a few ranges; find the last one starting at or before the minute
+        int low = 0;
+        int high = ranges.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (ranges[mid * 2] <= minuteOfWeek) low = mid + 1;
+            else high = mid - 1;
+        }
+        return high >= 0 && minuteOfWeek < ranges[high * 2 + 1];
+    }
+
+    public boolean isOpenAt(long epochMillis, TimeZone zone) {
+        return isOpenAt(minuteOfWeek(epochMillis, zone));
+    }
+
+    boolean isFullHour(int hourOfWeek) {
+        return isSet(fullHours, hourOfWeek);
+    }
+
+    boolean isPartialHour(int hourOfWeek) {
+        return isSet(partialHours, hourOfWeek);
+    }
+
+    /**
+     * Minute of the week (0 = Monday 00:00) of {@code epochMillis} in {@code zone}, without a Calendar
+     */
+    public static int minuteOfWeek(long epochMillis, TimeZone zone) {
+        long localMinutes = Math.floorDiv(epochMillis + zone.getOffset(epochMillis), MILLIS_PER_MINUTE);
+        long day = Math.floorDiv(localMinutes, MINUTES_PER_DAY);
+        int dayOfWeek = (int) Math.floorMod(day + EPOCH_DAY_OF_WEEK, DAYS);
+        return dayOfWeek * MINUTES_PER_DAY + (int) Math.floorMod(localMinutes, MINUTES_PER_DAY);
+    }
+
+    // ==================== ENCODING ====================
+
+    /**
+     * Flat start/end list as stored in the shop's openingHours field
+     */
+    public List<Long> toRanges() {
+        List<Long> list = new ArrayList<>(ranges.length);
+        for (int minute : ranges) list.add((long) minute);
+        return list;
+    }
+
+    /**
+     * Read a stored list; out-of-range or unpaired values are dropped
+     */
+    public static WeeklySchedule fromRanges(List<? extends Number> list) {
+        if (list == null || list.isEmpty()) return EMPTY;
+        Builder builder = new Builder();
+        for (int i = 0; i + 1 < list.size(); i += 2) {
+            Number start = list.get(i);
+            Number end = list.get(i + 1);
+            if (start == null || end == null) continue;
+            int from = start.intValue();
+            int to = end.intValue();
+            if (from >= 0 && to <= MINUTES_PER_WEEK) builder.addWeekRange(from, to);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Parse the legacy "Mon: 9:00-17:00 | Tue: 10:00-18:00" string; entries it can't read are skipped
+     */
+    public static WeeklySchedule parseLegacy(String workingHours) {
+        if (workingHours == null || workingHours.trim().isEmpty()) return EMPTY;
+        Builder builder = new Builder();
+        for (String entry : workingHours.split("\\|")) {
+            int colon = entry.indexOf(':');
+            if (colon < 0) continue;
+            int day = legacyDay(entry.substring(0, colon).trim());
+            String[] times = entry.substring(colon + 1).trim().split("-");
+            if (day < 0 || times.length != 2) continue;
+            int from = parseTime(times[0]);
+            int to = parseTime(times[1]);
+            if (from >= 0 && to >= 0) builder.add(day, from, to);
+        }
+        return builder.build();
+    }
+
+    /**
+     * One line per open day, "Monday: 9:00->12:00, 14:00->18:00", with {@code dayNames} Monday first
+     */
+    public String format(String[] dayNames) {
+        StringBuilder out = new StringBuilder();
+        int[] lastDay = {-1};
+        forEachDaySegment((day, from, to) -> {
+            if (day != lastDay[0]) {
+                if (out.length() > 0) out.append('\n');
+                out.append(dayNames[day]).append(": ");
+                lastDay[0] = day;
+            } else {
+                out.append(", ");
+            }
+            out.append(formatTime(from)).append("->").append(formatTime(to));
+        });
+        return out.toString();
+    }
+
+    private interface SegmentConsumer {
+        void accept(int day, int fromMinute, int toMinute);
+    }
+
+    // Ranges cut at midnight, in week order
+    private void forEachDaySegment(SegmentConsumer consumer) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            int start = ranges[i];
+            int end = ranges[i + 1];
+            while (start < end) {
+                int day = start / MINUTES_PER_DAY;
+                int dayEnd = Math.min(end, (day + 1) * MINUTES_PER_DAY);
+                consumer.accept(day, start - day * MINUTES_PER_DAY, dayEnd - day * MINUTES_PER_DAY);
+                start = dayEnd;
+            }
+        }
+    }
+
+    private static int legacyDay(String name) {
+        if (name.length() < 3) return -1;
+        String prefix = name.substring(0, 3);
+        for (int day = 0; day < DAYS; day++) {
+            if (LEGACY_DAYS[day].equalsIgnoreCase(prefix)) return day;
+        }
+        return -1;
+    }
+
+    // "9:00", "09:30", "9h30" or "9"; -1 when unreadable. "24:00" is the end of the day.
+    private static int parseTime(String text) {
+        String value = text.trim().toLowerCase(Locale.ROOT).replace('h', ':');
+        try {
+            int colon = value.indexOf(':');
+            int hours = Integer.parseInt(colon < 0 ? value : value.substring(0, colon));
+            String minutesText = colon < 0 ? "" : value.substring(colon + 1);
+            int minutes = minutesText.isEmpty() ? 0 : Integer.parseInt(minutesText);
+            int total = hours * 60 + minutes;
+            return hours >= 0 && minutes >= 0 && minutes < 60 && total <= MINUTES_PER_DAY ? total : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String formatTime(int minuteOfDay) {
+        return String.format(Locale.ROOT, "%d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    private static void set(long[] mask, int bit) {
+        mask[bit >>> 6] |= 1L << bit;
+    }
+
+    private static boolean isSet(long[] mask, int bit) {
+        return (mask[bit >>> 6] & (1L << bit)) != 0;
+    }
+}
@@ -0,0 +1,507 @@
+package com.example.soukify.data.local;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Key Value Store - App-wide settings store on a memory-mapped, append-only file
+ *
+ * Every key lives in a concurrent map, so reads are plain lookups without locks or copies. Each
+ * change appends one checksummed record to the mapped file and then moves the committed length in
+ * the header, so a write costs the size of what changed instead of rewriting a whole XML file as
+ * SharedPreferences.apply() does. String sets are edited in place with {@link #addToSet} and
+ * {@link #removeFromSet}. Mapped pages belong to the kernel, so a write survives the process being
+ * killed the moment it returns.
+ *
+ * When the file is full, the live entries are written to a new file that replaces the old one by
+ * rename: a crash leaves one or the other, never a mix. Records past the committed length or with a
+ * bad checksum are ignored when loading.
+ *
+ * Keys are namespaced by their owner ("currency.selected_currency"); {@link #migrateFrom} copies an
+ * existing SharedPreferences file into a namespace once and deletes it.
+ *
+ * Safe to call from any thread. Writes are serialized and do no I/O beyond a memory copy, except
+ * for the rare compaction.
+ */
+public class KeyValueStore {
+    private static final String TAG = "KeyValueStore";
+
+    private static final String FILE_NAME = "kv.store";
+    private static final String MIGRATED_PREFIX = "kv.migrated.";
+    private static final int MAGIC = 0x534b5631; // "SKV1"
+    // Magic, then the committed length of the file
+    private static final int HEADER_SIZE = 8;
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+    // Payload length and CRC32 of every record
+    private static final int RECORD_OVERHEAD = 8;
+
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+    private static final byte TYPE_INT = 3;
+    private static final byte TYPE_LONG = 4;
+    private static final byte TYPE_FLOAT = 5;
+    private static final byte TYPE_SET = 6;
+    private static final byte TYPE_SET_ADD = 7;
+    private static final byte TYPE_SET_REMOVE = 8;
+    private static final byte TYPE_REMOVE = 9;
+
+    private static volatile KeyValueStore instance;
+
+    private final File file;
+    // Values are immutable, except sets: concurrent sets edited in place and handed out read-only
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private RandomAccessFile raf;
+    private MappedByteBuffer buffer;
+    private int end = HEADER_SIZE;
+    private final CRC32 crc = new CRC32();
+
+    private KeyValueStore(Context context) {
+        this(new File(context.getFilesDir(), FILE_NAME));
+    }
+
+    // Opens the given file directly; the app goes through getInstance()
+    KeyValueStore(File file) {
+        this.file = file;
+        synchronized (this) {
+            try {
+                open();
+            } catch (IOException e) {
+                // Keep working from memory; changes are lost with the process
+                Log.e(TAG, "Could not open " + file + ", running in memory only", e);
+                buffer = null;
+            }
+        }
+    }
+
+    /**
+     * The store, opened on first use. Usable before Application.onCreate, from attachBaseContext.
+     */
+    public static KeyValueStore getInstance(Context context) {
+        if (instance == null) {
+            synchronized (KeyValueStore.class) {
+                if (instance == null) {
+                    Context app = context.getApplicationContext();
+                    instance = new KeyValueStore(app != null ? app : context);
+                }
+            }
+        }
+        return instance;
+    }
+
+    // ==================== READS ====================
+
+    public boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    public String getString(String key, String defaultValue) {
+        Object value = values.get(key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+
+    public float getFloat(String key, float defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Float ? (Float) value : defaultValue;
+    }
+
+    /**
+     * A read-only live view of the set, empty when absent. Unlike SharedPreferences.getStringSet
+     * nothing is copied; copy it before iterating if other threads may change it meanwhile.
+     */
+    public Set<String> getStringSet(String key) {
+        Object value = values.get(key);
+        if (value instanceof Set) {
+            @SuppressWarnings("unchecked")
+            Set<String> set = (Set<String>) value;
+            return Collections.unmodifiableSet(set);
+        }
+        return Collections.emptySet();
+    }
+
+    // ==================== WRITES ====================
+
+    public void putString(String key, String value) {
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        synchronized (this) {
+            if (value.equals(values.get(key))) return;
+            values.put(key, value);
+            append(TYPE_STRING, key, encode(value));
+        }
+    }
+
+    public void putBoolean(String key, boolean value) {
+        synchronized (this) {
+            if (Objects.equals(values.get(key), value)) return;
+            values.put(key, value);
+            append(TYPE_BOOLEAN, key, new byte[]{(byte) (value ? 1 : 0)});
+        }
+    }
+
+    public void putInt(String key, int value) {
+        synchronized (this) {
+            if (Objects.equals(values.get(key), value)) return;
+            values.put(key, value);
+            append(TYPE_INT, key, ByteBuffer.allocate(4).putInt(value).array());
+        }
+    }
+
+    public void putLong(String key, long value) {
+        synchronized (this) {
+            if (Objects.equals(values.get(key), value)) return;
+            values.put(key, value);
+            append(TYPE_LONG, key, ByteBuffer.allocate(8).putLong(value).array());
+        }
+    }
+
+    public void putFloat(String key, float value) {
+        synchronized (this) {
+            if (Objects.equals(values.get(key), value)) return;
+            values.put(key, value);
+            append(TYPE_FLOAT, key, ByteBuffer.allocate(4).putFloat(value).array());
+        }
+    }
+
+    /**
+     * Replace the whole set; prefer {@link #addToSet}/{@link #removeFromSet} for single changes
+     */
+    public void putStringSet(String key, Collection<String> set) {
+        synchronized (this) {
+            Set<String> copy = ConcurrentHashMap.newKeySet();
+            copy.addAll(set);
+            values.put(key, copy);
+            append(TYPE_SET, key, encodeSet(copy));
+        }
+    }
+
+    /**
+     * Add one element to the set at {@code key}, creating it if needed; returns false when it was
+     * already there
+     */
+    public boolean addToSet(String key, String element) {
+        synchronized (this) {
+            Set<String> set = mutableSet(key);
+            if (!set.add(element)) return false;
+            append(TYPE_SET_ADD, key, encode(element));
+            return true;
+        }
+    }
+
+    /**
+     * Remove one element from the set at {@code key}; returns false when it wasn't there
+     */
+    public boolean removeFromSet(String key, String element) {
+        synchronized (this) {
+            Object value = values.get(key);
+            if (!(value instanceof Set) || !((Set<?>) value).remove(element)) return false;
+            append(TYPE_SET_REMOVE, key, encode(element));
+            return true;
+        }
+    }
+
+    public void remove(String key) {
+        synchronized (this) {
+            if (values.remove(key) == null) return;
+            append(TYPE_REMOVE, key, new byte[0]);
+        }
+    }
+
+    /**
+     * Remove every key starting with {@code prefix}
+     */
+    public void removeAll(String prefix) {
+        synchronized (this) {
+            for (String key : new ArrayList<>(values.keySet())) {
+                if (key.startsWith(prefix)) remove(key);
+            }
+        }
+    }
+
+    // ==================== MIGRATION ====================
+
+    /**
+     * Copy the SharedPreferences file {@code prefsName} under {@code prefix} the first time it is
+     * called for that file, then delete the file. Later calls only check a marker key.
+     */
+    public void migrateFrom(Context context, String prefsName, String prefix) {
+        String marker = MIGRATED_PREFIX + prefsName;
+        if (contains(marker)) return;
+        synchronized (this) {
+            if (contains(marker)) return;
+            SharedPreferences prefs = context.getSharedPreferences(prefsName, Context.MODE_PRIVATE);
+            Map<String, ?> all = prefs.getAll();
+            for (Map.Entry<String, ?> entry : all.entrySet()) {
+                String key = prefix + entry.getKey();
+                Object value = entry.getValue();
+                if (value instanceof String) putString(key, (String) value);
+                else if (value instanceof Boolean) putBoolean(key, (Boolean) value);
+                else if (value instanceof Integer) putInt(key, (Integer) value);
+                else if (value instanceof Long) putLong(key, (Long) value);
+                else if (value instanceof Float) putFloat(key, (Float) value);
+                else if (value instanceof Set) {
+                    @SuppressWarnings("unchecked")
+                    Set<String> set = (Set<String>) value;
+                    putStringSet(key, set);
+                }
+            }
+            // The marker goes in before the file goes away: a crash in between leaves a stale file, not lost values
+            putBoolean(marker, true);
+            prefs.edit().clear().commit();
+            // The context we were given: from attachBaseContext there is no application context yet
+            context.deleteSharedPreferences(prefsName);
+            Log.i(TAG, "Migrated " + all.size() + " entries from " + prefsName);
+        }
+    }
+
+    // ==================== FILE ====================
+
+    // Guarded by this
+    private Set<String> mutableSet(String key) {
+        Object value = values.get(key);
+        if (value instanceof Set) {
+            @SuppressWarnings("unchecked")
+            Set<String> set = (Set<String>) value;
+            return set;
+        }
+        Set<String> set = ConcurrentHashMap.newKeySet();
+        values.put(key, set);
+        return set;
+    }
+
+    // Guarded by this
+    private void open() throws IOException {
+        boolean fresh = !file.exists() || file.length() < HEADER_SIZE;
+        raf = new RandomAccessFile(file, "rw");
+        if (fresh) raf.setLength(INITIAL_CAPACITY);
+        map((int) raf.length());
+        if (fresh || buffer.getInt(0) != MAGIC) {
+            if (!fresh) Log.w(TAG, "Discarding " + file + " with an unknown header");
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, HEADER_SIZE);
+            end = HEADER_SIZE;
+            return;
+        }
+        load();
+    }
+
+    // Guarded by this
+    private void map(int capacity) throws IOException {
+        buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    // Guarded by this
+    private void load() {
+        int committed = buffer.getInt(4);
+        if (committed < HEADER_SIZE || committed > buffer.capacity()) committed = HEADER_SIZE;
+        int position = HEADER_SIZE;
+        while (position + RECORD_OVERHEAD <= committed) {
+            int length = buffer.getInt(position);
+            int checksum = buffer.getInt(position + 4);
+            if (length <= 0 || position + RECORD_OVERHEAD + length > committed) break;
+            byte[] payload = new byte[length];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(position + RECORD_OVERHEAD);
+            slice.get(payload);
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                Log.w(TAG, "Corrupt record at " + position + ", dropping the rest of the file");
+                break;
+            }
+            apply(ByteBuffer.wrap(payload));
+            position += RECORD_OVERHEAD + length;
+        }
+        end = position;
+        buffer.putInt(4, end);
+    }
+
+    private void apply(ByteBuffer record) {
+        byte type = record.get();
+        String key = readString(record);
+        switch (type) {
+            case TYPE_STRING:
+                values.put(key, readString(record));
+                break;
+            case TYPE_BOOLEAN:
+                values.put(key, record.get() != 0);
+                break;
+            case TYPE_INT:
+                values.put(key, record.getInt());
+                break;
+            case TYPE_LONG:
+                values.put(key, record.getLong());
+                break;
+            case TYPE_FLOAT:
+                values.put(key, record.getFloat());
+                break;
+            case TYPE_SET: {
+                int count = record.getInt();
+                Set<String> set = ConcurrentHashMap.newKeySet(count);
+                for (int i = 0; i < count; i++) set.add(readString(record));
+                values.put(key, set);
+                break;
+            }
+            case TYPE_SET_ADD:
+                mutableSet(key).add(readString(record));
+                break;
+            case TYPE_SET_REMOVE: {
+                Object value = values.get(key);
+                if (value instanceof Set) ((Set<?>) value).remove(readString(record));
+                break;
+            }
+            case TYPE_REMOVE:
+                values.remove(key);
+                break;
+            default:
+                Log.w(TAG, "Skipping record of unknown type " + type);
+                break;
+        }
+    }
+
+    // Guarded by this
+    private void append(byte type, String key, byte[] value) {
+        byte[] payload = record(type, key, value);
+        if (buffer == null) return;
+        int size = RECORD_OVERHEAD + payload.length;
+        try {
+            if (end + size > buffer.capacity()) compact(size);
+        } catch (IOException e) {
+            Log.e(TAG, "Compaction failed, keeping the change in memory only", e);
+            return;
+        }
+        // The record is only counted once the header moves past it
+        write(buffer, end, payload);
+        end += size;
+        buffer.putInt(4, end);
+    }
+
+    /**
+     * Rewrite the live entries into a new file big enough for them and {@code extra} more bytes,
+     * swapped in by rename
+     */
+    // Guarded by this
+    private void compact(int extra) throws IOException {
+        List<byte[]> records = new ArrayList<>(values.size());
+        int live = HEADER_SIZE;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            byte[] payload = snapshotRecord(entry.getKey(), entry.getValue());
+            records.add(payload);
+            live += RECORD_OVERHEAD + payload.length;
+        }
+        int capacity = INITIAL_CAPACITY;
+        // Leave at least as much room as is live, so compactions stay rare
+        while (capacity < 2L * (live + extra)) capacity *= 2;
+
+        ByteBuffer image = ByteBuffer.allocate(live);
+        image.putInt(MAGIC).putInt(live);
+        int position = HEADER_SIZE;
+        for (byte[] payload : records) {
+            write(image, position, payload);
+            position += RECORD_OVERHEAD + payload.length;
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(image.array());
+            out.getFD().sync();
+        }
+        try (RandomAccessFile sized = new RandomAccessFile(temp, "rw")) {
+            sized.setLength(capacity);
+        }
+        if (!temp.renameTo(file)) throw new IOException("Could not replace " + file);
+
+        raf.close();
+        raf = new RandomAccessFile(file, "rw");
+        map(capacity);
+        end = live;
+        Log.i(TAG, "Compacted to " + live + " bytes in a " + capacity + " byte file");
+    }
+
+    private void write(ByteBuffer target, int position, byte[] payload) {
+        crc.reset();
+        crc.update(payload, 0, payload.length);
+        ByteBuffer out = target.duplicate();
+        out.position(position);
+        out.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+    }
+
+    private static byte[] snapshotRecord(String key, Object value) {
+        if (value instanceof String) return record(TYPE_STRING, key, encode((String) value));
+        if (value instanceof Boolean) return record(TYPE_BOOLEAN, key, new byte[]{(byte) ((Boolean) value ? 1 : 0)});
+        if (value instanceof Integer) return record(TYPE_INT, key, ByteBuffer.allocate(4).putInt((Integer) value).array());
+        if (value instanceof Long) return record(TYPE_LONG, key, ByteBuffer.allocate(8).putLong((Long) value).array());
+        if (value instanceof Float) return record(TYPE_FLOAT, key, ByteBuffer.allocate(4).putFloat((Float) value).array());
+        @SuppressWarnings("unchecked")
+        Set<String> set = (Set<String>) value;
+        return record(TYPE_SET, key, encodeSet(set));
+    }
+
+    private static byte[] record(byte type, String key, byte[] value) {
+        byte[] encodedKey = encode(key);
+        return ByteBuffer.allocate(1 + encodedKey.length + value.length)
+                .put(type).put(encodedKey).put(value).array();
+    }
+
+    private static byte[] encodeSet(Set<String> set) {
+        List<byte[]> elements = new ArrayList<>(set.size());
+        int size = 4;
+        for (String element : set) {
+            byte[] encoded = encode(element);
+            elements.add(encoded);
+            size += encoded.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size).putInt(elements.size());
+        for (byte[] encoded : elements) out.put(encoded);
+        return out.array();
+    }
+
+    // Length-prefixed UTF-8
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes).array();
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
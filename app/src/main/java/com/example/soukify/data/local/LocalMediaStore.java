@@ -0,0 +1,365 @@
+package com.example.soukify.data.local;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local Media Store - Content-addressed store for picked images and videos
+ *
+ * Files are named by the SHA-256 of their bytes, so picking the same photo twice stores it once.
+ * Sources that expose a file descriptor are hashed first and only copied on a miss, with a
+ * FileChannel transfer instead of a byte[] loop. Entries in use by a pending upload are pinned by an
+ * owner key; unpinned entries are evicted least-recently-used first once the store grows past its
+ * byte quota. Pins are persisted so a restart doesn't make a pending upload's file collectable.
+ *
+ * All methods do disk I/O and must be called off the main thread.
+ */
+public class LocalMediaStore {
+    private static final String TAG = "LocalMediaStore";
+
+    private static final String STORE_DIR = "media_store";
+    private static final String PINS_PREFS = "local_media_store_pins";
+    private static final String STAGING_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public static final long DEFAULT_QUOTA_BYTES = 100L * 1024 * 1024;
+
+    private static volatile LocalMediaStore instance;
+
+    private final Context context;
+    private final File directory;
+    private final SharedPreferences pins;
+    private long quotaBytes = DEFAULT_QUOTA_BYTES;
+
+    /**
+     * A stored file and its digest (the file name without extension)
+     */
+    public static final class Entry {
+        private final String digest;
+        private final File file;
+        private final boolean deduplicated;
+
+        Entry(String digest, File file, boolean deduplicated) {
+            this.digest = digest;
+            this.file = file;
+            this.deduplicated = deduplicated;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public Uri getUri() {
+            return Uri.fromFile(file);
+        }
+
+        /**
+         * True when the content was already in the store and nothing was written
+         */
+        public boolean isDeduplicated() {
+            return deduplicated;
+        }
+    }
+
+    private LocalMediaStore(Context context) {
+        this.context = context.getApplicationContext();
+        this.directory = new File(this.context.getFilesDir(), STORE_DIR);
+        this.pins = this.context.getSharedPreferences(PINS_PREFS, Context.MODE_PRIVATE);
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.e(TAG, "Could not create " + directory);
+        }
+        deleteStaleStagingFiles();
+    }
+
+    public static LocalMediaStore getInstance(Context context) {
+        if (instance == null) {
+            synchronized (LocalMediaStore.class) {
+                if (instance == null) {
+                    instance = new LocalMediaStore(context);
+                }
+            }
+        }
+        return instance;
+    }
+
+    public synchronized void setQuotaBytes(long quotaBytes) {
+        this.quotaBytes = quotaBytes;
+        trim();
+    }
+
+    /**
+     * Store the content behind {@code source} and pin it for {@code owner} (e.g. "upload:<publicId>").
+     * Returns the existing entry when the same bytes were stored before.
+     */
+    public Entry put(Uri source, String extension, String owner) throws IOException {
+        Entry entry;
+        try (ParcelFileDescriptor pfd = openDescriptor(source)) {
+            entry = pfd != null
+                    ? putFromDescriptor(source, pfd, extension, owner)
+                    : putFromStream(source, extension, owner);
+        }
+        trim();
+        return entry;
+    }
+
+    /**
+     * Look up a stored file by the URI returned from {@link Entry#getUri()}. Returns null for
+     * anything that is not a store entry.
+     */
+    public Entry find(Uri uri) {
+        if (uri == null || !"file".equals(uri.getScheme()) || uri.getPath() == null) return null;
+        File file = new File(uri.getPath());
+        if (!directory.equals(file.getParentFile()) || !file.exists()) return null;
+        return new Entry(digestOf(file), file, true);
+    }
+
+    public synchronized void pin(String owner, String digest) {
+        if (owner == null || digest == null) return;
+        Set<String> digests = new HashSet<>(pins.getStringSet(owner, new HashSet<>()));
+        if (digests.add(digest)) {
+            pins.edit().putStringSet(owner, digests).apply();
+        }
+    }
+
+    /**
+     * Drop one owner's pin on an entry. The file stays until the quota needs the space.
+     */
+    public synchronized void release(String owner, String digest) {
+        Set<String> digests = new HashSet<>(pins.getStringSet(owner, new HashSet<>()));
+        if (!digests.remove(digest)) return;
+        if (digests.isEmpty()) {
+            pins.edit().remove(owner).apply();
+        } else {
+            pins.edit().putStringSet(owner, digests).apply();
+        }
+        trim();
+    }
+
+    /**
+     * Drop every pin held by an owner, e.g. when an upload finished
+     */
+    public synchronized void releaseAll(String owner) {
+        if (!pins.contains(owner)) return;
+        pins.edit().remove(owner).apply();
+        trim();
+    }
+
+    public synchronized boolean isPinned(String digest) {
+        for (Object value : pins.getAll().values()) {
+            if (value instanceof Set && ((Set<?>) value).contains(digest)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Evict unpinned entries, least recently used first, until the store fits its quota
+     */
+    public synchronized long trim() {
+        // Staging files belong to copies in progress and are never evicted
+        File[] files = directory.listFiles((dir, name) -> !name.endsWith(STAGING_SUFFIX));
+        if (files == null) return 0;
+
+        long total = 0;
+        for (File file : files) total += file.length();
+        if (total <= quotaBytes) return total;
+
+        Set<String> pinned = new HashSet<>();
+        for (Map.Entry<String, ?> owner : pins.getAll().entrySet()) {
+            if (owner.getValue() instanceof Set) {
+                for (Object digest : (Set<?>) owner.getValue()) pinned.add(String.valueOf(digest));
+            }
+        }
+
+        List<File> candidates = new ArrayList<>(Arrays.asList(files));
+        candidates.sort((a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : candidates) {
+            if (total <= quotaBytes) break;
+            if (pinned.contains(digestOf(file))) continue;
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+                Log.d(TAG, "Evicted " + file.getName() + " (" + length + " bytes)");
+            }
+        }
+        if (total > quotaBytes) {
+            Log.w(TAG, "Store is over quota with pinned entries only: " + total + " bytes");
+        }
+        return total;
+    }
+
+    // ==================== WRITING ====================
+
+    private Entry putFromDescriptor(Uri source, ParcelFileDescriptor pfd, String extension, String owner) throws IOException {
+        String digest;
+        try (FileInputStream in = new FileInputStream(pfd.getFileDescriptor())) {
+            FileChannel channel = in.getChannel();
+            digest = hash(channel);
+
+            Entry existing = lookup(digest, extension, owner);
+            if (existing != null) return existing;
+
+            // Miss: copy kernel-side from the same descriptor
+            channel.position(0);
+            File staging = stagingFile(digest);
+            try (FileOutputStream out = new FileOutputStream(staging)) {
+                FileChannel target = out.getChannel();
+                long size = channel.size();
+                long position = 0;
+                while (position < size) {
+                    long moved = target.transferFrom(channel, position, size - position);
+                    if (moved <= 0) break;
+                    position += moved;
+                }
+                if (position != size) throw new IOException("Short copy from " + source);
+            }
+            return commit(staging, digest, extension, owner);
+        }
+    }
+
+    /**
+     * Fallback for providers that only hand out a stream: hash while copying, then dedupe
+     */
+    private Entry putFromStream(Uri source, String extension, String owner) throws IOException {
+        MessageDigest sha = newDigest();
+        File staging = stagingFile(Long.toHexString(System.nanoTime()));
+        try (InputStream raw = context.getContentResolver().openInputStream(source)) {
+            if (raw == null) throw new IOException("Cannot open " + source);
+            try (InputStream in = new DigestInputStream(raw, sha);
+                 OutputStream out = new FileOutputStream(staging)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+        }
+        String digest = toHex(sha.digest());
+        Entry existing = lookup(digest, extension, owner);
+        if (existing != null) {
+            staging.delete();
+            return existing;
+        }
+        return commit(staging, digest, extension, owner);
+    }
+
+    // Pinning happens under the same lock as the lookup so a concurrent trim can't evict the entry
+    private synchronized Entry lookup(String digest, String extension, String owner) {
+        File file = fileFor(digest, extension);
+        if (!file.exists()) return null;
+        // Touch for LRU ordering
+        file.setLastModified(System.currentTimeMillis());
+        pin(owner, digest);
+        return new Entry(digest, file, true);
+    }
+
+    private synchronized Entry commit(File staging, String digest, String extension, String owner) throws IOException {
+        File file = fileFor(digest, extension);
+        if (file.exists()) {
+            // Another thread stored the same content meanwhile
+            staging.delete();
+            file.setLastModified(System.currentTimeMillis());
+            pin(owner, digest);
+            return new Entry(digest, file, true);
+        }
+        if (!staging.renameTo(file)) {
+            staging.delete();
+            throw new IOException("Could not move " + staging + " to " + file);
+        }
+        pin(owner, digest);
+        return new Entry(digest, file, false);
+    }
+
+    private ParcelFileDescriptor openDescriptor(Uri source) {
+        try {
+            if ("file".equals(source.getScheme()) && source.getPath() != null) {
+                return ParcelFileDescriptor.open(new File(source.getPath()), ParcelFileDescriptor.MODE_READ_ONLY);
+            }
+            ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(source, "r");
+            // Pipes and sockets can't be rewound for the second pass
+            if (pfd != null && pfd.getStatSize() < 0) {
+                pfd.close();
+                return null;
+            }
+            return pfd;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String hash(FileChannel channel) throws IOException {
+        MessageDigest sha = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            sha.update(buffer);
+            buffer.clear();
+        }
+        return toHex(sha.digest());
+    }
+
+    private File fileFor(String digest, String extension) {
+        String suffix = extension == null || extension.isEmpty() ? "" : (extension.startsWith(".") ? extension : "." + extension);
+        return new File(directory, digest + suffix);
+    }
+
+    private File stagingFile(String name) {
+        return new File(directory, name + "-" + Thread.currentThread().getId() + STAGING_SUFFIX);
+    }
+
+    private void deleteStaleStagingFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(STAGING_SUFFIX));
+        if (files == null) return;
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private static String digestOf(File file) {
+        String name = file.getName();
+        int dot = name.indexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        final char[] digits = "0123456789abcdef".toCharArray();
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = digits[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = digits[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.soukify.data.models;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.FieldValue;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Epoch Millis - Decodes the createdAt values found in shop and product documents
+ *
+ * Documents written over the app's history hold a Firestore Timestamp, a Long, a String of
+ * milliseconds (products) or a "dd/MM/yyyy HH:mm" String (shops), the latter with the digits of
+ * the device locale. Models decode the value once, when it is set, into milliseconds since the
+ * epoch, so sorting only ever compares longs, and write it back as a Timestamp. A value that
+ * cannot be decoded is written back as it was read, and the server's time is only asked for when
+ * the document is created, so saving a model never replaces a date it could not read.
+ */
+final class EpochMillis {
+    // Shop dates as earlier versions stored them, and as the shop page still shows them
+    static final String DATE_FORMAT = "dd/MM/yyyy HH:mm";
+
+    private EpochMillis() {}
+
+    /**
+     * Milliseconds since the epoch of a stored createdAt; 0 when missing or unreadable
+     */
+    static long decode(Object value) {
+        if (value instanceof Timestamp) return ((Timestamp) value).toDate().getTime();
+        if (value instanceof Date) return ((Date) value).getTime();
+        if (value instanceof Number) return ((Number) value).longValue();
+        if (value instanceof String) return decode((String) value);
+        return 0;
+    }
+
+    private static long decode(String value) {
+        String text = latinDigits(value).trim();
+        if (text.isEmpty()) return 0;
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException ignored) {
+            // Not milliseconds; try the legacy date format
+        }
+        // Written with the device locale; digits are already Latin, the rest may still differ
+        for (Locale locale : new Locale[]{Locale.ROOT, Locale.getDefault(), new Locale("ar")}) {
+            try {
+                Date date = new SimpleDateFormat(DATE_FORMAT, locale).parse(text);
+                if (date != null) return date.getTime();
+            } catch (ParseException ignored) {
+                // Try the next locale
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * {@code text} with Arabic-Indic and Persian digits made Latin, and the bidi marks an Arabic
+     * locale puts around them dropped
+     */
+    static String latinDigits(String text) {
+        StringBuilder latin = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            char replacement;
+            if (c >= '\u0660' && c <= '\u0669') {
+                replacement = (char) ('0' + c - '\u0660');
+            } else if (c >= '\u06F0' && c <= '\u06F9') {
+                replacement = (char) ('0' + c - '\u06F0');
+            } else if (c == '\u061C' || c == '\u200E' || c == '\u200F') {
+                replacement = 0;
+            } else {
+                if (latin != null) latin.append(c);
+                continue;
+            }
+            if (latin == null) latin = new StringBuilder(text.length()).append(text, 0, i);
+            if (replacement != 0) latin.append(replacement);
+        }
+        return latin != null ? latin.toString() : text;
+    }
+
+    /**
+     * Value to store back: a Timestamp for a known {@code millis}, otherwise {@code stored}, the
+     * value as read (null when the document had none) or {@link #serverTimestamp()} on create
+     */
+    static Object encode(long millis, Object stored) {
+        return millis > 0 ? new Timestamp(new Date(millis)) : stored;
+    }
+
+    /**
+     * The stored value to keep when {@code value} does not decode, so it is written back as is
+     */
+    static Object undecoded(Object value, long millis) {
+        if (millis > 0) return null;
+        if (value instanceof String && ((String) value).trim().isEmpty()) return null;
+        return value;
+    }
+
+    /**
+     * Stored value of a document being created: the server's time
+     */
+    static Object serverTimestamp() {
+        return FieldValue.serverTimestamp();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.soukify.data.models;
 
+import com.google.firebase.firestore.Exclude;
 import com.google.firebase.firestore.ServerTimestamp;
 import java.util.Date;
 
@@ -13,6 +14,8 @@ public class Message {
     private boolean isRead;
     @ServerTimestamp
     private Date createdAt;
+    // Still in the local outbox, not yet confirmed by Firestore
+    private boolean pending;
 
     // Constructeur vide requis pour Firestore
     public Message() {
@@ -53,4 +56,9 @@ public class Message {
 
     public Date getCreatedAt() { return createdAt; }
     public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+
+    @Exclude
+    public boolean isPending() { return pending; }
+    @Exclude
+    public void setPending(boolean pending) { this.pending = pending; }
 }
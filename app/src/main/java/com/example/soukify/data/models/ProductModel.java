@@ -4,7 +4,6 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import com.google.firebase.firestore.Exclude;
 import com.google.firebase.firestore.IgnoreExtraProperties;
-import com.google.firebase.Timestamp;
 
 import java.util.List;
 import java.util.ArrayList;
@@ -22,8 +21,11 @@ public class ProductModel implements Parcelable {
     private String productType;      // VARCHAR(50) NOT NULL - direct product type storage
     private double price;            // DECIMAL(10,2)
     private String currency;         // VARCHAR(10) DEFAULT 'MAD'
+    private Double basePrice;        // price in RateTable.BASE_CURRENCY, maintained on write
     private List<String> imageIds;   // List of image IDs for carousel
-    private Object createdAt;        // TIMESTAMP - could be String or Firebase Timestamp
+    private long createdAtMillis;    // TIMESTAMP - 0 until the server assigns it
+    @Exclude
+    private Object createdAtStored;  // createdAt as read when it does not decode, or the server stamp on create
     private int likesCount;          // INTEGER DEFAULT 0 - Number of likes
 
     // ✅ État utilisateur (ne pas sérialiser dans Firestore)
@@ -58,7 +60,6 @@ public class ProductModel implements Parcelable {
         this.price = price;
         this.currency = currency != null ? currency : "MAD";
         this.imageIds = new ArrayList<>();
-        this.createdAt = String.valueOf(System.currentTimeMillis());
         this.likesCount = 0;
         this.isLikedByUser = false;
         this.isFavoriteByUser = false;
@@ -73,7 +74,7 @@ public class ProductModel implements Parcelable {
         this.price = price;
         this.currency = currency != null ? currency : "MAD";
         this.imageIds = new ArrayList<>();
-        this.createdAt = String.valueOf(createdAt);
+        this.createdAtMillis = createdAt;
         this.likesCount = 0;
         this.isLikedByUser = false;
         this.isFavoriteByUser = false;
@@ -88,7 +89,6 @@ public class ProductModel implements Parcelable {
         this.price = price;
         this.currency = currency != null ? currency : "MAD";
         this.imageIds = imageIds != null ? new ArrayList<>(imageIds) : new ArrayList<>();
-        this.createdAt = String.valueOf(System.currentTimeMillis());
         this.likesCount = 0;
         this.isLikedByUser = false;
         this.isFavoriteByUser = false;
@@ -153,6 +153,19 @@ public class ProductModel implements Parcelable {
         this.currency = currency;
     }
 
+    /**
+     * Price converted to the base currency (MAD) when the product was last saved; products in
+     * different currencies sort and range-filter together on it. Null for products saved before it
+     * existed.
+     */
+    public Double getBasePrice() {
+        return basePrice;
+    }
+
+    public void setBasePrice(Double basePrice) {
+        this.basePrice = basePrice;
+    }
+
     public List<String> getImageIds() {
         return imageIds;
     }
@@ -163,22 +176,29 @@ public class ProductModel implements Parcelable {
 
     @com.google.firebase.firestore.PropertyName("createdAt")
     public Object getCreatedAt() {
-        return createdAt;
-    }
-
-    @com.google.firebase.firestore.Exclude
-    public String getCreatedAtString() {
-        if (createdAt == null) return null;
-        if (createdAt instanceof String) return (String) createdAt;
-        if (createdAt instanceof com.google.firebase.Timestamp) {
-            return String.valueOf(((com.google.firebase.Timestamp) createdAt).toDate().getTime());
-        }
-        return createdAt.toString();
+        return EpochMillis.encode(createdAtMillis, createdAtStored);
     }
 
     @com.google.firebase.firestore.PropertyName("createdAt")
     public void setCreatedAt(Object createdAt) {
-        this.createdAt = createdAt;
+        this.createdAtMillis = EpochMillis.decode(createdAt);
+        this.createdAtStored = EpochMillis.undecoded(createdAt, createdAtMillis);
+    }
+
+    /**
+     * Has the document being created take the server's time as createdAt; call it on create only
+     */
+    public void stampCreatedAt() {
+        this.createdAtMillis = 0;
+        this.createdAtStored = EpochMillis.serverTimestamp();
+    }
+
+    /**
+     * Creation time in milliseconds since the epoch; 0 until the server has assigned it
+     */
+    @Exclude
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
     }
 
     public int getLikesCount() {
@@ -347,8 +367,8 @@ public class ProductModel implements Parcelable {
         price = in.readDouble();
         currency = in.readString();
         imageIds = in.createStringArrayList();
-        String createdAtStr = in.readString();
-        createdAt = createdAtStr;
+        createdAtMillis = in.readLong();
+        createdAtStored = in.readString();
         likesCount = in.readInt();
         isLikedByUser = in.readByte() != 0;      // ✅ Lecture du parcel
         isFavoriteByUser = in.readByte() != 0;   // ✅ Lecture du parcel
@@ -359,6 +379,7 @@ public class ProductModel implements Parcelable {
         height = in.readByte() == 1 ? in.readDouble() : null;
         color = in.readString();
         material = in.readString();
+        basePrice = in.readByte() == 1 ? in.readDouble() : null;
     }
 
     public static final Creator<ProductModel> CREATOR = new Creator<ProductModel>() {
@@ -388,7 +409,9 @@ public class ProductModel implements Parcelable {
         dest.writeDouble(price);
         dest.writeString(currency);
         dest.writeStringList(imageIds);
-        dest.writeString(getCreatedAtString());
+        dest.writeLong(createdAtMillis);
+        // An undecoded legacy date is always text; a pending server stamp is not carried over
+        dest.writeString(createdAtStored instanceof String ? (String) createdAtStored : null);
         dest.writeInt(likesCount);
         dest.writeByte((byte) (isLikedByUser ? 1 : 0));      // ✅ Écriture dans le parcel
         dest.writeByte((byte) (isFavoriteByUser ? 1 : 0));   // ✅ Écriture dans le parcel
@@ -419,5 +442,11 @@ public class ProductModel implements Parcelable {
         }
         dest.writeString(color);
         dest.writeString(material);
+        if (basePrice != null) {
+            dest.writeByte((byte) 1);
+            dest.writeDouble(basePrice);
+        } else {
+            dest.writeByte((byte) 0);
+        }
     }
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.example.soukify.data.models;
 
-import com.google.firebase.Timestamp;
+import com.example.soukify.data.hours.WeeklySchedule;
+import com.google.firebase.firestore.Exclude;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -26,17 +28,24 @@ public class ShopModel {
     private int likesCount;
     private int favoritesCount;
     private String searchableName;
-    private Object createdAt;   // Peut être String ou Timestamp
+    private long createdAtMillis;   // 0 until known
+    private Object createdAtStored; // createdAt as read when it does not decode, or the server stamp on create
     private String phone;
     private String email;
     private String address;
     private String userId;
     private String regionId;
     private String cityId;
+    // Geohash of the map position derived from the location (see ShopLocator), for area queries
+    private String geohash;
     private boolean hasPromotion;
     private int searchCount;    // <-- Champ pour le tri "Tendance"
     private String workingHours;
     private String workingDays;
+    // Opening hours as WeeklySchedule ranges; workingHours keeps the text for older app versions
+    private List<Long> openingHours;
+    // Decoded once per instance
+    private WeeklySchedule schedule;
     private String instagram;
     private String facebook;
     private String website;
@@ -44,9 +53,6 @@ public class ShopModel {
     private ArrayList<String> likedByUserIds;
     private Map<String, Float> userRatings;
 
-    // Date formatter for consistent date format
-    private static final String DATE_FORMAT = "dd/MM/yyyy HH:mm";
-
     // Default constructor required for Firestore
     public ShopModel() {
         this.favorite = false;
@@ -73,7 +79,6 @@ public class ShopModel {
         this.liked = false;
         this.likesCount = 0;
         this.searchableName = name.toLowerCase();
-        this.createdAt = formatCurrentDate();
         this.searchCount = 0;
     }
 
@@ -97,7 +102,6 @@ public class ShopModel {
         this.liked = false;
         this.likesCount = 0;
         this.searchableName = name.toLowerCase();
-        this.createdAt = new SimpleDateFormat(DATE_FORMAT, Locale.getDefault()).format(new Date());
         this.searchCount = 0;
         this.workingHours = "";
         this.workingDays = "";
@@ -110,10 +114,42 @@ public class ShopModel {
         this.userRatings = new HashMap<>();
     }
 
-    // Helper method to format current date consistently
-    private String formatCurrentDate() {
-        SimpleDateFormat sdf = new SimpleDateFormat(DATE_FORMAT, Locale.getDefault());
-        return sdf.format(new Date());
+    // Copy to edit, so lists holding the original (the search catalog) see a new instance instead of a changed one
+    public ShopModel(ShopModel other) {
+        this.shopId = other.shopId;
+        this.name = other.name;
+        this.category = other.category;
+        this.description = other.description;
+        this.rating = other.rating;
+        this.reviews = other.reviews;
+        this.location = other.location;
+        this.imageUrl = other.imageUrl;
+        this.favorite = other.favorite;
+        this.liked = other.liked;
+        this.likesCount = other.likesCount;
+        this.favoritesCount = other.favoritesCount;
+        this.searchableName = other.searchableName;
+        this.createdAtMillis = other.createdAtMillis;
+        this.createdAtStored = other.createdAtStored;
+        this.phone = other.phone;
+        this.email = other.email;
+        this.address = other.address;
+        this.userId = other.userId;
+        this.regionId = other.regionId;
+        this.cityId = other.cityId;
+        this.geohash = other.geohash;
+        this.hasPromotion = other.hasPromotion;
+        this.searchCount = other.searchCount;
+        this.workingHours = other.workingHours;
+        this.workingDays = other.workingDays;
+        this.openingHours = other.openingHours != null ? new ArrayList<>(other.openingHours) : null;
+        this.schedule = other.schedule;
+        this.instagram = other.instagram;
+        this.facebook = other.facebook;
+        this.website = other.website;
+        this.hasLivraison = other.hasLivraison;
+        this.likedByUserIds = other.likedByUserIds != null ? new ArrayList<>(other.likedByUserIds) : null;
+        this.userRatings = other.userRatings != null ? new HashMap<>(other.userRatings) : null;
     }
 
     // ---------- Getters & Setters ----------
@@ -229,36 +265,35 @@ public class ShopModel {
 
     @com.google.firebase.firestore.PropertyName("createdAt")
     public Object getCreatedAt() {
-        return createdAt;
-    }
-
-    @com.google.firebase.firestore.Exclude
-    public String getCreatedAtString() {
-        if (createdAt == null) return null;
-        if (createdAt instanceof String) return (String) createdAt;
-        if (createdAt instanceof Timestamp) {
-            return new SimpleDateFormat(DATE_FORMAT, Locale.getDefault()).format(((Timestamp) createdAt).toDate());
-        }
-        return createdAt.toString();
+        return EpochMillis.encode(createdAtMillis, createdAtStored);
     }
 
     @com.google.firebase.firestore.PropertyName("createdAt")
     public void setCreatedAt(Object createdAt) {
-        this.createdAt = createdAt;
+        this.createdAtMillis = EpochMillis.decode(createdAt);
+        this.createdAtStored = EpochMillis.undecoded(createdAt, createdAtMillis);
     }
 
-    public long getCreatedAtTimestamp() {
-        String dateStr = getCreatedAtString();
-        if (dateStr == null || dateStr.isEmpty()) {
-            return System.currentTimeMillis();
-        }
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat(DATE_FORMAT, Locale.getDefault());
-            Date date = sdf.parse(dateStr);
-            return date != null ? date.getTime() : System.currentTimeMillis();
-        } catch (Exception e) {
-            return System.currentTimeMillis();
-        }
+    /**
+     * Has the document being created take the server's time as createdAt; call it on create only
+     */
+    public void stampCreatedAt() {
+        this.createdAtMillis = 0;
+        this.createdAtStored = EpochMillis.serverTimestamp();
+    }
+
+    /**
+     * Creation time in milliseconds since the epoch; 0 until the server has assigned it
+     */
+    @Exclude
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    @Exclude
+    public String getCreatedAtString() {
+        if (createdAtMillis <= 0) return null;
+        return new SimpleDateFormat(EpochMillis.DATE_FORMAT, Locale.getDefault()).format(new Date(createdAtMillis));
     }
 
     public String getPhone() { return phone; }
@@ -273,13 +308,43 @@ public class ShopModel {
     public void setRegionId(String regionId) { this.regionId = regionId; }
     public String getCityId() { return cityId; }
     public void setCityId(String cityId) { this.cityId = cityId; }
+    public String getGeohash() { return geohash; }
+    public void setGeohash(String geohash) { this.geohash = geohash; }
     public boolean isHasPromotion() { return hasPromotion; }
     public void setHasPromotion(boolean hasPromotion) { this.hasPromotion = hasPromotion; }
     public int getSearchCount() { return searchCount; }
     public void setSearchCount(int searchCount) { this.searchCount = searchCount; }
 
     public String getWorkingHours() { return workingHours; }
-    public void setWorkingHours(String workingHours) { this.workingHours = workingHours; }
+    public void setWorkingHours(String workingHours) {
+        this.workingHours = workingHours;
+        // Without stored ranges the schedule comes from this string
+        if (openingHours == null) this.schedule = null;
+    }
+
+    public List<Long> getOpeningHours() {
+        // Shops saved before openingHours existed get it on their next save
+        if (openingHours == null && workingHours != null && !workingHours.isEmpty()) {
+            openingHours = getSchedule().toRanges();
+        }
+        return openingHours;
+    }
+
+    public void setOpeningHours(List<Long> openingHours) {
+        this.openingHours = openingHours;
+        this.schedule = null;
+    }
+
+    @Exclude
+    public WeeklySchedule getSchedule() {
+        if (schedule == null) {
+            schedule = openingHours != null
+                    ? WeeklySchedule.fromRanges(openingHours)
+                    : WeeklySchedule.parseLegacy(workingHours);
+        }
+        return schedule;
+    }
+
     public String getWorkingDays() { return workingDays; }
     public void setWorkingDays(String workingDays) { this.workingDays = workingDays; }
     public String getInstagram() { return instagram; }
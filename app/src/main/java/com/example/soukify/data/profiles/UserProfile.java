@@ -0,0 +1,56 @@
+package com.example.soukify.data.profiles;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+/**
+ * User Profile - The public part of a user document shown next to messages and conversations
+ */
+public final class UserProfile {
+    public static final String DEFAULT_NAME = "Utilisateur";
+
+    private final String userId;
+    private final String fullName;
+    private final String profileImage;
+
+    public UserProfile(String userId, String fullName, String profileImage) {
+        this.userId = userId;
+        this.fullName = fullName != null && !fullName.isEmpty() ? fullName : DEFAULT_NAME;
+        this.profileImage = profileImage != null ? profileImage : "";
+    }
+
+    /**
+     * Stand-in for a user whose document doesn't exist or couldn't be read
+     */
+    public static UserProfile unknown(String userId) {
+        return new UserProfile(userId, null, null);
+    }
+
+    public static UserProfile fromDocument(DocumentSnapshot doc) {
+        if (!doc.exists()) return unknown(doc.getId());
+        String fullName = doc.getString("fullName");
+        if (fullName == null || fullName.isEmpty()) {
+            // Older accounts only have "name"
+            fullName = doc.getString("name");
+        }
+        return new UserProfile(doc.getId(), fullName, doc.getString("profileImage"));
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    /**
+     * Image URL, or an empty string when the user has none
+     */
+    public String getProfileImage() {
+        return profileImage;
+    }
+
+    public boolean hasProfileImage() {
+        return !profileImage.isEmpty();
+    }
+}
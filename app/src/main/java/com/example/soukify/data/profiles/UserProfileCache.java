@@ -0,0 +1,231 @@
+package com.example.soukify.data.profiles;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.example.soukify.data.remote.FirestoreMeter;
+import com.example.soukify.utils.log.AppLog;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * User Profile Cache - Names and avatars of other users, shared by chat and the conversation list
+ *
+ * Profiles are kept for {@link #TTL_MS} in an LRU of at most {@link #MAX_ENTRIES} users. Lookups of
+ * an id already being loaded share its pending Task, and every miss arriving within
+ * {@link #BATCH_WINDOW_MS} is resolved together with document-id {@code whereIn} queries of up to
+ * {@link #MAX_IN_VALUES} ids, so a conversation list binding twenty rows costs one read round trip.
+ * Users without a document are cached as {@link UserProfile#unknown} so they aren't read again on
+ * every bind.
+ *
+ * The signed-in user's own profile is held by a snapshot listener on their document instead: it
+ * never expires, follows profile edits immediately, and makes sending a message free of reads.
+ *
+ * Lookups never fail; a user that couldn't be read resolves to {@link UserProfile#unknown} and is
+ * not cached. Safe to call from any thread; Tasks complete on the main thread.
+ */
+public class UserProfileCache {
+    private static final String TAG = "UserProfileCache";
+
+    private static final String COLLECTION_USERS = "users";
+    public static final long TTL_MS = 30 * 60 * 1000L;
+    public static final int MAX_ENTRIES = 256;
+    // Firestore's limit on values in a single whereIn
+    private static final int MAX_IN_VALUES = 30;
+    private static final long BATCH_WINDOW_MS = 20;
+
+    private static volatile UserProfileCache instance;
+
+    private final FirebaseFirestore db;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable scheduledBatch = this::resolvePending;
+
+    private static final class Entry {
+        final UserProfile profile;
+        final long loadedAt;
+
+        Entry(UserProfile profile, long loadedAt) {
+            this.profile = profile;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    // Guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final Map<String, TaskCompletionSource<UserProfile>> inFlight = new HashMap<>();
+    // Ids in inFlight whose query hasn't been sent yet
+    private final Set<String> pending = new LinkedHashSet<>();
+    private boolean batchScheduled;
+    private String ownUserId;
+    private UserProfile ownProfile;
+
+    // Main thread only
+    private ListenerRegistration ownRegistration;
+
+    private UserProfileCache(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Create the cache and start following the signed-in user's profile; called once from
+     * SoukifyApplication.onCreate
+     */
+    public static synchronized void init() {
+        if (instance == null) {
+            UserProfileCache cache = new UserProfileCache(FirebaseFirestore.getInstance());
+            instance = cache;
+            FirebaseAuth.getInstance().addAuthStateListener(auth -> cache.watchOwnProfile(auth.getUid()));
+        }
+    }
+
+    public static UserProfileCache get() {
+        UserProfileCache cache = instance;
+        if (cache == null) throw new IllegalStateException("UserProfileCache.init() was not called");
+        return cache;
+    }
+
+    // ==================== LOOKUP ====================
+
+    public Task<UserProfile> getProfile(String userId) {
+        if (userId == null || userId.isEmpty()) return Tasks.forResult(UserProfile.unknown(userId));
+        synchronized (this) {
+            UserProfile cached = peekLocked(userId);
+            if (cached != null) return Tasks.forResult(cached);
+
+            TaskCompletionSource<UserProfile> source = inFlight.get(userId);
+            if (source == null) {
+                source = new TaskCompletionSource<>();
+                inFlight.put(userId, source);
+                pending.add(userId);
+                if (!batchScheduled) {
+                    batchScheduled = true;
+                    handler.postDelayed(scheduledBatch, BATCH_WINDOW_MS);
+                }
+            }
+            return source.getTask();
+        }
+    }
+
+    /**
+     * The cached profile of {@code userId}, or null when it would have to be read
+     */
+    public synchronized UserProfile peek(String userId) {
+        return userId != null ? peekLocked(userId) : null;
+    }
+
+    public synchronized void invalidate(String userId) {
+        entries.remove(userId);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private UserProfile peekLocked(String userId) {
+        if (userId.equals(ownUserId) && ownProfile != null) return ownProfile;
+        Entry entry = entries.get(userId);
+        if (entry == null) return null;
+        if (SystemClock.elapsedRealtime() - entry.loadedAt > TTL_MS) {
+            entries.remove(userId);
+            return null;
+        }
+        return entry.profile;
+    }
+
+    // ==================== BATCHING ====================
+
+    private void resolvePending() {
+        List<String> ids;
+        synchronized (this) {
+            ids = new ArrayList<>(pending);
+            pending.clear();
+            batchScheduled = false;
+        }
+        for (int from = 0; from < ids.size(); from += MAX_IN_VALUES) {
+            List<String> chunk = new ArrayList<>(ids.subList(from, Math.min(ids.size(), from + MAX_IN_VALUES)));
+            FirestoreMeter.read("UserProfileCache.batch", db.collection(COLLECTION_USERS)
+                            .whereIn(FieldPath.documentId(), chunk)
+                            .get())
+                    .addOnCompleteListener(task -> onChunkLoaded(chunk, task));
+        }
+    }
+
+    private void onChunkLoaded(List<String> chunk, Task<QuerySnapshot> task) {
+        boolean loaded = task.isSuccessful();
+        Map<String, UserProfile> found = new HashMap<>();
+        if (loaded) {
+            for (DocumentSnapshot doc : task.getResult().getDocuments()) {
+                found.put(doc.getId(), UserProfile.fromDocument(doc));
+            }
+        } else {
+            AppLog.w(TAG, "Could not load " + chunk.size() + " user profiles", task.getException());
+        }
+
+        Map<TaskCompletionSource<UserProfile>, UserProfile> results = new HashMap<>();
+        synchronized (this) {
+            long now = SystemClock.elapsedRealtime();
+            for (String userId : chunk) {
+                UserProfile profile = found.get(userId);
+                if (profile == null) profile = UserProfile.unknown(userId);
+                if (loaded) entries.put(userId, new Entry(profile, now));
+                TaskCompletionSource<UserProfile> source = inFlight.remove(userId);
+                if (source != null) results.put(source, profile);
+            }
+        }
+        for (Map.Entry<TaskCompletionSource<UserProfile>, UserProfile> result : results.entrySet()) {
+            result.getKey().trySetResult(result.getValue());
+        }
+    }
+
+    // ==================== OWN PROFILE ====================
+
+    private void watchOwnProfile(String userId) {
+        synchronized (this) {
+            if (Objects.equals(userId, ownUserId)) return;
+            ownUserId = userId;
+            ownProfile = null;
+            // Profiles read for the previous account aren't shown to the next one
+            entries.clear();
+        }
+        if (ownRegistration != null) {
+            ownRegistration.remove();
+            ownRegistration = null;
+        }
+        if (userId == null) return;
+
+        ownRegistration = db.collection(COLLECTION_USERS).document(userId)
+                .addSnapshotListener(FirestoreMeter.listener("UserProfileCache.own", (snapshot, error) -> {
+                    if (error != null) {
+                        AppLog.w(TAG, "Own profile listener failed", error);
+                        return;
+                    }
+                    if (snapshot == null) return;
+                    UserProfile profile = UserProfile.fromDocument(snapshot);
+                    synchronized (UserProfileCache.this) {
+                        if (userId.equals(ownUserId)) ownProfile = profile;
+                    }
+                }));
+    }
+}
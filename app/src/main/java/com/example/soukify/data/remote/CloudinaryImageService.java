@@ -1,24 +1,50 @@
 package com.example.soukify.data.remote;
 
+import android.app.Application;
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.graphics.Bitmap;
 import android.net.Uri;
 import android.util.Log;
+import android.webkit.MimeTypeMap;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import com.example.soukify.data.local.LocalMediaStore;
+import com.example.soukify.utils.concurrent.AppExecutors;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public class CloudinaryImageService {
     private static final String TAG = "CloudinaryImageService";
+    private static final String UPLOAD_SEGMENT = "/upload/";
+
+    // Uploaded media is keyed by content: public id = content/<sha-256 of the bytes>
+    private static final String CONTENT_FOLDER = "content/";
+    // Local manifest of the digests of media this device already uploaded
+    private static final String MANIFEST_PREFS = "cloudinary_upload_manifest";
+    private static final int EXISTS_TIMEOUT_MS = 5000;
+
+    // Admin API limit for a single delete_resources call
+    public static final int MAX_DELETE_BATCH = 100;
     private final Cloudinary cloudinary;
     private final Context context;
+    private final LocalMediaStore mediaStore;
+    private final SharedPreferences manifest;
+    private final MediaReferences references;
 
     public interface MediaUploadCallback {
         void onSuccess(String mediaUrl);
@@ -34,10 +60,25 @@ public class CloudinaryImageService {
     public CloudinaryImageService(Context context) {
         this.context = context;
         this.cloudinary = CloudinaryConfig.getInstance();
+        this.mediaStore = LocalMediaStore.getInstance(context);
+        this.manifest = context.getApplicationContext().getSharedPreferences(MANIFEST_PREFS, Context.MODE_PRIVATE);
+        this.references = new MediaReferences(
+                FirebaseManager.getInstance((Application) context.getApplicationContext()).getFirestore());
     }
 
+    /**
+     * Upload picked media. Assets are stored under a public id derived from the content digest, so
+     * {@code publicId} is only used to track the pending upload: identical bytes (a catalog photo
+     * reused across listings, a retry after a timeout) resolve to the same asset and are never
+     * transferred twice. Lookup order: local manifest, then a HEAD on the CDN, then the upload.
+     * Every path reports the same URL for the same bytes, {@link #contentUrl}, which is what lets
+     * {@link MediaReferences} find the other documents using an asset.
+     */
     public void uploadMedia(Uri mediaUri, String publicId, MediaUploadCallback callback) {
-        new Thread(() -> {
+        // The user is waiting on uploads, so they go ahead of queued background work
+        AppExecutors.get().io().executeForeground(() -> {
+            // The staged copy stays pinned while this upload is pending
+            String owner = "upload:" + publicId;
             try {
                 callback.onProgress(10);
                 
@@ -49,40 +90,55 @@ public class CloudinaryImageService {
                 
                 callback.onProgress(30);
                 
-                // Create temporary file
-                File tempFile = createFileFromUri(mediaUri, isVideo);
+                // Stage in the local media store; re-picking the same media reuses the stored copy
+                String format = formatOf(mediaUri, isVideo);
+                LocalMediaStore.Entry staged = mediaStore.put(mediaUri, format, owner);
+                File stagedFile = staged.getFile();
+                String digest = staged.getDigest();
+                String contentId = CONTENT_FOLDER + digest;
+                String contentUrl = contentUrl(contentId, resourceType);
                 
                 callback.onProgress(50);
+
+                // Already uploaded from this device: no network at all; otherwise it may have been
+                // uploaded from another device or before a reinstall
+                if (manifest.contains(digest) || assetExists(contentUrl)) {
+                    manifest.edit().putString(digest, contentUrl).apply();
+                    Log.d(TAG, "Skipped upload, content already on Cloudinary: " + contentUrl);
+                    callback.onProgress(100);
+                    callback.onSuccess(contentUrl);
+                    return;
+                }
                 
                 // Configure upload options
                 Map<String, Object> uploadOptions = new HashMap<>();
-                uploadOptions.put("public_id", publicId);
+                uploadOptions.put("public_id", contentId);
                 uploadOptions.put("resource_type", resourceType);
-                uploadOptions.put("overwrite", true);
+                // Same id means same bytes: never replace an existing asset
+                uploadOptions.put("overwrite", false);
                 
                 callback.onProgress(70);
                 
                 // Upload to Cloudinary
-                Map<String, Object> uploadResult = cloudinary.uploader().upload(tempFile, uploadOptions);
+                Map<String, Object> uploadResult = cloudinary.uploader().upload(stagedFile, uploadOptions);
                 
                 callback.onProgress(90);
                 
-                // Get the secure URL
-                String mediaUrl = (String) uploadResult.get("secure_url");
-                
-                // Clean up temporary file
-                tempFile.delete();
+                // secure_url carries a version and the format; the asset's own URL has neither
+                Log.d(TAG, resourceType + " uploaded successfully: " + uploadResult.get("secure_url"));
+                manifest.edit().putString(digest, contentUrl).apply();
                 
                 callback.onProgress(100);
-                callback.onSuccess(mediaUrl);
-                
-                Log.d(TAG, resourceType + " uploaded successfully: " + mediaUrl);
+                callback.onSuccess(contentUrl);
                 
             } catch (Exception e) {
                 Log.e(TAG, "Error uploading media", e);
                 callback.onError("Failed to upload media: " + e.getMessage());
+            } finally {
+                // No longer needed by this upload; the quota decides when the file goes
+                mediaStore.releaseAll(owner);
             }
-        }).start();
+        });
     }
 
     public void uploadImage(Uri imageUri, String publicId, MediaUploadCallback callback) {
@@ -90,7 +146,7 @@ public class CloudinaryImageService {
     }
 
     public void uploadImage(Bitmap bitmap, String publicId, MediaUploadCallback callback) {
-        new Thread(() -> {
+        AppExecutors.get().io().executeForeground(() -> {
             try {
                 callback.onProgress(10);
                 
@@ -127,14 +183,15 @@ public class CloudinaryImageService {
                 Log.e(TAG, "Error uploading bitmap", e);
                 callback.onError("Failed to upload image: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void deleteMedia(String publicId, MediaDeleteCallback callback) {
-        new Thread(() -> {
+        AppExecutors.get().io().execute(() -> {
             try {
                 // Try to delete as image first
                 cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+                forgetUploads(Collections.singletonList(publicId));
                 
                 // Also try to delete as video (won't fail if it doesn't exist)
                 try {
@@ -151,25 +208,152 @@ public class CloudinaryImageService {
                 Log.e(TAG, "Error deleting media", e);
                 callback.onError("Failed to delete media: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
-    private File createFileFromUri(Uri uri, boolean isVideo) throws IOException {
-        String fileName = "temp_media_" + System.currentTimeMillis() + 
-                         (isVideo ? ".mp4" : ".jpg");
-        File tempFile = new File(context.getCacheDir(), fileName);
-        
-        try (InputStream inputStream = context.getContentResolver().openInputStream(uri);
-             FileOutputStream outputStream = new FileOutputStream(tempFile)) {
-            
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
+    /**
+     * Delete the asset behind {@code mediaUrl} once no document other than {@code ownerPath} (the
+     * document giving it up, see {@link MediaReferences#path}; may be null) still uses it
+     */
+    public void releaseMedia(String mediaUrl, String ownerPath, MediaDeleteCallback callback) {
+        AppExecutors.get().io().execute(() -> {
+            try {
+                Set<String> ignored = ownerPath != null ? Collections.singleton(ownerPath) : Collections.emptySet();
+                int deleted = deleteUnreferenced(Collections.singletonList(mediaUrl), ignored);
+                Log.d(TAG, (deleted > 0 ? "Media deleted: " : "Media kept or not on Cloudinary: ") + mediaUrl);
+                callback.onSuccess();
+            } catch (Exception e) {
+                Log.e(TAG, "Error releasing media", e);
+                callback.onError("Failed to delete media: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Delete the Cloudinary assets of {@code mediaUrls} that no document outside
+     * {@code ignoredPaths} references any more; returns how many were deleted. Blocking.
+     */
+    public int deleteUnreferenced(Collection<String> mediaUrls, Set<String> ignoredPaths) throws Exception {
+        Set<String> referenced = references.findReferenced(mediaUrls, ignoredPaths);
+        Map<String, Set<String>> publicIdsByType = new HashMap<>();
+        for (String url : mediaUrls) {
+            if (referenced.contains(url)) continue;
+            String publicId = extractPublicId(url);
+            if (publicId == null) continue;
+            String type = extractResourceType(url);
+            Set<String> ids = publicIdsByType.get(type);
+            if (ids == null) {
+                ids = new HashSet<>();
+                publicIdsByType.put(type, ids);
             }
+            ids.add(publicId);
         }
-        
-        return tempFile;
+        int deleted = 0;
+        for (Map.Entry<String, Set<String>> entry : publicIdsByType.entrySet()) {
+            deleteMediaBatch(new ArrayList<>(entry.getValue()), entry.getKey());
+            deleted += entry.getValue().size();
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete up to MAX_DELETE_BATCH assets of one resource type with a single Admin API call.
+     * Blocking: call it from a background lane. Ids that no longer exist are ignored by the API.
+     */
+    public void deleteMediaBatch(List<String> publicIds, String resourceType) throws Exception {
+        if (publicIds == null || publicIds.isEmpty()) return;
+        for (int from = 0; from < publicIds.size(); from += MAX_DELETE_BATCH) {
+            List<String> chunk = publicIds.subList(from, Math.min(from + MAX_DELETE_BATCH, publicIds.size()));
+            cloudinary.api().deleteResources(chunk, ObjectUtils.asMap("resource_type", resourceType));
+            forgetUploads(chunk);
+            Log.d(TAG, "Deleted " + chunk.size() + " " + resourceType + " assets");
+        }
+    }
+
+    /**
+     * Content-addressed assets can be shared by several products, shops or profiles, so callers
+     * must check for other references before deleting one
+     */
+    public static boolean isContentAddressed(String publicId) {
+        return publicId != null && publicId.startsWith(CONTENT_FOLDER);
+    }
+
+    /**
+     * The one URL stored for a content-addressed asset: no version and no format, so it depends on
+     * the public id and resource type alone (Cloudinary delivers the original format)
+     */
+    public static String contentUrl(String publicId, String resourceType) {
+        return CloudinaryConfig.getInstance().url().resourceType(resourceType).secure(true).generate(publicId);
+    }
+
+    /**
+     * Cheap existence check on the CDN (no Admin API quota): HEAD the delivery URL of the asset
+     */
+    private boolean assetExists(String url) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestMethod("HEAD");
+            connection.setConnectTimeout(EXISTS_TIMEOUT_MS);
+            connection.setReadTimeout(EXISTS_TIMEOUT_MS);
+            return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+        } catch (IOException e) {
+            // Unknown: fall through to a normal upload
+            return false;
+        } finally {
+            if (connection != null) connection.disconnect();
+        }
+    }
+
+    private void forgetUploads(List<String> publicIds) {
+        SharedPreferences.Editor editor = manifest.edit();
+        for (String publicId : publicIds) {
+            if (isContentAddressed(publicId)) editor.remove(publicId.substring(CONTENT_FOLDER.length()));
+        }
+        editor.apply();
+    }
+
+    /**
+     * Public ID of a Cloudinary delivery URL, e.g.
+     * https://res.cloudinary.com/cloud/image/upload/v123/folder/product_x_1.jpg -> folder/product_x_1
+     * Returns null for URLs that are not Cloudinary uploads.
+     */
+    public static String extractPublicId(String mediaUrl) {
+        if (mediaUrl == null || !mediaUrl.contains("res.cloudinary.com/")) return null;
+        int uploadAt = mediaUrl.indexOf(UPLOAD_SEGMENT);
+        if (uploadAt < 0) return null;
+
+        String path = mediaUrl.substring(uploadAt + UPLOAD_SEGMENT.length());
+        int query = path.indexOf('?');
+        if (query >= 0) path = path.substring(0, query);
+
+        // Skip transformation segments (w_100,h_100/...) and the version segment (v1234567890/)
+        String[] segments = path.split("/");
+        int first = 0;
+        while (first < segments.length - 1
+                && (segments[first].contains(",") || segments[first].matches("[a-z]{1,2}_[^/]*"))) {
+            first++;
+        }
+        if (first < segments.length - 1 && segments[first].matches("v\\d+")) {
+            first++;
+        }
+
+        StringBuilder publicId = new StringBuilder();
+        for (int i = first; i < segments.length; i++) {
+            if (publicId.length() > 0) publicId.append('/');
+            publicId.append(segments[i]);
+        }
+        int dot = publicId.lastIndexOf(".");
+        int slash = publicId.lastIndexOf("/");
+        if (dot > slash) publicId.setLength(dot);
+        return publicId.length() == 0 ? null : publicId.toString();
+    }
+
+    /**
+     * "video" for Cloudinary video URLs, "image" otherwise
+     */
+    public static String extractResourceType(String mediaUrl) {
+        return mediaUrl != null && mediaUrl.contains("/video/upload/") ? "video" : "image";
     }
 
     private File createFileFromBitmap(Bitmap bitmap) throws IOException {
@@ -183,6 +367,17 @@ public class CloudinaryImageService {
         return tempFile;
     }
 
+    /**
+     * File extension for the picked media's MIME type, so a PNG or WebP is staged and uploaded as what it is
+     */
+    private String formatOf(Uri uri, boolean isVideo) {
+        String mimeType = context.getContentResolver().getType(uri);
+        String extension = mimeType != null ? MimeTypeMap.getSingleton().getExtensionFromMimeType(mimeType) : null;
+        if (extension == null) extension = MimeTypeMap.getFileExtensionFromUrl(uri.toString());
+        if (extension == null || extension.isEmpty()) return isVideo ? "mp4" : "jpg";
+        return extension.toLowerCase(Locale.ROOT);
+    }
+
     private boolean isVideoFile(Uri uri) {
         String mimeType = context.getContentResolver().getType(uri);
         return mimeType != null && mimeType.startsWith("video/");
@@ -0,0 +1,385 @@
+package com.example.soukify.data.remote;
+
+import androidx.annotation.NonNull;
+
+import com.example.soukify.utils.concurrent.AppExecutors;
+import com.example.soukify.utils.log.AppLog;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Firestore Meter - Counts billed Firestore operations per screen and per call site
+ *
+ * Call sites wrap the Task or listener they already have, e.g.
+ * {@code FirestoreMeter.read("ShopAdapter.region", ref.get())}, and keep using the result as before.
+ * Reads are counted the way Firestore bills them: one per returned document, one for an empty
+ * query, and for listeners every added or modified document after the initial snapshot. Results
+ * served from the local cache are counted separately since they are free. Sizes are estimated
+ * with Firestore's storage size rules, on the cpu lane rather than the thread delivering the result.
+ *
+ * Metering is on in debug builds and off (a single branch per call) in release, unless enabled
+ * explicitly for a test run. Per-screen read budgets flag read amplification as soon as a screen
+ * visit goes over, and {@link #assertReadBudget} lets instrumentation tests fail on it.
+ */
+public final class FirestoreMeter {
+    private static final String TAG = "FirestoreMeter";
+
+    public static final String NO_SCREEN = "(none)";
+
+    private static volatile boolean enabled = AppLog.DEBUG;
+    private static volatile String currentScreen = NO_SCREEN;
+
+    private static final ConcurrentHashMap<String, Usage> bySite = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Usage> byScreen = new ConcurrentHashMap<>();
+    // Usage of the current visit of each screen, reset when the screen is entered again
+    private static final ConcurrentHashMap<String, Usage> byVisit = new ConcurrentHashMap<>();
+    private static final Map<String, Long> readBudgets = new ConcurrentHashMap<>();
+    private static final Map<String, Boolean> budgetReported = new ConcurrentHashMap<>();
+
+    private FirestoreMeter() {}
+
+    /**
+     * Counters for one screen or call site
+     */
+    public static final class Usage {
+        public final String key;
+        final AtomicLong reads = new AtomicLong();
+        final AtomicLong cachedReads = new AtomicLong();
+        final AtomicLong writes = new AtomicLong();
+        final AtomicLong deliveries = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicLong calls = new AtomicLong();
+
+        Usage(String key) {
+            this.key = key;
+        }
+
+        public long getReads() {
+            return reads.get();
+        }
+
+        public long getCachedReads() {
+            return cachedReads.get();
+        }
+
+        public long getWrites() {
+            return writes.get();
+        }
+
+        public long getDeliveries() {
+            return deliveries.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-40s calls=%-5d reads=%-6d cached=%-6d writes=%-5d listens=%-5d %s",
+                    key, calls.get(), reads.get(), cachedReads.get(), writes.get(), deliveries.get(),
+                    formatBytes(bytes.get()));
+        }
+    }
+
+    // ==================== CONFIGURATION ====================
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turn metering on or off, e.g. from an instrumentation test against a release-like build
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * Called when a screen becomes visible; starts a new visit for budget accounting
+     */
+    public static void enterScreen(String screen) {
+        if (!enabled || screen == null) return;
+        currentScreen = screen;
+        byVisit.put(screen, new Usage(screen));
+        budgetReported.remove(screen);
+    }
+
+    public static String getCurrentScreen() {
+        return currentScreen;
+    }
+
+    /**
+     * Maximum billed reads a single visit of {@code screen} is expected to need
+     */
+    public static void setReadBudget(String screen, long maxReads) {
+        readBudgets.put(screen, maxReads);
+    }
+
+    /**
+     * Budget set for {@code screen}, or -1 when it has none
+     */
+    public static long getReadBudget(String screen) {
+        Long budget = readBudgets.get(screen);
+        return budget != null ? budget : -1;
+    }
+
+    // ==================== RECORDING ====================
+
+    /**
+     * Count the documents returned by a document get or query get
+     */
+    public static <T> Task<T> read(String site, Task<T> task) {
+        if (!enabled) return task;
+        String screen = currentScreen;
+        count(site, screen, u -> u.calls.incrementAndGet());
+        // Size estimation walks the document data, keep it off the main thread
+        task.addOnSuccessListener(AppExecutors.get().cpu(), result -> recordResult(site, screen, result, false, false));
+        return task;
+    }
+
+    /**
+     * Count a single-document write (set, update, delete or add)
+     */
+    public static <T> Task<T> write(String site, Task<T> task) {
+        return write(site, 1, task);
+    }
+
+    /**
+     * Count a batch or transaction writing {@code documents} documents
+     */
+    public static <T> Task<T> write(String site, int documents, Task<T> task) {
+        if (!enabled) return task;
+        String screen = currentScreen;
+        count(site, screen, u -> u.calls.incrementAndGet());
+        task.addOnSuccessListener(result -> count(site, screen, u -> u.writes.addAndGet(documents)));
+        return task;
+    }
+
+    /**
+     * Wrap a snapshot listener so each delivery is counted. Works for query and document listeners.
+     */
+    public static <T> EventListener<T> listener(String site, EventListener<T> listener) {
+        if (!enabled) return listener;
+        count(site, currentScreen, u -> u.calls.incrementAndGet());
+        return new EventListener<T>() {
+            private boolean initial = true;
+
+            @Override
+            public void onEvent(T value, FirebaseFirestoreException error) {
+                if (value != null) {
+                    String screen = currentScreen;
+                    boolean changesOnly = !initial;
+                    if (!isFromCache(value)) initial = false;
+                    // Deliveries arrive on the main thread; size estimation walks every document
+                    AppExecutors.get().cpu().execute(() -> recordResult(site, screen, value, true, changesOnly));
+                }
+                listener.onEvent(value, error);
+            }
+        };
+    }
+
+    private static void recordResult(String site, String screen, Object result, boolean delivery, boolean changesOnly) {
+        long billed;
+        long bytes = 0;
+        boolean fromCache = isFromCache(result);
+        if (result instanceof QuerySnapshot) {
+            QuerySnapshot snapshot = (QuerySnapshot) result;
+            if (changesOnly) {
+                billed = 0;
+                for (DocumentChange change : snapshot.getDocumentChanges()) {
+                    if (change.getType() == DocumentChange.Type.REMOVED) continue;
+                    billed++;
+                    bytes += estimateSize(change.getDocument());
+                }
+            } else {
+                // An empty result is still billed as one read
+                billed = Math.max(1, snapshot.size());
+                for (DocumentSnapshot document : snapshot.getDocuments()) {
+                    bytes += estimateSize(document);
+                }
+            }
+        } else if (result instanceof DocumentSnapshot) {
+            billed = 1;
+            bytes = estimateSize((DocumentSnapshot) result);
+        } else {
+            return;
+        }
+        recordReads(site, screen, billed, fromCache, bytes, delivery);
+    }
+
+    static void recordReads(String site, String screen, long billed, boolean fromCache, long bytes, boolean delivery) {
+        long network = fromCache ? 0 : billed;
+        long cached = fromCache ? billed : 0;
+        count(site, screen, u -> {
+            if (delivery) u.deliveries.incrementAndGet();
+            u.reads.addAndGet(network);
+            u.cachedReads.addAndGet(cached);
+            u.bytes.addAndGet(bytes);
+        });
+        if (network > 0) checkBudget(screen);
+    }
+
+    private interface Update {
+        void apply(Usage usage);
+    }
+
+    private static void count(String site, String screen, Update update) {
+        update.apply(usage(bySite, site));
+        update.apply(usage(byScreen, screen));
+        Usage visit = byVisit.get(screen);
+        if (visit != null) update.apply(visit);
+    }
+
+    private static Usage usage(ConcurrentHashMap<String, Usage> map, String key) {
+        return map.computeIfAbsent(key, Usage::new);
+    }
+
+    private static void checkBudget(String screen) {
+        Long budget = readBudgets.get(screen);
+        Usage visit = byVisit.get(screen);
+        if (budget == null || visit == null || visit.reads.get() <= budget) return;
+        if (budgetReported.put(screen, Boolean.TRUE) == null) {
+            AppLog.w(TAG, "Read budget exceeded on " + screen + ": " + visit.reads.get()
+                    + " reads > " + budget + "\n" + dumpSitesFor(screen));
+        }
+    }
+
+    // ==================== QUERYING ====================
+
+    public static Usage getScreenUsage(String screen) {
+        return usage(byScreen, screen);
+    }
+
+    /**
+     * Usage of the current (or last) visit of a screen
+     */
+    public static Usage getVisitUsage(String screen) {
+        return usage(byVisit, screen);
+    }
+
+    public static Usage getSiteUsage(String site) {
+        return usage(bySite, site);
+    }
+
+    /**
+     * Fail when the current visit of {@code screen} did more than {@code maxReads} billed reads
+     */
+    public static void assertReadBudget(String screen, long maxReads) {
+        Usage visit = getVisitUsage(screen);
+        if (visit.reads.get() > maxReads) {
+            throw new AssertionError("Firestore read budget exceeded on " + screen + ": "
+                    + visit.reads.get() + " > " + maxReads + "\n" + dumpSitesFor(screen));
+        }
+    }
+
+    public static void reset() {
+        bySite.clear();
+        byScreen.clear();
+        byVisit.clear();
+        budgetReported.clear();
+    }
+
+    /**
+     * Human-readable report of every screen and call site, heaviest readers first
+     */
+    public static String dump() {
+        StringBuilder out = new StringBuilder("Firestore usage by screen:\n");
+        appendSorted(out, byScreen.values());
+        out.append("Firestore usage by call site:\n");
+        appendSorted(out, bySite.values());
+        return out.toString();
+    }
+
+    public static void logSummary() {
+        if (!enabled || bySite.isEmpty()) return;
+        for (String line : dump().split("\n")) {
+            AppLog.i(TAG, line);
+        }
+    }
+
+    private static String dumpSitesFor(String screen) {
+        // Sites aren't split by screen; the top readers are the likely culprits
+        StringBuilder out = new StringBuilder("Top call sites (all screens), current: ").append(screen).append('\n');
+        List<Usage> sites = new ArrayList<>(bySite.values());
+        sites.sort((a, b) -> Long.compare(b.reads.get(), a.reads.get()));
+        for (int i = 0; i < Math.min(5, sites.size()); i++) {
+            out.append("  ").append(sites.get(i)).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void appendSorted(StringBuilder out, Collection<Usage> values) {
+        List<Usage> sorted = new ArrayList<>(values);
+        sorted.sort((a, b) -> Long.compare(b.reads.get(), a.reads.get()));
+        for (Usage usage : sorted) {
+            out.append("  ").append(usage).append('\n');
+        }
+    }
+
+    // ==================== SIZE ESTIMATION ====================
+
+    private static boolean isFromCache(Object result) {
+        if (result instanceof QuerySnapshot) return ((QuerySnapshot) result).getMetadata().isFromCache();
+        if (result instanceof DocumentSnapshot) return ((DocumentSnapshot) result).getMetadata().isFromCache();
+        return false;
+    }
+
+    /**
+     * Firestore storage size: document name + field names and values + 32 bytes of overhead
+     */
+    static long estimateSize(DocumentSnapshot document) {
+        if (document == null || !document.exists()) return 0;
+        long size = document.getReference().getPath().length() + 16 + 32;
+        Map<String, Object> data = document.getData();
+        return data == null ? size : size + sizeOf(data);
+    }
+
+    private static long sizeOf(Object value) {
+        if (value == null || value instanceof Boolean) return 1;
+        if (value instanceof Number || value instanceof Timestamp || value instanceof java.util.Date) return 8;
+        if (value instanceof String) return ((String) value).length() + 1;
+        if (value instanceof GeoPoint) return 16;
+        if (value instanceof DocumentReference) return ((DocumentReference) value).getPath().length() + 16;
+        if (value instanceof byte[]) return ((byte[]) value).length;
+        if (value instanceof Map) {
+            long size = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += String.valueOf(entry.getKey()).length() + 1 + sizeOf(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            long size = 0;
+            for (Object item : (Collection<?>) value) size += sizeOf(item);
+            return size;
+        }
+        return 8;
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + "B";
+        if (bytes < 1024 * 1024) return String.format(Locale.US, "%.1fKB", bytes / 1024.0);
+        return String.format(Locale.US, "%.1fMB", bytes / (1024.0 * 1024.0));
+    }
+}
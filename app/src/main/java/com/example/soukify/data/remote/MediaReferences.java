@@ -0,0 +1,96 @@
+package com.example.soukify.data.remote;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Media References - Which content-addressed Cloudinary assets are still used by a document
+ *
+ * Uploads are deduplicated by content (see {@link CloudinaryImageService#uploadMedia}), so a product
+ * photo, a shop cover and a profile picture may all be the same asset. Such assets are always stored
+ * under one URL derived from their public id ({@link CloudinaryImageService#contentUrl}), so looking
+ * the public id up means looking that URL up in every field that holds media. Assets that are not
+ * content-addressed belong to a single upload and are never reported as shared.
+ *
+ * Blocking: call it from a background lane.
+ */
+public class MediaReferences {
+    public static final String PRODUCT_IMAGES = "product_images";
+    public static final String SHOPS = "shops";
+    public static final String USERS = "users";
+
+    // Firestore limit for the values of one whereIn
+    private static final int MAX_IN_VALUES = 30;
+    // Every collection and field that stores a media URL
+    private static final String[][] MEDIA_FIELDS = {
+            {PRODUCT_IMAGES, "imageUrl"},
+            {SHOPS, "imageUrl"},
+            {USERS, "profileImage"},
+    };
+
+    private final FirebaseFirestore firestore;
+
+    public MediaReferences(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+    }
+
+    /**
+     * Path of a document as {@code ignoredPaths} expects it, e.g. shops/abc
+     */
+    public static String path(String collection, String documentId) {
+        return collection + "/" + documentId;
+    }
+
+    /**
+     * Of {@code mediaUrls}, the ones whose asset is still referenced by a document other than those
+     * in {@code ignoredPaths} (the documents giving the media up)
+     */
+    public Set<String> findReferenced(Collection<String> mediaUrls, Set<String> ignoredPaths) throws Exception {
+        // Stored value -> the given URLs it stands for; the asset's own URL and, for uploads made
+        // before URLs were canonical, the exact URL given
+        Map<String, Set<String>> urlsByValue = new HashMap<>();
+        for (String url : new HashSet<>(mediaUrls)) {
+            String publicId = CloudinaryImageService.extractPublicId(url);
+            if (!CloudinaryImageService.isContentAddressed(publicId)) continue;
+            String contentUrl = CloudinaryImageService.contentUrl(publicId, CloudinaryImageService.extractResourceType(url));
+            addValue(urlsByValue, contentUrl, url);
+            addValue(urlsByValue, url, url);
+        }
+        if (urlsByValue.isEmpty()) return Collections.emptySet();
+
+        List<String> values = new ArrayList<>(urlsByValue.keySet());
+        Set<String> referenced = new HashSet<>();
+        for (String[] field : MEDIA_FIELDS) {
+            for (int from = 0; from < values.size(); from += MAX_IN_VALUES) {
+                List<String> chunk = values.subList(from, Math.min(from + MAX_IN_VALUES, values.size()));
+                for (DocumentSnapshot document : Tasks.await(firestore.collection(field[0])
+                        .whereIn(field[1], chunk)
+                        .get()).getDocuments()) {
+                    if (ignoredPaths.contains(document.getReference().getPath())) continue;
+                    Set<String> urls = urlsByValue.get(document.getString(field[1]));
+                    if (urls != null) referenced.addAll(urls);
+                }
+            }
+        }
+        return referenced;
+    }
+
+    private static void addValue(Map<String, Set<String>> urlsByValue, String value, String url) {
+        Set<String> urls = urlsByValue.get(value);
+        if (urls == null) {
+            urls = new HashSet<>();
+            urlsByValue.put(value, urls);
+        }
+        urls.add(url);
+    }
+}
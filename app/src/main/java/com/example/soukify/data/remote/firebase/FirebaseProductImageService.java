@@ -7,6 +7,7 @@ import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.example.soukify.data.models.ProductImageModel;
+import com.example.soukify.data.remote.FirestoreMeter;
 
 import java.util.List;
 import java.util.ArrayList;
@@ -93,8 +94,8 @@ public class FirebaseProductImageService {
      * Automatically updates the imageId field with the document ID
      */
     public Task<DocumentReference> createProductImage(ProductImageModel productImage) {
-        return firestore.collection(PRODUCT_IMAGES_COLLECTION)
-                .add(productImage)
+        return FirestoreMeter.write("ProductImageService.createProductImage", firestore.collection(PRODUCT_IMAGES_COLLECTION)
+                .add(productImage))
                 .addOnSuccessListener(documentReference -> {
                     String imageId = documentReference.getId();
                     android.util.Log.d(TAG, "ProductImage created with ID: " + imageId);
@@ -128,7 +129,8 @@ public class FirebaseProductImageService {
         }
         
         // Otherwise, treat as Firestore document ID
-        return firestore.collection(PRODUCT_IMAGES_COLLECTION).document(imageId).delete();
+        return FirestoreMeter.write("ProductImageService.deleteProductImage",
+                firestore.collection(PRODUCT_IMAGES_COLLECTION).document(imageId).delete());
     }
 
     /**
@@ -148,7 +150,8 @@ public class FirebaseProductImageService {
         }
         
         // Otherwise, treat as Firestore document ID
-        return firestore.collection(PRODUCT_IMAGES_COLLECTION).document(imageId).set(productImage);
+        return FirestoreMeter.write("ProductImageService.updateProductImage",
+                firestore.collection(PRODUCT_IMAGES_COLLECTION).document(imageId).set(productImage));
     }
 
     /**
@@ -186,7 +189,8 @@ public class FirebaseProductImageService {
         }
         
         // Otherwise, treat as Firestore document ID
-        return firestore.collection(PRODUCT_IMAGES_COLLECTION).document(imageId).get()
+        return FirestoreMeter.read("ProductImageService.getProductImage",
+                        firestore.collection(PRODUCT_IMAGES_COLLECTION).document(imageId).get())
                 .continueWith(task -> {
                     if (task.isSuccessful() && task.getResult() != null) {
                         return task.getResult().toObject(ProductImageModel.class);
@@ -206,10 +210,10 @@ public class FirebaseProductImageService {
      * Get images by product ID as Task for async operations
      */
     public Task<List<ProductImageModel>> getImagesByProductIdAsync(String productId) {
-        return firestore.collection(PRODUCT_IMAGES_COLLECTION)
+        return FirestoreMeter.read("ProductImageService.getImagesByProductId", firestore.collection(PRODUCT_IMAGES_COLLECTION)
                 .whereEqualTo("productId", productId)
                 .orderBy("createdAt")
-                .get()
+                .get())
                 .continueWith(task -> {
                     if (task.isSuccessful() && task.getResult() != null) {
                         List<ProductImageModel> images = new ArrayList<>();
@@ -5,7 +5,9 @@ import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.example.soukify.data.currency.ExchangeRateService;
 import com.example.soukify.data.models.ProductModel;
+import com.example.soukify.data.remote.FirestoreMeter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,19 +26,29 @@ public class FirebaseProductService {
     }
 
     public Task<DocumentReference> createProduct(ProductModel product) {
-        return firestore.collection(PRODUCTS_COLLECTION).add(product);
+        stampBasePrice(product);
+        product.stampCreatedAt();
+        return FirestoreMeter.write("ProductService.createProduct", firestore.collection(PRODUCTS_COLLECTION).add(product));
     }
 
     public Task<Void> updateProduct(String productId, ProductModel product) {
-        return firestore.collection(PRODUCTS_COLLECTION).document(productId).set(product);
+        stampBasePrice(product);
+        return FirestoreMeter.write("ProductService.updateProduct", firestore.collection(PRODUCTS_COLLECTION).document(productId).set(product));
+    }
+
+    /**
+     * Keep basePrice in step with price and currency on every write, at the rates current then
+     */
+    private static void stampBasePrice(ProductModel product) {
+        product.setBasePrice(ExchangeRateService.get().toBase(product.getPrice(), product.getCurrency()));
     }
 
     public Task<Void> deleteProduct(String productId) {
-        return firestore.collection(PRODUCTS_COLLECTION).document(productId).delete();
+        return FirestoreMeter.write("ProductService.deleteProduct", firestore.collection(PRODUCTS_COLLECTION).document(productId).delete());
     }
 
     public Task<ProductModel> getProduct(String productId) {
-        return firestore.collection(PRODUCTS_COLLECTION).document(productId).get()
+        return FirestoreMeter.read("ProductService.getProduct", firestore.collection(PRODUCTS_COLLECTION).document(productId).get())
                 .continueWith(task -> {
                     if (task.isSuccessful() && task.getResult() != null && task.getResult().exists()) {
                         ProductModel product = task.getResult().toObject(ProductModel.class);
@@ -51,9 +63,9 @@ public class FirebaseProductService {
     }
 
     public Task<QuerySnapshot> getProductsByShop(String shopId) {
-        return firestore.collection(PRODUCTS_COLLECTION)
+        return FirestoreMeter.read("ProductService.getProductsByShop", firestore.collection(PRODUCTS_COLLECTION)
                 .whereEqualTo("shopId", shopId)
-                .get();
+                .get());
     }
 
     public Query getAllProducts() {
@@ -67,27 +79,28 @@ public class FirebaseProductService {
     }
 
     public Query getProductsByCategory(String category) {
+        // Products carry their category as productType; there is no "category" field
         return firestore.collection(PRODUCTS_COLLECTION)
-                .whereEqualTo("category", category)
+                .whereEqualTo("productType", category)
                 .orderBy("createdAt", Query.Direction.DESCENDING);
     }
 
     public Task<QuerySnapshot> getFeaturedProducts() {
-        return firestore.collection(PRODUCTS_COLLECTION)
+        return FirestoreMeter.read("ProductService.getFeaturedProducts", firestore.collection(PRODUCTS_COLLECTION)
                 .whereEqualTo("featured", true)
                 .orderBy("rating", Query.Direction.DESCENDING)
                 .limit(20)
-                .get();
+                .get());
     }
 
     public Task<Void> updateProductStock(String productId, int newStock) {
-        return firestore.collection(PRODUCTS_COLLECTION).document(productId)
-                .update("stock", newStock);
+        return FirestoreMeter.write("ProductService.updateProductStock", firestore.collection(PRODUCTS_COLLECTION).document(productId)
+                .update("stock", newStock));
     }
 
     public Task<Void> updateProductRating(String productId, double newRating) {
-        return firestore.collection(PRODUCTS_COLLECTION).document(productId)
-                .update("rating", newRating);
+        return FirestoreMeter.write("ProductService.updateProductRating", firestore.collection(PRODUCTS_COLLECTION).document(productId)
+                .update("rating", newRating));
     }
 
     /**
@@ -119,50 +132,6 @@ public class FirebaseProductService {
         });
     }
 
-    /**
-     * Delete all products for a specific shop with cascade
-     */
-    public Task<Void> deleteAllProductsForShop(String shopId, FirebaseProductImageService productImageService) {
-        return getProductsByShop(shopId).continueWithTask(task -> {
-            if (task.isSuccessful() && task.getResult() != null) {
-                List<String> imageIdsToDelete = new ArrayList<>();
-                List<Task<Void>> deleteTasks = new ArrayList<>();
-
-                for (com.google.firebase.firestore.QueryDocumentSnapshot document : task.getResult()) {
-                    ProductModel product = document.toObject(ProductModel.class);
-                    product.setProductId(document.getId());
-
-                    String productId = document.getId();
-
-                    // Utiliser la méthode helper getPrimaryImageId()
-                    String primaryImageId = product.getPrimaryImageId();
-
-                    if (primaryImageId != null && !primaryImageId.isEmpty()) {
-                        imageIdsToDelete.add(primaryImageId);
-                        android.util.Log.d("FirebaseProductService", "Collected imageId: " + primaryImageId + " for product: " + productId);
-                    }
-
-                    deleteTasks.add(deleteProduct(productId));
-                }
-
-                android.util.Log.d("FirebaseProductService", "Found " + imageIdsToDelete.size() + " images to delete for shop: " + shopId);
-
-                if (!imageIdsToDelete.isEmpty()) {
-                    return productImageService.deleteProductImagesByIds(imageIdsToDelete)
-                            .continueWithTask(deleteImagesTask -> {
-                                android.util.Log.d("FirebaseProductService", "Image deletion completed, now deleting products");
-                                return com.google.android.gms.tasks.Tasks.whenAll(deleteTasks);
-                            });
-                } else {
-                    android.util.Log.d("FirebaseProductService", "No images to delete, only deleting products");
-                    return com.google.android.gms.tasks.Tasks.whenAll(deleteTasks);
-                }
-            } else {
-                return com.google.android.gms.tasks.Tasks.forException(task.getException());
-            }
-        });
-    }
-
     /**
      * Toggle like for a product
      * @param productId Product ID
@@ -171,8 +140,8 @@ public class FirebaseProductService {
      * @return Task with updated product
      */
     public Task<ProductModel> toggleLike(String productId, String userId, boolean isLiked) {
-        return firestore.collection(PRODUCTS_COLLECTION).document(productId)
-                .get()
+        return FirestoreMeter.read("ProductService.toggleLike", firestore.collection(PRODUCTS_COLLECTION).document(productId)
+                .get())
                 .continueWithTask(task -> {
                     if (!task.isSuccessful() || task.getResult() == null || !task.getResult().exists()) {
                         return com.google.android.gms.tasks.Tasks.forException(
@@ -196,9 +165,9 @@ public class FirebaseProductService {
                     }
 
                     // Sauvegarder dans Firestore
-                    return firestore.collection(PRODUCTS_COLLECTION)
+                    return FirestoreMeter.write("ProductService.toggleLike", firestore.collection(PRODUCTS_COLLECTION)
                             .document(productId)
-                            .update("likesCount", product.getLikesCount())
+                            .update("likesCount", product.getLikesCount()))
                             .continueWith(updateTask -> {
                                 if (updateTask.isSuccessful()) {
                                     android.util.Log.d("FirebaseProductService",
@@ -6,7 +6,9 @@ import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.example.soukify.data.geo.ShopLocator;
 import com.example.soukify.data.models.ShopModel;
+import com.example.soukify.data.remote.FirestoreMeter;
 
 import java.util.List;
 
@@ -24,19 +26,22 @@ public class FirebaseShopService {
     }
     
     public Task<DocumentReference> createShop(ShopModel shop) {
-        return firestore.collection(SHOPS_COLLECTION).add(shop);
+        shop.setGeohash(ShopLocator.geohash(shop));
+        shop.stampCreatedAt();
+        return FirestoreMeter.write("ShopService.createShop", firestore.collection(SHOPS_COLLECTION).add(shop));
     }
     
     public Task<Void> updateShop(String shopId, ShopModel shop) {
-        return firestore.collection(SHOPS_COLLECTION).document(shopId).set(shop);
+        shop.setGeohash(ShopLocator.geohash(shop));
+        return FirestoreMeter.write("ShopService.updateShop", firestore.collection(SHOPS_COLLECTION).document(shopId).set(shop));
     }
     
     public Task<Void> deleteShop(String shopId) {
-        return firestore.collection(SHOPS_COLLECTION).document(shopId).delete();
+        return FirestoreMeter.write("ShopService.deleteShop", firestore.collection(SHOPS_COLLECTION).document(shopId).delete());
     }
     
     public Task<ShopModel> getShop(String shopId) {
-        return firestore.collection(SHOPS_COLLECTION).document(shopId).get()
+        return FirestoreMeter.read("ShopService.getShop", firestore.collection(SHOPS_COLLECTION).document(shopId).get())
                 .continueWith(task -> {
                     if (task.isSuccessful() && task.getResult() != null) {
                         return task.getResult().toObject(ShopModel.class);
@@ -61,6 +66,25 @@ public class FirebaseShopService {
         return query;
     }
     
+    /**
+     * Shops whose geohash starts with {@code geohashPrefix}, i.e. placed inside that cell
+     */
+    public Query getShopsInCell(String geohashPrefix) {
+        return firestore.collection(SHOPS_COLLECTION)
+                .orderBy("geohash")
+                .startAt(geohashPrefix)
+                .endAt(geohashPrefix + "\uf8ff");
+    }
+
+    /**
+     * Store the geohash of a shop saved before shops carried one. Only for the current user's own
+     * shops: a client never writes a shop it doesn't own
+     */
+    public Task<Void> backfillGeohash(String shopId, String geohash) {
+        return FirestoreMeter.write("ShopService.backfillGeohash", firestore.collection(SHOPS_COLLECTION).document(shopId)
+                .update("geohash", geohash));
+    }
+    
     public Query searchShops(String query) {
         return firestore.collection(SHOPS_COLLECTION)
                 .whereGreaterThanOrEqualTo("name", query)
@@ -92,35 +116,30 @@ public class FirebaseShopService {
     }
     
     public Task<QuerySnapshot> getFeaturedShops() {
-        return firestore.collection(SHOPS_COLLECTION)
+        return FirestoreMeter.read("ShopService.getFeaturedShops", firestore.collection(SHOPS_COLLECTION)
                 .whereEqualTo("hasPromotion", true)
                 .orderBy("rating", Query.Direction.DESCENDING)
                 .limit(10)
-                .get();
+                .get());
     }
     
     public Task<Void> incrementShopLikes(String shopId) {
-        return firestore.collection(SHOPS_COLLECTION).document(shopId)
-                .update("likesCount", com.google.firebase.firestore.FieldValue.increment(1));
-    }
-    
-    public Task<Void> incrementShopViews(String shopId) {
-        return firestore.collection(SHOPS_COLLECTION).document(shopId)
-                .update("searchCount", com.google.firebase.firestore.FieldValue.increment(1));
+        return FirestoreMeter.write("ShopService.incrementShopLikes", firestore.collection(SHOPS_COLLECTION).document(shopId)
+                .update("likesCount", com.google.firebase.firestore.FieldValue.increment(1)));
     }
     
     public Task<Void> updateShopRating(String shopId, double newRating) {
-        return firestore.collection(SHOPS_COLLECTION).document(shopId)
-                .update("rating", newRating);
+        return FirestoreMeter.write("ShopService.updateShopRating", firestore.collection(SHOPS_COLLECTION).document(shopId)
+                .update("rating", newRating));
     }
     
     public Task<DocumentSnapshot> getShopById(String shopId) {
-        return firestore.collection(SHOPS_COLLECTION).document(shopId).get();
+        return FirestoreMeter.read("ShopService.getShopById", firestore.collection(SHOPS_COLLECTION).document(shopId).get());
     }
     
     public Task<Void> toggleLike(String shopId, boolean isLiked, int likesCount) {
-        return firestore.collection(SHOPS_COLLECTION).document(shopId)
+        return FirestoreMeter.write("ShopService.toggleLike", firestore.collection(SHOPS_COLLECTION).document(shopId)
                 .update("likesCount", likesCount,
-                        "updatedAt", System.currentTimeMillis());
+                        "updatedAt", System.currentTimeMillis()));
     }
 }
@@ -0,0 +1,124 @@
+package com.example.soukify.data.remote.firebase;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+import com.example.soukify.data.remote.FirestoreMeter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Firebase Trending Service - Reads and writes the forward-decayed trending scores
+ *
+ * One document per shop or product in the "trending" collection, keyed "shop_{id}" or
+ * "product_{id}", carrying the score and the facets it can be ranked by (categoryKey and cityId for
+ * shops, productType and shopId for products). The composite indexes behind the top-N queries are
+ * declared in firestore.indexes.json.
+ */
+public class FirebaseTrendingService {
+    private final FirebaseFirestore firestore;
+
+    public static final String TRENDING_COLLECTION = "trending";
+    public static final String TYPE_SHOP = "shop";
+    public static final String TYPE_PRODUCT = "product";
+
+    public static final String FIELD_TYPE = "type";
+    public static final String FIELD_ITEM_ID = "itemId";
+    public static final String FIELD_SCORE = "score";
+    public static final String FIELD_UPDATED_AT = "updatedAt";
+    public static final String FIELD_CATEGORY_KEY = "categoryKey";
+    public static final String FIELD_CITY_ID = "cityId";
+    public static final String FIELD_PRODUCT_TYPE = "productType";
+    public static final String FIELD_SHOP_ID = "shopId";
+
+    // Firestore's limit on "in" filters
+    private static final int MAX_IN_VALUES = 10;
+
+    public FirebaseTrendingService(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+    }
+
+    public static String documentId(String type, String itemId) {
+        return type + "_" + itemId;
+    }
+
+    public DocumentReference document(String type, String itemId) {
+        return firestore.collection(TRENDING_COLLECTION).document(documentId(type, itemId));
+    }
+
+    public WriteBatch newBatch() {
+        return firestore.batch();
+    }
+
+    /**
+     * Queue a score increment into {@code batch}. Facets are merged in when known and left untouched
+     * otherwise, so an event recorded from an id alone never erases them.
+     */
+    public void addIncrement(WriteBatch batch, String type, String itemId, double forwardWeight,
+                             Map<String, Object> facets) {
+        Map<String, Object> data = new HashMap<>();
+        if (facets != null) data.putAll(facets);
+        data.put(FIELD_TYPE, type);
+        data.put(FIELD_ITEM_ID, itemId);
+        data.put(FIELD_SCORE, FieldValue.increment(forwardWeight));
+        data.put(FIELD_UPDATED_AT, System.currentTimeMillis());
+        batch.set(document(type, itemId), data, SetOptions.merge());
+    }
+
+    public Task<Void> commit(WriteBatch batch, int documents) {
+        return FirestoreMeter.write("TrendingService.commit", documents, batch.commit());
+    }
+
+    /**
+     * Top trending shops, optionally restricted to a category key and to a set of city ids (only the
+     * first ten ids are used)
+     */
+    public Task<QuerySnapshot> getTopShops(String categoryKey, List<String> cityIds, int limit) {
+        Query query = firestore.collection(TRENDING_COLLECTION).whereEqualTo(FIELD_TYPE, TYPE_SHOP);
+        if (categoryKey != null) {
+            query = query.whereEqualTo(FIELD_CATEGORY_KEY, categoryKey);
+        }
+        if (cityIds != null && !cityIds.isEmpty()) {
+            query = cityIds.size() == 1
+                    ? query.whereEqualTo(FIELD_CITY_ID, cityIds.get(0))
+                    : query.whereIn(FIELD_CITY_ID, cityIds.subList(0, Math.min(MAX_IN_VALUES, cityIds.size())));
+        }
+        return FirestoreMeter.read("TrendingService.getTopShops", query
+                .orderBy(FIELD_SCORE, Query.Direction.DESCENDING)
+                .limit(limit)
+                .get());
+    }
+
+    /**
+     * Top trending products, optionally restricted to a product type
+     */
+    public Task<QuerySnapshot> getTopProducts(String productType, int limit) {
+        Query query = firestore.collection(TRENDING_COLLECTION).whereEqualTo(FIELD_TYPE, TYPE_PRODUCT);
+        if (productType != null) {
+            query = query.whereEqualTo(FIELD_PRODUCT_TYPE, productType);
+        }
+        return FirestoreMeter.read("TrendingService.getTopProducts", query
+                .orderBy(FIELD_SCORE, Query.Direction.DESCENDING)
+                .limit(limit)
+                .get());
+    }
+
+    /**
+     * Top trending products of one shop
+     */
+    public Task<QuerySnapshot> getTopProductsOfShop(String shopId, int limit) {
+        return FirestoreMeter.read("TrendingService.getTopProductsOfShop", firestore.collection(TRENDING_COLLECTION)
+                .whereEqualTo(FIELD_TYPE, TYPE_PRODUCT)
+                .whereEqualTo(FIELD_SHOP_ID, shopId)
+                .orderBy(FIELD_SCORE, Query.Direction.DESCENDING)
+                .limit(limit)
+                .get());
+    }
+}
@@ -4,6 +4,7 @@ import android.app.Activity;
 import android.util.Log;
 
 import com.example.soukify.data.models.UserModel;
+import com.example.soukify.data.remote.FirestoreMeter;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.AuthCredential;
@@ -134,9 +135,9 @@ public class FirebaseUserService {
         if (userId == null) {
             return Tasks.forException(new IllegalStateException("No authenticated user"));
         }
-        return firestore.collection(USERS_COLLECTION)
+        return FirestoreMeter.write("UserService.createUser", firestore.collection(USERS_COLLECTION)
                 .document(userId)
-                .set(user);
+                .set(user));
     }
 
     public Task<Void> updateUser(UserModel user) {
@@ -144,15 +145,15 @@ public class FirebaseUserService {
         if (userId == null) {
             return Tasks.forException(new IllegalStateException("No authenticated user"));
         }
-        return firestore.collection(USERS_COLLECTION)
+        return FirestoreMeter.write("UserService.updateUser", firestore.collection(USERS_COLLECTION)
                 .document(userId)
-                .set(user);
+                .set(user));
     }
 
     public Task<UserModel> getUser(String userId) {
-        return firestore.collection(USERS_COLLECTION)
+        return FirestoreMeter.read("UserService.getUser", firestore.collection(USERS_COLLECTION)
                 .document(userId)
-                .get()
+                .get())
                 .continueWith(task ->
                         task.isSuccessful() && task.getResult() != null
                                 ? task.getResult().toObject(UserModel.class)
@@ -178,9 +179,9 @@ public class FirebaseUserService {
         if (userId == null) {
             return Tasks.forException(new IllegalStateException("No authenticated user"));
         }
-        return firestore.collection(USERS_COLLECTION)
+        return FirestoreMeter.write("UserService.deleteUser", firestore.collection(USERS_COLLECTION)
                 .document(userId)
-                .delete();
+                .delete());
     }
 
     /* ===================== GOOGLE AUTH ===================== */
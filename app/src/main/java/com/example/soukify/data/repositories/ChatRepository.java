@@ -1,13 +1,13 @@
 package com.example.soukify.data.repositories;
 
-import android.util.Log;
-
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.example.soukify.data.chat.ChatOutbox;
 import com.example.soukify.data.models.Conversation;
 import com.example.soukify.data.models.Message;
-import com.example.soukify.services.NotificationSenderService;
+import com.example.soukify.data.profiles.UserProfileCache;
+import com.example.soukify.utils.log.AppLog;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.DocumentReference;
@@ -28,18 +28,15 @@ public class ChatRepository {
     private static final String TAG = "ChatRepository";
     private static final String COLLECTION_CONVERSATIONS = "Conversation";
     private static final String COLLECTION_MESSAGES = "messages";
-    private static final String COLLECTION_USERS = "users";
 
     private final FirebaseFirestore db;
     private final FirebaseAuth auth;
     private final FirebaseStorage storage;
-    private final NotificationSenderService notificationSenderService;
 
     public ChatRepository() {
         this.db = FirebaseFirestore.getInstance();
         this.auth = FirebaseAuth.getInstance();
         this.storage = FirebaseStorage.getInstance();
-        this.notificationSenderService = new NotificationSenderService();
     }
 
     private String getCurrentUserId() {
@@ -62,40 +59,11 @@ public class ChatRepository {
     // ==========================
     // 🔥 RÉCUPÉRER LE fullName D'UN UTILISATEUR
     // ==========================
+    // Served by the shared profile cache: the sender's own profile is already held in memory, and
+    // other users are read once per TTL no matter how many screens ask
     private void getUserInfo(String userId, OnUserInfoLoadedListener listener) {
-        if (userId == null || userId.isEmpty()) {
-            listener.onLoaded("Utilisateur", "");
-            return;
-        }
-
-        Log.d(TAG, "🔍 Récupération info pour userId: " + userId);
-
-        db.collection(COLLECTION_USERS)
-                .document(userId)
-                .get()
-                .addOnSuccessListener(doc -> {
-                    if (doc.exists()) {
-                        String fullName = doc.getString("fullName");
-                        String profileImage = doc.getString("profileImage");
-
-                        Log.d(TAG, "✅ Info récupérées: " + fullName + " | image: " + profileImage);
-
-                        if (fullName == null || fullName.isEmpty()) {
-                            fullName = doc.getString("name");
-                            if (fullName == null || fullName.isEmpty()) {
-                                fullName = "Utilisateur";
-                            }
-                        }
-                        listener.onLoaded(fullName, profileImage != null ? profileImage : "");
-                    } else {
-                        Log.w(TAG, "⚠️ Document utilisateur inexistant");
-                        listener.onLoaded("Utilisateur", "");
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "❌ Erreur récupération info", e);
-                    listener.onLoaded("Utilisateur", "");
-                });
+        UserProfileCache.get().getProfile(userId).addOnSuccessListener(profile ->
+                listener.onLoaded(profile.getFullName(), profile.getProfileImage()));
     }
 
     private interface OnUserInfoLoadedListener {
@@ -113,20 +81,15 @@ public class ChatRepository {
                                         OnConversationLoadedListener listener) {
 
         if (buyerId == null || sellerId == null || shopId == null) {
-            Log.e(TAG, "❌ Données manquantes");
+            AppLog.e(TAG, "❌ Données manquantes");
             listener.onFailure("Données manquantes");
             return;
         }
 
         String conversationId = "conv_" + buyerId + "_" + shopId;
 
-        Log.e(TAG, "════════════════════════════════════════");
-        Log.e(TAG, "🔍 CRÉATION/RÉCUPÉRATION CONVERSATION");
-        Log.e(TAG, "   conversationId: " + conversationId);
-        Log.e(TAG, "   buyerId: " + buyerId);
-        Log.e(TAG, "   sellerId: " + sellerId);
-        Log.e(TAG, "   shopId: " + shopId);
-        Log.e(TAG, "════════════════════════════════════════");
+        AppLog.d(TAG, "🔍 Création/récupération conversation {} (buyer={}, seller={})",
+                conversationId, buyerId, sellerId);
 
         DocumentReference conversationRef =
                 db.collection(COLLECTION_CONVERSATIONS).document(conversationId);
@@ -134,7 +97,7 @@ public class ChatRepository {
         conversationRef.get().addOnSuccessListener(snapshot -> {
 
             if (snapshot.exists()) {
-                Log.e(TAG, "✅ Conversation existante trouvée");
+                AppLog.d(TAG, "✅ Conversation existante trouvée");
                 Conversation conversation = snapshot.toObject(Conversation.class);
                 if (conversation != null) {
                     conversation.setId(conversationId);
@@ -156,11 +119,11 @@ public class ChatRepository {
             }
 
             // 🆕 CRÉATION NOUVELLE CONVERSATION
-            Log.e(TAG, "🆕 Création nouvelle conversation");
+            AppLog.d(TAG, "🆕 Création nouvelle conversation");
 
             // 🔥 RÉCUPÉRER LES INFOS DE L'ACHETEUR
             getUserInfo(buyerId, (buyerFullName, buyerProfileImage) -> {
-                Log.e(TAG, "✅ Infos acheteur récupérées: " + buyerFullName + " | " + buyerProfileImage);
+                AppLog.d(TAG, "✅ Infos acheteur récupérées: {} | {}", buyerFullName, buyerProfileImage);
 
                 Map<String, Object> data = new HashMap<>();
                 data.put("id", conversationId);
@@ -179,7 +142,7 @@ public class ChatRepository {
 
                 conversationRef.set(data)
                         .addOnSuccessListener(v -> {
-                            Log.e(TAG, "✅ Conversation créée avec buyerName: " + buyerFullName);
+                            AppLog.i(TAG, "✅ Conversation créée: {}", conversationId);
                             Conversation c = new Conversation();
                             c.setId(conversationId);
                             c.setBuyerId(buyerId);
@@ -192,119 +155,36 @@ public class ChatRepository {
                             listener.onSuccess(c);
                         })
                         .addOnFailureListener(e -> {
-                            Log.e(TAG, "❌ Erreur création", e);
+                            AppLog.e(TAG, "❌ Erreur création", e);
                             listener.onFailure(e.getMessage());
                         });
             });
 
         }).addOnFailureListener(e -> {
-            Log.e(TAG, "❌ Erreur recherche", e);
+            AppLog.e(TAG, "❌ Erreur recherche", e);
             listener.onFailure(e.getMessage());
         });
     }
 
     // ==========================
-    // 🔥 ENVOYER MESSAGE (AVEC fullName AUTO)
+    // 🔥 ENVOYER MESSAGE (VIA OUTBOX)
     // ==========================
+    // The message is persisted locally and shown as pending at once; ChatOutbox delivers it in
+    // order, updates the conversation and notifies the recipient. onSuccess means it is queued
+    // durably, onError that it could not be stored and was not queued.
     public void sendMessage(String conversationId, String text, SendMessageCallback callback) {
         String senderId = getCurrentUserId();
-        if (senderId.isEmpty() || text.trim().isEmpty()) {
+        if (senderId.isEmpty() || conversationId == null || text == null || text.trim().isEmpty()) {
             callback.onError("Données invalides");
             return;
         }
 
-        Log.e(TAG, "════════════════════════════════════════");
-        Log.e(TAG, "📤 ENVOI MESSAGE");
-        Log.e(TAG, "   ConversationId: " + conversationId);
-        Log.e(TAG, "   SenderId: " + senderId);
-        Log.e(TAG, "   Text: " + text.trim());
-        Log.e(TAG, "════════════════════════════════════════");
-
-        // 🔥 RÉCUPÉRER LES INFOS DE L'EXPÉDITEUR AUTOMATIQUEMENT
-        getUserInfo(senderId, (senderFullName, senderImage) -> {
-            Log.e(TAG, "✅ Info expéditeur récupérées: " + senderFullName);
-
-            Map<String, Object> message = new HashMap<>();
-            message.put("conversationId", conversationId);
-            message.put("senderId", senderId);
-            message.put("senderName", senderFullName);
-            message.put("text", text.trim());
-            message.put("timestamp", System.currentTimeMillis());
-            message.put("isRead", false);
-            message.put("createdAt", FieldValue.serverTimestamp());
-
-            db.collection(COLLECTION_CONVERSATIONS)
-                    .document(conversationId)
-                    .collection(COLLECTION_MESSAGES)
-                    .add(message)
-                    .addOnSuccessListener(docRef -> {
-                        Log.e(TAG, "✅ Message envoyé avec senderName: " + senderFullName);
-                        updateConversationAfterMessage(conversationId, text.trim(), senderId);
-                        
-                        // 🔔 Send notification to recipient
-                        sendMessageNotification(conversationId, senderId, senderFullName, text.trim());
-                        
-                        callback.onSuccess();
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "❌ Erreur envoi", e);
-                        callback.onError(e.getMessage());
-                    });
-        });
-    }
-    
-    // ==========================
-    // 🔔 SEND MESSAGE NOTIFICATION
-    // ==========================
-    private void sendMessageNotification(String conversationId, String senderId, String senderName, String messageText) {
-        db.collection(COLLECTION_CONVERSATIONS)
-                .document(conversationId)
-                .get()
-                .addOnSuccessListener(doc -> {
-                    if (!doc.exists()) return;
-                    
-                    String buyerId = doc.getString("buyerId");
-                    String recipientId = senderId.equals(buyerId) ? doc.getString("sellerId") : buyerId;
-                    
-                    if (recipientId != null) {
-                        // Delegate to centralized NotificationSenderService which now handles OneSignal
-                        notificationSenderService.sendMessageNotification(
-                            recipientId, 
-                            senderName, 
-                            messageText, 
-                            conversationId
-                        );
-                    }
-                });
-    }
-
-    // ==========================
-    // MAJ CONVERSATION APRÈS MESSAGE
-    // ==========================
-    private void updateConversationAfterMessage(String conversationId, String lastMessage,
-                                                String senderId) {
-        db.collection(COLLECTION_CONVERSATIONS)
-                .document(conversationId)
-                .get()
-                .addOnSuccessListener(doc -> {
-                    if (!doc.exists()) return;
-
-                    String buyerId = doc.getString("buyerId");
-                    boolean isSenderBuyer = senderId.equals(buyerId);
-
-                    Map<String, Object> updates = new HashMap<>();
-                    updates.put("lastMessage", lastMessage);
-                    updates.put("lastMessageTimestamp", System.currentTimeMillis());
-
-                    if (isSenderBuyer) {
-                        updates.put("unreadCountSeller", FieldValue.increment(1));
-                    } else {
-                        updates.put("unreadCountBuyer", FieldValue.increment(1));
-                    }
-
-                    db.collection(COLLECTION_CONVERSATIONS)
-                            .document(conversationId)
-                            .update(updates);
+        AppLog.d(TAG, "📤 Message mis en file dans {} par {}", conversationId, senderId);
+        ChatOutbox.get().enqueue(conversationId, text)
+                .addOnSuccessListener(message -> callback.onSuccess())
+                .addOnFailureListener(e -> {
+                    AppLog.e(TAG, "❌ Message non enregistré", e);
+                    callback.onError(e.getMessage());
                 });
     }
 
@@ -314,10 +194,7 @@ public class ChatRepository {
     public LiveData<List<Message>> getMessagesRealtime(String conversationId) {
         MutableLiveData<List<Message>> messagesLiveData = new MutableLiveData<>();
 
-        Log.e(TAG, "════════════════════════════════════════");
-        Log.e(TAG, "👂 DÉMARRAGE ÉCOUTE MESSAGES");
-        Log.e(TAG, "   ConversationId: " + conversationId);
-        Log.e(TAG, "════════════════════════════════════════");
+        AppLog.d(TAG, "👂 Écoute des messages de {}", conversationId);
 
         db.collection(COLLECTION_CONVERSATIONS)
                 .document(conversationId)
@@ -326,7 +203,7 @@ public class ChatRepository {
                 .addSnapshotListener((value, error) -> {
 
                     if (error != null) {
-                        Log.e(TAG, "❌ ERREUR: " + error.getMessage());
+                        AppLog.e(TAG, "❌ Écoute des messages échouée", error);
                         messagesLiveData.setValue(new ArrayList<>());
                         return;
                     }
@@ -336,16 +213,12 @@ public class ChatRepository {
                         return;
                     }
 
-                    Log.e(TAG, "📨 Messages reçus: " + value.size());
+                    AppLog.d(TAG, "📨 Messages reçus: {}", value.size());
 
                     List<Message> messages = new ArrayList<>();
                     for (QueryDocumentSnapshot doc : value) {
                         Message message = doc.toObject(Message.class);
                         message.setId(doc.getId());
-
-                        // 🔥 LOG pour debug senderName
-                        Log.d(TAG, "   Message: " + message.getText() + " | senderName: " + message.getSenderName());
-
                         messages.add(message);
                     }
 
@@ -403,14 +276,14 @@ public class ChatRepository {
             return conversationsLiveData;
         }
 
-        Log.d(TAG, "🔍 Recherche conversations pour vendeur: " + currentUserId);
+        AppLog.d(TAG, "🔍 Recherche conversations pour vendeur: {}", currentUserId);
 
         db.collection(COLLECTION_CONVERSATIONS)
                 .whereEqualTo("sellerId", currentUserId)
                 .orderBy("lastMessageTimestamp", Query.Direction.DESCENDING)
                 .addSnapshotListener((value, error) -> {
                     if (error != null) {
-                        Log.e(TAG, "❌ Erreur écoute conversations vendeur", error);
+                        AppLog.e(TAG, "❌ Erreur écoute conversations vendeur", error);
                         conversationsLiveData.setValue(new ArrayList<>());
                         return;
                     }
@@ -426,7 +299,7 @@ public class ChatRepository {
                         conv.setId(doc.getId());
                         conversations.add(conv);
                     }
-                    Log.d(TAG, "✅ Conversations vendeur trouvées: " + conversations.size());
+                    AppLog.d(TAG, "✅ Conversations vendeur trouvées: {}", conversations.size());
                     conversationsLiveData.setValue(conversations);
                 });
 
@@ -445,14 +318,14 @@ public class ChatRepository {
             return conversationsLiveData;
         }
 
-        Log.d(TAG, "🔍 Recherche conversations pour acheteur: " + currentUserId);
+        AppLog.d(TAG, "🔍 Recherche conversations pour acheteur: {}", currentUserId);
 
         db.collection(COLLECTION_CONVERSATIONS)
                 .whereEqualTo("buyerId", currentUserId)
                 .orderBy("lastMessageTimestamp", Query.Direction.DESCENDING)
                 .addSnapshotListener((value, error) -> {
                     if (error != null) {
-                        Log.e(TAG, "❌ Erreur écoute conversations acheteur", error);
+                        AppLog.e(TAG, "❌ Erreur écoute conversations acheteur", error);
                         conversationsLiveData.setValue(new ArrayList<>());
                         return;
                     }
@@ -468,7 +341,7 @@ public class ChatRepository {
                         conv.setId(doc.getId());
                         conversations.add(conv);
                     }
-                    Log.d(TAG, "✅ Conversations acheteur trouvées: " + conversations.size());
+                    AppLog.d(TAG, "✅ Conversations acheteur trouvées: {}", conversations.size());
                     conversationsLiveData.setValue(conversations);
                 });
 
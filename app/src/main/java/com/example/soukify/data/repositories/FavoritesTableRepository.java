@@ -9,6 +9,8 @@ import androidx.lifecycle.MutableLiveData;
 import com.example.soukify.data.models.FavoriteModel;
 import com.example.soukify.data.models.ShopModel;
 import com.example.soukify.data.models.ProductModel;
+import com.example.soukify.data.trending.TrendingEvent;
+import com.example.soukify.data.trending.TrendingTracker;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
@@ -240,6 +242,7 @@ public class FavoritesTableRepository {
                 Log.d(TAG, "Shop added to favorites: " + shop.getName());
                 favorite.setFavoriteId(documentReference.getId());
                 favoriteShopIds.add(shop.getShopId());
+                TrendingTracker.get().recordShop(shop, TrendingEvent.FAVORITE);
                 loadFavoriteShops(); // Refresh list
             })
             .addOnFailureListener(e -> {
@@ -266,6 +269,7 @@ public class FavoritesTableRepository {
                 Log.d(TAG, "Product added to favorites: " + product.getName());
                 favorite.setFavoriteId(documentReference.getId());
                 favoriteProductIds.add(product.getProductId());
+                TrendingTracker.get().recordProduct(product, TrendingEvent.FAVORITE);
                 loadFavoriteProducts(); // Refresh list
             })
             .addOnFailureListener(e -> {
@@ -11,8 +11,9 @@ import com.example.soukify.data.models.ProductImageModel;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+
+import com.example.soukify.utils.concurrent.AppExecutors;
 
 /**
  * Product Image Repository - Firebase implementation
@@ -24,7 +25,7 @@ public class ProductImageRepository {
     private final MutableLiveData<ProductImageModel> currentProductImage = new MutableLiveData<>();
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>();
-    private final ExecutorService executor = Executors.newFixedThreadPool(1);
+    private final Executor executor = AppExecutors.get().cpu();
     
     public ProductImageRepository(Application application) {
         FirebaseManager firebaseManager = FirebaseManager.getInstance(application);
@@ -93,6 +93,8 @@ public class ProductInteractionsRepository {
             // Update user interaction
             Map<String, Object> data = new HashMap<>();
             data.put("liked", newLikedState);
+            // Lets shop deletion find every user's interaction with a product via a collection group query
+            data.put("productId", productId);
             data.put("timestamp", FieldValue.serverTimestamp());
             transaction.set(userProductRef, data, SetOptions.merge());
             
@@ -145,6 +147,8 @@ public class ProductInteractionsRepository {
             // Update user interaction
             Map<String, Object> data = new HashMap<>();
             data.put("favorited", newFavoritedState);
+            // Lets shop deletion find every user's interaction with a product via a collection group query
+            data.put("productId", productId);
             data.put("timestamp", FieldValue.serverTimestamp());
             transaction.set(userProductRef, data, SetOptions.merge());
             
@@ -1,24 +1,35 @@
 package com.example.soukify.data.repositories;
 
 import android.app.Application;
-import android.util.Log;
+import android.os.SystemClock;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.example.soukify.data.models.ProductModel;
 import com.example.soukify.data.remote.FirebaseManager;
+import com.example.soukify.data.remote.FirestoreMeter;
 import com.example.soukify.data.remote.firebase.FirebaseProductService;
+import com.example.soukify.data.search.ProductQuery;
+import com.example.soukify.data.search.ProductSearchIndex;
+import com.example.soukify.data.search.ProductSearchResult;
+import com.example.soukify.data.trending.TrendingEvent;
+import com.example.soukify.data.trending.TrendingTracker;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.example.soukify.data.remote.firebase.FirebaseStorageService;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import com.example.soukify.services.NotificationSenderService;
+import com.example.soukify.utils.concurrent.AppExecutors;
+import com.example.soukify.utils.log.AppLog;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 /**
@@ -27,6 +38,9 @@ import com.google.firebase.firestore.FirebaseFirestore;
  */
 public class ProductRepository {
     private static final String TAG = "ProductRepository";
+    // Products the server hasn't dated yet (0) come last
+    private static final Comparator<ProductModel> NEWEST_FIRST =
+            (a, b) -> Long.compare(b.getCreatedAtMillis(), a.getCreatedAtMillis());
 
     // Callback interfaces for async operations
     public interface OnProductLoadedListener {
@@ -54,6 +68,11 @@ public class ProductRepository {
         void onError(String error);
     }
 
+    public interface OnSearchResultListener {
+        void onSearchResult(ProductSearchResult result);
+        void onError(String error);
+    }
+
     private static ProductRepository instance;
     private final FirebaseProductService productService;
     private final FirebaseStorageService storageService;
@@ -66,7 +85,16 @@ public class ProductRepository {
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>();
     private final NotificationSenderService notificationSenderService;
-    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    // Snapshot parsing runs on the shared CPU lane
+    private final Executor executor = AppExecutors.get().cpu();
+    // Catalog index shared by all searches until a product is created, edited or deleted here, or
+    // until it expires so that other devices' changes show up
+    private Task<ProductSearchIndex> searchIndex;
+    private long searchIndexStartedAt;
+    private static final long SEARCH_INDEX_TTL_MS = 10 * 60_000L;
+    // Only the newest products are indexed, fetched a page at a time
+    private static final int SEARCH_INDEX_PAGE_SIZE = 250;
+    private static final int SEARCH_INDEX_MAX_PRODUCTS = 2000;
 
     private ProductRepository(Application application) {
         FirebaseManager firebaseManager = FirebaseManager.getInstance(application);
@@ -115,7 +143,13 @@ public class ProductRepository {
                     product.setProductId(productId);
 
                     productService.updateProduct(productId, product)
+                            .addOnCompleteListener(update -> {
+                                // Both writes asked for the server's time; later saves of this
+                                // model keep a date rather than stamping it again
+                                product.setCreatedAt(System.currentTimeMillis());
+                            })
                             .addOnSuccessListener(aVoid -> {
+                                invalidateSearchIndex();
                                 currentProduct.postValue(product);
                                 loadShopProducts(product.getShopId());
                                 isLoading.postValue(false);
@@ -140,6 +174,7 @@ public class ProductRepository {
 
         productService.updateProduct(product.getProductId(), product)
                 .addOnSuccessListener(aVoid -> {
+                    invalidateSearchIndex();
                     currentProduct.postValue(product);
                     loadShopProducts(product.getShopId());
                     isLoading.postValue(false);
@@ -160,13 +195,14 @@ public class ProductRepository {
             List<ProductModel> optimisticList = new ArrayList<>(currentList);
             boolean removed = optimisticList.removeIf(p -> p.getProductId().equals(productId));
             if (removed) {
-                Log.d(TAG, "⚡ Optimistically removed product " + productId + " from list");
+                AppLog.d(TAG, "⚡ Optimistically removed product {} from list", productId);
                 shopProducts.postValue(optimisticList);
             }
         }
 
         productService.deleteProduct(productId)
                 .addOnSuccessListener(aVoid -> {
+                    invalidateSearchIndex();
                     currentProduct.postValue(null);
                     // Reload products and wait for completion (to confirm sync)
                     loadShopProducts(shopId, new OnProductsLoadedListener() {
@@ -209,47 +245,33 @@ public class ProductRepository {
         isLoading.setValue(true);
         errorMessage.setValue(null);
 
-        Log.d(TAG, "Loading products for shop: " + shopId);
+        AppLog.d(TAG, "Loading products for shop: {}", shopId);
 
         Task<QuerySnapshot> task = productService.getProductsByShop(shopId);
         task.addOnSuccessListener(executor, querySnapshot -> {
-            Log.d(TAG, "Query successful, processing " + querySnapshot.size() + " documents on background thread");
+            AppLog.d(TAG, "Query successful, processing {} documents on background thread", querySnapshot.size());
             List<ProductModel> products = new ArrayList<>();
             for (QueryDocumentSnapshot document : querySnapshot) {
                 try {
-                    ProductModel product = document.toObject(ProductModel.class);
+                    ProductModel product = document.toObject(ProductModel.class, DocumentSnapshot.ServerTimestampBehavior.ESTIMATE);
                     product.setProductId(document.getId());
                     enrichProductWithUserState(product);
                     products.add(product);
                 } catch (Exception e) {
-                    Log.e(TAG, "Error parsing product document: " + document.getId(), e);
+                    AppLog.e(TAG, "Error parsing product document: {}", document.getId(), e);
                 }
             }
             
-            // Sort products by createdAt locally (descending)
-            products.sort((p1, p2) -> {
-                String s1 = p1.getCreatedAtString();
-                String s2 = p2.getCreatedAtString();
-                if (s1 == null && s2 == null) return 0;
-                if (s1 == null) return 1;
-                if (s2 == null) return -1;
-                try {
-                    long t1 = Long.parseLong(s1);
-                    long t2 = Long.parseLong(s2);
-                    return Long.compare(t2, t1); // Descending: newer (larger) first
-                } catch (NumberFormatException e) {
-                    return s2.compareTo(s1);
-                }
-            });
+            products.sort(NEWEST_FIRST);
             
-            Log.d(TAG, "Processing complete, posting " + products.size() + " products to LiveData");
+            AppLog.d(TAG, "Processing complete, posting {} products to LiveData", products.size());
             shopProducts.postValue(products);
             isLoading.postValue(false);
             if (listener != null) {
                 listener.onProductsLoaded(products);
             }
         }).addOnFailureListener(e -> {
-            Log.e(TAG, "Failed to load products", e);
+            AppLog.e(TAG, "Failed to load products", e);
             errorMessage.postValue("Failed to load products: " + e.getMessage());
             isLoading.postValue(false);
             if (listener != null) {
@@ -266,7 +288,7 @@ public class ProductRepository {
                 .addOnSuccessListener(querySnapshot -> {
                     List<ProductModel> products = new ArrayList<>();
                     for (QueryDocumentSnapshot document : querySnapshot) {
-                        ProductModel product = document.toObject(ProductModel.class);
+                        ProductModel product = document.toObject(ProductModel.class, DocumentSnapshot.ServerTimestampBehavior.ESTIMATE);
                         product.setProductId(document.getId());
                         enrichProductWithUserState(product);
                         products.add(product);
@@ -280,6 +302,79 @@ public class ProductRepository {
                 });
     }
 
+    // ==================== CATALOG SEARCH ====================
+
+    /**
+     * Full-text, faceted search over the newest {@value #SEARCH_INDEX_MAX_PRODUCTS} products. The
+     * first search downloads them page by page and indexes them on the CPU lane; later ones,
+     * including every filter or sort change, are answered from the index without touching Firestore
+     * until it is invalidated or expires. The listener is called on the main thread.
+     */
+    public void searchCatalog(ProductQuery query, OnSearchResultListener listener) {
+        Task<ProductSearchIndex> index = getSearchIndex();
+        index.continueWith(executor, task -> task.getResult().search(query))
+                .addOnCompleteListener(AppExecutors.get().mainThread(), task -> {
+                    if (task.isSuccessful()) {
+                        listener.onSearchResult(task.getResult());
+                    } else {
+                        AppLog.e(TAG, "Catalog search failed", task.getException());
+                        listener.onError("Search failed: " + (task.getException() != null ? task.getException().getMessage() : ""));
+                    }
+                });
+    }
+
+    private synchronized Task<ProductSearchIndex> getSearchIndex() {
+        long now = SystemClock.elapsedRealtime();
+        boolean usable = searchIndex != null
+                && !(searchIndex.isComplete() && !searchIndex.isSuccessful())
+                && now - searchIndexStartedAt < SEARCH_INDEX_TTL_MS;
+        if (!usable) {
+            searchIndexStartedAt = now;
+            List<ProductModel> catalog = new ArrayList<>();
+            searchIndex = fetchCatalogPage(null, catalog)
+                    .continueWith(executor, task -> {
+                        task.getResult();
+                        long start = System.nanoTime();
+                        ProductSearchIndex built = new ProductSearchIndex(catalog);
+                        AppLog.d(TAG, "Indexed {} products in {} ms", built.size(), (System.nanoTime() - start) / 1_000_000);
+                        return built;
+                    });
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Append the page of products after {@code after} (newest first) to {@code catalog}, then the
+     * following ones until the collection or the index limit runs out
+     */
+    private Task<Void> fetchCatalogPage(DocumentSnapshot after, List<ProductModel> catalog) {
+        Query page = productService.getAllProducts().limit(SEARCH_INDEX_PAGE_SIZE);
+        if (after != null) {
+            page = page.startAfter(after);
+        }
+        return FirestoreMeter.read("ProductRepository.searchCatalog", page.get())
+                .continueWithTask(executor, task -> {
+                    QuerySnapshot snapshot = task.getResult();
+                    for (QueryDocumentSnapshot document : snapshot) {
+                        ProductModel product = document.toObject(ProductModel.class, DocumentSnapshot.ServerTimestampBehavior.ESTIMATE);
+                        product.setProductId(document.getId());
+                        catalog.add(product);
+                    }
+                    if (snapshot.size() < SEARCH_INDEX_PAGE_SIZE || catalog.size() >= SEARCH_INDEX_MAX_PRODUCTS) {
+                        return Tasks.forResult(null);
+                    }
+                    return fetchCatalogPage(snapshot.getDocuments().get(snapshot.size() - 1), catalog);
+                });
+    }
+
+    /**
+     * Drop the catalog index so the next search rebuilds it. Like counts are not tracked here, so
+     * MOST_LIKED ordering may lag until the next catalog change.
+     */
+    public synchronized void invalidateSearchIndex() {
+        searchIndex = null;
+    }
+
     public void loadProduct(String productId) {
         isLoading.setValue(true);
         errorMessage.setValue(null);
@@ -326,20 +421,12 @@ public class ProductRepository {
         task.addOnSuccessListener(querySnapshot -> {
             List<ProductModel> products = new ArrayList<>();
             for (QueryDocumentSnapshot document : querySnapshot) {
-                ProductModel product = document.toObject(ProductModel.class);
+                ProductModel product = document.toObject(ProductModel.class, DocumentSnapshot.ServerTimestampBehavior.ESTIMATE);
                 product.setProductId(document.getId());
                 enrichProductWithUserState(product);
                 products.add(product);
             }
-            // Sort products by createdAt
-            products.sort((p1, p2) -> {
-                String d1 = p1.getCreatedAtString();
-                String d2 = p2.getCreatedAtString();
-                if (d1 == null && d2 == null) return 0;
-                if (d1 == null) return 1;
-                if (d2 == null) return -1;
-                return d2.compareTo(d1);
-            });
+            products.sort(NEWEST_FIRST);
             listener.onProductsLoaded(products);
         }).addOnFailureListener(e -> {
             listener.onError("Failed to load products: " + e.getMessage());
@@ -350,11 +437,11 @@ public class ProductRepository {
      * Toggle like pour un produit
      */
     public void toggleLikeProduct(String productId, String userId, OnLikeToggledListener listener) {
-        Log.d(TAG, "❤️ toggleLikeProduct: productId=" + productId);
+        AppLog.d(TAG, "❤️ toggleLikeProduct: productId={}", productId);
 
         String currentUserId = getCurrentUserId();
         if (currentUserId == null) {
-            Log.e(TAG, "❌ User not authenticated");
+            AppLog.e(TAG, "❌ User not authenticated");
             listener.onError("User not authenticated");
             return;
         }
@@ -362,52 +449,53 @@ public class ProductRepository {
         try {
             // Vérifier l'état actuel
             boolean wasLiked = userPreferences.isProductLiked(productId);
-            Log.d(TAG, "❤️ Current state: wasLiked=" + wasLiked);
+            AppLog.d(TAG, "❤️ Current state: wasLiked={}", wasLiked);
 
             // Toggle local state
             userPreferences.toggleLike(productId);
             final boolean isNowLiked = !wasLiked;
 
-            Log.d(TAG, "❤️ New state: isNowLiked=" + isNowLiked);
+            AppLog.d(TAG, "❤️ New state: isNowLiked={}", isNowLiked);
 
-            // Sync to Firebase
-            userPreferences.syncLikesToFirebase();
+            // The like operation itself is uploaded by the like log
 
             // Mettre à jour le compteur dans Firestore
             userPreferences.updateProductLikeCountAsync(productId, wasLiked)
                     .addOnSuccessListener(aVoid -> {
-                        Log.d(TAG, "❤️ Like count updated in Firestore");
+                        AppLog.d(TAG, "❤️ Like count updated in Firestore");
                         // Récupérer le produit mis à jour
                         productService.getProduct(productId)
                                 .addOnSuccessListener(updatedProduct -> {
                                     if (updatedProduct != null) {
                                         // Enrichir avec l'état utilisateur
                                         updatedProduct.setLikedByUser(isNowLiked);
+                                        if (isNowLiked) {
+                                            TrendingTracker.get().recordProduct(updatedProduct, TrendingEvent.LIKE);
+                                        }
 
                                         // ✅ Synchronisation globale
                                         notifyProductChanged(updatedProduct);
 
-                                        Log.d(TAG, "❤️ Success: liked=" + isNowLiked +
-                                                ", count=" + updatedProduct.getLikesCount());
+                                        AppLog.d(TAG, "❤️ Success: liked={}, count={}", isNowLiked, updatedProduct.getLikesCount());
                                         listener.onLikeToggled(updatedProduct, isNowLiked);
                                     } else {
-                                        Log.e(TAG, "❌ Product not found after update");
+                                        AppLog.e(TAG, "❌ Product not found after update");
                                         listener.onError("Product not found");
                                     }
                                 })
                                 .addOnFailureListener(e -> {
-                                    Log.e(TAG, "❌ Failed to get updated product", e);
+                                    AppLog.e(TAG, "❌ Failed to get updated product", e);
                                     listener.onError("Failed to get product: " + e.getMessage());
                                 });
                     })
                     .addOnFailureListener(e -> {
-                        Log.e(TAG, "❌ Failed to update like count", e);
+                        AppLog.e(TAG, "❌ Failed to update like count", e);
                         // Revert local change
                         userPreferences.revertLikeChange(productId, wasLiked);
                         listener.onError("Failed to update: " + e.getMessage());
                     });
         } catch (Exception e) {
-            Log.e(TAG, "❌ Exception in toggleLikeProduct", e);
+            AppLog.e(TAG, "❌ Exception in toggleLikeProduct", e);
             listener.onError("Error: " + e.getMessage());
         }
     }
@@ -429,10 +517,9 @@ public class ProductRepository {
             FavoritesTableRepository favoritesRepo = FavoritesTableRepository.getInstance(application);
             product.setFavoriteByUser(favoritesRepo.isProductFavoriteSync(product.getProductId()));
 
-            Log.d(TAG, "✅ Enriched product " + product.getName() +
-                    " with user state: liked=" + isLiked + ", favorite=" + product.isFavoriteByUser());
+            AppLog.d(TAG, "✅ Enriched product {} with user state: liked={}, favorite={}", product.getName(), isLiked, product.isFavoriteByUser());
         } catch (Exception e) {
-            Log.e(TAG, "❌ Failed to enrich product with user state", e);
+            AppLog.e(TAG, "❌ Failed to enrich product with user state", e);
             product.setLikedByUser(false);
             product.setFavoriteByUser(false); // Also set favorite to false on error
         }
@@ -452,6 +539,7 @@ public class ProductRepository {
 
         productService.deleteProductWithCascade(productId, productImageService)
                 .addOnSuccessListener(aVoid -> {
+                    invalidateSearchIndex();
                     ProductModel currentProduct = this.currentProduct.getValue();
                     if (currentProduct != null) {
                         loadShopProducts(currentProduct.getShopId());
@@ -464,61 +552,6 @@ public class ProductRepository {
                 });
     }
 
-    public Task<Void> deleteAllProductsForShop(String shopId) {
-        isLoading.setValue(true);
-        errorMessage.setValue(null);
-
-        Log.d(TAG, "deleteAllProductsForShop: " + shopId);
-
-        return productService.getProductsByShop(shopId)
-                .continueWithTask(task -> {
-                    if (!task.isSuccessful()) {
-                        Log.e(TAG, "Failed to get products for shop", task.getException());
-                        throw task.getException();
-                    }
-
-                    return productService.deleteAllProductsForShop(shopId, productImageService)
-                            .continueWithTask(deleteTask -> {
-                                if (!deleteTask.isSuccessful()) {
-                                    errorMessage.postValue("Failed to delete products: " +
-                                            deleteTask.getException().getMessage());
-                                    isLoading.postValue(false);
-                                    throw deleteTask.getException();
-                                }
-
-                                return deleteAllProductImagesForShop(shopId)
-                                        .continueWithTask(deleteImagesTask -> {
-                                            shopProducts.postValue(new ArrayList<>());
-                                            isLoading.postValue(false);
-                                            return com.google.android.gms.tasks.Tasks.forResult((Void) null);
-                                        });
-                            });
-                });
-    }
-
-    private Task<Void> deleteAllProductImagesForShop(String shopId) {
-        Log.d(TAG, "deleteAllProductImagesForShop: " + shopId);
-
-        return productService.getProductsByShop(shopId)
-                .continueWithTask(task -> {
-                    if (!task.isSuccessful()) {
-                        throw task.getException();
-                    }
-
-                    List<String> allImageIds = new ArrayList<>();
-                    for (QueryDocumentSnapshot document : task.getResult()) {
-                        ProductModel product = document.toObject(ProductModel.class);
-                        String imageId = product.getPrimaryImageId();
-                        if (imageId != null && !imageId.isEmpty() && !allImageIds.contains(imageId)) {
-                            allImageIds.add(imageId);
-                        }
-                    }
-
-                    Log.d(TAG, "Total images to delete: " + allImageIds.size());
-                    return productImageService.deleteProductImagesByIds(allImageIds);
-                });
-    }
-
     public void setCurrentProduct(ProductModel product) {
         currentProduct.setValue(product);
     }
@@ -554,7 +587,7 @@ public class ProductRepository {
                 if (updatedList.get(i).getProductId().equals(updatedProduct.getProductId())) {
                     updatedList.set(i, updatedProduct);
                     shopProducts.postValue(updatedList);
-                    Log.d(TAG, "Updated product in shop list at position: " + i);
+                    AppLog.d(TAG, "Updated product in shop list at position: {}", i);
                     break;
                 }
             }
@@ -568,7 +601,7 @@ public class ProductRepository {
                 if (updatedList.get(i).getProductId().equals(updatedProduct.getProductId())) {
                     updatedList.set(i, updatedProduct);
                     allProducts.postValue(updatedList);
-                    Log.d(TAG, "Updated product in all products list at position: " + i);
+                    AppLog.d(TAG, "Updated product in all products list at position: {}", i);
                     break;
                 }
             }
@@ -592,6 +625,6 @@ public class ProductRepository {
                         }
                     }
                 })
-                .addOnFailureListener(e -> Log.e(TAG, "Failed to fetch shop name for notification", e));
+                .addOnFailureListener(e -> AppLog.e(TAG, "Failed to fetch shop name for notification", e));
     }
 }
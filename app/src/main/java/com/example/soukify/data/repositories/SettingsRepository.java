@@ -1,19 +1,18 @@
 package com.example.soukify.data.repositories;
 
 import android.app.Application;
-import android.content.Context;
-import android.content.SharedPreferences;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import com.example.soukify.data.local.KeyValueStore;
 import com.example.soukify.data.remote.FirebaseManager;
 import com.example.soukify.data.models.UserModel;
 
 /**
- * Settings Repository - SharedPreferences/Firebase implementation
+ * Settings Repository - KeyValueStore/Firebase implementation
  * Follows MVVM pattern by abstracting data operations from ViewModels
  */
 public class SettingsRepository {
-    private final SharedPreferences sharedPreferences;
+    private final KeyValueStore store;
     private final FirebaseManager firebaseManager;
     private final MutableLiveData<String> language = new MutableLiveData<>();
     private final MutableLiveData<String> currency = new MutableLiveData<>();
@@ -21,11 +20,13 @@ public class SettingsRepository {
     private final MutableLiveData<Boolean> darkMode = new MutableLiveData<>();
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     
+    // Pre-store preferences file, imported on first construction
     private static final String PREFS_NAME = "soukify_settings";
-    private static final String KEY_LANGUAGE = "language";
-    private static final String KEY_CURRENCY = "currency";
-    private static final String KEY_NOTIFICATIONS = "notifications_enabled";
-    private static final String KEY_DARK_MODE = "dark_mode";
+    private static final String KEY_PREFIX = "settings.";
+    private static final String KEY_LANGUAGE = KEY_PREFIX + "language";
+    private static final String KEY_CURRENCY = KEY_PREFIX + "currency";
+    private static final String KEY_NOTIFICATIONS = KEY_PREFIX + "notifications_enabled";
+    private static final String KEY_DARK_MODE = KEY_PREFIX + "dark_mode";
     
     // Default values
     private static final String DEFAULT_LANGUAGE = "en";
@@ -34,7 +35,8 @@ public class SettingsRepository {
     private static final boolean DEFAULT_DARK_MODE = false;
     
     public SettingsRepository(Application application) {
-        this.sharedPreferences = application.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.store = KeyValueStore.getInstance(application);
+        store.migrateFrom(application, PREFS_NAME, KEY_PREFIX);
         this.firebaseManager = FirebaseManager.getInstance(application);
         loadSettings();
     }
@@ -60,37 +62,29 @@ public class SettingsRepository {
     }
     
     private void loadSettings() {
-        language.setValue(sharedPreferences.getString(KEY_LANGUAGE, DEFAULT_LANGUAGE));
-        currency.setValue(sharedPreferences.getString(KEY_CURRENCY, DEFAULT_CURRENCY));
-        notificationsEnabled.setValue(sharedPreferences.getBoolean(KEY_NOTIFICATIONS, DEFAULT_NOTIFICATIONS));
-        darkMode.setValue(sharedPreferences.getBoolean(KEY_DARK_MODE, DEFAULT_DARK_MODE));
+        language.setValue(store.getString(KEY_LANGUAGE, DEFAULT_LANGUAGE));
+        currency.setValue(store.getString(KEY_CURRENCY, DEFAULT_CURRENCY));
+        notificationsEnabled.setValue(store.getBoolean(KEY_NOTIFICATIONS, DEFAULT_NOTIFICATIONS));
+        darkMode.setValue(store.getBoolean(KEY_DARK_MODE, DEFAULT_DARK_MODE));
     }
     
     public void setLanguage(String lang) {
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.putString(KEY_LANGUAGE, lang);
-        editor.apply();
+        store.putString(KEY_LANGUAGE, lang);
         language.setValue(lang);
     }
     
     public void setCurrency(String curr) {
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.putString(KEY_CURRENCY, curr);
-        editor.apply();
+        store.putString(KEY_CURRENCY, curr);
         currency.setValue(curr);
     }
     
     public void setNotificationsEnabled(boolean enabled) {
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.putBoolean(KEY_NOTIFICATIONS, enabled);
-        editor.apply();
+        store.putBoolean(KEY_NOTIFICATIONS, enabled);
         notificationsEnabled.setValue(enabled);
     }
     
     public void setDarkMode(boolean enabled) {
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.putBoolean(KEY_DARK_MODE, enabled);
-        editor.apply();
+        store.putBoolean(KEY_DARK_MODE, enabled);
         darkMode.setValue(enabled);
     }
     
@@ -119,9 +113,7 @@ public class SettingsRepository {
     }
     
     public void clearAllSettings() {
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.clear();
-        editor.apply();
+        store.removeAll(KEY_PREFIX);
         loadSettings();
     }
 }
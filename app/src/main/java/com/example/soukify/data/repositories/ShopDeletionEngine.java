@@ -0,0 +1,416 @@
+package com.example.soukify.data.repositories;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.soukify.data.remote.CloudinaryImageService;
+import com.example.soukify.data.remote.FirebaseManager;
+import com.example.soukify.data.remote.MediaReferences;
+import com.example.soukify.data.remote.firebase.FirebaseStorageService;
+import com.example.soukify.data.remote.firebase.FirebaseTrendingService;
+import com.example.soukify.utils.concurrent.AppExecutors;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shop Deletion Engine - Chunked, resumable cascade delete of a shop and everything hanging off it
+ *
+ * Work is done page by page: each page of products is read once, its media assets are deleted in
+ * Cloudinary batches, then the products and their image documents, favorites and interactions are
+ * removed with WriteBatches of up to 500 operations. Conversations and their messages, favorites of
+ * the shop and finally the shop document follow. The current phase and the last document it
+ * processed are persisted after every page, so a shop whose deletion was interrupted (crash, process
+ * death, network loss) is picked up again by {@link #resumePending()} after that document. Every step
+ * is idempotent: a page that was half-done is simply redone.
+ *
+ * Pages are read in document-id order starting after that cursor rather than from the top of the
+ * query, which would have to skip over the tombstones of every document deleted before it.
+ */
+public class ShopDeletionEngine {
+    private static final String TAG = "ShopDeletionEngine";
+
+    private static final String PREFS_NAME = "shop_deletion_prefs";
+    private static final String KEY_PENDING = "pending_shop_ids";
+    private static final String KEY_PHASE_PREFIX = "phase_";
+    private static final String KEY_DELETED_PREFIX = "deleted_products_";
+    private static final String KEY_CURSOR_PREFIX = "cursor_";
+
+    private static final String SHOPS_COLLECTION = "shops";
+    private static final String PRODUCTS_COLLECTION = "products";
+    private static final String PRODUCT_IMAGES_COLLECTION = "product_images";
+    private static final String FAVORITES_COLLECTION = "favorites";
+    private static final String CONVERSATIONS_COLLECTION = "Conversation";
+    private static final String MESSAGES_COLLECTION = "messages";
+    // userProductInteractions/{userId}/products/{productId}
+    private static final String INTERACTIONS_SUBCOLLECTION = "products";
+
+    private static final int PRODUCT_PAGE_SIZE = 100;
+    private static final int CONVERSATION_PAGE_SIZE = 100;
+    private static final int DOCUMENT_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_OPERATIONS = 500;
+    private static final int MAX_IN_VALUES = 30;
+
+    private enum Phase {
+        PRODUCTS,
+        CONVERSATIONS,
+        SHOP_FAVORITES,
+        SHOP,
+        DONE
+    }
+
+    private static volatile ShopDeletionEngine instance;
+
+    private final FirebaseFirestore firestore;
+    private final FirebaseStorageService storageService;
+    private final CloudinaryImageService cloudinaryService;
+    private final SharedPreferences prefs;
+    private final Map<String, Task<Void>> running = new HashMap<>();
+
+    private ShopDeletionEngine(Application application) {
+        FirebaseManager firebaseManager = FirebaseManager.getInstance(application);
+        this.firestore = firebaseManager.getFirestore();
+        this.storageService = new FirebaseStorageService(firebaseManager.getStorage());
+        this.cloudinaryService = new CloudinaryImageService(application);
+        this.prefs = application.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static ShopDeletionEngine getInstance(Application application) {
+        if (instance == null) {
+            synchronized (ShopDeletionEngine.class) {
+                if (instance == null) {
+                    instance = new ShopDeletionEngine(application);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Delete a shop and all of its data. Calling it again for a shop that is already being
+     * deleted returns the same task.
+     */
+    public Task<Void> deleteShop(String shopId) {
+        if (shopId == null || shopId.isEmpty()) {
+            return Tasks.forException(new IllegalArgumentException("Invalid shop ID"));
+        }
+        markPending(shopId);
+        return start(shopId);
+    }
+
+    /**
+     * Restart deletions that were interrupted, e.g. from Application.onCreate
+     */
+    public void resumePending() {
+        for (String shopId : prefs.getStringSet(KEY_PENDING, new HashSet<>())) {
+            Log.d(TAG, "Resuming deletion of shop " + shopId + " at " + getPhase(shopId));
+            start(shopId);
+        }
+    }
+
+    private Task<Void> start(String shopId) {
+        synchronized (running) {
+            Task<Void> existing = running.get(shopId);
+            if (existing != null) return existing;
+
+            TaskCompletionSource<Void> completion = new TaskCompletionSource<>();
+            running.put(shopId, completion.getTask());
+            AppExecutors.get().serial("shop-delete:" + shopId).execute(() -> {
+                try {
+                    runPhases(shopId);
+                    clearPending(shopId);
+                    completion.setResult(null);
+                } catch (Exception e) {
+                    // Progress is kept: the next deleteShop or resumePending continues from here
+                    Log.e(TAG, "Deletion of shop " + shopId + " stopped at " + getPhase(shopId), e);
+                    completion.setException(e);
+                } finally {
+                    synchronized (running) {
+                        running.remove(shopId);
+                    }
+                }
+            });
+            return completion.getTask();
+        }
+    }
+
+    private void runPhases(String shopId) throws Exception {
+        Phase phase = getPhase(shopId);
+        while (phase != Phase.DONE) {
+            boolean finished;
+            switch (phase) {
+                case PRODUCTS:
+                    finished = deleteProductPage(shopId);
+                    break;
+                case CONVERSATIONS:
+                    finished = deleteConversationPage(shopId);
+                    break;
+                case SHOP_FAVORITES:
+                    finished = deletePage(shopId, firestore.collection(FAVORITES_COLLECTION)
+                            .whereEqualTo("itemId", shopId)
+                            .whereEqualTo("itemType", "shop"));
+                    break;
+                default:
+                    deleteShopDocument(shopId);
+                    finished = true;
+                    break;
+            }
+            if (finished) {
+                phase = Phase.values()[phase.ordinal() + 1];
+                setPhase(shopId, phase);
+            }
+        }
+    }
+
+    /**
+     * Delete one page of products with everything attached to them. Returns true when no product is left.
+     */
+    private boolean deleteProductPage(String shopId) throws Exception {
+        List<DocumentSnapshot> products = Tasks.await(afterCursor(shopId, firestore.collection(PRODUCTS_COLLECTION)
+                .whereEqualTo("shopId", shopId))
+                .limit(PRODUCT_PAGE_SIZE)
+                .get()).getDocuments();
+        if (products.isEmpty()) return true;
+
+        List<String> productIds = new ArrayList<>(products.size());
+        Set<String> imageIds = new LinkedHashSet<>();
+        for (DocumentSnapshot product : products) {
+            productIds.add(product.getId());
+            Object ids = product.get("imageIds");
+            if (ids instanceof List) {
+                for (Object id : (List<?>) ids) {
+                    if (id instanceof String && !((String) id).isEmpty()) imageIds.add((String) id);
+                }
+            }
+        }
+
+        // Media first: once the image documents are gone their URLs can't be recovered
+        deleteMediaAssets(new ArrayList<>(imageIds));
+
+        BatchWriter writer = new BatchWriter();
+        for (String imageId : imageIds) {
+            writer.delete(firestore.collection(PRODUCT_IMAGES_COLLECTION).document(imageId));
+        }
+        for (List<String> chunk : chunks(productIds, MAX_IN_VALUES)) {
+            for (DocumentSnapshot favorite : Tasks.await(firestore.collection(FAVORITES_COLLECTION)
+                    .whereIn("itemId", chunk)
+                    .get()).getDocuments()) {
+                if ("product".equals(favorite.getString("itemType"))) writer.delete(favorite.getReference());
+            }
+            // Needs the products collection-group rule and index of firestore.rules and firestore.indexes.json
+            for (DocumentSnapshot interaction : Tasks.await(firestore.collectionGroup(INTERACTIONS_SUBCOLLECTION)
+                    .whereIn("productId", chunk)
+                    .get()).getDocuments()) {
+                // The group also matches the top-level products collection, handled below
+                if (interaction.getReference().getParent().getParent() != null) {
+                    writer.delete(interaction.getReference());
+                }
+            }
+        }
+        for (String productId : productIds) {
+            writer.delete(firestore.collection(FirebaseTrendingService.TRENDING_COLLECTION)
+                    .document(FirebaseTrendingService.documentId(FirebaseTrendingService.TYPE_PRODUCT, productId)));
+        }
+        // Products last, so a partially applied page is found again on resume
+        for (DocumentSnapshot product : products) {
+            writer.delete(product.getReference());
+        }
+        writer.commit();
+
+        int deleted = prefs.getInt(KEY_DELETED_PREFIX + shopId, 0) + products.size();
+        prefs.edit()
+                .putInt(KEY_DELETED_PREFIX + shopId, deleted)
+                .putString(KEY_CURSOR_PREFIX + shopId, last(products).getId())
+                .commit();
+        Log.d(TAG, "Shop " + shopId + ": " + deleted + " products deleted");
+        return products.size() < PRODUCT_PAGE_SIZE;
+    }
+
+    /**
+     * Delete one page of conversations with their messages, all through one BatchWriter
+     */
+    private boolean deleteConversationPage(String shopId) throws Exception {
+        List<DocumentSnapshot> conversations = Tasks.await(afterCursor(shopId, firestore.collection(CONVERSATIONS_COLLECTION)
+                .whereEqualTo("shopId", shopId))
+                .limit(CONVERSATION_PAGE_SIZE)
+                .get()).getDocuments();
+        if (conversations.isEmpty()) return true;
+
+        BatchWriter writer = new BatchWriter();
+        for (DocumentSnapshot conversation : conversations) {
+            Query messages = conversation.getReference().collection(MESSAGES_COLLECTION)
+                    .orderBy(FieldPath.documentId())
+                    .limit(DOCUMENT_PAGE_SIZE);
+            List<DocumentSnapshot> page;
+            DocumentSnapshot lastMessage = null;
+            do {
+                page = Tasks.await((lastMessage != null ? messages.startAfter(lastMessage) : messages).get()).getDocuments();
+                for (DocumentSnapshot message : page) {
+                    writer.delete(message.getReference());
+                }
+                if (!page.isEmpty()) lastMessage = last(page);
+            } while (page.size() == DOCUMENT_PAGE_SIZE);
+            // After its messages, so a conversation is only gone once they are
+            writer.delete(conversation.getReference());
+        }
+        writer.commit();
+        setCursor(shopId, last(conversations).getId());
+        return conversations.size() < CONVERSATION_PAGE_SIZE;
+    }
+
+    /**
+     * Delete one page of a query's results. Returns true when the query is exhausted.
+     */
+    private boolean deletePage(String shopId, Query query) throws Exception {
+        List<DocumentSnapshot> documents = Tasks.await(afterCursor(shopId, query)
+                .limit(DOCUMENT_PAGE_SIZE)
+                .get()).getDocuments();
+        if (documents.isEmpty()) return true;
+
+        BatchWriter writer = new BatchWriter();
+        for (DocumentSnapshot document : documents) {
+            writer.delete(document.getReference());
+        }
+        writer.commit();
+        setCursor(shopId, last(documents).getId());
+        return documents.size() < DOCUMENT_PAGE_SIZE;
+    }
+
+    /**
+     * {@code query} in document-id order, past the last document the current phase processed
+     */
+    private Query afterCursor(String shopId, Query query) {
+        Query ordered = query.orderBy(FieldPath.documentId());
+        String cursor = prefs.getString(KEY_CURSOR_PREFIX + shopId, null);
+        return cursor != null ? ordered.startAfter(cursor) : ordered;
+    }
+
+    private static DocumentSnapshot last(List<DocumentSnapshot> documents) {
+        return documents.get(documents.size() - 1);
+    }
+
+    private void deleteShopDocument(String shopId) throws Exception {
+        DocumentReference shopRef = firestore.collection(SHOPS_COLLECTION).document(shopId);
+        DocumentSnapshot shop = Tasks.await(shopRef.get());
+        String coverUrl = shop.exists() ? shop.getString("imageUrl") : null;
+        if (coverUrl != null) {
+            // Content-addressed covers may be reused as product photos or profile pictures elsewhere
+            cloudinaryService.deleteUnreferenced(Collections.singletonList(coverUrl),
+                    Collections.singleton(MediaReferences.path(MediaReferences.SHOPS, shopId)));
+        }
+        try {
+            Tasks.await(storageService.deleteShopImage(shopId));
+        } catch (Exception e) {
+            // Most shops have no image in Storage; a missing object is not an error here
+            Log.d(TAG, "No Storage image for shop " + shopId + ": " + e.getMessage());
+        }
+        Tasks.await(firestore.collection(FirebaseTrendingService.TRENDING_COLLECTION)
+                .document(FirebaseTrendingService.documentId(FirebaseTrendingService.TYPE_SHOP, shopId))
+                .delete());
+        Tasks.await(shopRef.delete());
+    }
+
+    private void deleteMediaAssets(List<String> imageIds) throws Exception {
+        List<String> urls = new ArrayList<>();
+        // The image documents of this page are going away with it and don't keep an asset alive
+        Set<String> pagePaths = new HashSet<>();
+        for (List<String> chunk : chunks(imageIds, MAX_IN_VALUES)) {
+            for (DocumentSnapshot image : Tasks.await(firestore.collection(PRODUCT_IMAGES_COLLECTION)
+                    .whereIn(FieldPath.documentId(), chunk)
+                    .get()).getDocuments()) {
+                pagePaths.add(image.getReference().getPath());
+                String url = image.getString("imageUrl");
+                if (url != null) urls.add(url);
+            }
+        }
+        // Uploads are deduplicated by content, so another listing, a shop cover or a profile may
+        // use the same asset
+        cloudinaryService.deleteUnreferenced(urls, pagePaths);
+    }
+
+    private static List<List<String>> chunks(List<String> values, int size) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += size) {
+            chunks.add(values.subList(from, Math.min(from + size, values.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Accumulates deletes and commits them in WriteBatches of at most MAX_BATCH_OPERATIONS
+     */
+    private final class BatchWriter {
+        private WriteBatch batch = firestore.batch();
+        private int operations;
+
+        void delete(DocumentReference ref) throws Exception {
+            batch.delete(ref);
+            if (++operations == MAX_BATCH_OPERATIONS) commit();
+        }
+
+        void commit() throws Exception {
+            if (operations == 0) return;
+            Tasks.await(batch.commit());
+            batch = firestore.batch();
+            operations = 0;
+        }
+    }
+
+    // ==================== PROGRESS ====================
+
+    private Phase getPhase(String shopId) {
+        String name = prefs.getString(KEY_PHASE_PREFIX + shopId, Phase.PRODUCTS.name());
+        try {
+            return Phase.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return Phase.PRODUCTS;
+        }
+    }
+
+    private void setPhase(String shopId, Phase phase) {
+        // A cursor belongs to the phase whose query it was taken from
+        prefs.edit()
+                .putString(KEY_PHASE_PREFIX + shopId, phase.name())
+                .remove(KEY_CURSOR_PREFIX + shopId)
+                .commit();
+    }
+
+    private void setCursor(String shopId, String documentId) {
+        prefs.edit().putString(KEY_CURSOR_PREFIX + shopId, documentId).commit();
+    }
+
+    private synchronized void markPending(String shopId) {
+        Set<String> pending = new HashSet<>(prefs.getStringSet(KEY_PENDING, new HashSet<>()));
+        if (pending.add(shopId)) {
+            prefs.edit().putStringSet(KEY_PENDING, pending).commit();
+        }
+    }
+
+    private synchronized void clearPending(String shopId) {
+        Set<String> pending = new HashSet<>(prefs.getStringSet(KEY_PENDING, new HashSet<>()));
+        pending.remove(shopId);
+        prefs.edit()
+                .putStringSet(KEY_PENDING, pending)
+                .remove(KEY_PHASE_PREFIX + shopId)
+                .remove(KEY_DELETED_PREFIX + shopId)
+                .remove(KEY_CURSOR_PREFIX + shopId)
+                .commit();
+    }
+}
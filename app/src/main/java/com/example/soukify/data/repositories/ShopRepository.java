@@ -1,7 +1,6 @@
  package com.example.soukify.data.repositories;
 
  import android.app.Application;
- import android.util.Log;
 
  import androidx.lifecycle.LiveData;
  import androidx.lifecycle.MutableLiveData;
@@ -11,17 +10,22 @@
  import com.example.soukify.data.remote.firebase.FirebaseProductService;
  import com.example.soukify.data.remote.firebase.FirebaseProductImageService;
  import com.example.soukify.data.models.ShopModel;
+ import com.example.soukify.data.counters.ImpressionPipeline;
+ import com.example.soukify.data.geo.ShopLocator;
  import com.example.soukify.data.repositories.ProductRepository;
  import com.example.soukify.data.repositories.ProductImageRepository;
  import com.google.android.gms.tasks.Task;
+ import com.google.firebase.firestore.DocumentChange;
  import com.google.firebase.firestore.DocumentSnapshot;
+ import com.google.firebase.firestore.ListenerRegistration;
  import com.google.firebase.firestore.QueryDocumentSnapshot;
 
  import java.util.ArrayList;
  import java.util.List;
- import java.util.concurrent.ExecutorService;
- import java.util.concurrent.Executors;
+ import java.util.concurrent.Executor;
  import com.example.soukify.services.NotificationSenderService;
+ import com.example.soukify.utils.concurrent.AppExecutors;
+ import com.example.soukify.utils.log.AppLog;
 import com.google.firebase.auth.FirebaseAuth;
 
  /**
@@ -33,6 +37,7 @@ import com.google.firebase.auth.FirebaseAuth;
      private final FirebaseStorageService storageService;
      private final ProductRepository productRepository;
      private final ProductImageRepository productImageRepository;
+     private final ShopDeletionEngine deletionEngine;
      private final MutableLiveData<ShopModel> currentShop = new MutableLiveData<>();
      private final MutableLiveData<List<ShopModel>> userShops = new MutableLiveData<>();
      private final MutableLiveData<List<ShopModel>> allShops = new MutableLiveData<>();
@@ -40,7 +45,15 @@ import com.google.firebase.auth.FirebaseAuth;
      private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
      private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>();
      private final NotificationSenderService notificationSenderService;
-     private final ExecutorService executor = Executors.newFixedThreadPool(2);
+     // Snapshot parsing runs on the shared CPU lane
+     private final Executor executor = AppExecutors.get().cpu();
+    
+     /**
+      * Receives shop collection changes as deltas instead of full reloads
+      */
+     public interface ShopChangesListener {
+         void onShopsChanged(List<ShopModel> upserted, List<String> removedIds);
+     }
     
      public ShopRepository(Application application) {
          FirebaseManager firebaseManager = FirebaseManager.getInstance(application);
@@ -48,6 +61,7 @@ import com.google.firebase.auth.FirebaseAuth;
          this.storageService = new FirebaseStorageService(firebaseManager.getStorage());
          this.productRepository = ProductRepository.getInstance(application);
          this.productImageRepository = new ProductImageRepository(application);
+         this.deletionEngine = ShopDeletionEngine.getInstance(application);
          this.notificationSenderService = new NotificationSenderService();
      }
     
@@ -102,7 +116,7 @@ import com.google.firebase.auth.FirebaseAuth;
          shop.setHasLivraison(hasLivraison);
         
         // Debug logging to verify field values before Firestore save
-        android.util.Log.d("ShopRepository", "Before Firestore save - hasPromotion: " + shop.isHasPromotion() + ", hasLivraison: " + shop.isHasLivraison());
+        AppLog.d("ShopRepository", "Before Firestore save - hasPromotion: {}, hasLivraison: {}", shop.isHasPromotion(), shop.isHasLivraison());
         
          shopService.createShop(shop)
                  .addOnSuccessListener(documentReference -> {
@@ -112,6 +126,11 @@ import com.google.firebase.auth.FirebaseAuth;
                     
                      // Update the document in Firestore with the correct ID and all fields
                      shopService.updateShop(actualShopId, shop)
+                             .addOnCompleteListener(update -> {
+                                 // Both writes asked for the server's time; later saves of this
+                                 // model keep a date rather than stamping it again
+                                 shop.setCreatedAt(System.currentTimeMillis());
+                             })
                              .addOnSuccessListener(updateResult -> {
                                  currentShop.postValue(shop);
                                  loadUserShops(); // Refresh user shops list
@@ -134,9 +153,9 @@ import com.google.firebase.auth.FirebaseAuth;
          isLoading.postValue(true);
          errorMessage.postValue(null);
         
-         android.util.Log.d("ShopRepository", "=== FIRESTORE UPDATE DEBUG ===");
-        android.util.Log.d("ShopRepository", "Updating shop in Firestore: " + shop.getName());
-        android.util.Log.d("ShopRepository", "Toggle values being sent to Firestore - hasPromotion: " + shop.isHasPromotion() + ", hasLivraison: " + shop.isHasLivraison());
+         AppLog.d("ShopRepository", "=== FIRESTORE UPDATE DEBUG ===");
+        AppLog.d("ShopRepository", "Updating shop in Firestore: {}", shop.getName());
+        AppLog.d("ShopRepository", "Toggle values being sent to Firestore - hasPromotion: {}, hasLivraison: {}", shop.isHasPromotion(), shop.isHasLivraison());
         
         // 🔍 Récupérer l'état actuel pour détecter l'activation d'une promotion
         shopService.getShopById(shop.getShopId()).addOnSuccessListener(doc -> {
@@ -155,7 +174,7 @@ import com.google.firebase.auth.FirebaseAuth;
                      isLoading.postValue(false);
                      
                      if (isNewPromotion) {
-                         android.util.Log.d("ShopRepository", "🔔 Promotion activée ! Envoi des notifications...");
+                         AppLog.d("ShopRepository", "🔔 Promotion activée ! Envoi des notifications...");
                          notificationSenderService.sendPromotionNotification(
                              shop.getShopId(), 
                              shop.getName(), 
@@ -186,39 +205,18 @@ import com.google.firebase.auth.FirebaseAuth;
          isLoading.postValue(true);
          errorMessage.postValue(null);
         
-         // First delete all products for this shop (cascade delete)
-         return productRepository.deleteAllProductsForShop(shopId)
+         // Products, media, favorites, interactions and conversations are removed in resumable chunks
+         return deletionEngine.deleteShop(shopId)
                  .continueWithTask(task -> {
                      if (!task.isSuccessful()) {
-                         errorMessage.postValue("Failed to delete products: " + task.getException().getMessage());
-                         isLoading.postValue(false);
                          throw task.getException();
                      }
                     
-                     // After deleting products, delete the shop image
-                     return storageService.deleteShopImage(shopId)
-                             .continueWithTask(imageTask -> {
-                                 // Log error but continue with shop deletion
-                                 if (!imageTask.isSuccessful()) {
-                                     android.util.Log.w("ShopRepository", "Failed to delete shop image: " + imageTask.getException().getMessage());
-                                 }
-                                
-                                 // After deleting image, delete the shop
-                                 return shopService.deleteShop(shopId)
-                                         .continueWithTask(shopTask -> {
-                                             if (!shopTask.isSuccessful()) {
-                                                 errorMessage.postValue("Failed to delete shop: " + shopTask.getException().getMessage());
-                                                 isLoading.postValue(false);
-                                                 throw shopTask.getException();
-                                             }
-                                            
-                                             // All deletions completed successfully
-                                             currentShop.postValue(null);
-                                             loadUserShops(); // Refresh user shops list
-                                             isLoading.postValue(false);
-                                             return com.google.android.gms.tasks.Tasks.forResult((Void) null);
-                                         });
-                             });
+                     // All deletions completed successfully
+                     currentShop.postValue(null);
+                     loadUserShops(); // Refresh user shops list
+                     isLoading.postValue(false);
+                     return com.google.android.gms.tasks.Tasks.forResult((Void) null);
                  })
                  .addOnFailureListener(e -> {
                      errorMessage.postValue("Failed to delete shop: " + e.getMessage());
@@ -227,33 +225,34 @@ import com.google.firebase.auth.FirebaseAuth;
      }
     
      public void loadUserShops() {
-         android.util.Log.d("ShopRepository", "=== loadUserShops STARTED ===");
+         AppLog.d("ShopRepository", "=== loadUserShops STARTED ===");
          isLoading.postValue(true);
          errorMessage.postValue(null);
         
          String userId = FirebaseManager.getInstance(null).getCurrentUserId();
-         android.util.Log.d("ShopRepository", "Current userId: " + userId);
+         AppLog.d("ShopRepository", "Current userId: {}", userId);
          if (userId == null) {
-             android.util.Log.e("ShopRepository", "User not logged in");
+             AppLog.e("ShopRepository", "User not logged in");
              errorMessage.postValue("User not logged in");
              isLoading.postValue(false);
              return;
          }
         
-         android.util.Log.d("ShopRepository", "Fetching shops for user: " + userId);
-         android.util.Log.d("ShopRepository", "Calling shopService.getShopsByUser(" + userId + ")");
+         AppLog.d("ShopRepository", "Fetching shops for user: {}", userId);
+         AppLog.d("ShopRepository", "Calling shopService.getShopsByUser({})", userId);
         
          shopService.getShopsByUser(userId).get()
                  .addOnSuccessListener(executor, querySnapshot -> {
-                     android.util.Log.d("ShopRepository", "=== Direct Query SUCCESS ===");
-                     android.util.Log.d("ShopRepository", "Processing " + querySnapshot.size() + " documents on background thread");
+                     AppLog.d("ShopRepository", "=== Direct Query SUCCESS ===");
+                     AppLog.d("ShopRepository", "Processing {} documents on background thread", querySnapshot.size());
                      List<ShopModel> shops = new ArrayList<>();
                      for (QueryDocumentSnapshot document : querySnapshot) {
                          try {
                              ShopModel shop = deserializeShop(document);
+                             backfillGeohash(shop, document.getString("geohash"));
                              shops.add(shop);
                          } catch (Exception e) {
-                             Log.e("ShopRepository", "Error deserializing shop: " + document.getId(), e);
+                             AppLog.e("ShopRepository", "Error deserializing shop: {}", document.getId(), e);
                          }
                      }
                      
@@ -266,7 +265,7 @@ import com.google.firebase.auth.FirebaseAuth;
                      isLoading.postValue(false);
                  })
                  .addOnFailureListener(e -> {
-                     android.util.Log.e("ShopRepository", "Direct query failed, trying fallback", e);
+                     AppLog.e("ShopRepository", "Direct query failed, trying fallback", e);
                      
                      shopService.getAllShops().get()
                          .addOnSuccessListener(executor, allShopsSnapshot -> {
@@ -278,7 +277,7 @@ import com.google.firebase.auth.FirebaseAuth;
                                          userShopsList.add(shop);
                                      }
                                  } catch (Exception ex) {
-                                     Log.e("ShopRepository", "Error in fallback deserialization", ex);
+                                     AppLog.e("ShopRepository", "Error in fallback deserialization", ex);
                                  }
                              }
                              userShops.postValue(userShopsList);
@@ -294,11 +293,23 @@ import com.google.firebase.auth.FirebaseAuth;
                              isLoading.postValue(false);
                          });
                  });
-         android.util.Log.d("ShopRepository", "=== loadUserShops METHOD COMPLETED (async) ===");
+         AppLog.d("ShopRepository", "=== loadUserShops METHOD COMPLETED (async) ===");
+     }
+
+     /**
+      * Store the geohash of one of the user's shops saved without one (older app versions) or with
+      * a stale one, so the home map finds it. Other users' shops are left to their owners.
+      */
+     private void backfillGeohash(ShopModel shop, String storedGeohash) {
+         String geohash = ShopLocator.geohash(shop);
+         if (geohash == null || geohash.equals(storedGeohash)) return;
+         shop.setGeohash(geohash);
+         shopService.backfillGeohash(shop.getShopId(), geohash)
+                 .addOnFailureListener(e -> AppLog.w("ShopRepository", "Geohash backfill failed for {}", shop.getShopId(), e));
      }
     
      public Task<DocumentSnapshot> getShopById(String shopId) {
-         android.util.Log.d("ShopRepository", "getShopById called for shopId: " + shopId);
+         AppLog.d("ShopRepository", "getShopById called for shopId: {}", shopId);
          return shopService.getShopById(shopId);
      }
     
@@ -313,7 +324,7 @@ import com.google.firebase.auth.FirebaseAuth;
                          try {
                              shops.add(deserializeShop(document));
                          } catch (Exception e) {
-                             Log.e("ShopRepository", "Error deserializing", e);
+                             AppLog.e("ShopRepository", "Error deserializing", e);
                          }
                      }
                      allShops.postValue(shops);
@@ -325,6 +336,38 @@ import com.google.firebase.auth.FirebaseAuth;
                  });
      }
     
+     /**
+      * Listen to the shops placed in one geohash cell and deliver only the changed documents.
+      * The first delivery contains every shop of the cell as "upserted"; a shop that moves out of
+      * the cell is delivered as removed. Runs on {@code callbackExecutor}.
+      */
+     public ListenerRegistration listenToShopChanges(String geohashPrefix, Executor callbackExecutor,
+                                                     ShopChangesListener listener) {
+         return shopService.getShopsInCell(geohashPrefix)
+                 .addSnapshotListener(callbackExecutor, (snapshot, e) -> {
+                     if (e != null || snapshot == null) {
+                         AppLog.e("ShopRepository", "Shop changes listener failed", e);
+                         return;
+                     }
+                     List<ShopModel> upserted = new ArrayList<>();
+                     List<String> removedIds = new ArrayList<>();
+                     for (DocumentChange change : snapshot.getDocumentChanges()) {
+                         if (change.getType() == DocumentChange.Type.REMOVED) {
+                             removedIds.add(change.getDocument().getId());
+                             continue;
+                         }
+                         try {
+                             upserted.add(deserializeShop(change.getDocument()));
+                         } catch (Exception ex) {
+                             AppLog.e("ShopRepository", "Error deserializing shop: {}", change.getDocument().getId(), ex);
+                         }
+                     }
+                     if (!upserted.isEmpty() || !removedIds.isEmpty()) {
+                         listener.onShopsChanged(upserted, removedIds);
+                     }
+                 });
+     }
+    
      public void searchShops(String query) {
          isLoading.postValue(true);
          errorMessage.postValue(null);
@@ -336,7 +379,7 @@ import com.google.firebase.auth.FirebaseAuth;
                          try {
                              shops.add(deserializeShop(document));
                          } catch (Exception e) {
-                             Log.e("ShopRepository", "Error deserializing", e);
+                             AppLog.e("ShopRepository", "Error deserializing", e);
                          }
                      }
                      allShops.postValue(shops);
@@ -359,7 +402,7 @@ import com.google.firebase.auth.FirebaseAuth;
                          try {
                              shops.add(deserializeShop(document));
                          } catch (Exception e) {
-                             Log.e("ShopRepository", "Error deserializing", e);
+                             AppLog.e("ShopRepository", "Error deserializing", e);
                          }
                      }
                      allShops.postValue(shops);
@@ -386,17 +429,15 @@ import com.google.firebase.auth.FirebaseAuth;
      }
     
      public void incrementShopViews(String shopId) {
-         shopService.incrementShopViews(shopId)
-                 .addOnFailureListener(e -> {
-                     // Silently fail for view count to not disrupt user experience
-                 });
+         // Buffered and coalesced; written as one increment per shop per flush
+         ImpressionPipeline.get().recordShopView(shopId);
      }
     
      public void setCurrentShop(ShopModel shop) {
          currentShop.postValue(shop);
      }
     
-     // Helper method to handle both old (Long) and new (String) createdAt formats
+     // Helper method to handle every createdAt format
      public ShopModel deserializeShop(QueryDocumentSnapshot document) {
          ShopModel shop = new ShopModel();
          shop.setShopId(document.getId());
@@ -438,6 +479,12 @@ import com.google.firebase.auth.FirebaseAuth;
          if (document.contains("workingHours")) {
              shop.setWorkingHours(document.getString("workingHours"));
          }
+         Object openingHours = document.get("openingHours");
+         if (openingHours instanceof List) {
+             @SuppressWarnings("unchecked")
+             List<Long> ranges = (List<Long>) openingHours;
+             shop.setOpeningHours(ranges);
+         }
          if (document.contains("workingDays")) {
              shop.setWorkingDays(document.getString("workingDays"));
          }
@@ -506,19 +553,8 @@ import com.google.firebase.auth.FirebaseAuth;
              }
          }
         
-         // Handle createdAt - convert Long to String if needed
-         if (document.contains("createdAt")) {
-             Object createdAtValue = document.get("createdAt");
-             if (createdAtValue instanceof Long) {
-                 // Convert old timestamp to formatted string
-                 Long timestamp = (Long) createdAtValue;
-                 java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm", java.util.Locale.getDefault());
-                 shop.setCreatedAt(sdf.format(new java.util.Date(timestamp)));
-             } else if (createdAtValue instanceof String) {
-                 // Use new string format directly
-                 shop.setCreatedAt((String) createdAtValue);
-             }
-         }
+         // Timestamp, Long or String depending on the version that wrote it; decoded once by the model
+         shop.setCreatedAt(document.get("createdAt", DocumentSnapshot.ServerTimestampBehavior.ESTIMATE));
         
          return shop;
      }
@@ -565,6 +601,12 @@ import com.google.firebase.auth.FirebaseAuth;
          if (document.contains("workingHours")) {
              shop.setWorkingHours(document.getString("workingHours"));
          }
+         Object openingHours = document.get("openingHours");
+         if (openingHours instanceof List) {
+             @SuppressWarnings("unchecked")
+             List<Long> ranges = (List<Long>) openingHours;
+             shop.setOpeningHours(ranges);
+         }
          if (document.contains("workingDays")) {
              shop.setWorkingDays(document.getString("workingDays"));
          }
@@ -634,19 +676,8 @@ import com.google.firebase.auth.FirebaseAuth;
              }
          }
         
-         // Handle createdAt - convert Long to String if needed
-         if (document.contains("createdAt")) {
-             Object createdAtValue = document.get("createdAt");
-             if (createdAtValue instanceof Long) {
-                 // Convert old timestamp to formatted string
-                 Long timestamp = (Long) createdAtValue;
-                 java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm", java.util.Locale.getDefault());
-                 shop.setCreatedAt(sdf.format(new java.util.Date(timestamp)));
-             } else if (createdAtValue instanceof String) {
-                 // Use new string format directly
-                 shop.setCreatedAt((String) createdAtValue);
-             }
-         }
+         // Timestamp, Long or String depending on the version that wrote it; decoded once by the model
+         shop.setCreatedAt(document.get("createdAt", DocumentSnapshot.ServerTimestampBehavior.ESTIMATE));
         
          return shop;
      }
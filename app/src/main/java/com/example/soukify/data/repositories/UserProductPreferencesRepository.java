@@ -1,41 +1,44 @@
 package com.example.soukify.data.repositories;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.provider.Settings;
 import android.util.Log;
 
+import com.example.soukify.data.local.KeyValueStore;
+import com.example.soukify.data.sync.LikeOpLog;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 /**
  * Repository to manage user-specific product likes and favorites
- * Uses both SharedPreferences for local persistence and Firestore for cloud sync
+ * Likes are kept in a per-user operation log (LikeOpLog) synced incrementally with Firestore
+ * Favorites are string sets in the KeyValueStore, changed one element at a time
  * Enhanced with device-based fallback for anonymous users
- * Persists likes to user document so they survive logout/reinstall
  */
 public class UserProductPreferencesRepository {
     private static final String TAG = "UserProductPreferencesRepository";
+    // Preferences file of earlier versions, imported into the store once
     private static final String PREFS_NAME = "user_product_preferences";
-    private static final String LIKED_PRODUCTS_KEY = "liked_products_";
-    private static final String FAVORITED_PRODUCTS_KEY = "favorited_products_";
-    private static final String DEVICE_LIKED_PRODUCTS_KEY = "device_liked_products";
-    private static final String DEVICE_FAVORITED_PRODUCTS_KEY = "device_favorited_products";
+    private static final String KEY_PREFIX = "product_prefs.";
+    // Liked sets are only read, to seed like logs that have never been written
+    private static final String LIKED_PRODUCTS_KEY = KEY_PREFIX + "liked_products_";
+    private static final String FAVORITED_PRODUCTS_KEY = KEY_PREFIX + "favorited_products_";
+    private static final String DEVICE_LIKED_PRODUCTS_KEY = KEY_PREFIX + "device_liked_products";
+    private static final String DEVICE_FAVORITED_PRODUCTS_KEY = KEY_PREFIX + "device_favorited_products";
     
     private final Context context;
-    private final SharedPreferences sharedPreferences;
+    private final KeyValueStore store;
     private final FirebaseFirestore firestore;
     private String deviceUniqueId;
     
     public UserProductPreferencesRepository(Context context) {
         this.context = context.getApplicationContext();
-        this.sharedPreferences = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.store = KeyValueStore.getInstance(this.context);
+        store.migrateFrom(this.context, PREFS_NAME, KEY_PREFIX);
         this.firestore = FirebaseFirestore.getInstance();
         this.deviceUniqueId = getDeviceUniqueId();
     }
@@ -75,19 +78,30 @@ public class UserProductPreferencesRepository {
         return FirebaseAuth.getInstance().getCurrentUser() != null;
     }
     
+    /**
+     * Get the like log of the current user, or of the device for anonymous users.
+     * A log that has never been written starts from the likes stored by earlier versions.
+     */
+    private LikeOpLog getLikeLog() {
+        if (isUserAuthenticated()) {
+            String userId = getCurrentUserId();
+            return LikeOpLog.forOwner(context, userId, true,
+                store.getStringSet(LIKED_PRODUCTS_KEY + userId));
+        }
+        return getDeviceLikeLog();
+    }
+
+    private LikeOpLog getDeviceLikeLog() {
+        Set<String> legacy = new HashSet<>(store.getStringSet(LIKED_PRODUCTS_KEY + deviceUniqueId));
+        legacy.addAll(store.getStringSet(DEVICE_LIKED_PRODUCTS_KEY));
+        return LikeOpLog.forOwner(context, deviceUniqueId, false, legacy);
+    }
+
     /**
      * Get user-specific liked products set
      */
     public Set<String> getLikedProducts() {
-        String userId = getCurrentUserId();
-        if (userId == null) return new HashSet<>();
-        
-        Set<String> likedProducts = sharedPreferences.getStringSet(LIKED_PRODUCTS_KEY + userId, new HashSet<>());
-        if (!isUserAuthenticated()) {
-            Set<String> deviceLikedProducts = sharedPreferences.getStringSet(DEVICE_LIKED_PRODUCTS_KEY, new HashSet<>());
-            likedProducts.addAll(deviceLikedProducts);
-        }
-        return likedProducts;
+        return getLikeLog().getAll();
     }
     
     /**
@@ -97,10 +111,9 @@ public class UserProductPreferencesRepository {
         String userId = getCurrentUserId();
         if (userId == null) return new HashSet<>();
         
-        Set<String> favoritedProducts = sharedPreferences.getStringSet(FAVORITED_PRODUCTS_KEY + userId, new HashSet<>());
+        Set<String> favoritedProducts = new HashSet<>(store.getStringSet(FAVORITED_PRODUCTS_KEY + userId));
         if (!isUserAuthenticated()) {
-            Set<String> deviceFavoritedProducts = sharedPreferences.getStringSet(DEVICE_FAVORITED_PRODUCTS_KEY, new HashSet<>());
-            favoritedProducts.addAll(deviceFavoritedProducts);
+            favoritedProducts.addAll(store.getStringSet(DEVICE_FAVORITED_PRODUCTS_KEY));
         }
         return favoritedProducts;
     }
@@ -115,35 +128,11 @@ public class UserProductPreferencesRepository {
             return;
         }
         
-        Set<String> likedProducts = getLikedProducts();
-        boolean isLiked = likedProducts.contains(productId);
+        // Appends one operation to the log; signed-in users' operations are uploaded in the background
+        boolean isLiked = !getLikeLog().toggle(productId);
         
         Log.d(TAG, "❤️ toggleLike called: productId=" + productId + ", wasLiked=" + isLiked);
         
-        if (isLiked) {
-            likedProducts.remove(productId);
-        } else {
-            likedProducts.add(productId);
-        }
-        
-        // Save locally with user-specific key
-        sharedPreferences.edit()
-            .putStringSet(LIKED_PRODUCTS_KEY + userId, likedProducts)
-            .apply();
-        
-        // Also save to device-level storage for anonymous users
-        if (!isUserAuthenticated()) {
-            Set<String> deviceLikedProducts = sharedPreferences.getStringSet(DEVICE_LIKED_PRODUCTS_KEY, new HashSet<>());
-            if (isLiked) {
-                deviceLikedProducts.remove(productId);
-            } else {
-                deviceLikedProducts.add(productId);
-            }
-            sharedPreferences.edit()
-                .putStringSet(DEVICE_LIKED_PRODUCTS_KEY, deviceLikedProducts)
-                .apply();
-        }
-        
         // Update in Firestore only if user is authenticated
         if (isUserAuthenticated()) {
             updateProductLikeCount(productId, isLiked);
@@ -162,31 +151,14 @@ public class UserProductPreferencesRepository {
             return;
         }
         
-        Set<String> favoritedProducts = getFavoritedProducts();
-        boolean isFavorited = favoritedProducts.contains(productId);
+        boolean isFavorited = isProductFavorited(productId);
         
-        if (isFavorited) {
-            favoritedProducts.remove(productId);
-        } else {
-            favoritedProducts.add(productId);
-        }
-        
-        // Save locally with user-specific key
-        sharedPreferences.edit()
-            .putStringSet(FAVORITED_PRODUCTS_KEY + userId, favoritedProducts)
-            .apply();
+        // Save locally with user-specific key; only the changed element is written
+        setFavorited(FAVORITED_PRODUCTS_KEY + userId, productId, !isFavorited);
         
         // Also save to device-level storage for anonymous users
         if (!isUserAuthenticated()) {
-            Set<String> deviceFavoritedProducts = sharedPreferences.getStringSet(DEVICE_FAVORITED_PRODUCTS_KEY, new HashSet<>());
-            if (isFavorited) {
-                deviceFavoritedProducts.remove(productId);
-            } else {
-                deviceFavoritedProducts.add(productId);
-            }
-            sharedPreferences.edit()
-                .putStringSet(DEVICE_FAVORITED_PRODUCTS_KEY, deviceFavoritedProducts)
-                .apply();
+            setFavorited(DEVICE_FAVORITED_PRODUCTS_KEY, productId, !isFavorited);
         }
         
         // Update in Firestore only if user is authenticated
@@ -201,7 +173,7 @@ public class UserProductPreferencesRepository {
      * Check if product is liked by current user
      */
     public boolean isProductLiked(String productId) {
-        boolean result = getLikedProducts().contains(productId);
+        boolean result = getLikeLog().contains(productId);
         Log.d(TAG, "❤️ isProductLiked: productId=" + productId + ", result=" + result);
         return result;
     }
@@ -210,7 +182,18 @@ public class UserProductPreferencesRepository {
      * Check if product is favorited by current user
      */
     public boolean isProductFavorited(String productId) {
-        return getFavoritedProducts().contains(productId);
+        String userId = getCurrentUserId();
+        if (userId == null) return false;
+        return store.getStringSet(FAVORITED_PRODUCTS_KEY + userId).contains(productId)
+            || (!isUserAuthenticated() && store.getStringSet(DEVICE_FAVORITED_PRODUCTS_KEY).contains(productId));
+    }
+
+    private void setFavorited(String key, String productId, boolean favorited) {
+        if (favorited) {
+            store.addToSet(key, productId);
+        } else {
+            store.removeFromSet(key, productId);
+        }
     }
     
     /**
@@ -293,16 +276,8 @@ public class UserProductPreferencesRepository {
         String userId = getCurrentUserId();
         if (userId == null) return;
         
-        Set<String> likedProducts = getLikedProducts();
-        if (wasLiked) {
-            likedProducts.add(productId);
-        } else {
-            likedProducts.remove(productId);
-        }
-        
-        sharedPreferences.edit()
-            .putStringSet(LIKED_PRODUCTS_KEY + userId, likedProducts)
-            .apply();
+        // Recorded as a compensating operation, so other devices see the revert too
+        getLikeLog().set(productId, wasLiked);
     }
     
     /**
@@ -312,49 +287,45 @@ public class UserProductPreferencesRepository {
         String userId = getCurrentUserId();
         if (userId == null) return;
         
-        Set<String> favoritedProducts = getFavoritedProducts();
-        if (wasFavorited) {
-            favoritedProducts.add(productId);
-        } else {
-            favoritedProducts.remove(productId);
-        }
-        
-        sharedPreferences.edit()
-            .putStringSet(FAVORITED_PRODUCTS_KEY + userId, favoritedProducts)
-            .apply();
+        setFavorited(FAVORITED_PRODUCTS_KEY + userId, productId, wasFavorited);
     }
     
     /**
      * Migrate device preferences to user preferences when user logs in
      */
     public void migrateDevicePreferencesToUser(String userId) {
-        Set<String> deviceLikedProducts = sharedPreferences.getStringSet(DEVICE_LIKED_PRODUCTS_KEY, new HashSet<>());
-        Set<String> deviceFavoritedProducts = sharedPreferences.getStringSet(DEVICE_FAVORITED_PRODUCTS_KEY, new HashSet<>());
+        LikeOpLog deviceLikes = getDeviceLikeLog();
+        LikeOpLog userLikes = LikeOpLog.forOwner(context, userId, true,
+            store.getStringSet(LIKED_PRODUCTS_KEY + userId));
+        // Both logs must have been read from disk before likes move from one to the other
+        Tasks.whenAll(deviceLikes.whenLoaded(), userLikes.whenLoaded())
+            .addOnSuccessListener(loaded -> migrateDevicePreferencesToUser(userId, deviceLikes, userLikes));
+    }
+
+    private void migrateDevicePreferencesToUser(String userId, LikeOpLog deviceLikes, LikeOpLog userLikes) {
+        Set<String> deviceLikedProducts = deviceLikes.getAll();
+        Set<String> deviceFavoritedProducts = new HashSet<>(store.getStringSet(DEVICE_FAVORITED_PRODUCTS_KEY));
         
         if (!deviceLikedProducts.isEmpty() || !deviceFavoritedProducts.isEmpty()) {
             Log.d(TAG, "Migrating device preferences to user " + userId);
             
-            // Get existing user preferences
-            Set<String> userLikedProducts = sharedPreferences.getStringSet(LIKED_PRODUCTS_KEY + userId, new HashSet<>());
-            Set<String> userFavoritedProducts = sharedPreferences.getStringSet(FAVORITED_PRODUCTS_KEY + userId, new HashSet<>());
-            
-            // Merge device preferences with user preferences
-            userLikedProducts.addAll(deviceLikedProducts);
-            userFavoritedProducts.addAll(deviceFavoritedProducts);
+            // Device likes become operations in the user's log; ones already liked add nothing
+            for (String productId : deviceLikedProducts) {
+                userLikes.set(productId, true);
+            }
+            deviceLikes.clearLocal();
             
-            // Save merged preferences
-            sharedPreferences.edit()
-                .putStringSet(LIKED_PRODUCTS_KEY + userId, userLikedProducts)
-                .putStringSet(FAVORITED_PRODUCTS_KEY + userId, userFavoritedProducts)
-                .apply();
+            // Merge device favorites with user favorites
+            for (String productId : deviceFavoritedProducts) {
+                store.addToSet(FAVORITED_PRODUCTS_KEY + userId, productId);
+            }
             
             // Clear device preferences
-            sharedPreferences.edit()
-                .remove(DEVICE_LIKED_PRODUCTS_KEY)
-                .remove(DEVICE_FAVORITED_PRODUCTS_KEY)
-                .apply();
+            store.remove(LIKED_PRODUCTS_KEY + deviceUniqueId);
+            store.remove(DEVICE_LIKED_PRODUCTS_KEY);
+            store.remove(DEVICE_FAVORITED_PRODUCTS_KEY);
             
-            Log.d(TAG, "Migration completed: " + userLikedProducts.size() + " likes, " + userFavoritedProducts.size() + " favorites");
+            Log.d(TAG, "Migration completed: " + deviceLikedProducts.size() + " device likes, " + deviceFavoritedProducts.size() + " device favorites");
         }
     }
 
@@ -367,65 +338,36 @@ public class UserProductPreferencesRepository {
     }
 
     /**
-     * Load user's liked products from Firestore and populate local cache.
-     * Call this on app startup or when user logs in to restore persistent state.
+     * Bring the user's likes up to date with Firestore: only the operations made on other devices
+     * since the last sync are downloaded. The full set is read once, on the first sync of the
+     * account on this device. Call this on app startup or when user logs in.
      */
     public void loadUserLikesFromFirebase(OnLikesLoadedListener listener) {
-        String userId = getCurrentUserId();
-        if (userId == null || !isUserAuthenticated()) {
+        if (!isUserAuthenticated()) {
             if (listener != null) listener.onLikesLoaded(new HashSet<>());
             return;
         }
 
-        // Query user document to get likedProducts array
-        firestore.collection("users")
-            .document(userId)
-            .get()
-            .addOnSuccessListener(documentSnapshot -> {
-                Set<String> likedProductIds = new HashSet<>();
-                if (documentSnapshot.exists()) {
-                    List<String> likedList = (List<String>) documentSnapshot.get("likedProducts");
-                    if (likedList != null) {
-                        likedProductIds.addAll(likedList);
-                        Log.d(TAG, "Loaded " + likedProductIds.size() + " liked products from Firestore for user " + userId);
-                    }
-                }
-                // Update local cache with loaded likes
-                sharedPreferences.edit()
-                    .putStringSet(LIKED_PRODUCTS_KEY + userId, likedProductIds)
-                    .apply();
-                if (listener != null) listener.onLikesLoaded(likedProductIds);
-            })
-            .addOnFailureListener(e -> {
-                Log.e(TAG, "Failed to load user likes from Firestore", e);
-                if (listener != null) listener.onError(e.getMessage());
-            });
+        // Fails when offline; the log keeps its local state and retries on its own
+        getLikeLog().sync().addOnSuccessListener(likedProductIds -> {
+            Log.d(TAG, "Synced likes: " + likedProductIds.size() + " liked products");
+            if (listener != null) listener.onLikesLoaded(likedProductIds);
+        }).addOnFailureListener(e -> {
+            Log.w(TAG, "Like sync failed", e);
+            if (listener != null) listener.onError(e.getMessage());
+        });
     }
 
     /**
-     * Sync current likes to user's Firestore document for persistent storage.
-     * Call this periodically or after like changes to ensure data is backed up.
+     * Upload like operations not yet sent and pull the ones made elsewhere.
+     * Toggles already upload their own operation, so this is only needed to retry sooner.
      */
     public void syncLikesToFirebase() {
-        String userId = getCurrentUserId();
-        if (userId == null || !isUserAuthenticated()) {
-            Log.d(TAG, "Cannot sync likes: user not authenticated or ID null");
+        if (!isUserAuthenticated()) {
+            Log.d(TAG, "Cannot sync likes: user not authenticated");
             return;
         }
-
-        Set<String> likedProducts = getLikedProducts();
-        List<String> likedList = new ArrayList<>(likedProducts);
-
-        // Update user document with likedProducts array
-        firestore.collection("users")
-            .document(userId)
-            .update("likedProducts", likedList)
-            .addOnSuccessListener(aVoid -> {
-                Log.d(TAG, "Synced " + likedList.size() + " liked products to Firestore for user " + userId);
-            })
-            .addOnFailureListener(e -> {
-                Log.e(TAG, "Failed to sync likes to Firestore", e);
-            });
+        getLikeLog().sync();
     }
 
 }
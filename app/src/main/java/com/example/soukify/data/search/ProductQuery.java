@@ -0,0 +1,112 @@
+package com.example.soukify.data.search;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Product Query - Text, facet and range filters for {@link ProductSearchIndex}
+ *
+ * Values selected within one facet are alternatives (color is red OR blue); different facets,
+ * ranges and the text all have to match. Ranges are inclusive and either bound may be open. Price
+ * ranges and price sorts are in the base currency (MAD, see ProductModel.getBasePrice), whatever
+ * currency each product is listed in.
+ */
+public class ProductQuery {
+
+    public enum Facet {
+        TYPE, MATERIAL, COLOR, CURRENCY, SHOP
+    }
+
+    public enum Range {
+        PRICE, WEIGHT, LENGTH, WIDTH, HEIGHT
+    }
+
+    public enum Sort {
+        RELEVANCE, PRICE_ASCENDING, PRICE_DESCENDING, NEWEST, MOST_LIKED
+    }
+
+    private String text = "";
+    private final Map<Facet, Set<String>> facets = new EnumMap<>(Facet.class);
+    private final Map<Range, double[]> ranges = new EnumMap<>(Range.class);
+    private Sort sort = Sort.RELEVANCE;
+    private int offset = 0;
+    private int limit = 50;
+
+    public ProductQuery text(String text) {
+        this.text = text != null ? text : "";
+        return this;
+    }
+
+    /**
+     * Add {@code value} to the accepted values of {@code facet}
+     */
+    public ProductQuery facet(Facet facet, String value) {
+        if (value == null) return this;
+        Set<String> values = facets.get(facet);
+        if (values == null) {
+            values = new HashSet<>();
+            facets.put(facet, values);
+        }
+        values.add(value);
+        return this;
+    }
+
+    public ProductQuery clearFacet(Facet facet) {
+        facets.remove(facet);
+        return this;
+    }
+
+    /**
+     * Keep products whose value is within [min, max]; pass null for an open bound. Products that
+     * don't set the attribute never match a range on it.
+     */
+    public ProductQuery range(Range range, Double min, Double max) {
+        if (min == null && max == null) {
+            ranges.remove(range);
+        } else {
+            ranges.put(range, new double[] {
+                    min != null ? min : Double.NEGATIVE_INFINITY,
+                    max != null ? max : Double.POSITIVE_INFINITY});
+        }
+        return this;
+    }
+
+    public ProductQuery sort(Sort sort) {
+        this.sort = sort != null ? sort : Sort.RELEVANCE;
+        return this;
+    }
+
+    public ProductQuery page(int offset, int limit) {
+        this.offset = Math.max(0, offset);
+        this.limit = Math.max(0, limit);
+        return this;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Set<String> getFacetValues(Facet facet) {
+        Set<String> values = facets.get(facet);
+        return values != null ? values : Collections.emptySet();
+    }
+
+    public double[] getRange(Range range) {
+        return ranges.get(range);
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,437 @@
+package com.example.soukify.data.search;
+
+import com.example.soukify.data.currency.ExchangeRateService;
+import com.example.soukify.data.currency.RateTable;
+import com.example.soukify.data.models.ProductModel;
+
+import java.text.Normalizer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Product Search Index - In-memory faceted search over the cached product catalog
+ *
+ * Built once per catalog version and immutable afterwards, so any number of threads can query it.
+ * Products are numbered 0..n-1 and every structure works on those numbers:
+ * <ul>
+ *   <li>an inverted index from accent- and case-folded tokens of the name and of the description to
+ *       sorted posting arrays, with a sorted vocabulary for prefix matching of the word being typed</li>
+ *   <li>one BitSet per value of each {@link ProductQuery.Facet}</li>
+ *   <li>one array of product numbers sorted by value for each {@link ProductQuery.Range}, so a range
+ *       is two binary searches</li>
+ * </ul>
+ * A query ANDs the bitmaps of its filters; facet counts AND each value's bitmap with the filters of
+ * the other facets. Evaluating a query costs a few bitmap operations over n bits rather than a
+ * Firestore round trip, which keeps filter changes interactive on catalogs of thousands of products.
+ *
+ * Build and query off the main thread.
+ */
+public class ProductSearchIndex {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ProductModel[] products;
+    private final long[] createdAt;
+    private final BitSet all;
+
+    // Token -> sorted product numbers
+    private final Map<String, int[]> nameIndex;
+    private final Map<String, int[]> descriptionIndex;
+    private final String[] vocabulary;
+
+    // Folded value -> products, and folded value -> label shown to the user
+    private final Map<ProductQuery.Facet, Map<String, BitSet>> facetIndex = new EnumMap<>(ProductQuery.Facet.class);
+    private final Map<ProductQuery.Facet, Map<String, String>> facetLabels = new EnumMap<>(ProductQuery.Facet.class);
+
+    // Products that set the attribute, sorted by it, and the matching values
+    private final Map<ProductQuery.Range, int[]> rangeOrder = new EnumMap<>(ProductQuery.Range.class);
+    private final Map<ProductQuery.Range, double[]> rangeValues = new EnumMap<>(ProductQuery.Range.class);
+
+    public ProductSearchIndex(List<ProductModel> catalog) {
+        products = catalog.toArray(new ProductModel[0]);
+        int n = products.length;
+        all = new BitSet(n);
+        all.set(0, n);
+        createdAt = new long[n];
+
+        Map<String, List<Integer>> names = new HashMap<>();
+        Map<String, List<Integer>> descriptions = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            ProductModel product = products[i];
+            createdAt[i] = product.getCreatedAtMillis();
+            addTokens(names, product.getName(), i);
+            addTokens(descriptions, product.getDescription(), i);
+            for (ProductQuery.Facet facet : ProductQuery.Facet.values()) {
+                addFacet(facet, facetValue(product, facet), i);
+            }
+        }
+        nameIndex = freeze(names);
+        descriptionIndex = freeze(descriptions);
+        Set<String> tokens = new HashSet<>(nameIndex.keySet());
+        tokens.addAll(descriptionIndex.keySet());
+        vocabulary = tokens.toArray(new String[0]);
+        Arrays.sort(vocabulary);
+
+        for (ProductQuery.Range range : ProductQuery.Range.values()) {
+            buildRange(range);
+        }
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    // ==================== QUERYING ====================
+
+    public ProductSearchResult search(ProductQuery query) {
+        int[] scores = null;
+        BitSet matches = (BitSet) all.clone();
+
+        List<String> terms = tokenize(query.getText());
+        if (!terms.isEmpty()) {
+            scores = new int[products.length];
+            // The last word may still be being typed, so it matches as a prefix
+            boolean lastIsPrefix = !query.getText().isEmpty()
+                    && Character.isLetterOrDigit(query.getText().charAt(query.getText().length() - 1));
+            for (int t = 0; t < terms.size(); t++) {
+                boolean prefix = lastIsPrefix && t == terms.size() - 1;
+                BitSet inName = postings(nameIndex, terms.get(t), prefix);
+                BitSet inDescription = postings(descriptionIndex, terms.get(t), prefix);
+                BitSet term = (BitSet) inName.clone();
+                term.or(inDescription);
+                matches.and(term);
+                for (int i = inName.nextSetBit(0); i >= 0; i = inName.nextSetBit(i + 1)) scores[i] += NAME_WEIGHT;
+                for (int i = inDescription.nextSetBit(0); i >= 0; i = inDescription.nextSetBit(i + 1)) scores[i] += DESCRIPTION_WEIGHT;
+            }
+        }
+
+        // Filter bitmaps; facets and ranges are kept apart so counts can leave one out
+        Map<ProductQuery.Facet, BitSet> facetFilters = new EnumMap<>(ProductQuery.Facet.class);
+        for (ProductQuery.Facet facet : ProductQuery.Facet.values()) {
+            BitSet filter = facetFilter(facet, query.getFacetValues(facet));
+            if (filter != null) facetFilters.put(facet, filter);
+        }
+        Map<ProductQuery.Range, BitSet> rangeFilters = new EnumMap<>(ProductQuery.Range.class);
+        for (ProductQuery.Range range : ProductQuery.Range.values()) {
+            double[] bounds = query.getRange(range);
+            if (bounds != null) rangeFilters.put(range, rangeFilter(range, bounds[0], bounds[1]));
+        }
+
+        BitSet result = (BitSet) matches.clone();
+        for (BitSet filter : facetFilters.values()) result.and(filter);
+        for (BitSet filter : rangeFilters.values()) result.and(filter);
+
+        Map<ProductQuery.Facet, Map<String, Integer>> counts = new EnumMap<>(ProductQuery.Facet.class);
+        for (ProductQuery.Facet facet : ProductQuery.Facet.values()) {
+            BitSet base = facetFilters.containsKey(facet)
+                    ? without(matches, facetFilters, rangeFilters, facet, null)
+                    : result;
+            counts.put(facet, countFacet(facet, base));
+        }
+        Map<ProductQuery.Range, double[]> bounds = new EnumMap<>(ProductQuery.Range.class);
+        for (ProductQuery.Range range : ProductQuery.Range.values()) {
+            BitSet base = rangeFilters.containsKey(range)
+                    ? without(matches, facetFilters, rangeFilters, null, range)
+                    : result;
+            double[] minMax = bounds(range, base);
+            if (minMax != null) bounds.put(range, minMax);
+        }
+
+        List<Integer> ordered = order(result, query.getSort(), scores);
+        int from = Math.min(query.getOffset(), ordered.size());
+        int to = Math.min(ordered.size(), from + query.getLimit());
+        List<ProductModel> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) page.add(products[ordered.get(i)]);
+
+        return new ProductSearchResult(page, ordered.size(), counts, bounds);
+    }
+
+    private static BitSet without(BitSet matches, Map<ProductQuery.Facet, BitSet> facetFilters,
+                                  Map<ProductQuery.Range, BitSet> rangeFilters,
+                                  ProductQuery.Facet skipFacet, ProductQuery.Range skipRange) {
+        BitSet base = (BitSet) matches.clone();
+        for (Map.Entry<ProductQuery.Facet, BitSet> filter : facetFilters.entrySet()) {
+            if (filter.getKey() != skipFacet) base.and(filter.getValue());
+        }
+        for (Map.Entry<ProductQuery.Range, BitSet> filter : rangeFilters.entrySet()) {
+            if (filter.getKey() != skipRange) base.and(filter.getValue());
+        }
+        return base;
+    }
+
+    private BitSet postings(Map<String, int[]> index, String term, boolean prefix) {
+        BitSet bits = new BitSet(products.length);
+        if (!prefix) {
+            int[] docs = index.get(term);
+            if (docs != null) for (int doc : docs) bits.set(doc);
+            return bits;
+        }
+        int from = Arrays.binarySearch(vocabulary, term);
+        if (from < 0) from = -from - 1;
+        for (int v = from; v < vocabulary.length && vocabulary[v].startsWith(term); v++) {
+            int[] docs = index.get(vocabulary[v]);
+            if (docs != null) for (int doc : docs) bits.set(doc);
+        }
+        return bits;
+    }
+
+    private BitSet facetFilter(ProductQuery.Facet facet, Set<String> values) {
+        if (values.isEmpty()) return null;
+        BitSet filter = new BitSet(products.length);
+        Map<String, BitSet> index = facetIndex.get(facet);
+        for (String value : values) {
+            BitSet bits = index != null ? index.get(fold(value)) : null;
+            if (bits != null) filter.or(bits);
+        }
+        return filter;
+    }
+
+    private BitSet rangeFilter(ProductQuery.Range range, double min, double max) {
+        BitSet filter = new BitSet(products.length);
+        int[] order = rangeOrder.get(range);
+        double[] values = rangeValues.get(range);
+        for (int i = lowerBound(values, min); i < values.length && values[i] <= max; i++) {
+            filter.set(order[i]);
+        }
+        return filter;
+    }
+
+    private Map<String, Integer> countFacet(ProductQuery.Facet facet, BitSet base) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        Map<String, BitSet> index = facetIndex.get(facet);
+        if (index != null) {
+            Map<String, String> labels = facetLabels.get(facet);
+            for (Map.Entry<String, BitSet> value : index.entrySet()) {
+                BitSet bits = (BitSet) value.getValue().clone();
+                bits.and(base);
+                int count = bits.cardinality();
+                if (count > 0) entries.add(new AbstractMap.SimpleEntry<>(labels.get(value.getKey()), count));
+            }
+        }
+        entries.sort((a, b) -> b.getValue() != a.getValue().intValue()
+                ? Integer.compare(b.getValue(), a.getValue())
+                : a.getKey().compareToIgnoreCase(b.getKey()));
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) counts.put(entry.getKey(), entry.getValue());
+        return counts;
+    }
+
+    private double[] bounds(ProductQuery.Range range, BitSet base) {
+        int[] order = rangeOrder.get(range);
+        double[] values = rangeValues.get(range);
+        double min = Double.NaN;
+        double max = Double.NaN;
+        for (int i = 0; i < order.length; i++) {
+            if (base.get(order[i])) {
+                min = values[i];
+                break;
+            }
+        }
+        for (int i = order.length - 1; i >= 0; i--) {
+            if (base.get(order[i])) {
+                max = values[i];
+                break;
+            }
+        }
+        return Double.isNaN(min) ? null : new double[] {min, max};
+    }
+
+    private List<Integer> order(BitSet result, ProductQuery.Sort sort, int[] scores) {
+        List<Integer> ordered = new ArrayList<>(result.cardinality());
+        if (sort == ProductQuery.Sort.PRICE_ASCENDING || sort == ProductQuery.Sort.PRICE_DESCENDING) {
+            // Walk the sorted price index instead of sorting; products without a price go last
+            int[] byPrice = rangeOrder.get(ProductQuery.Range.PRICE);
+            if (sort == ProductQuery.Sort.PRICE_ASCENDING) {
+                for (int doc : byPrice) if (result.get(doc)) ordered.add(doc);
+            } else {
+                for (int i = byPrice.length - 1; i >= 0; i--) if (result.get(byPrice[i])) ordered.add(byPrice[i]);
+            }
+            BitSet unpriced = (BitSet) result.clone();
+            for (int doc : byPrice) unpriced.clear(doc);
+            for (int i = unpriced.nextSetBit(0); i >= 0; i = unpriced.nextSetBit(i + 1)) ordered.add(i);
+            return ordered;
+        }
+
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) ordered.add(i);
+        switch (sort) {
+            case MOST_LIKED:
+                ordered.sort((a, b) -> Integer.compare(products[b].getLikesCount(), products[a].getLikesCount()));
+                break;
+            case RELEVANCE:
+                if (scores != null) {
+                    ordered.sort((a, b) -> scores[a] != scores[b]
+                            ? Integer.compare(scores[b], scores[a])
+                            : Long.compare(createdAt[b], createdAt[a]));
+                    break;
+                }
+                // Without text every match is equally relevant: newest first
+                // fall through
+            case NEWEST:
+            default:
+                ordered.sort((a, b) -> Long.compare(createdAt[b], createdAt[a]));
+                break;
+        }
+        return ordered;
+    }
+
+    // ==================== BUILDING ====================
+
+    private static void addTokens(Map<String, List<Integer>> index, String text, int doc) {
+        for (String token : tokenize(text)) {
+            List<Integer> docs = index.get(token);
+            if (docs == null) {
+                docs = new ArrayList<>();
+                index.put(token, docs);
+            }
+            // Documents are added in increasing order, so a repeat is always the last entry
+            if (docs.isEmpty() || docs.get(docs.size() - 1) != doc) docs.add(doc);
+        }
+    }
+
+    private static Map<String, int[]> freeze(Map<String, List<Integer>> index) {
+        Map<String, int[]> frozen = new HashMap<>(index.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : index.entrySet()) {
+            List<Integer> docs = entry.getValue();
+            int[] array = new int[docs.size()];
+            for (int i = 0; i < array.length; i++) array[i] = docs.get(i);
+            frozen.put(entry.getKey(), array);
+        }
+        return frozen;
+    }
+
+    private void addFacet(ProductQuery.Facet facet, String value, int doc) {
+        if (value == null || value.trim().isEmpty()) return;
+        String key = fold(value);
+        Map<String, BitSet> index = facetIndex.get(facet);
+        if (index == null) {
+            index = new HashMap<>();
+            facetIndex.put(facet, index);
+            facetLabels.put(facet, new HashMap<>());
+        }
+        BitSet bits = index.get(key);
+        if (bits == null) {
+            bits = new BitSet(products.length);
+            index.put(key, bits);
+            // "Rouge" and "rouge " are one value; show it the way it was first written
+            facetLabels.get(facet).put(key, value.trim());
+        }
+        bits.set(doc);
+    }
+
+    private void buildRange(ProductQuery.Range range) {
+        TreeMap<Double, List<Integer>> sorted = new TreeMap<>();
+        int count = 0;
+        for (int i = 0; i < products.length; i++) {
+            Double value = rangeValue(products[i], range);
+            if (value == null || value.isNaN()) continue;
+            List<Integer> docs = sorted.get(value);
+            if (docs == null) {
+                docs = new ArrayList<>();
+                sorted.put(value, docs);
+            }
+            docs.add(i);
+            count++;
+        }
+        int[] order = new int[count];
+        double[] values = new double[count];
+        int i = 0;
+        for (Map.Entry<Double, List<Integer>> entry : sorted.entrySet()) {
+            for (int doc : entry.getValue()) {
+                order[i] = doc;
+                values[i] = entry.getKey();
+                i++;
+            }
+        }
+        rangeOrder.put(range, order);
+        rangeValues.put(range, values);
+    }
+
+    private static String facetValue(ProductModel product, ProductQuery.Facet facet) {
+        switch (facet) {
+            case TYPE: return product.getProductType();
+            case MATERIAL: return product.getMaterial();
+            case COLOR: return product.getColor();
+            case CURRENCY: return product.getCurrency();
+            case SHOP: return product.getShopId();
+            default: return null;
+        }
+    }
+
+    private static Double rangeValue(ProductModel product, ProductQuery.Range range) {
+        switch (range) {
+            // Price 0 means "not set" for products created before prices were required
+            case PRICE: return product.getPrice() > 0 ? basePrice(product) : null;
+            case WEIGHT: return product.getWeight();
+            case LENGTH: return product.getLength();
+            case WIDTH: return product.getWidth();
+            case HEIGHT: return product.getHeight();
+            default: return null;
+        }
+    }
+
+    /**
+     * Price in {@link RateTable#BASE_CURRENCY}, so products priced in different currencies compare;
+     * products saved before basePrice existed are converted at the current rates
+     */
+    private static double basePrice(ProductModel product) {
+        Double stored = product.getBasePrice();
+        return stored != null ? stored : ExchangeRateService.get().toBase(product.getPrice(), product.getCurrency());
+    }
+
+    // ==================== TEXT ====================
+
+    /**
+     * Lower-case, strip accents (é -> e) and trim, so "Céramique " and "ceramique" compare equal
+     */
+    public static String fold(String text) {
+        if (text == null) return "";
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Folded words of {@code text}; letters of any script and digits form words, everything else
+     * separates them
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) return Collections.emptyList();
+        String folded = fold(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean word = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static int lowerBound(double[] values, double min) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < min) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
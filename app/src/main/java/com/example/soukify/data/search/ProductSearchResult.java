@@ -0,0 +1,59 @@
+package com.example.soukify.data.search;
+
+import com.example.soukify.data.models.ProductModel;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product Search Result - One page of matches plus the facet counts and bounds of all matches
+ *
+ * Facet counts follow the usual multi-select convention: the counts of a facet ignore that facet's
+ * own selection, so the buyer sees how many products each other color would give, not zero.
+ */
+public class ProductSearchResult {
+    private final List<ProductModel> products;
+    private final int totalCount;
+    private final Map<ProductQuery.Facet, Map<String, Integer>> facetCounts;
+    private final Map<ProductQuery.Range, double[]> rangeBounds;
+
+    ProductSearchResult(List<ProductModel> products, int totalCount,
+                        Map<ProductQuery.Facet, Map<String, Integer>> facetCounts,
+                        Map<ProductQuery.Range, double[]> rangeBounds) {
+        this.products = products;
+        this.totalCount = totalCount;
+        this.facetCounts = facetCounts;
+        this.rangeBounds = rangeBounds;
+    }
+
+    /**
+     * The requested page, in the requested order
+     */
+    public List<ProductModel> getProducts() {
+        return products;
+    }
+
+    /**
+     * Number of products matching all filters, across pages
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Value -> matching product count, most frequent first
+     */
+    public Map<String, Integer> getFacetCounts(ProductQuery.Facet facet) {
+        Map<String, Integer> counts = facetCounts.get(facet);
+        return counts != null ? counts : Collections.emptyMap();
+    }
+
+    /**
+     * {min, max} of the attribute over the products matching every filter except this range, or
+     * null when none of them sets it; for drawing a range slider
+     */
+    public double[] getRangeBounds(ProductQuery.Range range) {
+        return rangeBounds.get(range);
+    }
+}
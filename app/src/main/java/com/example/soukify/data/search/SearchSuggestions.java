@@ -0,0 +1,228 @@
+package com.example.soukify.data.search;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.Configuration;
+
+import com.example.soukify.data.models.ShopModel;
+import com.example.soukify.utils.CategoryUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Search Suggestions - Autocomplete for the search box
+ *
+ * Feeds an {@link AutocompleteIndex} with three kinds of labels:
+ * <ul>
+ *   <li>shop names, weighted by the shop's popularity (views, likes and favorites, log-scaled)</li>
+ *   <li>category names in the current language, weighted by how many shops they hold</li>
+ *   <li>city names taken from shop locations, weighted the same way</li>
+ * </ul>
+ * plus the user's recent queries, which outrank everything else so the buyer's own searches come
+ * back first. The index is kept in step shop by shop: {@link #updateShop} withdraws what the old
+ * version of a shop contributed and adds the new one, so a changed shop costs a few tree paths
+ * rather than a rebuild.
+ */
+public class SearchSuggestions {
+    private static final String PREFS_NAME = "search_suggestions";
+    private static final String KEY_RECENT = "recent_queries";
+    private static final int MAX_RECENT = 10;
+    // Above any realistic popularity, so recent queries sort first, newest on top
+    private static final double RECENT_WEIGHT = 1_000;
+    // Every category is suggested even before a shop uses it
+    private static final double CATEGORY_BASE_WEIGHT = 0.5;
+
+    private static SearchSuggestions instance;
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final AutocompleteIndex index = new AutocompleteIndex();
+
+    // Guarded by this
+    private final Map<String, Contribution> shops = new HashMap<>();
+    private final List<String> recent = new ArrayList<>();
+    private Locale indexedLocale;
+    // Resources in the language the index was built for
+    private Context localized;
+
+    /**
+     * What one shop adds to the index
+     */
+    private static final class Contribution {
+        final String name;
+        final double popularity;
+        final String categoryKey;
+        final String city;
+
+        Contribution(String name, double popularity, String categoryKey, String city) {
+            this.name = name;
+            this.popularity = popularity;
+            this.categoryKey = categoryKey;
+            this.city = city;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Contribution)) return false;
+            Contribution other = (Contribution) o;
+            return popularity == other.popularity && Objects.equals(name, other.name)
+                    && Objects.equals(categoryKey, other.categoryKey) && Objects.equals(city, other.city);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, popularity, categoryKey, city);
+        }
+    }
+
+    private SearchSuggestions(Context context) {
+        this.context = context.getApplicationContext();
+        this.prefs = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String stored = prefs.getString(KEY_RECENT, "");
+        if (!stored.isEmpty()) recent.addAll(Arrays.asList(stored.split("\n")));
+        indexBase();
+    }
+
+    public static synchronized SearchSuggestions getInstance(Context context) {
+        if (instance == null) {
+            instance = new SearchSuggestions(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Up to {@code limit} completions of {@code query}, best first
+     */
+    public List<String> suggest(String query, int limit) {
+        synchronized (this) {
+            if (!Locale.getDefault().equals(indexedLocale)) reindex();
+        }
+        return index.complete(query, limit);
+    }
+
+    // ==================== SHOPS ====================
+
+    /**
+     * Bring the index in line with {@code current}: shops no longer present are withdrawn and
+     * changed ones updated
+     */
+    public synchronized void updateShops(Collection<ShopModel> current) {
+        Set<String> present = new HashSet<>();
+        for (ShopModel shop : current) {
+            if (shop.getShopId() == null) continue;
+            present.add(shop.getShopId());
+            updateShop(shop);
+        }
+        for (String shopId : new ArrayList<>(shops.keySet())) {
+            if (!present.contains(shopId)) removeShop(shopId);
+        }
+    }
+
+    public synchronized void updateShop(ShopModel shop) {
+        if (shop == null || shop.getShopId() == null) return;
+        Contribution next = contributionOf(shop);
+        Contribution previous = shops.put(shop.getShopId(), next);
+        if (next.equals(previous)) return;
+        if (previous != null) apply(previous, -1);
+        apply(next, 1);
+    }
+
+    public synchronized void removeShop(String shopId) {
+        Contribution previous = shops.remove(shopId);
+        if (previous != null) apply(previous, -1);
+    }
+
+    private Contribution contributionOf(ShopModel shop) {
+        double popularity = 1 + Math.log1p(shop.getSearchCount() + 3.0 * shop.getLikesCount()
+                + 4.0 * shop.getFavoritesCount());
+        String categoryKey = null;
+        if (shop.getCategory() != null && !shop.getCategory().trim().isEmpty()) {
+            // Shops store the label of whatever language they were created in; suggest the current one
+            categoryKey = CategoryUtils.getCategoryKey(localized, shop.getCategory());
+        }
+        String city = null;
+        if (shop.getLocation() != null) {
+            // Locations read "City, Region"
+            String first = shop.getLocation().split(",")[0].trim();
+            if (!first.isEmpty()) city = first;
+        }
+        return new Contribution(shop.getName(), popularity, categoryKey, city);
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        index.adjust(contribution.name, sign * contribution.popularity);
+        if (contribution.categoryKey != null) {
+            index.adjust(CategoryUtils.getLocalizedCategory(localized, contribution.categoryKey), sign);
+        }
+        index.adjust(contribution.city, sign);
+    }
+
+    // ==================== RECENT QUERIES ====================
+
+    /**
+     * Remember a query the user actually searched for, e.g. one they opened a result of
+     */
+    public synchronized void recordQuery(String query) {
+        if (query == null || query.trim().isEmpty()) return;
+        String trimmed = query.trim().replace('\n', ' ');
+        withdrawRecent();
+        String folded = ProductSearchIndex.fold(trimmed);
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            if (ProductSearchIndex.fold(recent.get(i)).equals(folded)) recent.remove(i);
+        }
+        recent.add(0, trimmed);
+        while (recent.size() > MAX_RECENT) recent.remove(recent.size() - 1);
+        addRecent();
+        prefs.edit().putString(KEY_RECENT, String.join("\n", recent)).apply();
+    }
+
+    public synchronized void clearRecentQueries() {
+        withdrawRecent();
+        recent.clear();
+        prefs.edit().remove(KEY_RECENT).apply();
+    }
+
+    private void addRecent() {
+        for (int i = 0; i < recent.size(); i++) index.adjust(recent.get(i), recentWeight(i));
+    }
+
+    private void withdrawRecent() {
+        for (int i = 0; i < recent.size(); i++) index.adjust(recent.get(i), -recentWeight(i));
+    }
+
+    private static double recentWeight(int position) {
+        return RECENT_WEIGHT * (MAX_RECENT - position);
+    }
+
+    // ==================== LOCALE ====================
+
+    private void indexBase() {
+        indexedLocale = Locale.getDefault();
+        // The application context keeps the language it started with; LocaleHelper moves the default
+        Configuration configuration = new Configuration(context.getResources().getConfiguration());
+        configuration.setLocale(indexedLocale);
+        localized = context.createConfigurationContext(configuration);
+        for (String key : CategoryUtils.getCategoryKeys()) {
+            index.adjust(CategoryUtils.getLocalizedCategory(localized, key), CATEGORY_BASE_WEIGHT);
+        }
+        addRecent();
+    }
+
+    /**
+     * Category labels depend on the language; rebuild everything when it changes
+     */
+    private void reindex() {
+        index.clear();
+        indexBase();
+        for (Contribution contribution : shops.values()) apply(contribution, 1);
+    }
+}
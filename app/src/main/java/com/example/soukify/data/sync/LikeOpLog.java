@@ -0,0 +1,691 @@
+package com.example.soukify.data.sync;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.soukify.data.remote.FirestoreMeter;
+import com.example.soukify.utils.concurrent.AppExecutors;
+import com.example.soukify.utils.log.AppLog;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Like Op Log - One user's liked products, kept as an append-only log of add/remove operations
+ *
+ * Remotely, every like or unlike is one document in users/{uid}/like_ops, numbered by a sequence
+ * that a small head document (like_state/head) hands out in a transaction: one read and two writes
+ * per tap, whatever the number of likes. Each device remembers the last sequence it has applied
+ * (its cursor) and pulls only the operations after it, so a launch with nothing new costs one read.
+ * Every {@link #REMOTE_COMPACT_OPS} operations, the device that is fully caught up folds them into
+ * like_state/snapshot and deletes them; only a device that has never synced, or whose cursor
+ * fell behind a compaction, reads that snapshot. The first sync of an account converts the legacy
+ * likedProducts array into the first snapshot.
+ *
+ * Locally, the state is a snapshot file plus a journal that each change appends one line to,
+ * folded together every {@link #LOCAL_COMPACT_LINES} lines. Operations made offline or before the
+ * first sync wait in the journal as pending and are uploaded in order.
+ *
+ * Logs of anonymous (device) owners are local only. Reads are in memory and safe from any thread;
+ * file and network work happens on a serial background lane. The files are read on that lane too:
+ * until they are, the log serves the legacy likes it was created with, and changes made meanwhile
+ * are kept after the loaded ones.
+ */
+public class LikeOpLog {
+    private static final String TAG = "LikeOpLog";
+
+    public static final String OP_ADD = "add";
+    public static final String OP_REMOVE = "remove";
+
+    private static final String USERS_COLLECTION = "users";
+    private static final String OPS_COLLECTION = "like_ops";
+    private static final String STATE_COLLECTION = "like_state";
+    private static final String HEAD_DOCUMENT = "head";
+    private static final String SNAPSHOT_DOCUMENT = "snapshot";
+    private static final String LOG_DIR = "like_log";
+
+    private static final int LOCAL_COMPACT_LINES = 500;
+    private static final int REMOTE_COMPACT_OPS = 500;
+    private static final int PULL_PAGE = 500;
+    private static final int BATCH_LIMIT = 500;
+    private static final long RETRY_DELAY_MS = 30_000;
+
+    // Owner id -> log; repositories are created per screen, the state must be shared
+    private static final Map<String, LikeOpLog> logs = new HashMap<>();
+
+    private final String ownerId;
+    private final boolean remote;
+    private final FirebaseFirestore db;
+    private final File snapshotFile;
+    private final File journalFile;
+    private final Executor lane = AppExecutors.get().serial(TAG);
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private static final class Op {
+        final String op;
+        final String productId;
+
+        Op(String op, String productId) {
+            this.op = op;
+            this.productId = productId;
+        }
+
+        void applyTo(Set<String> liked) {
+            if (OP_ADD.equals(op)) liked.add(productId);
+            else liked.remove(productId);
+        }
+    }
+
+    // Guarded by this
+    // Last remote sequence applied to confirmed; -1 until the first sync
+    private long cursor = -1;
+    private final Set<String> confirmed = new HashSet<>();
+    // Own operations written remotely past a gap in the cursor, waiting to be pulled in order
+    private final TreeMap<Long, Op> acked = new TreeMap<>();
+    private final ArrayDeque<Op> pending = new ArrayDeque<>();
+    private long remoteSnapshotSeq;
+    private int journalLines;
+    private boolean uploading;
+    private boolean syncing;
+    private boolean loaded;
+    private final List<TaskCompletionSource<Set<String>>> syncWaiters = new ArrayList<>();
+    private final TaskCompletionSource<Void> loading = new TaskCompletionSource<>();
+
+    private LikeOpLog(Context context, String ownerId, boolean remote) {
+        this.ownerId = ownerId;
+        this.remote = remote;
+        this.db = FirebaseFirestore.getInstance();
+        File dir = new File(context.getFilesDir(), LOG_DIR);
+        this.snapshotFile = new File(dir, ownerId + ".snap");
+        this.journalFile = new File(dir, ownerId + ".log");
+    }
+
+    /**
+     * The log of {@code ownerId}, loaded from disk in the background on first use. {@code legacy}
+     * is served until then, and seeds a log that has never been written until its first sync
+     * replaces it.
+     *
+     * @param remote whether the owner is a signed-in user whose likes are synced
+     */
+    public static synchronized LikeOpLog forOwner(Context context, String ownerId, boolean remote,
+                                                  Collection<String> legacy) {
+        LikeOpLog log = logs.get(ownerId);
+        if (log == null) {
+            log = new LikeOpLog(context.getApplicationContext(), ownerId, remote);
+            Set<String> seed = legacy != null ? new HashSet<>(legacy) : new HashSet<>();
+            log.confirmed.addAll(seed);
+            LikeOpLog created = log;
+            log.lane.execute(() -> created.load(seed));
+            logs.put(ownerId, log);
+        }
+        return log;
+    }
+
+    /**
+     * Completes once the log has been read from disk; its state before that is only the legacy one
+     */
+    public Task<Void> whenLoaded() {
+        return loading.getTask();
+    }
+
+    // ==================== STATE ====================
+
+    public synchronized boolean contains(String productId) {
+        boolean liked = confirmed.contains(productId);
+        for (Op op : acked.values()) {
+            if (op.productId.equals(productId)) liked = OP_ADD.equals(op.op);
+        }
+        for (Op op : pending) {
+            if (op.productId.equals(productId)) liked = OP_ADD.equals(op.op);
+        }
+        return liked;
+    }
+
+    public synchronized Set<String> getAll() {
+        Set<String> liked = new HashSet<>(confirmed);
+        for (Op op : acked.values()) op.applyTo(liked);
+        for (Op op : pending) op.applyTo(liked);
+        return liked;
+    }
+
+    /**
+     * Flip the like of {@code productId}; returns whether it is liked now
+     */
+    public boolean toggle(String productId) {
+        synchronized (this) {
+            boolean liked = !contains(productId);
+            record(new Op(liked ? OP_ADD : OP_REMOVE, productId));
+            return liked;
+        }
+    }
+
+    /**
+     * Make {@code productId} liked or not; records nothing when it already is
+     */
+    public void set(String productId, boolean liked) {
+        synchronized (this) {
+            if (contains(productId) == liked) return;
+            record(new Op(liked ? OP_ADD : OP_REMOVE, productId));
+        }
+    }
+
+    /**
+     * Forget everything, locally only; used once a device log has been merged into a user's
+     */
+    public void clearLocal() {
+        synchronized (this) {
+            // Files still to be loaded are deleted instead
+            loaded = true;
+            cursor = -1;
+            confirmed.clear();
+            acked.clear();
+            pending.clear();
+            journalLines = 0;
+        }
+        lane.execute(() -> {
+            snapshotFile.delete();
+            journalFile.delete();
+        });
+        loading.trySetResult(null);
+    }
+
+    // Guarded by this
+    private void record(Op op) {
+        pending.add(op);
+        append("P\t" + op.op + "\t" + op.productId);
+        if (remote) lane.execute(this::upload);
+    }
+
+    // ==================== SYNC ====================
+
+    /**
+     * Pull the operations made elsewhere since the cursor and upload pending ones. Resolves to the
+     * liked set afterwards; fails when Firestore can't be reached, the log keeping its local state
+     * and retrying pending operations on its own.
+     */
+    public Task<Set<String>> sync() {
+        if (!remote) return Tasks.forResult(getAll());
+        TaskCompletionSource<Set<String>> waiter = new TaskCompletionSource<>();
+        synchronized (this) {
+            syncWaiters.add(waiter);
+        }
+        lane.execute(this::pull);
+        return waiter.getTask();
+    }
+
+    // Lane only
+    private void pull() {
+        synchronized (this) {
+            if (syncing) return;
+            syncing = true;
+        }
+        DocumentReference head = stateDocument(HEAD_DOCUMENT);
+        FirestoreMeter.read("LikeOpLog.head", head.get())
+                .continueWithTask(lane, task -> {
+                    DocumentSnapshot headDoc = task.getResult();
+                    if (!headDoc.exists()) return migrateLegacy();
+                    long headSeq = longOf(headDoc, "seq");
+                    long snapshotSeq = longOf(headDoc, "snapshotSeq");
+                    long from;
+                    synchronized (this) {
+                        remoteSnapshotSeq = snapshotSeq;
+                        from = cursor;
+                    }
+                    if (from < snapshotSeq) return restoreSnapshot().continueWithTask(lane, restored -> pullOps(headSeq));
+                    return pullOps(headSeq);
+                })
+                .addOnCompleteListener(lane, task -> {
+                    List<TaskCompletionSource<Set<String>>> waiters;
+                    synchronized (this) {
+                        syncing = false;
+                        waiters = new ArrayList<>(syncWaiters);
+                        syncWaiters.clear();
+                    }
+                    if (!task.isSuccessful()) {
+                        AppLog.w(TAG, "Like sync failed, keeping local state", task.getException());
+                        boolean waiting;
+                        synchronized (this) {
+                            waiting = !pending.isEmpty();
+                        }
+                        // Pending operations can't be uploaded before a first successful sync
+                        if (waiting) handler.postDelayed(() -> lane.execute(this::pull), RETRY_DELAY_MS);
+                    }
+                    if (task.isSuccessful()) {
+                        Set<String> liked = getAll();
+                        for (TaskCompletionSource<Set<String>> waiter : waiters) waiter.trySetResult(liked);
+                    } else {
+                        Exception error = task.getException() != null ? task.getException()
+                                : new IllegalStateException("Like sync failed");
+                        for (TaskCompletionSource<Set<String>> waiter : waiters) waiter.trySetException(error);
+                    }
+                    upload();
+                    compactRemote();
+                });
+    }
+
+    /**
+     * First sync of an account: turn the legacy likedProducts array into snapshot 0, unless
+     * another device got there first
+     */
+    private Task<Void> migrateLegacy() {
+        DocumentReference head = stateDocument(HEAD_DOCUMENT);
+        DocumentReference user = db.collection(USERS_COLLECTION).document(ownerId);
+        Task<List<String>> migrated = db.runTransaction(transaction -> {
+            if (transaction.get(head).exists()) return null;
+            @SuppressWarnings("unchecked")
+            List<String> legacy = (List<String>) transaction.get(user).get("likedProducts");
+            List<String> products = legacy != null ? new ArrayList<>(legacy) : new ArrayList<>();
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("seq", 0L);
+            snapshot.put("products", products);
+            transaction.set(stateDocument(SNAPSHOT_DOCUMENT), snapshot);
+            Map<String, Object> headData = new HashMap<>();
+            headData.put("seq", 0L);
+            headData.put("snapshotSeq", 0L);
+            transaction.set(head, headData);
+            return products;
+        });
+        return FirestoreMeter.write("LikeOpLog.migrate", 2, migrated).continueWithTask(lane, task -> {
+            List<String> products = task.getResult();
+            if (products == null) {
+                // Migrated elsewhere meanwhile: read it like any other device would
+                return restoreSnapshot().continueWithTask(lane, restored -> pullOps(Long.MAX_VALUE));
+            }
+            AppLog.i(TAG, "Migrated {} legacy likes", products.size());
+            resetTo(0, products);
+            return Tasks.forResult(null);
+        });
+    }
+
+    private Task<Void> restoreSnapshot() {
+        return FirestoreMeter.read("LikeOpLog.snapshot", stateDocument(SNAPSHOT_DOCUMENT).get())
+                .continueWith(lane, task -> {
+                    DocumentSnapshot snapshot = task.getResult();
+                    @SuppressWarnings("unchecked")
+                    List<String> products = (List<String>) snapshot.get("products");
+                    resetTo(longOf(snapshot, "seq"), products != null ? products : new ArrayList<>());
+                    return null;
+                });
+    }
+
+    /**
+     * Apply remote operations after the cursor, up to {@code headSeq}, a page at a time
+     */
+    private Task<Void> pullOps(long headSeq) {
+        long from;
+        synchronized (this) {
+            from = cursor;
+        }
+        if (from >= headSeq) return Tasks.forResult(null);
+        Query page = db.collection(USERS_COLLECTION).document(ownerId).collection(OPS_COLLECTION)
+                .whereGreaterThan("seq", from)
+                .orderBy("seq")
+                .limit(PULL_PAGE);
+        return FirestoreMeter.read("LikeOpLog.pull", page.get()).continueWithTask(lane, task -> {
+            QuerySnapshot ops = task.getResult();
+            boolean gap = false;
+            synchronized (this) {
+                for (DocumentSnapshot doc : ops.getDocuments()) {
+                    long seq = longOf(doc, "seq");
+                    if (seq != cursor + 1) {
+                        gap = true;
+                        break;
+                    }
+                    Op op = new Op(doc.getString("op"), doc.getString("productId"));
+                    cursor = seq;
+                    acked.remove(seq);
+                    // A malformed operation still takes its place in the sequence
+                    if (op.productId == null) continue;
+                    op.applyTo(confirmed);
+                    append("C\t" + seq + "\t" + op.op + "\t" + op.productId);
+                }
+            }
+            if (gap) {
+                // The operations we missed were compacted away
+                AppLog.i(TAG, "Cursor behind a compaction, restoring the snapshot");
+                return restoreSnapshot().continueWithTask(lane, restored -> pullOps(headSeq));
+            }
+            if (ops.size() < PULL_PAGE) return Tasks.forResult(null);
+            return pullOps(headSeq);
+        });
+    }
+
+    // Lane only
+    private void upload() {
+        Op op;
+        synchronized (this) {
+            // Before the first sync, the legacy array hasn't been converted yet
+            if (!remote || uploading || pending.isEmpty() || cursor < 0) return;
+            uploading = true;
+            op = pending.peek();
+        }
+        DocumentReference head = stateDocument(HEAD_DOCUMENT);
+        Task<Long> written = db.runTransaction(transaction -> {
+            long previous = longOf(transaction.get(head), "seq");
+            long seq = previous + 1;
+            Map<String, Object> data = new HashMap<>();
+            data.put("seq", seq);
+            data.put("op", op.op);
+            data.put("productId", op.productId);
+            data.put("at", FieldValue.serverTimestamp());
+            transaction.set(opDocument(seq), data);
+            Map<String, Object> headData = new HashMap<>();
+            headData.put("seq", seq);
+            transaction.set(head, headData, SetOptions.merge());
+            return previous;
+        });
+        FirestoreMeter.write("LikeOpLog.upload", 2, written).addOnCompleteListener(lane, task -> {
+            boolean pullNeeded = false;
+            synchronized (this) {
+                uploading = false;
+                if (!task.isSuccessful()) {
+                    AppLog.w(TAG, "Like upload failed, retrying later", task.getException());
+                    handler.postDelayed(() -> lane.execute(this::upload), RETRY_DELAY_MS);
+                    return;
+                }
+                long previous = task.getResult();
+                long seq = previous + 1;
+                Op uploaded = pending.poll();
+                if (previous == cursor && acked.isEmpty()) {
+                    // Nobody wrote in between: our operation is simply the next one
+                    uploaded.applyTo(confirmed);
+                    cursor = seq;
+                    append("F\t" + seq);
+                } else {
+                    acked.put(seq, uploaded);
+                    append("K\t" + seq);
+                    pullNeeded = true;
+                }
+            }
+            if (pullNeeded) pull();
+            upload();
+            compactRemote();
+        });
+    }
+
+    /**
+     * Fold the operations up to the cursor into the remote snapshot and delete them. Only a device
+     * that is fully caught up compacts, so the snapshot is exact at its sequence.
+     */
+    // Lane only
+    private void compactRemote() {
+        long seq;
+        long previousSnapshot;
+        List<String> products;
+        synchronized (this) {
+            if (!remote || uploading || syncing || !pending.isEmpty() || !acked.isEmpty()) return;
+            if (cursor - remoteSnapshotSeq < REMOTE_COMPACT_OPS) return;
+            seq = cursor;
+            previousSnapshot = remoteSnapshotSeq;
+            products = new ArrayList<>(confirmed);
+            // Don't start another compaction while this one runs
+            remoteSnapshotSeq = seq;
+        }
+        DocumentReference head = stateDocument(HEAD_DOCUMENT);
+        Task<Boolean> folded = db.runTransaction(transaction -> {
+            if (longOf(transaction.get(head), "snapshotSeq") >= seq) return false;
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("seq", seq);
+            snapshot.put("products", products);
+            transaction.set(stateDocument(SNAPSHOT_DOCUMENT), snapshot);
+            transaction.update(head, "snapshotSeq", seq);
+            return true;
+        });
+        FirestoreMeter.write("LikeOpLog.compact", 2, folded).addOnCompleteListener(lane, task -> {
+            if (!task.isSuccessful()) {
+                AppLog.w(TAG, "Like compaction failed", task.getException());
+                synchronized (this) {
+                    remoteSnapshotSeq = previousSnapshot;
+                }
+                return;
+            }
+            if (!task.getResult()) return;
+            // Operation ids are their sequence numbers, so they are deleted without being read
+            WriteBatch batch = db.batch();
+            int inBatch = 0;
+            for (long s = previousSnapshot + 1; s <= seq; s++) {
+                batch.delete(opDocument(s));
+                if (++inBatch == BATCH_LIMIT) {
+                    FirestoreMeter.write("LikeOpLog.compact", inBatch, batch.commit());
+                    batch = db.batch();
+                    inBatch = 0;
+                }
+            }
+            if (inBatch > 0) FirestoreMeter.write("LikeOpLog.compact", inBatch, batch.commit());
+            AppLog.i(TAG, "Compacted like operations {} to {}", previousSnapshot + 1, seq);
+        });
+    }
+
+    private DocumentReference stateDocument(String id) {
+        return db.collection(USERS_COLLECTION).document(ownerId).collection(STATE_COLLECTION).document(id);
+    }
+
+    private DocumentReference opDocument(long seq) {
+        // Zero-padded so the ids sort like the sequence
+        return db.collection(USERS_COLLECTION).document(ownerId).collection(OPS_COLLECTION)
+                .document(String.format(Locale.ROOT, "%012d", seq));
+    }
+
+    private static long longOf(DocumentSnapshot doc, String field) {
+        Long value = doc.exists() ? doc.getLong(field) : null;
+        return value != null ? value : 0;
+    }
+
+    // ==================== LOCAL FILES ====================
+
+    /**
+     * Replace the confirmed state with a remote snapshot; own acknowledged operations it covers are
+     * dropped, pending ones are kept
+     */
+    private void resetTo(long seq, Collection<String> products) {
+        synchronized (this) {
+            cursor = seq;
+            confirmed.clear();
+            confirmed.addAll(products);
+            acked.headMap(seq, true).clear();
+            compactLocal();
+        }
+    }
+
+    // Guarded by this. Appends go through the lane, in the order they were recorded.
+    private void append(String line) {
+        journalLines++;
+        // Before loading, a snapshot of the legacy state would replace the one on disk
+        boolean compact = loaded && journalLines >= LOCAL_COMPACT_LINES;
+        lane.execute(() -> {
+            try (OutputStream out = new FileOutputStream(journalFile, true)) {
+                out.write((line + '\n').getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                AppLog.w(TAG, "Could not journal " + line, e);
+            }
+        });
+        if (compact) compactLocal();
+    }
+
+    // Guarded by this
+    private void compactLocal() {
+        String json;
+        try {
+            JSONObject state = new JSONObject();
+            state.put("cursor", cursor);
+            state.put("confirmed", new JSONArray(confirmed));
+            JSONArray ackedOps = new JSONArray();
+            for (Map.Entry<Long, Op> entry : acked.entrySet()) {
+                ackedOps.put(new JSONArray().put(entry.getKey()).put(entry.getValue().op).put(entry.getValue().productId));
+            }
+            state.put("acked", ackedOps);
+            JSONArray pendingOps = new JSONArray();
+            for (Op op : pending) pendingOps.put(new JSONArray().put(op.op).put(op.productId));
+            state.put("pending", pendingOps);
+            json = state.toString();
+        } catch (JSONException e) {
+            AppLog.w(TAG, "Could not serialize like state", e);
+            return;
+        }
+        journalLines = 0;
+        lane.execute(() -> {
+            File dir = snapshotFile.getParentFile();
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+                AppLog.w(TAG, "Could not create {}", dir);
+                return;
+            }
+            // Temp file and rename: a crash leaves either the old snapshot and journal or the new snapshot
+            File temp = new File(snapshotFile.getPath() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                out.write(json.getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+            } catch (IOException e) {
+                AppLog.w(TAG, "Could not write like snapshot", e);
+                return;
+            }
+            if (temp.renameTo(snapshotFile)) {
+                journalFile.delete();
+            } else {
+                AppLog.w(TAG, "Could not replace {}", snapshotFile);
+            }
+        });
+    }
+
+    // Lane only
+    private void load(Collection<String> legacy) {
+        boolean found = false;
+        synchronized (this) {
+            if (loaded) {
+                loading.trySetResult(null);
+                return;
+            }
+            // Changes made before loading come after the loaded ones; their journal lines are still queued
+            List<Op> early = new ArrayList<>(pending);
+            pending.clear();
+            confirmed.clear();
+            if (snapshotFile.exists()) {
+                found = true;
+                try {
+                    JSONObject state = new JSONObject(read(snapshotFile));
+                    cursor = state.getLong("cursor");
+                    JSONArray ids = state.getJSONArray("confirmed");
+                    for (int i = 0; i < ids.length(); i++) confirmed.add(ids.getString(i));
+                    JSONArray ackedOps = state.getJSONArray("acked");
+                    for (int i = 0; i < ackedOps.length(); i++) {
+                        JSONArray op = ackedOps.getJSONArray(i);
+                        acked.put(op.getLong(0), new Op(op.getString(1), op.getString(2)));
+                    }
+                    JSONArray pendingOps = state.getJSONArray("pending");
+                    for (int i = 0; i < pendingOps.length(); i++) {
+                        JSONArray op = pendingOps.getJSONArray(i);
+                        pending.add(new Op(op.getString(0), op.getString(1)));
+                    }
+                } catch (IOException | JSONException e) {
+                    // Start over from the next sync rather than trust a partial state
+                    AppLog.w(TAG, "Discarding unreadable like snapshot", e);
+                    cursor = -1;
+                    confirmed.clear();
+                    acked.clear();
+                    pending.clear();
+                }
+            }
+            if (journalFile.exists()) {
+                found = true;
+                replay();
+            }
+            if (!found) confirmed.addAll(legacy);
+            pending.addAll(early);
+            loaded = true;
+        }
+        loading.trySetResult(null);
+    }
+
+    // Guarded by this
+    private void replay() {
+        String content;
+        try {
+            content = read(journalFile);
+        } catch (IOException e) {
+            AppLog.w(TAG, "Could not read like journal", e);
+            return;
+        }
+        int start = 0;
+        int end;
+        // A line cut short by process death has no newline and is ignored
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            String[] parts = content.substring(start, end).split("\t");
+            start = end + 1;
+            journalLines++;
+            try {
+                switch (parts[0]) {
+                    case "P":
+                        pending.add(new Op(parts[1], parts[2]));
+                        break;
+                    case "F": {
+                        Op op = pending.poll();
+                        if (op != null) op.applyTo(confirmed);
+                        cursor = Long.parseLong(parts[1]);
+                        break;
+                    }
+                    case "K": {
+                        Op op = pending.poll();
+                        if (op != null) acked.put(Long.parseLong(parts[1]), op);
+                        break;
+                    }
+                    case "C": {
+                        long seq = Long.parseLong(parts[1]);
+                        if (seq <= cursor) break;
+                        new Op(parts[2], parts[3]).applyTo(confirmed);
+                        cursor = seq;
+                        acked.remove(seq);
+                        break;
+                    }
+                    default:
+                        break;
+                }
+            } catch (RuntimeException e) {
+                AppLog.w(TAG, "Skipping malformed journal line", e);
+            }
+        }
+    }
+
+    private static String read(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            return new String(bytes, 0, read, StandardCharsets.UTF_8);
+        }
+    }
+}
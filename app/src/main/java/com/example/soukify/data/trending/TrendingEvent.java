@@ -0,0 +1,24 @@
+package com.example.soukify.data.trending;
+
+/**
+ * Trending Event - User signals that feed the trending score, with their relative weight
+ *
+ * A message or a favorite says far more about intent than a scroll-by view, so they weigh more.
+ */
+public enum TrendingEvent {
+    VIEW(1.0),
+    SEARCH_HIT(0.5),
+    LIKE(3.0),
+    FAVORITE(4.0),
+    MESSAGE(5.0);
+
+    private final double weight;
+
+    TrendingEvent(double weight) {
+        this.weight = weight;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.soukify.data.trending;
+
+/**
+ * Trending Score - Exponential time decay expressed as forward decay
+ *
+ * The trending score of an item at time t is the sum of its event weights, each multiplied by
+ * 2^(-(t - eventTime) / HALF_LIFE). Instead of decaying every stored score as time passes, each event
+ * is scaled up once by 2^((eventTime - EPOCH) / HALF_LIFE) and added to a stored value that never
+ * changes otherwise. Every item's real score is its stored value times the same factor
+ * 2^(-(t - EPOCH) / HALF_LIFE), so ordering by the stored value is ordering by the decayed score and
+ * Firestore can serve "top N trending" straight from an index, with FieldValue.increment updates.
+ *
+ * Relative precision is unaffected by the growth because recent increments always dominate, but the
+ * range is not: with a 3-day half-life the stored values reach 2^1023 about 8 years after EPOCH.
+ * Before then EPOCH must be moved forward and the trending collection cleared, which loses nothing
+ * of value since the scores are derived data and anything older than a few weeks has decayed away.
+ */
+public final class TrendingScore {
+
+    /** Reference point of the forward decay; any fixed instant works */
+    public static final long EPOCH_MILLIS = 1_735_689_600_000L; // 2025-01-01T00:00:00Z
+
+    public static final long HALF_LIFE_MILLIS = 3L * 24 * 60 * 60 * 1000;
+
+    /** Counters are aggregated per bucket before they are written, see TrendingTracker */
+    public static final long BUCKET_MILLIS = 60L * 60 * 1000;
+
+    private TrendingScore() {}
+
+    /**
+     * Amount to add to the stored score for {@code weight} observed at {@code timeMillis}
+     */
+    public static double forwardWeight(double weight, long timeMillis) {
+        return weight * Math.pow(2.0, (double) (timeMillis - EPOCH_MILLIS) / HALF_LIFE_MILLIS);
+    }
+
+    /**
+     * Decayed score as of {@code nowMillis}, in event-weight units (one fresh view is worth ~1)
+     */
+    public static double decayed(double storedScore, long nowMillis) {
+        return storedScore * Math.pow(2.0, -(double) (nowMillis - EPOCH_MILLIS) / HALF_LIFE_MILLIS);
+    }
+
+    /**
+     * Start of the bucket containing {@code timeMillis}
+     */
+    public static long bucketOf(long timeMillis) {
+        return timeMillis - Math.floorMod(timeMillis, BUCKET_MILLIS);
+    }
+
+    /**
+     * Time an aggregated bucket is credited at: its midpoint, so the error against per-event decay
+     * stays below a quarter of a bucket either way
+     */
+    public static long bucketTime(long bucketStart) {
+        return bucketStart + BUCKET_MILLIS / 2;
+    }
+}
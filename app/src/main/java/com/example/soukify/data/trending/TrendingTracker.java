@@ -0,0 +1,243 @@
+package com.example.soukify.data.trending;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.soukify.data.models.ProductModel;
+import com.example.soukify.data.models.ShopModel;
+import com.example.soukify.data.remote.firebase.FirebaseTrendingService;
+import com.example.soukify.utils.CategoryUtils;
+import com.example.soukify.utils.concurrent.AppExecutors;
+import com.example.soukify.utils.log.AppLog;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Trending Tracker - Collects trending events and writes them as bucketed score increments
+ *
+ * Events are counted in memory per item and per hour bucket ({@link TrendingScore#BUCKET_MILLIS}),
+ * so a burst of views on one shop costs a single write. Every flush turns each item's buckets into
+ * one forward-decayed increment (see {@link TrendingScore}) and commits them in batches. Flushes run
+ * a minute after the first pending event, when too many items are pending, and when the app goes to
+ * the background (SoukifyApplication). Trending is best-effort: events still in memory when the
+ * process dies are lost. A batch that fails is put back with the pending items and goes out with
+ * the next flush, up to {@value #MAX_WRITE_ATTEMPTS} times, unless Firestore rejected it outright.
+ *
+ * Safe to call from any thread.
+ */
+public class TrendingTracker {
+    private static final String TAG = "TrendingTracker";
+
+    private static final long FLUSH_DELAY_MS = 60_000;
+    private static final int MAX_PENDING_ITEMS = 400;
+    private static final int BATCH_LIMIT = 500;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private static volatile TrendingTracker instance;
+
+    private final Context context;
+    private final FirebaseTrendingService service;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable scheduledFlush = this::flush;
+
+    // Guarded by this
+    private Map<String, Pending> pending = new HashMap<>();
+    private boolean flushScheduled;
+
+    private static final class Pending {
+        final String type;
+        final String itemId;
+        final Map<String, Object> facets = new HashMap<>();
+        // Bucket start -> summed event weight
+        final TreeMap<Long, Double> buckets = new TreeMap<>();
+        // Failed commits this item was part of
+        int failedAttempts;
+
+        Pending(String type, String itemId) {
+            this.type = type;
+            this.itemId = itemId;
+        }
+    }
+
+    private TrendingTracker(Context context, FirebaseTrendingService service) {
+        this.context = context.getApplicationContext();
+        this.service = service;
+    }
+
+    /**
+     * Create the tracker; called once from SoukifyApplication.onCreate so repositories without a
+     * Context can record events
+     */
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new TrendingTracker(context, new FirebaseTrendingService(FirebaseFirestore.getInstance()));
+        }
+    }
+
+    public static TrendingTracker get() {
+        TrendingTracker tracker = instance;
+        if (tracker == null) throw new IllegalStateException("TrendingTracker.init() was not called");
+        return tracker;
+    }
+
+    // ==================== RECORDING ====================
+
+    public void recordShop(ShopModel shop, TrendingEvent event) {
+        if (shop == null || shop.getShopId() == null) return;
+        Map<String, Object> facets = new HashMap<>();
+        if (shop.getCategory() != null && !shop.getCategory().isEmpty()) {
+            // Shops store the localized label; rank by the locale-independent key
+            facets.put(FirebaseTrendingService.FIELD_CATEGORY_KEY,
+                    CategoryUtils.getCategoryKey(context, shop.getCategory()));
+        }
+        if (shop.getCityId() != null && !shop.getCityId().isEmpty()) {
+            facets.put(FirebaseTrendingService.FIELD_CITY_ID, shop.getCityId());
+        }
+        record(FirebaseTrendingService.TYPE_SHOP, shop.getShopId(), facets, event);
+    }
+
+    public void recordShop(String shopId, TrendingEvent event) {
+        if (shopId == null || shopId.isEmpty()) return;
+        record(FirebaseTrendingService.TYPE_SHOP, shopId, null, event);
+    }
+
+    public void recordProduct(ProductModel product, TrendingEvent event) {
+        if (product == null || product.getProductId() == null) return;
+        Map<String, Object> facets = new HashMap<>();
+        if (product.getProductType() != null && !product.getProductType().isEmpty()) {
+            facets.put(FirebaseTrendingService.FIELD_PRODUCT_TYPE, product.getProductType());
+        }
+        if (product.getShopId() != null && !product.getShopId().isEmpty()) {
+            facets.put(FirebaseTrendingService.FIELD_SHOP_ID, product.getShopId());
+        }
+        record(FirebaseTrendingService.TYPE_PRODUCT, product.getProductId(), facets, event);
+    }
+
+    public void recordProduct(String productId, TrendingEvent event) {
+        if (productId == null || productId.isEmpty()) return;
+        record(FirebaseTrendingService.TYPE_PRODUCT, productId, null, event);
+    }
+
+    private void record(String type, String itemId, Map<String, Object> facets, TrendingEvent event) {
+        long bucket = TrendingScore.bucketOf(System.currentTimeMillis());
+        boolean flushNow;
+        synchronized (this) {
+            String key = FirebaseTrendingService.documentId(type, itemId);
+            Pending item = pending.get(key);
+            if (item == null) {
+                item = new Pending(type, itemId);
+                pending.put(key, item);
+            }
+            if (facets != null) item.facets.putAll(facets);
+            item.buckets.merge(bucket, event.getWeight(), Double::sum);
+
+            flushNow = pending.size() >= MAX_PENDING_ITEMS;
+            if (!flushNow && !flushScheduled) {
+                flushScheduled = true;
+                handler.postDelayed(scheduledFlush, FLUSH_DELAY_MS);
+            }
+        }
+        if (flushNow) flush();
+    }
+
+    // ==================== FLUSHING ====================
+
+    /**
+     * Write everything recorded so far. Returns immediately; the commit runs on a background lane.
+     */
+    public void flush() {
+        Map<String, Pending> toWrite;
+        synchronized (this) {
+            handler.removeCallbacks(scheduledFlush);
+            flushScheduled = false;
+            if (pending.isEmpty()) return;
+            toWrite = pending;
+            pending = new HashMap<>();
+        }
+        AppExecutors.get().serial(TAG).execute(() -> write(toWrite));
+    }
+
+    private void write(Map<String, Pending> items) {
+        WriteBatch batch = null;
+        List<Pending> batchItems = new ArrayList<>();
+        for (Pending item : items.values()) {
+            double increment = 0;
+            for (Map.Entry<Long, Double> bucket : item.buckets.entrySet()) {
+                increment += TrendingScore.forwardWeight(bucket.getValue(), TrendingScore.bucketTime(bucket.getKey()));
+            }
+            if (batch == null) batch = service.newBatch();
+            service.addIncrement(batch, item.type, item.itemId, increment, item.facets);
+            batchItems.add(item);
+            if (batchItems.size() == BATCH_LIMIT) {
+                commit(batch, batchItems);
+                batch = null;
+                batchItems = new ArrayList<>();
+            }
+        }
+        if (batch != null) commit(batch, batchItems);
+    }
+
+    private void commit(WriteBatch batch, List<Pending> items) {
+        service.commit(batch, items.size())
+                .addOnSuccessListener(v -> AppLog.d(TAG, "Flushed {} trending increments", items.size()))
+                .addOnFailureListener(e -> {
+                    if (isRejected(e)) {
+                        AppLog.w(TAG, "Dropped {} rejected trending increments", items.size(), e);
+                    } else {
+                        AppLog.w(TAG, "Flush of {} trending increments failed, will retry", items.size(), e);
+                        requeue(items);
+                    }
+                });
+    }
+
+    /**
+     * Put the items of a failed batch back with the pending ones, so the next flush writes them
+     * along with whatever was recorded since
+     */
+    private void requeue(List<Pending> items) {
+        int dropped = 0;
+        synchronized (this) {
+            for (Pending failed : items) {
+                if (++failed.failedAttempts >= MAX_WRITE_ATTEMPTS) {
+                    dropped++;
+                    continue;
+                }
+                String key = FirebaseTrendingService.documentId(failed.type, failed.itemId);
+                Pending item = pending.get(key);
+                if (item == null) {
+                    pending.put(key, failed);
+                    continue;
+                }
+                // Facets recorded since are newer
+                for (Map.Entry<String, Object> facet : failed.facets.entrySet()) {
+                    item.facets.putIfAbsent(facet.getKey(), facet.getValue());
+                }
+                for (Map.Entry<Long, Double> bucket : failed.buckets.entrySet()) {
+                    item.buckets.merge(bucket.getKey(), bucket.getValue(), Double::sum);
+                }
+                item.failedAttempts = Math.max(item.failedAttempts, failed.failedAttempts);
+            }
+            if (!pending.isEmpty() && !flushScheduled) {
+                flushScheduled = true;
+                handler.postDelayed(scheduledFlush, FLUSH_DELAY_MS);
+            }
+        }
+        if (dropped > 0) AppLog.w(TAG, "Dropped {} trending increments after {} attempts", dropped, MAX_WRITE_ATTEMPTS);
+    }
+
+    // Errors the same batch would get again on every attempt
+    private static boolean isRejected(Exception error) {
+        if (!(error instanceof FirebaseFirestoreException)) return false;
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) error).getCode();
+        return code == FirebaseFirestoreException.Code.PERMISSION_DENIED
+                || code == FirebaseFirestoreException.Code.INVALID_ARGUMENT;
+    }
+}
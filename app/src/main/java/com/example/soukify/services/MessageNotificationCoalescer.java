@@ -0,0 +1,111 @@
+package com.example.soukify.services;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Message Notification Coalescer - Turns a burst of chat messages into one push per conversation
+ *
+ * Messages for the same conversation and recipient are collected for {@link #COALESCE_WINDOW_MS}
+ * and sent as a single summarized push ("3 new messages from …"). After a push, the next one for
+ * that conversation and recipient waits until {@link #MIN_INTERVAL_MS} has passed, collecting
+ * everything that arrives meanwhile, so a lively conversation costs one push (and one preference
+ * check) every half minute rather than one per message. Pending pushes are sent early when the app
+ * goes to the background (SoukifyApplication).
+ *
+ * Safe to call from any thread.
+ */
+public class MessageNotificationCoalescer {
+    public static final long COALESCE_WINDOW_MS = 4_000;
+    public static final long MIN_INTERVAL_MS = 30_000;
+
+    private static volatile MessageNotificationCoalescer instance;
+
+    private final NotificationSenderService sender;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private static final class Group {
+        final String recipientId;
+        final String conversationId;
+        final Runnable flush;
+        String senderName;
+        String lastText;
+        int count;
+
+        Group(String recipientId, String conversationId, Runnable flush) {
+            this.recipientId = recipientId;
+            this.conversationId = conversationId;
+            this.flush = flush;
+        }
+    }
+
+    // Guarded by this
+    private final Map<String, Group> groups = new HashMap<>();
+    // Conversation and recipient -> when their last push went out
+    private final Map<String, Long> lastSentAt = new HashMap<>();
+
+    private MessageNotificationCoalescer(NotificationSenderService sender) {
+        this.sender = sender;
+    }
+
+    public static MessageNotificationCoalescer get() {
+        if (instance == null) {
+            synchronized (MessageNotificationCoalescer.class) {
+                if (instance == null) instance = new MessageNotificationCoalescer(new NotificationSenderService());
+            }
+        }
+        return instance;
+    }
+
+    public void add(String recipientId, String senderName, String text, String conversationId) {
+        if (recipientId == null || recipientId.isEmpty()) return;
+        String key = conversationId + '\t' + recipientId;
+        synchronized (this) {
+            Group group = groups.get(key);
+            if (group == null) {
+                group = new Group(recipientId, conversationId, () -> flush(key));
+                groups.put(key, group);
+                long delay = COALESCE_WINDOW_MS;
+                Long last = lastSentAt.get(key);
+                if (last != null) delay = Math.max(delay, last + MIN_INTERVAL_MS - SystemClock.elapsedRealtime());
+                handler.postDelayed(group.flush, delay);
+            }
+            group.count++;
+            group.senderName = senderName;
+            group.lastText = text;
+        }
+    }
+
+    /**
+     * Send every pending push now
+     */
+    public void flushAll() {
+        List<String> keys;
+        synchronized (this) {
+            keys = new ArrayList<>(groups.keySet());
+        }
+        for (String key : keys) flush(key);
+    }
+
+    private void flush(String key) {
+        Group group;
+        synchronized (this) {
+            group = groups.remove(key);
+            if (group == null) return;
+            handler.removeCallbacks(group.flush);
+            long now = SystemClock.elapsedRealtime();
+            for (Iterator<Long> sent = lastSentAt.values().iterator(); sent.hasNext(); ) {
+                if (now - sent.next() >= MIN_INTERVAL_MS) sent.remove();
+            }
+            lastSentAt.put(key, now);
+        }
+        sender.sendMessageDigest(group.recipientId, group.senderName, group.count, group.lastText, group.conversationId);
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.soukify.services;
 
+import android.os.SystemClock;
 import android.util.Log;
 import com.example.soukify.data.models.Conversation;
+import com.example.soukify.data.remote.FirestoreMeter;
+import com.example.soukify.utils.concurrent.AppExecutors;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import org.json.JSONArray;
@@ -11,8 +14,8 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * Client-side notification sender using OneSignal API
@@ -26,37 +29,59 @@ public class NotificationSenderService {
     private static final String ONESIGNAL_APP_ID = "3e5e2256-41bb-473c-ae7b-a2e35cbfad9a";
     private static final String ONESIGNAL_API_KEY = "os_v2_app_hzpcevsbxndtzlt3ulrvzp5ntkfgqjnaatvej4ua7rsvokacos2oihlklta2aw3tk3tzvha2oh4h6xqmkvqj7cio3b3p2vpi6pjyqdi";
     private static final String ONESIGNAL_API_URL = "https://onesignal.com/api/v1/notifications";
-    
+
+    // Recipient preferences are re-read at most this often
+    private static final long PREFERENCES_TTL_MS = 10 * 60 * 1000L;
+
+    private static volatile String endpoint = ONESIGNAL_API_URL;
+    // Shared by every instance: userId -> preferences as last read
+    private static final Map<String, CachedPreferences> preferencesCache = new ConcurrentHashMap<>();
+
+    private static final class CachedPreferences {
+        final Map<String, Object> preferences;
+        final long fetchedAt;
+
+        CachedPreferences(Map<String, Object> preferences, long fetchedAt) {
+            this.preferences = preferences;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
     private final FirebaseFirestore db;
-    private final ExecutorService executor;
+    private final Executor executor;
 
     public NotificationSenderService() {
         this.db = FirebaseFirestore.getInstance();
-        this.executor = Executors.newSingleThreadExecutor();
+        this.executor = AppExecutors.get().io();
     }
 
     /**
-     * Send new message notification
+     * Point pushes at another server, e.g. a local stub in debug builds; null restores OneSignal
+     */
+    public static void setEndpoint(String url) {
+        endpoint = url != null ? url : ONESIGNAL_API_URL;
+    }
+
+    /**
+     * Send new message notification. Messages arriving in a burst are coalesced into one push per
+     * conversation by {@link MessageNotificationCoalescer}.
      */
     public void sendMessageNotification(String recipientId, String senderName, String messageText, String conversationId) {
         // Validation basic
         if (recipientId == null || recipientId.isEmpty()) return;
+        MessageNotificationCoalescer.get().add(recipientId, senderName, messageText, conversationId);
+    }
 
-        executor.execute(() -> {
-            // Check preferences logic is handled in ChatRepository usually, 
-            // but we can double check or just send if called directly.
-            // For now, we assume the caller has decided to send.
-            
-            sendOneSignalNotification(
-                recipientId,
-                "New message from " + senderName,
-                messageText.length() > 100 ? messageText.substring(0, 97) + "..." : messageText,
-                "message",
-                conversationId,
-                null,
-                null
-            );
-        });
+    /**
+     * Send one push summarizing {@code count} messages, showing the last one
+     */
+    void sendMessageDigest(String recipientId, String senderName, int count, String lastText, String conversationId) {
+        String title = count == 1
+                ? "New message from " + senderName
+                : count + " new messages from " + senderName;
+        String body = lastText == null ? "" : lastText.length() > 100 ? lastText.substring(0, 97) + "..." : lastText;
+        executor.execute(() -> checkPreferencesAndSend(recipientId, "messages", title, body, "message",
+                conversationId, null, null));
     }
 
     /**
@@ -69,7 +94,7 @@ public class NotificationSenderService {
         executor.execute(() -> {
             Log.d(TAG, "Preparing to send new product notification for shop: " + shopName);
             
-            db.collection("shops").document(shopId).get()
+            FirestoreMeter.read("NotificationSender.shopFollowers", db.collection("shops").document(shopId).get())
                 .addOnSuccessListener(shopDoc -> {
                     if (!shopDoc.exists()) {
                         Log.e(TAG, "Shop not found: " + shopId);
@@ -119,7 +144,7 @@ public class NotificationSenderService {
         executor.execute(() -> {
             Log.d(TAG, "Preparing to send promotion notification for shop: " + shopName);
 
-            db.collection("shops").document(shopId).get()
+            FirestoreMeter.read("NotificationSender.shopFollowers", db.collection("shops").document(shopId).get())
                 .addOnSuccessListener(shopDoc -> {
                     if (!shopDoc.exists()) {
                         Log.e(TAG, "Shop not found: " + shopId);
@@ -163,43 +188,36 @@ public class NotificationSenderService {
     }
 
     /**
-     * Check user preferences before sending
+     * Check user preferences before sending. Preferences are cached for {@link #PREFERENCES_TTL_MS}.
      */
     private void checkPreferencesAndSend(String userId, String prefKey, 
                                          String title, String body, String type, 
                                          String conversationId, String shopId, String productId) {
-        db.collection("users").document(userId).get()
+        CachedPreferences cached = preferencesCache.get(userId);
+        if (cached != null && SystemClock.elapsedRealtime() - cached.fetchedAt < PREFERENCES_TTL_MS) {
+            if (isAllowed(userId, cached.preferences, prefKey)) {
+                sendOneSignalNotification(userId, title, body, type, conversationId, shopId, productId);
+            }
+            return;
+        }
+
+        FirestoreMeter.read("NotificationSender.followerPrefs", db.collection("users").document(userId).get())
             .addOnSuccessListener(settingsDoc -> {
+                Map<String, Object> notifPrefs = null;
                 if (settingsDoc.exists()) {
                     Object notifPrefsObj = settingsDoc.get("notificationPreferences");
                     if (notifPrefsObj instanceof Map) {
                         @SuppressWarnings("unchecked")
-                        Map<String, Object> notifPrefs = (Map<String, Object>) notifPrefsObj;
-                        
-                        // Check if push is enabled
-                        Boolean pushEnabled = (Boolean) notifPrefs.get("push");
-                        if (pushEnabled != null && !pushEnabled) {
-                            Log.d(TAG, "Push notifications disabled for user: " + userId);
-                            return;
-                        }
-
-                        // Check specific preference
-                        Boolean prefEnabled = (Boolean) notifPrefs.get(prefKey);
-                        if (prefEnabled != null && !prefEnabled) {
-                            Log.d(TAG, prefKey + " notifications disabled for user: " + userId);
-                            return;
-                        }
-
-                        // Check quiet hours
-                        if (isInQuietHours(notifPrefs)) {
-                            Log.d(TAG, "User " + userId + " is in quiet hours");
-                            return;
-                        }
+                        Map<String, Object> map = (Map<String, Object>) notifPrefsObj;
+                        notifPrefs = map;
                     }
                 }
+                preferencesCache.put(userId, new CachedPreferences(notifPrefs, SystemClock.elapsedRealtime()));
 
-                // Send notification
-                sendOneSignalNotification(userId, title, body, type, conversationId, shopId, productId);
+                if (isAllowed(userId, notifPrefs, prefKey)) {
+                    // Send notification
+                    sendOneSignalNotification(userId, title, body, type, conversationId, shopId, productId);
+                }
             })
             .addOnFailureListener(e -> {
                 Log.e(TAG, "Failed to check preferences, sending anyway", e);
@@ -207,6 +225,31 @@ public class NotificationSenderService {
             });
     }
 
+    private boolean isAllowed(String userId, Map<String, Object> notifPrefs, String prefKey) {
+        if (notifPrefs == null) return true;
+
+        // Check if push is enabled
+        Boolean pushEnabled = (Boolean) notifPrefs.get("push");
+        if (pushEnabled != null && !pushEnabled) {
+            Log.d(TAG, "Push notifications disabled for user: " + userId);
+            return false;
+        }
+
+        // Check specific preference
+        Boolean prefEnabled = (Boolean) notifPrefs.get(prefKey);
+        if (prefEnabled != null && !prefEnabled) {
+            Log.d(TAG, prefKey + " notifications disabled for user: " + userId);
+            return false;
+        }
+
+        // Check quiet hours
+        if (isInQuietHours(notifPrefs)) {
+            Log.d(TAG, "User " + userId + " is in quiet hours");
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Send OneSignal notification via REST API
      */
@@ -214,7 +257,7 @@ public class NotificationSenderService {
                                            String conversationId, String shopId, String productId) {
         executor.execute(() -> {
             try {
-                URL url = new URL(ONESIGNAL_API_URL);
+                URL url = new URL(endpoint);
                 HttpURLConnection conn = (HttpURLConnection) url.openConnection();
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Authorization", "Basic " + ONESIGNAL_API_KEY);
@@ -246,6 +289,11 @@ public class NotificationSenderService {
                 if (productId != null) data.put("productId", productId);
                 json.put("data", data);
 
+                // A newer push for the same conversation replaces the one still on screen
+                if ("message".equals(type) && conversationId != null) {
+                    json.put("collapse_id", conversationId);
+                }
+
                 // Android Specifics (High Priority & Visibility)
                 json.put("priority", 10);
                 json.put("android_visibility", 1); // Public
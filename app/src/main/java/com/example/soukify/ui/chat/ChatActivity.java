@@ -8,6 +8,7 @@ import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 import com.bumptech.glide.Glide;
+import com.example.soukify.utils.image.ImageLoader;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
@@ -15,6 +16,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.soukify.R;
+import com.example.soukify.data.profiles.UserProfileCache;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.firebase.auth.FirebaseAuth;
 
@@ -29,6 +31,7 @@ public class ChatActivity extends AppCompatActivity {
     public static final String EXTRA_SHOP_IMAGE = "shop_image";
     public static final String EXTRA_OTHER_USER_NAME = "extra_other_user_name";
     public static final String EXTRA_OTHER_USER_IMAGE = "extra_other_user_image";
+    public static final String EXTRA_OTHER_USER_ID = "extra_other_user_id";
     public static final String EXTRA_IS_SELLER_VIEW = "extra_is_seller_view";
 
     private ChatViewModel viewModel;
@@ -120,11 +123,29 @@ public class ChatActivity extends AppCompatActivity {
                 if (!isSellerView) imgUrl = getIntent().getStringExtra(EXTRA_SHOP_IMAGE);
             }
 
-            Glide.with(this)
-                    .load(imgUrl != null && !imgUrl.isEmpty() ? imgUrl : R.drawable.ic_profile_placeholder)
-                    .placeholder(R.drawable.ic_profile_placeholder)
-                    .circleCrop()
-                    .into(ivAvatar);
+            if (imgUrl != null && !imgUrl.isEmpty()) {
+                ImageLoader.load(Glide.with(this), imgUrl)
+                        .placeholder(R.drawable.ic_profile_placeholder)
+                        .circleCrop()
+                        .into(ivAvatar);
+            } else {
+                Glide.with(this)
+                        .load(R.drawable.ic_profile_placeholder)
+                        .circleCrop()
+                        .into(ivAvatar);
+                // Photo missing from the conversation: usually already cached by the conversation list
+                String otherUserId = getIntent().getStringExtra(EXTRA_OTHER_USER_ID);
+                if (isSellerView && otherUserId != null) {
+                    UserProfileCache.get().getProfile(otherUserId).addOnSuccessListener(this, profile -> {
+                        if (profile.hasProfileImage()) {
+                            ImageLoader.load(Glide.with(this), profile.getProfileImage())
+                                    .placeholder(R.drawable.ic_profile_placeholder)
+                                    .circleCrop()
+                                    .into(ivAvatar);
+                        }
+                    });
+                }
+            }
         }
 
         // ==========================
@@ -7,12 +7,16 @@ import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.example.soukify.data.chat.ChatOutbox;
 import com.example.soukify.data.models.Conversation;
 import com.example.soukify.data.models.Message;
 import com.example.soukify.data.repositories.ChatRepository;
 import com.google.firebase.auth.FirebaseAuth;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class ChatViewModel extends ViewModel {
 
@@ -23,16 +27,32 @@ public class ChatViewModel extends ViewModel {
     // 🔒 MutableLiveData internes
     private final MutableLiveData<String> conversationIdLiveData = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isLoadingLiveData = new MutableLiveData<>(false);
-    private final MutableLiveData<String> errorLiveData = new MutableLiveData<>();
+    private final MediatorLiveData<String> errorLiveData = new MediatorLiveData<>();
 
     private final MediatorLiveData<List<Message>> messagesLiveData = new MediatorLiveData<>();
     private LiveData<List<Message>> messagesSource;
+    // Dernières listes reçues de Firestore et de l'outbox, fusionnées dans messagesLiveData
+    private List<Message> serverMessages = new ArrayList<>();
+    private List<Message> pendingMessages = new ArrayList<>();
 
     // ✅ Pour tracker quelle conversation on écoute
     private String currentListeningConversationId = null;
 
     public ChatViewModel() {
         repository = new ChatRepository();
+
+        // 📮 Messages encore dans l'outbox, affichés tout de suite comme "en cours d'envoi"
+        ChatOutbox outbox = ChatOutbox.get();
+        messagesLiveData.addSource(outbox.getPending(), pending -> {
+            pendingMessages = pending != null ? pending : new ArrayList<>();
+            publishMessages();
+        });
+        errorLiveData.addSource(outbox.getDropped(), message -> {
+            if (message != null && message.getConversationId().equals(currentListeningConversationId)) {
+                errorLiveData.setValue("Message non envoyé : " + message.getText());
+            }
+        });
+        outbox.retryNow();
     }
 
     // ==========================
@@ -182,32 +202,43 @@ public class ChatViewModel extends ViewModel {
 
         // ✅ Mettre à jour la conversation écoutée
         currentListeningConversationId = conversationId;
+        serverMessages = new ArrayList<>();
 
         // ✅ Créer la nouvelle source
         messagesSource = repository.getMessagesRealtime(conversationId);
 
         messagesLiveData.addSource(messagesSource, messages -> {
             if (messages != null) {
-                Log.e(TAG, "════════════════════════════════════════");
-                Log.e(TAG, "📨 MESSAGES REÇUS DANS LE VIEWMODEL");
-                Log.e(TAG, "   Nombre: " + messages.size());
-                Log.e(TAG, "   Conversation: " + currentListeningConversationId);
-
-                for (int i = 0; i < messages.size(); i++) {
-                    Message m = messages.get(i);
-                    Log.e(TAG, "   Message " + (i+1) + ": " + m.getText());
-                    Log.e(TAG, "      SenderId: " + m.getSenderId());
-                    Log.e(TAG, "      SenderName: " + m.getSenderName());
-                }
-                Log.e(TAG, "════════════════════════════════════════");
-
-                messagesLiveData.setValue(messages);
+                Log.d(TAG, "📨 " + messages.size() + " messages reçus pour " + currentListeningConversationId);
+                serverMessages = messages;
+                publishMessages();
             } else {
                 Log.w(TAG, "⚠️ Messages null reçus");
             }
         });
     }
 
+    // ==========================
+    // 📮 FUSION MESSAGES FIRESTORE + OUTBOX
+    // ==========================
+    private void publishMessages() {
+        String conversationId = currentListeningConversationId;
+        if (conversationId == null) return;
+
+        List<Message> merged = new ArrayList<>(serverMessages);
+        Set<String> delivered = new HashSet<>();
+        for (Message message : serverMessages) {
+            if (message.getId() != null) delivered.add(message.getId());
+        }
+        // Un message de l'outbox garde son id client comme id de document : dès que Firestore l'a, la copie locale disparaît
+        for (Message message : pendingMessages) {
+            if (conversationId.equals(message.getConversationId()) && !delivered.contains(message.getId())) {
+                merged.add(message);
+            }
+        }
+        messagesLiveData.setValue(merged);
+    }
+
     // ==========================
     // ✅ ENVOYER MESSAGE (CORRIGÉE)
     // ==========================
@@ -237,8 +268,8 @@ public class ChatViewModel extends ViewModel {
                 new ChatRepository.SendMessageCallback() {
                     @Override
                     public void onSuccess() {
-                        Log.e(TAG, "✅ Message envoyé avec succès");
-                        // Le message apparaîtra automatiquement via le listener temps réel
+                        // Le message apparaît tout de suite via l'outbox, puis via le listener temps réel
+                        Log.d(TAG, "✅ Message mis en file");
                     }
 
                     @Override
@@ -1,6 +1,5 @@
 package com.example.soukify.ui.chat;
 
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,6 +10,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.soukify.R;
 import com.example.soukify.data.models.Message;
+import com.example.soukify.utils.log.AppLog;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -23,6 +23,7 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
     private static final String TAG = "MessagesAdapter";
     private static final int VIEW_TYPE_SENT = 1;
     private static final int VIEW_TYPE_RECEIVED = 2;
+    private static final float PENDING_ALPHA = 0.6f;
 
     private List<Message> messages;
     private final String currentUserId;
@@ -31,10 +32,7 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
         this.currentUserId = currentUserId;
         this.messages = new ArrayList<>();
 
-        Log.e(TAG, "════════════════════════════════════════");
-        Log.e(TAG, "🔧 MessagesAdapter créé");
-        Log.e(TAG, "   CurrentUserId: " + currentUserId);
-        Log.e(TAG, "════════════════════════════════════════");
+        AppLog.d(TAG, "🔧 MessagesAdapter créé pour {}", currentUserId);
     }
 
     // ==========================
@@ -42,18 +40,12 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
     // ==========================
     public void submitList(List<Message> newMessages) {
         if (newMessages != null) {
-            Log.e(TAG, "════════════════════════════════════════");
-            Log.e(TAG, "📝 submitList appelé");
-            Log.e(TAG, "   Ancien nombre: " + this.messages.size());
-            Log.e(TAG, "   Nouveau nombre: " + newMessages.size());
+            AppLog.d(TAG, "📝 submitList: {} -> {} messages", this.messages.size(), newMessages.size());
 
             this.messages = new ArrayList<>(newMessages);
             notifyDataSetChanged();
-
-            Log.e(TAG, "   ✅ Adapter mis à jour");
-            Log.e(TAG, "════════════════════════════════════════");
         } else {
-            Log.e(TAG, "⚠️ submitList reçu NULL");
+            AppLog.w(TAG, "⚠️ submitList reçu NULL");
         }
     }
 
@@ -62,20 +54,12 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
         Message message = messages.get(position);
 
         if (message == null) {
-            Log.e(TAG, "⚠️ Message NULL à position " + position);
+            AppLog.e(TAG, "⚠️ Message NULL à position {}", position);
             return VIEW_TYPE_RECEIVED;
         }
 
         String senderId = message.getSenderId();
-
-        // ✅ LOG DÉTAILLÉ
         boolean isSent = senderId != null && senderId.equals(currentUserId);
-
-        Log.d(TAG, "getItemViewType pos=" + position +
-                " | senderId=" + senderId +
-                " | currentUserId=" + currentUserId +
-                " | isSent=" + isSent);
-
         return isSent ? VIEW_TYPE_SENT : VIEW_TYPE_RECEIVED;
     }
 
@@ -84,8 +68,7 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
     public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         LayoutInflater inflater = LayoutInflater.from(parent.getContext());
 
-        Log.d(TAG, "onCreateViewHolder: viewType=" +
-                (viewType == VIEW_TYPE_SENT ? "SENT" : "RECEIVED"));
+        AppLog.d(TAG, "onCreateViewHolder: viewType={}", (viewType == VIEW_TYPE_SENT ? "SENT" : "RECEIVED"));
 
         if (viewType == VIEW_TYPE_SENT) {
             View view = inflater.inflate(R.layout.item_message_sent, parent, false);
@@ -101,13 +84,11 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
         Message message = messages.get(position);
 
         if (message == null) {
-            Log.e(TAG, "⚠️ Message NULL au bind position " + position);
+            AppLog.e(TAG, "⚠️ Message NULL au bind position {}", position);
             return;
         }
 
-        Log.d(TAG, "onBindViewHolder pos=" + position +
-                " | text=" + message.getText() +
-                " | senderId=" + message.getSenderId());
+        AppLog.d(TAG, "onBindViewHolder pos={} | text={} | senderId={}", position, message.getText(), message.getSenderId());
 
         if (holder instanceof SentMessageViewHolder) {
             ((SentMessageViewHolder) holder).bind(message);
@@ -118,9 +99,7 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
 
     @Override
     public int getItemCount() {
-        int count = messages.size();
-        Log.d(TAG, "getItemCount: " + count);
-        return count;
+        return messages.size();
     }
 
     // ==========================
@@ -136,27 +115,33 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
             tvTime = itemView.findViewById(R.id.tvTime);
 
             if (tvMessage == null) {
-                Log.e(TAG, "❌ tvMessage NULL dans item_message_sent.xml");
+                AppLog.e(TAG, "❌ tvMessage NULL dans item_message_sent.xml");
             }
             if (tvTime == null) {
-                Log.e(TAG, "❌ tvTime NULL dans item_message_sent.xml");
+                AppLog.e(TAG, "❌ tvTime NULL dans item_message_sent.xml");
             }
         }
 
         public void bind(Message message) {
             if (message == null) {
-                Log.e(TAG, "⚠️ bind() reçu message NULL (SENT)");
+                AppLog.e(TAG, "⚠️ bind() reçu message NULL (SENT)");
                 return;
             }
 
             String text = message.getText() != null ? message.getText() : "";
             tvMessage.setText(text);
 
-            if (tvTime != null && message.getTimestamp() > 0) {
-                tvTime.setText(formatTime(message.getTimestamp()));
+            // 📮 Encore dans l'outbox : affiché tout de suite, estompé jusqu'à confirmation
+            itemView.setAlpha(message.isPending() ? PENDING_ALPHA : 1f);
+            if (tvTime != null) {
+                if (message.isPending()) {
+                    tvTime.setText(R.string.message_sending);
+                } else if (message.getTimestamp() > 0) {
+                    tvTime.setText(formatTime(message.getTimestamp()));
+                }
             }
 
-            Log.d(TAG, "✅ Message SENT bindé: " + text);
+            AppLog.d(TAG, "✅ Message SENT bindé: {}", text);
         }
     }
 
@@ -175,19 +160,19 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
             tvSenderName = itemView.findViewById(R.id.tvSenderName);
 
             if (tvMessage == null) {
-                Log.e(TAG, "❌ tvMessage NULL dans item_message_received.xml");
+                AppLog.e(TAG, "❌ tvMessage NULL dans item_message_received.xml");
             }
             if (tvTime == null) {
-                Log.e(TAG, "❌ tvTime NULL dans item_message_received.xml");
+                AppLog.e(TAG, "❌ tvTime NULL dans item_message_received.xml");
             }
             if (tvSenderName == null) {
-                Log.e(TAG, "❌ tvSenderName NULL dans item_message_received.xml");
+                AppLog.e(TAG, "❌ tvSenderName NULL dans item_message_received.xml");
             }
         }
 
         public void bind(Message message) {
             if (message == null) {
-                Log.e(TAG, "⚠️ bind() reçu message NULL (RECEIVED)");
+                AppLog.e(TAG, "⚠️ bind() reçu message NULL (RECEIVED)");
                 return;
             }
 
@@ -208,7 +193,7 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
                 tvTime.setText(formatTime(message.getTimestamp()));
             }
 
-            Log.d(TAG, "✅ Message RECEIVED bindé: " + text);
+            AppLog.d(TAG, "✅ Message RECEIVED bindé: {}", text);
         }
     }
 
@@ -217,7 +202,7 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
     // ==========================
     private static String formatTime(Long timestamp) {
         if (timestamp == null || timestamp == 0) {
-            Log.w(TAG, "⚠️ Timestamp NULL ou 0");
+            AppLog.w(TAG, "⚠️ Timestamp NULL ou 0");
             return "";
         }
 
@@ -226,7 +211,7 @@ public class MessagesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
             SimpleDateFormat sdf = new SimpleDateFormat("HH:mm", Locale.getDefault());
             return sdf.format(date);
         } catch (Exception e) {
-            Log.e(TAG, "❌ Erreur formatTime: " + e.getMessage());
+            AppLog.e(TAG, "❌ Erreur formatTime: {}", e.getMessage());
             return "";
         }
     }
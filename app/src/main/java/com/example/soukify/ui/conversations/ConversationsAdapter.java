@@ -1,7 +1,6 @@
 package com.example.soukify.ui.conversations;
 
 import android.content.Context;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,8 +12,11 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.example.soukify.utils.image.ImageLoader;
 import com.example.soukify.R;
 import com.example.soukify.data.models.Conversation;
+import com.example.soukify.data.profiles.UserProfileCache;
+import com.example.soukify.utils.log.AppLog;
 import com.google.firebase.auth.FirebaseAuth;
 
 import java.util.ArrayList;
@@ -40,7 +42,7 @@ public class ConversationsAdapter
         this.listener = listener;
         this.currentUserId = FirebaseAuth.getInstance().getUid();
 
-        Log.d(TAG, "✅ Adapter créé avec currentUserId: " + currentUserId);
+        AppLog.d(TAG, "✅ Adapter créé avec currentUserId: {}", currentUserId);
     }
 
     @NonNull
@@ -68,7 +70,7 @@ public class ConversationsAdapter
                     ? conversation.getBuyerName()
                     : "Client";
 
-            Log.d(TAG, "👨‍💼 Mode VENDEUR - Affichage client: " + displayName);
+            AppLog.d(TAG, "👨‍💼 Mode VENDEUR - Affichage client: {}", displayName);
 
         } else {
             // 👤 JE SUIS L'ACHETEUR → Afficher le nom de la BOUTIQUE
@@ -76,7 +78,7 @@ public class ConversationsAdapter
                     ? conversation.getShopName()
                     : "Boutique";
 
-            Log.d(TAG, "🛍️ Mode ACHETEUR - Affichage boutique: " + displayName);
+            AppLog.d(TAG, "🛍️ Mode ACHETEUR - Affichage boutique: {}", displayName);
         }
 
         holder.tvName.setText(displayName);
@@ -133,20 +135,31 @@ public class ConversationsAdapter
             imageUrl = conversation.getShopImage();
         }
 
-        Log.d(TAG, "🖼️ Loading image for " + displayName + " | url: " + imageUrl);
+        AppLog.d(TAG, "🖼️ Loading image for {} | url: {}", displayName, imageUrl);
 
+        holder.boundConversationId = conversation.getId();
         if (imageUrl != null && !imageUrl.isEmpty()) {
-            Glide.with(context)
-                    .load(imageUrl)
-                    .placeholder(R.drawable.ic_profile_placeholder)
-                    .error(R.drawable.ic_profile_placeholder)
-                    .circleCrop()
-                    .into(holder.ivShopImage);
+            loadAvatar(holder, imageUrl);
         } else {
-            Log.w(TAG, "⚠️ No image URL for " + displayName + ", using placeholder");
+            AppLog.w(TAG, "⚠️ No image URL for {}, using placeholder", displayName);
             holder.ivShopImage.setImageResource(R.drawable.ic_profile_placeholder);
         }
 
+        // Older conversations were saved without the buyer's name or photo; rows binding together
+        // share one batched read through the profile cache
+        boolean sellerMode = currentUserId != null && currentUserId.equals(conversation.getSellerId());
+        boolean missingBuyerInfo = conversation.getBuyerName() == null
+                || imageUrl == null || imageUrl.isEmpty();
+        if (sellerMode && missingBuyerInfo && conversation.getBuyerId() != null) {
+            String conversationId = conversation.getId();
+            UserProfileCache.get().getProfile(conversation.getBuyerId()).addOnSuccessListener(profile -> {
+                // The holder may have been recycled for another row meanwhile
+                if (conversationId == null || !conversationId.equals(holder.boundConversationId)) return;
+                if (conversation.getBuyerName() == null) holder.tvName.setText(profile.getFullName());
+                if (profile.hasProfileImage()) loadAvatar(holder, profile.getProfileImage());
+            });
+        }
+
         // ==========================
         // Clic
         // ==========================
@@ -157,6 +170,14 @@ public class ConversationsAdapter
         });
     }
 
+    private void loadAvatar(ConversationViewHolder holder, String imageUrl) {
+        ImageLoader.load(Glide.with(context), imageUrl)
+                .placeholder(R.drawable.ic_profile_placeholder)
+                .error(R.drawable.ic_profile_placeholder)
+                .circleCrop()
+                .into(holder.ivShopImage);
+    }
+
     @Override
     public int getItemCount() {
         return conversations != null ? conversations.size() : 0;
@@ -179,6 +200,7 @@ public class ConversationsAdapter
 
         CircleImageView ivShopImage;
         TextView tvName, tvLastMessage, tvTimestamp, tvUnreadBadge;
+        String boundConversationId;
 
         public ConversationViewHolder(@NonNull View itemView) {
             super(itemView);
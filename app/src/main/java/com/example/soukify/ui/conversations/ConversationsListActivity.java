@@ -166,6 +166,7 @@ public class ConversationsListActivity extends AppCompatActivity
             // côté vendeur → afficher le nom et la photo de l'acheteur
             intent.putExtra(ChatActivity.EXTRA_OTHER_USER_NAME, conversation.getBuyerName());
             intent.putExtra(ChatActivity.EXTRA_OTHER_USER_IMAGE, conversation.getBuyerImage());
+            intent.putExtra(ChatActivity.EXTRA_OTHER_USER_ID, conversation.getBuyerId());
         } else {
             // côté client → afficher le nom et la photo du shop
             intent.putExtra(ChatActivity.EXTRA_OTHER_USER_NAME, conversation.getShopName());
@@ -0,0 +1,141 @@
+package com.example.soukify.ui.debug;
+
+import android.app.Activity;
+import android.app.Application;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+import androidx.fragment.app.FragmentManager;
+import androidx.navigation.fragment.NavHostFragment;
+
+import com.example.soukify.data.remote.FirestoreMeter;
+
+import java.util.Locale;
+
+/**
+ * Firestore Usage Overlay - Screen tracking and on-screen counters for {@link FirestoreMeter}
+ *
+ * Every resumed activity, and every top-level or navigation destination fragment, starts a new
+ * screen visit in the meter. When {@code showOverlay} is set, a small label in the corner of each
+ * activity shows the visit's billed reads, cached reads, writes and listener deliveries, refreshed
+ * once per second. Registered from SoukifyApplication only while metering is enabled.
+ */
+public class FirestoreUsageOverlay implements Application.ActivityLifecycleCallbacks {
+    private static final long REFRESH_MS = 1000;
+
+    private final boolean showOverlay;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private TextView label;
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            if (label == null) return;
+            String screen = FirestoreMeter.getCurrentScreen();
+            FirestoreMeter.Usage visit = FirestoreMeter.getVisitUsage(screen);
+            label.setText(String.format(Locale.US, "%s\nR %d  C %d  W %d  L %d",
+                    screen, visit.getReads(), visit.getCachedReads(), visit.getWrites(), visit.getDeliveries()));
+            handler.postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    private final FragmentManager.FragmentLifecycleCallbacks fragmentCallbacks =
+            new FragmentManager.FragmentLifecycleCallbacks() {
+                @Override
+                public void onFragmentResumed(@NonNull FragmentManager fm, @NonNull Fragment fragment) {
+                    if (isScreen(fragment)) {
+                        FirestoreMeter.enterScreen(fragment.getClass().getSimpleName());
+                    }
+                }
+            };
+
+    public FirestoreUsageOverlay(boolean showOverlay) {
+        this.showOverlay = showOverlay;
+    }
+
+    public static void install(Application application, boolean showOverlay) {
+        application.registerActivityLifecycleCallbacks(new FirestoreUsageOverlay(showOverlay));
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+        if (activity instanceof FragmentActivity) {
+            ((FragmentActivity) activity).getSupportFragmentManager()
+                    .registerFragmentLifecycleCallbacks(fragmentCallbacks, true);
+        }
+    }
+
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {
+        // Fragments resume after their activity, so a hosted destination overrides this
+        FirestoreMeter.enterScreen(activity.getClass().getSimpleName());
+        if (!showOverlay) return;
+        label = obtainLabel(activity);
+        handler.removeCallbacks(refresh);
+        handler.post(refresh);
+    }
+
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {
+        handler.removeCallbacks(refresh);
+        label = null;
+    }
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {
+    }
+
+    // Only navigation destinations and fragments directly in an activity count as screens,
+    // not the NavHostFragment itself or children such as pager pages and dialogs' content
+    private static boolean isScreen(Fragment fragment) {
+        if (fragment instanceof NavHostFragment) return false;
+        Fragment parent = fragment.getParentFragment();
+        return parent == null || parent instanceof NavHostFragment;
+    }
+
+    private static TextView obtainLabel(Activity activity) {
+        ViewGroup content = activity.findViewById(android.R.id.content);
+        TextView existing = content.findViewWithTag(FirestoreUsageOverlay.class);
+        if (existing != null) return existing;
+
+        TextView label = new TextView(activity);
+        label.setTag(FirestoreUsageOverlay.class);
+        label.setTextSize(TypedValue.COMPLEX_UNIT_SP, 10);
+        label.setTextColor(Color.WHITE);
+        label.setBackgroundColor(0x99000000);
+        int padding = (int) (4 * activity.getResources().getDisplayMetrics().density);
+        label.setPadding(padding, padding, padding, padding);
+        // Purely informational: never steal touches from the screen underneath
+        label.setClickable(false);
+        label.setFocusable(false);
+
+        FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                Gravity.BOTTOM | Gravity.START);
+        content.addView(label, params);
+        return label;
+    }
+}
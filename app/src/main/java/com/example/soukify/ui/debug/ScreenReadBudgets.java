@@ -0,0 +1,37 @@
+package com.example.soukify.ui.debug;
+
+import com.example.soukify.data.remote.FirestoreMeter;
+
+/**
+ * Screen Read Budgets - Billed Firestore reads a single visit of the busiest screens may need
+ *
+ * Screens are named as {@link FirestoreUsageOverlay} reports them, by class name. A visit going
+ * over its budget is logged with the heaviest call sites, and {@link FirestoreMeter#assertReadBudget}
+ * fails a test on it. Reads served from the cache are free and don't count.
+ */
+public final class ScreenReadBudgets {
+    public static final String HOME = "HomeFragment";
+    public static final String SEARCH = "SearchFragment";
+    public static final String SHOP_HOME = "ShopHomeFragment";
+    public static final String PRODUCT_DETAIL = "ProductDetailFragment";
+    public static final String FAVORITES = "FavoritesFragment";
+
+    // Shops of up to 12 visible map cells
+    public static final long HOME_READS = 300;
+    // The shop catalog plus the product search index, up to 2000 products
+    public static final long SEARCH_READS = 2500;
+    // The shop, its products and their images
+    public static final long SHOP_HOME_READS = 200;
+    public static final long PRODUCT_DETAIL_READS = 50;
+    public static final long FAVORITES_READS = 150;
+
+    private ScreenReadBudgets() {}
+
+    public static void install() {
+        FirestoreMeter.setReadBudget(HOME, HOME_READS);
+        FirestoreMeter.setReadBudget(SEARCH, SEARCH_READS);
+        FirestoreMeter.setReadBudget(SHOP_HOME, SHOP_HOME_READS);
+        FirestoreMeter.setReadBudget(PRODUCT_DETAIL, PRODUCT_DETAIL_READS);
+        FirestoreMeter.setReadBudget(FAVORITES, FAVORITES_READS);
+    }
+}
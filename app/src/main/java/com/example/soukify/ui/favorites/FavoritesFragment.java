@@ -30,6 +30,7 @@ import com.example.soukify.data.repositories.FavoritesTableRepository;
 import com.example.soukify.data.repositories.UserProductPreferencesRepository;
 import com.example.soukify.data.models.ShopModel;
 import com.example.soukify.data.models.ProductModel;
+import com.example.soukify.data.remote.FirestoreMeter;
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
@@ -550,8 +551,7 @@ public class FavoritesFragment extends Fragment implements ShopAdapter.OnShopCli
             args.putString("shopWebsite", shop.getWebsite() != null ? shop.getWebsite() : "");
             args.putString("shopRegionId", shop.getRegionId() != null ? shop.getRegionId() : "");
             args.putString("shopCityId", shop.getCityId() != null ? shop.getCityId() : "");
-            args.putString("shopCreatedAt", shop.getCreatedAtString() != null ? shop.getCreatedAtString() : "");
-            args.putLong("shopCreatedAtTimestamp", shop.getCreatedAtTimestamp() > 0 ? shop.getCreatedAtTimestamp() : System.currentTimeMillis());
+            args.putLong("shopCreatedAtTimestamp", shop.getCreatedAtMillis());
             args.putBoolean("hideDialogs", true); // Flag to hide dialogs and FAB
             
             // Navigate to ShopHomeFragment using Navigation Component
@@ -635,11 +635,11 @@ public class FavoritesFragment extends Fragment implements ShopAdapter.OnShopCli
 
         // Update Firestore
         FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("shops").document(shopModel.getShopId())
+        FirestoreMeter.write("FavoritesFragment.toggleShopLike", db.collection("shops").document(shopModel.getShopId())
                 .update(
                         "likedByUserIds", newLikedUsers,
                         "likesCount", newLikesCount
-                )
+                ))
                 .addOnSuccessListener(aVoid -> {
                     Log.d(TAG, "Firestore update successful for shop: " + shopModel.getName());
                     
@@ -744,7 +744,7 @@ public class FavoritesFragment extends Fragment implements ShopAdapter.OnShopCli
             
             Log.d(TAG, "Current shop state before Firestore query - liked: " + shop.isLiked() + ", likesCount: " + shop.getLikesCount());
             
-            db.collection("shops").document(shop.getShopId()).get()
+            FirestoreMeter.read("FavoritesFragment.shopLikeState", db.collection("shops").document(shop.getShopId()).get())
                 .addOnSuccessListener(document -> {
                     Log.d(TAG, "Firestore document received for shop: " + shop.getName());
                     
@@ -906,7 +906,7 @@ public class FavoritesFragment extends Fragment implements ShopAdapter.OnShopCli
                 if (id == null || shopLikeListeners.containsKey(id)) continue;
 
                 ListenerRegistration reg = db.collection("shops").document(id)
-                        .addSnapshotListener((snapshot, e) -> {
+                        .addSnapshotListener(FirestoreMeter.listener("FavoritesFragment.shopLikes", (snapshot, e) -> {
                             if (e != null || snapshot == null || !snapshot.exists()) return;
                             try {
                                 Object likedObj = snapshot.get("likedByUserIds");
@@ -936,7 +936,7 @@ public class FavoritesFragment extends Fragment implements ShopAdapter.OnShopCli
                             } catch (Exception ex) {
                                 Log.e(TAG, "Error handling realtime like update", ex);
                             }
-                        });
+                        }));
                 shopLikeListeners.put(id, reg);
             }
         } catch (Exception e) {
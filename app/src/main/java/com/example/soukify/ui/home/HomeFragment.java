@@ -2,8 +2,6 @@ package com.example.soukify.ui.home;
 
 import android.Manifest;
 import android.content.pm.PackageManager;
-import android.location.Address;
-import android.location.Geocoder;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -21,15 +19,25 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.app.ActivityCompat;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.navigation.Navigation;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager2.widget.ViewPager2;
 
 import com.example.soukify.MainActivity;
 import com.example.soukify.R;
+import com.example.soukify.data.geo.GeoPlace;
+import com.example.soukify.data.geo.MapTileCache;
+import com.example.soukify.data.geo.MoroccoGazetteer;
+import com.example.soukify.data.geo.OfflineReverseGeocoder;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import org.osmdroid.config.Configuration;
+import org.osmdroid.events.DelayedMapListener;
 import org.osmdroid.events.MapEventsReceiver;
+import org.osmdroid.events.MapListener;
+import org.osmdroid.events.ScrollEvent;
+import org.osmdroid.events.ZoomEvent;
+import org.osmdroid.tileprovider.MapTileProviderBasic;
 import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
 import org.osmdroid.util.BoundingBox;
 import org.osmdroid.util.GeoPoint;
@@ -43,10 +51,8 @@ import org.osmdroid.views.overlay.gestures.RotationGestureOverlay;
 import org.osmdroid.views.overlay.mylocation.GpsMyLocationProvider;
 import org.osmdroid.views.overlay.mylocation.MyLocationNewOverlay;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import android.os.Bundle;
 import android.util.Log;
 public class HomeFragment extends Fragment {
@@ -57,6 +63,8 @@ public class HomeFragment extends Fragment {
     private MapView mapView;
     private MyLocationNewOverlay myLocationOverlay;
     private FloatingActionButton btnGpsLocation;
+    private HomeViewModel homeViewModel;
+    private ShopClusterOverlay shopClusterOverlay;
 
     // Carousel components
     private ViewPager2 imageCarousel;
@@ -71,12 +79,7 @@ public class HomeFragment extends Fragment {
     private Button btnConfirmLocation;
     private String detectedCity = null;
     private GeoPoint detectedLocation = null;
-
-    // Morocco boundaries (approximate)
-    private static final double MOROCCO_NORTH = 36.0;
-    private static final double MOROCCO_SOUTH = 21.0;
-    private static final double MOROCCO_WEST = -17.5;
-    private static final double MOROCCO_EAST = -1.0;
+    private String prefetchedCity = null;
 
     // Major Moroccan cities
     private static final GeoPoint CASABLANCA = new GeoPoint(33.5731, -7.5898);
@@ -93,9 +96,10 @@ public class HomeFragment extends Fragment {
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
 
         View view = inflater.inflate(R.layout.fragment_home, container, false);
+        homeViewModel = new ViewModelProvider(this).get(HomeViewModel.class);
 
-        // Needed for OSMDroid to work correctly
-        Configuration.getInstance().setUserAgentValue(requireContext().getPackageName());
+        // Needed for OSMDroid to work correctly: user agent, cache locations and budgets
+        MapTileCache.configure(requireContext());
 
         // Initialize views
         mapContainer = view.findViewById(R.id.map_container);
@@ -121,6 +125,16 @@ public class HomeFragment extends Fragment {
         return view;
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        // Redraw shop markers when the index changes (one invalidate per delivered batch)
+        homeViewModel.getShopMarkersVersion().observe(getViewLifecycleOwner(), version -> {
+            if (mapView != null) mapView.invalidate();
+        });
+    }
+
     private void setupCarousel() {
         // Create carousel adapter with logo as first image + Moroccan images
         CarouselAdapter adapter = new CarouselAdapter(getCarouselImages());
@@ -230,17 +244,17 @@ public class HomeFragment extends Fragment {
         mapView.setMaxZoomLevel(18.0);
 
         // Limit map scrolling to Morocco boundaries
-        BoundingBox moroccoBounds = new BoundingBox(
-                MOROCCO_NORTH,  // North
-                MOROCCO_EAST,   // East
-                MOROCCO_SOUTH,  // South
-                MOROCCO_WEST    // West
-        );
-        mapView.setScrollableAreaLimitDouble(moroccoBounds);
+        mapView.setScrollableAreaLimitDouble(MapTileCache.moroccoBounds());
+
+        // Offline tiles: bundled packs first; the seed and the area prefetch only run on tile sources allowing bulk downloads
+        setupOfflineTiles();
 
         // Add markers for major Moroccan cities
         addCityMarkers();
 
+        // Clustered shop markers
+        addShopMarkersLayer();
+
         // ADD MAP CLICK LISTENER - Click anywhere on map to get coordinates
         MapEventsReceiver mapEventsReceiver = new MapEventsReceiver() {
             @Override
@@ -291,6 +305,23 @@ public class HomeFragment extends Fragment {
         mapView.getOverlays().add(myLocationOverlay);
     }
 
+    private void setupOfflineTiles() {
+        MapTileCache.installBundledArchives(requireContext(), () -> {
+            // A pack was just installed: recreate the provider so it scans the new archive
+            if (mapView == null || !isAdded()) return;
+            mapView.setTileProvider(new MapTileProviderBasic(requireContext().getApplicationContext(),
+                    TileSourceFactory.MAPNIK));
+            mapView.invalidate();
+        });
+        MapTileCache.seedCountryOnce(mapView);
+
+        android.content.SharedPreferences prefs = requireContext()
+                .getSharedPreferences("safe_city_prefs", android.content.Context.MODE_PRIVATE);
+        if (prefs.contains("last_lat") && prefs.contains("last_lng")) {
+            MapTileCache.prefetchAround(mapView, prefs.getFloat("last_lat", 0f), prefs.getFloat("last_lng", 0f));
+        }
+    }
+
     // NEW METHOD: Handle map click
     private void onMapClick(GeoPoint clickedPoint) {
         Toast.makeText(requireContext(), getString(R.string.getting_location_info), Toast.LENGTH_SHORT).show();
@@ -314,6 +345,42 @@ public class HomeFragment extends Fragment {
         addCityMarker(getString(R.string.city_meknes), MEKNES);
     }
 
+    private void addShopMarkersLayer() {
+        shopClusterOverlay = new ShopClusterOverlay(requireContext(), homeViewModel.getShopClusterIndex());
+        shopClusterOverlay.setOnShopClickListener(this::openShop);
+        mapView.getOverlays().add(shopClusterOverlay);
+
+        // Only the visible area's shops are listened to: follow the map once it settles
+        mapView.addMapListener(new DelayedMapListener(new MapListener() {
+            @Override
+            public boolean onScroll(ScrollEvent event) {
+                updateVisibleShops();
+                return false;
+            }
+
+            @Override
+            public boolean onZoom(ZoomEvent event) {
+                updateVisibleShops();
+                return false;
+            }
+        }, 400));
+        mapView.addOnFirstLayoutListener((v, left, top, right, bottom) -> updateVisibleShops());
+    }
+
+    private void updateVisibleShops() {
+        if (mapView == null || !isAdded()) return;
+        BoundingBox box = mapView.getBoundingBox();
+        homeViewModel.setVisibleArea(box.getLatNorth(), box.getLonEast(), box.getLatSouth(), box.getLonWest());
+    }
+
+    private void openShop(String shopId) {
+        if (!isAdded() || getView() == null) return;
+        Bundle args = new Bundle();
+        args.putString("shopId", shopId);
+        args.putBoolean("hideDialogs", true);
+        Navigation.findNavController(requireView()).navigate(R.id.shopHomeFragment, args);
+    }
+
     private void addCityMarker(String cityName, GeoPoint location) {
         Marker marker = new Marker(mapView);
         marker.setPosition(location);
@@ -429,80 +496,24 @@ public class HomeFragment extends Fragment {
     }
 
     private void getCityNameFromLocation(GeoPoint location) {
-        // Use Geocoder to get city name from coordinates
-        new Thread(() -> {
-            try {
-                Geocoder geocoder = new Geocoder(requireContext(), Locale.getDefault());
-                List<Address> addresses = geocoder.getFromLocation(
-                        location.getLatitude(),
-                        location.getLongitude(),
-                        1
-                );
-
-                if (addresses != null && !addresses.isEmpty()) {
-                    Address address = addresses.get(0);
-                    String cityName = address.getLocality(); // City name
-
-                    if (cityName == null || cityName.isEmpty()) {
-                        cityName = address.getSubAdminArea(); // Try sub-admin area
-                    }
-
-                    if (cityName == null || cityName.isEmpty()) {
-                        cityName = address.getAdminArea(); // Try admin area (region)
-                    }
-
-                    // If we got a city name, show it
-                    if (cityName != null && !cityName.isEmpty()) {
-                        String finalCityName = cityName;
-                        requireActivity().runOnUiThread(() -> {
-                            showLocationConfirmation(finalCityName, location);
-                        });
-                    } else {
-                        // Fallback to nearest major city
-                        requireActivity().runOnUiThread(() -> {
-                            String nearestCity = findNearestCity(location);
-                            showLocationConfirmation(nearestCity, location);
-                        });
+        // Resolve offline against the bundled gazetteer - instant and works without network
+        OfflineReverseGeocoder.Result result = OfflineReverseGeocoder.getInstance()
+                .resolve(location.getLatitude(), location.getLongitude());
+        if (result == null) return;
+
+        showLocationConfirmation(result.getCityName(), location);
+
+        // Optional refinement: only accept a network locality we also know offline,
+        // so the confirmed name keeps matching the city stored on shops
+        OfflineReverseGeocoder.getInstance().refineWithNetwork(requireContext(),
+                location.getLatitude(), location.getLongitude(), localityName -> {
+                    if (!isAdded() || location != detectedLocation) return;
+                    GeoPlace refined = MoroccoGazetteer.findByCityName(localityName);
+                    if (refined != null && !refined.getCityName().equals(detectedCity)) {
+                        detectedCity = refined.getCityName();
+                        selectedCityText.setText(detectedCity);
                     }
-                } else {
-                    // No address found, use nearest major city
-                    requireActivity().runOnUiThread(() -> {
-                        String nearestCity = findNearestCity(location);
-                        showLocationConfirmation(nearestCity, location);
-                    });
-                }
-
-            } catch (IOException e) {
-                e.printStackTrace();
-                // Error with geocoding, fallback to nearest major city
-                requireActivity().runOnUiThread(() -> {
-                    String nearestCity = findNearestCity(location);
-                    showLocationConfirmation(nearestCity, location);
                 });
-            }
-        }).start();
-    }
-
-    private String findNearestCity(GeoPoint userLocation) {
-        int[] cityResIds = {
-                R.string.city_casablanca, R.string.city_rabat, R.string.city_marrakech,
-                R.string.city_fes, R.string.city_tangier, R.string.city_agadir,
-                R.string.city_oujda, R.string.city_meknes
-        };
-        GeoPoint[] cityLocations = {CASABLANCA, RABAT, MARRAKECH, FES, TANGIER, AGADIR, OUJDA, MEKNES};
-
-        int nearestIndex = 0;
-        double minDistance = Double.MAX_VALUE;
-
-        for (int i = 0; i < cityResIds.length; i++) {
-            double distance = userLocation.distanceToAsDouble(cityLocations[i]);
-            if (distance < minDistance) {
-                minDistance = distance;
-                nearestIndex = i;
-            }
-        }
-
-        return getString(cityResIds[nearestIndex]);
     }
 
     private void showLocationConfirmation(String cityName, GeoPoint location) {
@@ -527,6 +538,12 @@ public class HomeFragment extends Fragment {
 
         // Add a marker at detected location
         addDetectedLocationMarker(cityName, location);
+
+        // Warm the tile cache around the newly selected city
+        if (!cityName.equals(prefetchedCity)) {
+            prefetchedCity = cityName;
+            MapTileCache.prefetchAround(mapView, location.getLatitude(), location.getLongitude());
+        }
     }
 
     private void addDetectedLocationMarker(String cityName, GeoPoint location) {
@@ -4,15 +4,55 @@ import android.app.Application;
 
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
 
+import com.example.soukify.data.geo.GeoHash;
+import com.example.soukify.data.geo.ShopLocator;
+import com.example.soukify.data.models.ShopModel;
 import com.example.soukify.data.repositories.SessionRepository;
+import com.example.soukify.data.repositories.ShopRepository;
+import com.example.soukify.utils.concurrent.AppExecutors;
+import com.example.soukify.utils.concurrent.InstrumentedExecutor;
+import com.example.soukify.utils.concurrent.TaskScope;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class HomeViewModel extends AndroidViewModel {
+    // Grid cell size used for marker clustering, in dp
+    private static final float CLUSTER_CELL_DP = 64f;
+    // The visible area is covered by at most this many geohash cells, one listener each
+    private static final int MAX_SHOP_CELLS = 12;
+    private static final int MAX_SHOP_CELL_PRECISION = 6;
+
     private final SessionRepository sessionRepository;
+    private final ShopRepository shopRepository;
+    private final ShopClusterIndex shopClusterIndex;
+    private final MutableLiveData<Integer> shopMarkersVersion = new MutableLiveData<>();
+    // Main thread: geohash cell -> listener of its shops
+    private final Map<String, ListenerRegistration> cellListeners = new HashMap<>();
+    // Deltas of every cell are applied on one lane, so cells never race on the index
+    private final Executor markersLane = AppExecutors.get().serial("HomeViewModel.shopMarkers");
+    // Lane-confined: geohash cell -> ids of its shops in the index
+    private final Map<String, Set<String>> shopsByCell = new HashMap<>();
+
+    // Index rebuilds belong to this ViewModel and are dropped when it is cleared
+    private final TaskScope indexScope = new TaskScope(AppExecutors.get().cpu(), InstrumentedExecutor.Priority.BACKGROUND);
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
 
     public HomeViewModel(Application application) {
         super(application);
         sessionRepository = SessionRepository.getInstance(application);
+        shopRepository = new ShopRepository(application);
+        float density = application.getResources().getDisplayMetrics().density;
+        shopClusterIndex = new ShopClusterIndex(CLUSTER_CELL_DP * density);
     }
 
     public LiveData<String> getCurrentUserId() {
@@ -34,4 +74,106 @@ public class HomeViewModel extends AndroidViewModel {
     public void logout() {
         sessionRepository.logout();
     }
-}
\ No newline at end of file
+
+    public ShopClusterIndex getShopClusterIndex() {
+        return shopClusterIndex;
+    }
+
+    /**
+     * Bumped every time the shop markers changed and the map should redraw
+     */
+    public LiveData<Integer> getShopMarkersVersion() {
+        return shopMarkersVersion;
+    }
+
+    /**
+     * Show the shops of the visible area: they are listened to per geohash cell covering it. Cells
+     * that still cover the area keep their listener; the others are removed along with their
+     * shops. Kept alive across configuration changes; stopped in onCleared. Main thread only.
+     */
+    public void setVisibleArea(double north, double east, double south, double west) {
+        Set<String> cells = GeoHash.cover(north, east, south, west, MAX_SHOP_CELLS, MAX_SHOP_CELL_PRECISION);
+        Iterator<Map.Entry<String, ListenerRegistration>> active = cellListeners.entrySet().iterator();
+        while (active.hasNext()) {
+            Map.Entry<String, ListenerRegistration> entry = active.next();
+            if (cells.contains(entry.getKey())) continue;
+            // No callback runs after remove(), so dropping the cell's shops afterwards is final
+            entry.getValue().remove();
+            active.remove();
+            String cell = entry.getKey();
+            markersLane.execute(() -> dropCell(cell));
+        }
+        for (String cell : cells) {
+            if (cellListeners.containsKey(cell)) continue;
+            cellListeners.put(cell, shopRepository.listenToShopChanges(cell, markersLane,
+                    (upserted, removedIds) -> applyCellChanges(cell, upserted, removedIds)));
+        }
+    }
+
+    // Lane only
+    private void applyCellChanges(String cell, List<ShopModel> upserted, List<String> removedIds) {
+        Set<String> cellShops = shopsByCell.get(cell);
+        if (cellShops == null) {
+            cellShops = new HashSet<>();
+            shopsByCell.put(cell, cellShops);
+        }
+        boolean changed = false;
+        for (String shopId : removedIds) {
+            cellShops.remove(shopId);
+            changed |= removeIfUnlisted(shopId);
+        }
+        for (ShopModel shop : upserted) {
+            if (shop.getShopId() == null) continue;
+            double[] position = ShopLocator.locate(shop);
+            if (position != null) {
+                cellShops.add(shop.getShopId());
+                changed |= shopClusterIndex.upsert(shop.getShopId(), position[0], position[1]);
+            } else {
+                cellShops.remove(shop.getShopId());
+                changed |= removeIfUnlisted(shop.getShopId());
+            }
+        }
+        if (changed) scheduleIndexRebuild();
+    }
+
+    // Lane only
+    private void dropCell(String cell) {
+        Set<String> cellShops = shopsByCell.remove(cell);
+        if (cellShops == null) return;
+        boolean changed = false;
+        for (String shopId : cellShops) {
+            changed |= removeIfUnlisted(shopId);
+        }
+        if (changed) scheduleIndexRebuild();
+    }
+
+    // Lane only: a shop that moved between two active cells may be reported by both
+    private boolean removeIfUnlisted(String shopId) {
+        for (Set<String> cellShops : shopsByCell.values()) {
+            if (cellShops.contains(shopId)) return false;
+        }
+        return shopClusterIndex.remove(shopId);
+    }
+
+    /**
+     * Pay for grid construction off the main thread, not in draw(). Bursts of deltas share one rebuild.
+     */
+    private void scheduleIndexRebuild() {
+        if (!rebuildPending.compareAndSet(false, true)) return;
+        indexScope.launch(() -> {
+            rebuildPending.set(false);
+            shopClusterIndex.prebuildLevels();
+            shopMarkersVersion.postValue(shopClusterIndex.getVersion());
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        indexScope.cancelAll();
+        for (ListenerRegistration registration : cellListeners.values()) {
+            registration.remove();
+        }
+        cellListeners.clear();
+    }
+}
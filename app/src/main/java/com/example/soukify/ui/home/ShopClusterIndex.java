@@ -0,0 +1,328 @@
+package com.example.soukify.ui.home;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shop Cluster Index - Zoom-dependent grid clustering of shop positions
+ * Positions are stored in normalized Web Mercator space [0..1]. Up to BASE_ZOOM the world is cut
+ * into cells of a fixed pixel size per integer zoom level and each cell keeps a running count and
+ * centroid, so adding or removing a shop only touches one cell per built level. The BASE_ZOOM level
+ * also keeps its members and doubles as a spatial hash: deeper zooms are clustered on the fly from
+ * the few base cells inside the viewport instead of materializing a grid per level.
+ */
+public class ShopClusterIndex {
+
+    public static final int MAX_ZOOM = 18;
+    private static final int BASE_ZOOM = 12;
+    private static final int TILE_SIZE = 256;
+
+    private final double cellSizePx;
+    private final Map<String, ShopPoint> points = new HashMap<>();
+    private final Level[] levels = new Level[BASE_ZOOM + 1];
+    private int version;
+
+    // Scratch state for zooms deeper than BASE_ZOOM, reused between queries
+    private final HashMap<Long, Cell> detailCells = new HashMap<>();
+    private final ArrayList<Cell> cellPool = new ArrayList<>();
+    private int cellPoolUsed;
+
+    static final class ShopPoint {
+        final String shopId;
+        final double x;
+        final double y;
+
+        ShopPoint(String shopId, double x, double y) {
+            this.shopId = shopId;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private static final class Cell {
+        int count;
+        double sumX;
+        double sumY;
+        String sampleId;
+        ArrayList<ShopPoint> members;
+
+        void reset() {
+            count = 0;
+            sumX = 0;
+            sumY = 0;
+            sampleId = null;
+        }
+    }
+
+    private static final class Level {
+        final double cellsPerAxis;
+        final boolean keepMembers;
+        final HashMap<Long, Cell> cells = new HashMap<>();
+
+        Level(double cellsPerAxis, boolean keepMembers) {
+            this.cellsPerAxis = cellsPerAxis;
+            this.keepMembers = keepMembers;
+        }
+    }
+
+    /**
+     * Reusable output of {@link #query}; arrays grow as needed and are never shrunk
+     */
+    public static final class Clusters {
+        public int size;
+        public double[] x = new double[64];
+        public double[] y = new double[64];
+        public int[] count = new int[64];
+        public String[] shopId = new String[64];
+
+        void clear() {
+            size = 0;
+        }
+
+        void add(double cx, double cy, int n, String id) {
+            if (size == x.length) {
+                int newLength = size * 2;
+                x = Arrays.copyOf(x, newLength);
+                y = Arrays.copyOf(y, newLength);
+                count = Arrays.copyOf(count, newLength);
+                shopId = Arrays.copyOf(shopId, newLength);
+            }
+            x[size] = cx;
+            y[size] = cy;
+            count[size] = n;
+            shopId[size] = id;
+            size++;
+        }
+    }
+
+    public ShopClusterIndex(double cellSizePx) {
+        this.cellSizePx = cellSizePx;
+    }
+
+    /**
+     * Add or move a shop. Returns true when the clustering changed.
+     */
+    public synchronized boolean upsert(String shopId, double latitude, double longitude) {
+        double x = toMercatorX(longitude);
+        double y = toMercatorY(latitude);
+        ShopPoint existing = points.get(shopId);
+        if (existing != null) {
+            if (existing.x == x && existing.y == y) return false;
+            removeFromLevels(existing);
+        }
+        ShopPoint point = new ShopPoint(shopId, x, y);
+        points.put(shopId, point);
+        for (Level level : levels) {
+            if (level != null) addToLevel(level, point);
+        }
+        version++;
+        return true;
+    }
+
+    /**
+     * Remove a shop. Returns true when it was indexed.
+     */
+    public synchronized boolean remove(String shopId) {
+        ShopPoint existing = points.remove(shopId);
+        if (existing == null) return false;
+        removeFromLevels(existing);
+        version++;
+        return true;
+    }
+
+    public synchronized void clear() {
+        points.clear();
+        for (int i = 0; i < levels.length; i++) levels[i] = null;
+        version++;
+    }
+
+    public synchronized int size() {
+        return points.size();
+    }
+
+    public synchronized int getVersion() {
+        return version;
+    }
+
+    /**
+     * Build the grid levels ahead of time, off the main thread, so the first frame at a zoom level
+     * doesn't pay for it
+     */
+    public synchronized void prebuildLevels() {
+        for (int zoom = 0; zoom <= BASE_ZOOM; zoom++) {
+            getLevel(zoom);
+        }
+    }
+
+    /**
+     * Collect the clusters whose cell intersects the given normalized Mercator rectangle
+     */
+    public synchronized void query(int zoom, double minX, double minY, double maxX, double maxY, Clusters out) {
+        out.clear();
+        if (points.isEmpty()) return;
+        zoom = Math.max(0, Math.min(MAX_ZOOM, zoom));
+        if (zoom <= BASE_ZOOM) {
+            Level level = getLevel(zoom);
+            forEachCellInRange(level, minX, minY, maxX, maxY, cell -> emit(cell, out));
+            return;
+        }
+
+        // Deeper than the base grid: re-cluster the members of the visible base cells
+        double cellsPerAxis = cellsPerAxis(zoom);
+        detailCells.clear();
+        cellPoolUsed = 0;
+        forEachCellInRange(getLevel(BASE_ZOOM), minX, minY, maxX, maxY, baseCell -> {
+            for (ShopPoint point : baseCell.members) {
+                if (point.x < minX || point.x > maxX || point.y < minY || point.y > maxY) continue;
+                long key = key((long) Math.floor(point.x * cellsPerAxis), (long) Math.floor(point.y * cellsPerAxis));
+                Cell cell = detailCells.get(key);
+                if (cell == null) {
+                    cell = obtainCell();
+                    detailCells.put(key, cell);
+                }
+                cell.count++;
+                cell.sumX += point.x;
+                cell.sumY += point.y;
+                if (cell.sampleId == null) cell.sampleId = point.shopId;
+            }
+        });
+        for (Cell cell : detailCells.values()) {
+            emit(cell, out);
+        }
+    }
+
+    private interface CellVisitor {
+        void visit(Cell cell);
+    }
+
+    private void forEachCellInRange(Level level, double minX, double minY, double maxX, double maxY, CellVisitor visitor) {
+        long fromX = (long) Math.floor(clamp01(minX) * level.cellsPerAxis);
+        long toX = (long) Math.floor(clamp01(maxX) * level.cellsPerAxis);
+        long fromY = (long) Math.floor(clamp01(minY) * level.cellsPerAxis);
+        long toY = (long) Math.floor(clamp01(maxY) * level.cellsPerAxis);
+
+        long visibleCells = (toX - fromX + 1) * (toY - fromY + 1);
+        if (visibleCells > level.cells.size()) {
+            // Sparse level (or zoomed far out): walking the occupied cells is cheaper
+            for (Map.Entry<Long, Cell> entry : level.cells.entrySet()) {
+                long key = entry.getKey();
+                long cx = key >>> 32;
+                long cy = key & 0xFFFFFFFFL;
+                if (cx < fromX || cx > toX || cy < fromY || cy > toY) continue;
+                visitor.visit(entry.getValue());
+            }
+        } else {
+            for (long cx = fromX; cx <= toX; cx++) {
+                for (long cy = fromY; cy <= toY; cy++) {
+                    Cell cell = level.cells.get(key(cx, cy));
+                    if (cell != null) visitor.visit(cell);
+                }
+            }
+        }
+    }
+
+    private Cell obtainCell() {
+        Cell cell;
+        if (cellPoolUsed < cellPool.size()) {
+            cell = cellPool.get(cellPoolUsed);
+            cell.reset();
+        } else {
+            cell = new Cell();
+            cellPool.add(cell);
+        }
+        cellPoolUsed++;
+        return cell;
+    }
+
+    private void emit(Cell cell, Clusters out) {
+        out.add(cell.sumX / cell.count, cell.sumY / cell.count, cell.count, cell.count == 1 ? cell.sampleId : null);
+    }
+
+    private Level getLevel(int zoom) {
+        Level level = levels[zoom];
+        if (level == null) {
+            level = new Level(cellsPerAxis(zoom), zoom == BASE_ZOOM);
+            for (ShopPoint point : points.values()) {
+                addToLevel(level, point);
+            }
+            levels[zoom] = level;
+        }
+        return level;
+    }
+
+    private void addToLevel(Level level, ShopPoint point) {
+        long key = cellKey(level, point);
+        Cell cell = level.cells.get(key);
+        if (cell == null) {
+            cell = new Cell();
+            level.cells.put(key, cell);
+        }
+        cell.count++;
+        cell.sumX += point.x;
+        cell.sumY += point.y;
+        if (cell.sampleId == null) cell.sampleId = point.shopId;
+        if (level.keepMembers) {
+            if (cell.members == null) cell.members = new ArrayList<>(4);
+            cell.members.add(point);
+        }
+    }
+
+    private double cellsPerAxis(int zoom) {
+        return TILE_SIZE * Math.pow(2, zoom) / cellSizePx;
+    }
+
+    private void removeFromLevels(ShopPoint point) {
+        for (int i = 0; i < levels.length; i++) {
+            Level level = levels[i];
+            if (level == null) continue;
+            long key = cellKey(level, point);
+            Cell cell = level.cells.get(key);
+            if (cell == null) continue;
+            cell.count--;
+            if (cell.count <= 0) {
+                level.cells.remove(key);
+                continue;
+            }
+            cell.sumX -= point.x;
+            cell.sumY -= point.y;
+            if (level.keepMembers) {
+                cell.members.remove(point);
+                cell.sampleId = cell.members.get(0).shopId;
+            } else if (point.shopId.equals(cell.sampleId)) {
+                // The representative left a shared cell; rebuild this level lazily
+                levels[i] = null;
+            }
+        }
+    }
+
+    private static long cellKey(Level level, ShopPoint point) {
+        return key((long) Math.floor(point.x * level.cellsPerAxis), (long) Math.floor(point.y * level.cellsPerAxis));
+    }
+
+    private static long key(long cx, long cy) {
+        return (cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private static double clamp01(double v) {
+        return v < 0 ? 0 : (v >= 1 ? 0.999999999 : v);
+    }
+
+    public static double toMercatorX(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    public static double toMercatorY(double latitude) {
+        double sin = Math.sin(Math.toRadians(latitude));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    public static double toLongitude(double x) {
+        return x * 360.0 - 180.0;
+    }
+
+    public static double toLatitude(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+}
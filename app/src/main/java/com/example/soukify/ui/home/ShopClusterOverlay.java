@@ -0,0 +1,181 @@
+package com.example.soukify.ui.home;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Point;
+import android.util.LruCache;
+import android.view.MotionEvent;
+
+import androidx.core.content.ContextCompat;
+
+import com.example.soukify.R;
+
+import org.osmdroid.util.BoundingBox;
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.Overlay;
+
+/**
+ * Shop Cluster Overlay - Draws the shops of a ShopClusterIndex as clustered markers
+ * Only cells inside the viewport are queried, marker bitmaps are rendered once per size bucket
+ * and reused, and no objects are allocated per frame.
+ */
+public class ShopClusterOverlay extends Overlay {
+
+    public interface OnShopClickListener {
+        void onShopClick(String shopId);
+    }
+
+    private static final int[] BUCKETS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 25, 50, 100, 250, 500, 1000, 5000, 10000};
+
+    private final ShopClusterIndex index;
+    private final float density;
+    private final int markerColor;
+    private final LruCache<Integer, Bitmap> bitmapCache = new LruCache<>(BUCKETS.length);
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    // Reused between frames
+    private final ShopClusterIndex.Clusters clusters = new ShopClusterIndex.Clusters();
+    private final GeoPoint scratchGeoPoint = new GeoPoint(0.0, 0.0);
+    private final Point scratchPoint = new Point();
+    private int[] drawnX = new int[64];
+    private int[] drawnY = new int[64];
+    private int[] drawnRadius = new int[64];
+    private int drawnCount;
+
+    private OnShopClickListener onShopClickListener;
+
+    public ShopClusterOverlay(Context context, ShopClusterIndex index) {
+        this.index = index;
+        this.density = context.getResources().getDisplayMetrics().density;
+        this.markerColor = ContextCompat.getColor(context, R.color.accent);
+    }
+
+    public void setOnShopClickListener(OnShopClickListener listener) {
+        this.onShopClickListener = listener;
+    }
+
+    @Override
+    public void draw(Canvas canvas, MapView mapView, boolean shadow) {
+        if (shadow || !isEnabled()) return;
+
+        Projection projection = mapView.getProjection();
+        BoundingBox box = projection.getBoundingBox();
+        int zoom = (int) Math.floor(projection.getZoomLevel());
+
+        // Pad the viewport a little so markers straddling the edge don't pop
+        double padX = (box.getLonEast() - box.getLonWest()) * 0.1;
+        double padY = (box.getLatNorth() - box.getLatSouth()) * 0.1;
+        index.query(zoom,
+                ShopClusterIndex.toMercatorX(box.getLonWest() - padX),
+                ShopClusterIndex.toMercatorY(Math.min(85.0, box.getLatNorth() + padY)),
+                ShopClusterIndex.toMercatorX(box.getLonEast() + padX),
+                ShopClusterIndex.toMercatorY(Math.max(-85.0, box.getLatSouth() - padY)),
+                clusters);
+
+        ensureDrawnCapacity(clusters.size);
+        drawnCount = 0;
+        for (int i = 0; i < clusters.size; i++) {
+            scratchGeoPoint.setCoords(ShopClusterIndex.toLatitude(clusters.y[i]),
+                    ShopClusterIndex.toLongitude(clusters.x[i]));
+            projection.toPixels(scratchGeoPoint, scratchPoint);
+
+            Bitmap bitmap = getMarkerBitmap(clusters.count[i]);
+            int half = bitmap.getWidth() / 2;
+            canvas.drawBitmap(bitmap, scratchPoint.x - half, scratchPoint.y - half, bitmapPaint);
+
+            drawnX[drawnCount] = scratchPoint.x;
+            drawnY[drawnCount] = scratchPoint.y;
+            drawnRadius[drawnCount] = half;
+            drawnCount++;
+        }
+    }
+
+    @Override
+    public boolean onSingleTapConfirmed(MotionEvent e, MapView mapView) {
+        // Topmost (last drawn) marker wins
+        for (int i = drawnCount - 1; i >= 0; i--) {
+            float dx = e.getX() - drawnX[i];
+            float dy = e.getY() - drawnY[i];
+            float r = drawnRadius[i] + 8 * density;
+            if (dx * dx + dy * dy > r * r) continue;
+            if (i >= clusters.size) return false;
+
+            if (clusters.count[i] == 1 && clusters.shopId[i] != null) {
+                if (onShopClickListener != null) onShopClickListener.onShopClick(clusters.shopId[i]);
+            } else {
+                GeoPoint center = new GeoPoint(ShopClusterIndex.toLatitude(clusters.y[i]),
+                        ShopClusterIndex.toLongitude(clusters.x[i]));
+                double targetZoom = Math.min(mapView.getMaxZoomLevel(), mapView.getZoomLevelDouble() + 2);
+                mapView.getController().animateTo(center, targetZoom, 600L);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void onDetach(MapView mapView) {
+        bitmapCache.evictAll();
+        super.onDetach(mapView);
+    }
+
+    private void ensureDrawnCapacity(int size) {
+        if (drawnX.length >= size) return;
+        int newLength = Math.max(size, drawnX.length * 2);
+        drawnX = new int[newLength];
+        drawnY = new int[newLength];
+        drawnRadius = new int[newLength];
+    }
+
+    private Bitmap getMarkerBitmap(int count) {
+        int bucket = 0;
+        for (int i = BUCKETS.length - 1; i >= 0; i--) {
+            if (count >= BUCKETS[i]) {
+                bucket = i;
+                break;
+            }
+        }
+        Bitmap bitmap = bitmapCache.get(bucket);
+        if (bitmap == null) {
+            bitmap = renderMarker(bucket);
+            bitmapCache.put(bucket, bitmap);
+        }
+        return bitmap;
+    }
+
+    private Bitmap renderMarker(int bucket) {
+        int value = BUCKETS[bucket];
+        boolean single = value == 1;
+        float radius = (single ? 7 : 13 + Math.min(bucket, 12)) * density;
+        int size = (int) Math.ceil(radius * 2 + 4 * density);
+
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        float c = size / 2f;
+
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(Color.WHITE);
+        canvas.drawCircle(c, c, radius + 2 * density, paint);
+        paint.setColor(markerColor);
+        if (!single) paint.setAlpha(230);
+        canvas.drawCircle(c, c, radius, paint);
+
+        if (!single) {
+            String label = value < 10 ? String.valueOf(value)
+                    : (value >= 1000 ? (value / 1000) + "k+" : value + "+");
+            Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            textPaint.setColor(Color.WHITE);
+            textPaint.setTextAlign(Paint.Align.CENTER);
+            textPaint.setFakeBoldText(true);
+            textPaint.setTextSize(radius * 0.8f);
+            float baseline = c - (textPaint.descent() + textPaint.ascent()) / 2;
+            canvas.drawText(label, c, baseline, textPaint);
+        }
+        return bitmap;
+    }
+}
@@ -28,29 +28,46 @@ import androidx.navigation.Navigation;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 import com.example.soukify.R;
+import com.example.soukify.data.counters.ImpressionPipeline;
+import com.example.soukify.data.geo.ShopLocator;
 import com.example.soukify.data.remote.FirebaseManager;
 import com.example.soukify.data.remote.firebase.FirebaseShopService;
+import com.example.soukify.data.remote.firebase.FirebaseTrendingService;
 import com.example.soukify.data.repositories.FavoritesTableRepository;
+import com.example.soukify.data.repositories.ProductRepository;
+import com.example.soukify.data.search.ProductQuery;
+import com.example.soukify.data.search.ProductSearchResult;
+import com.example.soukify.data.search.SearchSuggestions;
 import com.example.soukify.data.models.ShopModel;
+import com.example.soukify.data.trending.TrendingEvent;
+import com.example.soukify.data.trending.TrendingTracker;
 import com.example.soukify.ui.chat.ChatActivity;
 import com.example.soukify.ui.conversations.ConversationsListActivity;
 import com.example.soukify.ui.shop.ShopHomeFragment;
+import com.example.soukify.utils.concurrent.AppExecutors;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
 public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickListener {
 
+    private static final int SHOP_IMAGE_PRELOAD_COUNT = 6;
+    private static final int TRENDING_LIMIT = 20;
+
     private EditText searchInput;
     private RecyclerView recyclerViewShops;
     private ProgressBar progressBar;
@@ -59,33 +76,44 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
     private LinearLayout catTapis, catFood, catPotterie, catTraditionalWear, catLeatherCrafts, catHerbs,
             catJwellery, catMetal, catDraws, catWood;
 
-    private Button btnPromotions, btnObjectType, btnSortBy, btnTopRated, btnTrend;
+    private Button btnPromotions, btnObjectType, btnSortBy, btnTopRated, btnTrend, btnOpenNow;
 
     private ShopAdapter shopAdapter;
-    private final List<ShopModel> allShops = new ArrayList<>();
+    // The adapter's list; only catalog modifies it
     private final List<ShopModel> filteredShops = new ArrayList<>();
+    private ShopCatalogStore catalog;
     private String selectedCategory = "ALL";
     private String selectedCity = null;
 
     private FirebaseShopService shopService;
+    private FirebaseTrendingService trendingService;
     private FavoritesTableRepository favoritesRepository;
+    private ProductRepository productRepository;
     private final List<String> favoriteShopIds = new ArrayList<>();
 
     private ListView suggestionsList;
     private ArrayAdapter<String> suggestionsAdapter;
     private List<String> suggestions = new ArrayList<>();
+    private static final int MAX_SUGGESTIONS = 6;
+    private SearchSuggestions searchSuggestions;
     private Handler searchHandler = new Handler(Looper.getMainLooper());
     private Runnable searchRunnable;
+    // Only the product matches of the latest query are applied
+    private int productSearchGeneration;
+    // Shops matching the text in the search box; ALL when it is empty
+    private Predicate<ShopModel> searchFilter = ShopCatalogStore.ALL;
 
     private boolean shopsLoaded = false;
     private boolean favoritesLoaded = false;
     private com.google.firebase.firestore.ListenerRegistration shopsListener;
+    private int shopsListenerGeneration;
     private TextView textViewNotFound;
 
     // City name -> list of cityIds mapping (normalized names as keys)
     private final java.util.Map<String, java.util.List<String>> cityNameToIds = new java.util.HashMap<>();
     private boolean cityMapLoaded = false;
-    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    // The visible list waits on this parsing, so it jumps queued background work
+    private final Executor executor = AppExecutors.get().cpu().foreground();
 
     // Variable de classe pour garder l'état du tri actuel
     private boolean isSortedByRecent = true;
@@ -99,7 +127,10 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
 
         FirebaseManager firebaseManager = FirebaseManager.getInstance(requireActivity().getApplication());
         shopService = new FirebaseShopService(firebaseManager.getFirestore());
+        trendingService = new FirebaseTrendingService(firebaseManager.getFirestore());
         favoritesRepository = FavoritesTableRepository.getInstance(requireActivity().getApplication());
+        productRepository = ProductRepository.getInstance(requireActivity().getApplication());
+        searchSuggestions = SearchSuggestions.getInstance(requireContext());
 
         initViews(view);
 
@@ -166,6 +197,7 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
         btnObjectType = view.findViewById(R.id.btnLiv);
         btnTrend = view.findViewById(R.id.btntrend);
         btnTopRated = view.findViewById(R.id.btn_top_rated);
+        btnOpenNow = view.findViewById(R.id.btn_open_now);
 
         if (btnObjectType != null) {
             btnObjectType.setOnClickListener(v -> filterByLivraison());
@@ -186,6 +218,13 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
         recyclerViewShops.setLayoutManager(new LinearLayoutManager(getContext()));
         shopAdapter = new ShopAdapter(getContext(), filteredShops, this);
         recyclerViewShops.setAdapter(shopAdapter);
+        catalog = new ShopCatalogStore(filteredShops, shopAdapter);
+
+        // Start fetching shop images a few rows ahead of the scroll position
+        ViewPreloadSizeProvider<String> preloadSizeProvider = new ViewPreloadSizeProvider<>();
+        shopAdapter.setPreloadSizeProvider(preloadSizeProvider);
+        recyclerViewShops.addOnScrollListener(new RecyclerViewPreloader<>(
+                Glide.with(this), shopAdapter, preloadSizeProvider, SHOP_IMAGE_PRELOAD_COUNT));
     }
 
     private void resetAllLikes() {
@@ -221,6 +260,12 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
         
         // Créer un listener en temps réel pour synchroniser les likes
         FirebaseFirestore db = FirebaseFirestore.getInstance();
+        if (shopsListener != null) {
+            shopsListener.remove();
+        }
+        // Callbacks of a removed listener may still be queued; only the latest one may touch the catalog
+        final int generation = ++shopsListenerGeneration;
+        final boolean[] firstSnapshot = {true};
         shopsListener = db.collection("shops").addSnapshotListener(executor, (querySnapshot, error) -> {
             if (error != null) {
                 Log.e("SearchFragment", "Firestore listener error", error);
@@ -234,115 +279,163 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
                 return;
             }
 
-            List<ShopModel> loadedShops = new ArrayList<>();
-
-            for (QueryDocumentSnapshot document : querySnapshot) {
-                try {
-                    ShopModel shop = new ShopModel();
-                    shop.setShopId(document.getId());
-
-                    if (document.contains("name")) shop.setName(document.getString("name"));
-                    if (document.contains("category")) shop.setCategory(document.getString("category"));
-                    if (document.contains("location")) shop.setLocation(document.getString("location"));
-                    if (document.contains("imageUrl")) shop.setImageUrl(document.getString("imageUrl"));
-                    if (document.contains("userId")) shop.setUserId(document.getString("userId"));
-                    if (document.contains("phone")) shop.setPhone(document.getString("phone"));
-                    if (document.contains("email")) shop.setEmail(document.getString("email"));
-                    if (document.contains("address")) shop.setAddress(document.getString("address"));
-                    if (document.contains("regionId")) shop.setRegionId(document.getString("regionId"));
-                    if (document.contains("cityId")) shop.setCityId(document.getString("cityId"));
-
-                    // Handle hasLivraison
-                    if (document.contains("hasLivraison")) {
-                        Object v = document.get("hasLivraison");
-                        if (v instanceof Boolean) shop.setHasLivraison((Boolean) v);
-                    }
-
-                    if (document.contains("createdAt")) {
-                        Object createdAtValue = document.get("createdAt");
-                        if (createdAtValue instanceof Long) {
-                            Long timestamp = (Long) createdAtValue;
-                            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm", java.util.Locale.getDefault());
-                            shop.setCreatedAt(sdf.format(new java.util.Date(timestamp)));
-                        }
-                    }
+            // Only the documents that changed are parsed; the first snapshot reports every shop as added
+            List<ShopCatalogStore.Change> changes = ShopCatalogStore.changesOf(querySnapshot,
+                    document -> mapShop(document, currentUserId));
+            backfillGeohashes(changes, currentUserId);
+            // The first snapshot of this listener is the whole collection, replacing what an earlier one left
+            final boolean replaceAll = firstSnapshot[0];
+            firstSnapshot[0] = false;
+
+            // Only the shops that changed touch the autocomplete index
+            if (replaceAll) {
+                List<ShopModel> current = new ArrayList<>(changes.size());
+                for (ShopCatalogStore.Change change : changes) {
+                    if (change.getShop() != null) current.add(change.getShop());
+                }
+                searchSuggestions.updateShops(current);
+            } else {
+                for (ShopCatalogStore.Change change : changes) {
+                    if (change.getShop() == null) searchSuggestions.removeShop(change.getShopId());
+                    else searchSuggestions.updateShop(change.getShop());
+                }
+            }
 
-                    if (document.contains("likesCount")) {
-                        Object v = document.get("likesCount");
-                        if (v instanceof Number) shop.setLikesCount(((Number) v).intValue());
+            if (isAdded()) {
+                requireActivity().runOnUiThread(() -> {
+                    if (!isAdded() || catalog == null || generation != shopsListenerGeneration) return;
+                    for (ShopCatalogStore.Change change : changes) {
+                        ShopModel shop = change.getShop();
+                        if (shop != null) shop.setFavorite(favoriteShopIds.contains(shop.getShopId()));
                     }
+                    boolean firstLoad = catalog.size() == 0;
+                    if (replaceAll) catalog.replaceAll(changes);
+                    else catalog.apply(changes);
+                    showLoading(false);
+                    shopsLoaded = true;
 
-                    if (document.contains("likedByUserIds")) {
-                        Object likedByUserIdsObj = document.get("likedByUserIds");
-                        if (likedByUserIdsObj instanceof List) {
-                            ArrayList<String> likedByUserIds = new ArrayList<>((List<String>) likedByUserIdsObj);
-                            shop.setLikedByUserIds(likedByUserIds);
-                            if (currentUserId != null && likedByUserIds.contains(currentUserId)) {
-                                shop.setLiked(true);
-                            } else {
-                                shop.setLiked(false);
-                            }
-                        }
+                    // The store keeps the active filter for later deltas; it only has to be set once
+                    if (firstLoad && selectedCity != null && !selectedCity.isEmpty()) {
+                        filterShopsByCity(selectedCity);
                     }
+                });
+            }
+        });
+    }
 
-                    if (document.contains("favoritesCount")) {
-                        Object v = document.get("favoritesCount");
-                        if (v instanceof Number) shop.setFavoritesCount(((Number) v).intValue());
-                    }
+    /**
+     * The home map only listens to the shops of the visible geohash cells, so a shop saved without
+     * a geohash (older app versions) or with a stale one would not show there. Only the owner may
+     * write its shop, so each client repairs its own shops among the ones this listener reads;
+     * ShopRepository.loadUserShops repairs them too. One write per shop, after which it matches.
+     */
+    private void backfillGeohashes(List<ShopCatalogStore.Change> changes, String currentUserId) {
+        if (currentUserId == null) return;
+        for (ShopCatalogStore.Change change : changes) {
+            ShopModel shop = change.getShop();
+            if (shop == null || !currentUserId.equals(shop.getUserId())) continue;
+            String geohash = ShopLocator.geohash(shop);
+            if (geohash == null || geohash.equals(shop.getGeohash())) continue;
+            shop.setGeohash(geohash);
+            shopService.backfillGeohash(shop.getShopId(), geohash)
+                    .addOnFailureListener(e -> Log.w("SearchFragment", "Geohash backfill failed for " + shop.getShopId(), e));
+        }
+    }
 
-                    if (document.contains("hasPromotion")) {
-                        Object v = document.get("hasPromotion");
-                        if (v instanceof Boolean) shop.setHasPromotion((Boolean) v);
-                    }
+    /**
+     * Read one shop document; null when it can't be read
+     */
+    @SuppressWarnings("unchecked")
+    private ShopModel mapShop(com.google.firebase.firestore.DocumentSnapshot document, String currentUserId) {
+        try {
+            ShopModel shop = new ShopModel();
+            shop.setShopId(document.getId());
+
+            if (document.contains("name")) shop.setName(document.getString("name"));
+            if (document.contains("category")) shop.setCategory(document.getString("category"));
+            if (document.contains("location")) shop.setLocation(document.getString("location"));
+            if (document.contains("imageUrl")) shop.setImageUrl(document.getString("imageUrl"));
+            if (document.contains("userId")) shop.setUserId(document.getString("userId"));
+            if (document.contains("phone")) shop.setPhone(document.getString("phone"));
+            if (document.contains("email")) shop.setEmail(document.getString("email"));
+            if (document.contains("address")) shop.setAddress(document.getString("address"));
+            if (document.contains("regionId")) shop.setRegionId(document.getString("regionId"));
+            if (document.contains("cityId")) shop.setCityId(document.getString("cityId"));
+            if (document.contains("geohash")) shop.setGeohash(document.getString("geohash"));
+            if (document.contains("workingHours")) shop.setWorkingHours(document.getString("workingHours"));
+
+            // Ranges when present, else the schedule comes from workingHours; the "Open now" index reads it
+            Object openingHours = document.get("openingHours");
+            if (openingHours instanceof List) shop.setOpeningHours((List<Long>) openingHours);
+
+            // Handle hasLivraison
+            if (document.contains("hasLivraison")) {
+                Object v = document.get("hasLivraison");
+                if (v instanceof Boolean) shop.setHasLivraison((Boolean) v);
+            }
 
-                    if (document.contains("rating")) {
-                        Object ratingValue = document.get("rating");
-                        if (ratingValue instanceof Double) shop.setRating((Double) ratingValue);
-                        else if (ratingValue instanceof Long) shop.setRating(((Long) ratingValue).doubleValue());
-                    }
+            shop.setCreatedAt(document.get("createdAt", com.google.firebase.firestore.DocumentSnapshot.ServerTimestampBehavior.ESTIMATE));
 
-                    if (document.contains("reviews")) {
-                        Object reviewsValue = document.get("reviews");
-                        if (reviewsValue instanceof Number) shop.setReviews(((Number) reviewsValue).intValue());
-                    }
+            if (document.contains("likesCount")) {
+                Object v = document.get("likesCount");
+                if (v instanceof Number) shop.setLikesCount(((Number) v).intValue());
+            }
 
-                    if (document.contains("userRatings")) {
-                        Map<String, Object> userRatingsObj = (Map<String, Object>) document.get("userRatings");
-                        if (userRatingsObj != null) {
-                            Map<String, Float> userRatings = new java.util.HashMap<>();
-                            for (Map.Entry<String, Object> entry : userRatingsObj.entrySet()) {
-                                Object value = entry.getValue();
-                                if (value instanceof Number) userRatings.put(entry.getKey(), ((Number) value).floatValue());
-                            }
-                            shop.setUserRatings(userRatings);
-                        }
+            if (document.contains("likedByUserIds")) {
+                Object likedByUserIdsObj = document.get("likedByUserIds");
+                if (likedByUserIdsObj instanceof List) {
+                    ArrayList<String> likedByUserIds = new ArrayList<>((List<String>) likedByUserIdsObj);
+                    shop.setLikedByUserIds(likedByUserIds);
+                    if (currentUserId != null && likedByUserIds.contains(currentUserId)) {
+                        shop.setLiked(true);
+                    } else {
+                        shop.setLiked(false);
                     }
-                    loadedShops.add(shop);
-                } catch (Exception e) {
-                    Log.e("SearchFragment", "Error mapping shop: " + document.getId(), e);
                 }
             }
 
-            if (isAdded()) {
-                requireActivity().runOnUiThread(() -> {
-                    allShops.clear();
-                    allShops.addAll(loadedShops);
-                    filteredShops.clear();
+            if (document.contains("favoritesCount")) {
+                Object v = document.get("favoritesCount");
+                if (v instanceof Number) shop.setFavoritesCount(((Number) v).intValue());
+            }
 
-                    if (selectedCity != null && !selectedCity.isEmpty()) {
-                        filterShopsByCity(selectedCity);
-                    } else {
-                        filteredShops.addAll(allShops);
-                    }
+            if (document.contains("searchCount")) {
+                Object v = document.get("searchCount");
+                if (v instanceof Number) shop.setSearchCount(((Number) v).intValue());
+            }
 
-                    if (shopAdapter != null) shopAdapter.notifyDataSetChanged();
-                    showLoading(false);
-                    shopsLoaded = true;
+            if (document.contains("hasPromotion")) {
+                Object v = document.get("hasPromotion");
+                if (v instanceof Boolean) shop.setHasPromotion((Boolean) v);
+            }
 
-                    if (favoritesLoaded) updateFavoriteStatusForShops();
-                });
+            if (document.contains("rating")) {
+                Object ratingValue = document.get("rating");
+                if (ratingValue instanceof Double) shop.setRating((Double) ratingValue);
+                else if (ratingValue instanceof Long) shop.setRating(((Long) ratingValue).doubleValue());
             }
-        });
+
+            if (document.contains("reviews")) {
+                Object reviewsValue = document.get("reviews");
+                if (reviewsValue instanceof Number) shop.setReviews(((Number) reviewsValue).intValue());
+            }
+
+            if (document.contains("userRatings")) {
+                Map<String, Object> userRatingsObj = (Map<String, Object>) document.get("userRatings");
+                if (userRatingsObj != null) {
+                    Map<String, Float> userRatings = new java.util.HashMap<>();
+                    for (Map.Entry<String, Object> entry : userRatingsObj.entrySet()) {
+                        Object value = entry.getValue();
+                        if (value instanceof Number) userRatings.put(entry.getKey(), ((Number) value).floatValue());
+                    }
+                    shop.setUserRatings(userRatings);
+                }
+            }
+            return shop;
+        } catch (Exception e) {
+            Log.e("SearchFragment", "Error mapping shop: " + document.getId(), e);
+            return null;
+        }
     }
 
     private void showError(String message) {
@@ -380,12 +473,7 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
     }
 
     private void updateFavoriteStatusForShops() {
-        for (ShopModel shop : allShops) {
-            boolean isFavorite = shop.getShopId() != null && favoriteShopIds.contains(shop.getShopId());
-            shop.setFavorite(isFavorite);
-        }
-
-        for (ShopModel shop : filteredShops) {
+        for (ShopModel shop : catalog.getAll()) {
             boolean isFavorite = shop.getShopId() != null && favoriteShopIds.contains(shop.getShopId());
             shop.setFavorite(isFavorite);
         }
@@ -475,18 +563,10 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
             return;
         }
 
-        // ✅ Modèle déjà mis à jour par l'adapter? Non, ici c'est le fragment qui gère.
+        // ✅ Le catalogue reçoit une copie modifiée : la boutique affichée n'est jamais modifiée en place
         boolean wasLiked = shop.isLiked();
         boolean newLikedStatus = !wasLiked;
         int newLikesCount = newLikedStatus ? shop.getLikesCount() + 1 : Math.max(0, shop.getLikesCount() - 1);
-        
-        shop.setLiked(newLikedStatus);
-        shop.setLikesCount(newLikesCount);
-
-        // ✅ Global synchronization for immediate UI update
-        com.example.soukify.data.sync.ShopSync.LikeSync.update(shop.getShopId(), newLikedStatus, newLikesCount);
-
-        Log.d("SearchFragment", "Like status updated - newLikedStatus: " + newLikedStatus + ", newLikesCount: " + newLikesCount);
 
         // ✅ Préparer la liste des utilisateurs qui ont liké
         ArrayList<String> likedByUserIds = shop.getLikedByUserIds();
@@ -501,7 +581,17 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
             newLikedUsers.remove(currentUserId);
         }
 
-        shop.setLikedByUserIds(newLikedUsers);
+        final ShopModel updated = new ShopModel(shop);
+        updated.setLiked(newLikedStatus);
+        updated.setLikesCount(newLikesCount);
+        updated.setLikedByUserIds(newLikedUsers);
+        catalog.replace(updated);
+        searchSuggestions.updateShop(updated);
+
+        // ✅ Global synchronization for immediate UI update
+        com.example.soukify.data.sync.ShopSync.LikeSync.update(shop.getShopId(), newLikedStatus, newLikesCount);
+
+        Log.d("SearchFragment", "Like status updated - newLikedStatus: " + newLikedStatus + ", newLikesCount: " + newLikesCount);
 
         // ✅ Mise à jour dans Firestore (en arrière-plan, sans toucher à l'UI)
         final FirebaseFirestore db = FirebaseFirestore.getInstance();
@@ -512,16 +602,7 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
                 )
                 .addOnSuccessListener(aVoid -> {
                     Log.d("SearchFragment", "✅ Like updated in Firestore successfully");
-
-                    // ✅ Mettre à jour la liste allShops pour cohérence
-                    for (ShopModel s : allShops) {
-                        if (s.getShopId().equals(shop.getShopId())) {
-                            s.setLiked(newLikedStatus);
-                            s.setLikesCount(newLikesCount);
-                            s.setLikedByUserIds(new ArrayList<>(newLikedUsers));
-                            break;
-                        }
-                    }
+                    if (newLikedStatus) TrendingTracker.get().recordShop(updated, TrendingEvent.LIKE);
 
                     // ✅ Message de confirmation
                     String message = newLikedStatus ?
@@ -532,25 +613,12 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
                 .addOnFailureListener(e -> {
                     Log.e("SearchFragment", "❌ Error updating like in Firestore: " + e.getMessage());
 
-                    // ❌ En cas d'erreur, annuler les changements
-                    shop.setLiked(!newLikedStatus);
-                    shop.setLikesCount(newLikedStatus ? newLikesCount - 1 : newLikesCount + 1);
-
-                    // Restaurer la liste des utilisateurs
-                    ArrayList<String> revertedList = new ArrayList<>(newLikedUsers);
-                    if (newLikedStatus) {
-                        revertedList.remove(currentUserId);
-                    } else {
-                        if (!revertedList.contains(currentUserId)) {
-                            revertedList.add(currentUserId);
-                        }
-                    }
-                    shop.setLikedByUserIds(revertedList);
-
-                    // ⚠️ Seulement en cas d'erreur, on notifie l'adapter pour restaurer l'UI
-                    if (shopAdapter != null) {
-                        shopAdapter.notifyItemChanged(position);
+                    // ❌ En cas d'erreur, remettre la boutique d'origine, sauf si un snapshot l'a déjà remplacée
+                    if (catalog != null && catalog.get(shop.getShopId()) == updated) {
+                        catalog.replace(shop);
+                        searchSuggestions.updateShop(shop);
                     }
+                    com.example.soukify.data.sync.ShopSync.LikeSync.update(shop.getShopId(), wasLiked, shop.getLikesCount());
 
                     safeToast(getString(R.string.like_update_error));
                 });
@@ -563,6 +631,15 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
     @Override
     public void onShopClick(ShopModel shop) {
         if (isAdded() && shop != null) {
+            ImpressionPipeline.get().recordShopView(shop.getShopId());
+            TrendingTracker tracker = TrendingTracker.get();
+            tracker.recordShop(shop, TrendingEvent.VIEW);
+            if (searchInput != null && !searchInput.getText().toString().trim().isEmpty()) {
+                tracker.recordShop(shop, TrendingEvent.SEARCH_HIT);
+                // The query led somewhere: offer it again next time
+                searchSuggestions.recordQuery(searchInput.getText().toString());
+            }
+
             // Save selected city to SharedPreferences for toolbar display
             if (selectedCity != null && !selectedCity.isEmpty()) {
                 requireActivity().getSharedPreferences("app_prefs", android.content.Context.MODE_PRIVATE)
@@ -588,8 +665,7 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
             args.putString("shopRegionId", shop.getRegionId() != null ? shop.getRegionId() : "");
             args.putString("shopCityId", shop.getCityId() != null ? shop.getCityId() : "");
             args.putString("shopOwnerId", shop.getUserId() != null ? shop.getUserId() : "");
-            args.putString("shopCreatedAt", shop.getCreatedAtString() != null ? shop.getCreatedAtString() : "");
-            args.putLong("shopCreatedAtTimestamp", shop.getCreatedAtTimestamp() > 0 ? shop.getCreatedAtTimestamp() : System.currentTimeMillis());
+            args.putLong("shopCreatedAtTimestamp", shop.getCreatedAtMillis());
             args.putBoolean("hideDialogs", true); // Flag to hide dialogs and FAB
 
             // Navigate to ShopHomeFragment using Navigation Component
@@ -615,19 +691,13 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
         if (categoryView == null) return;
 
         selectedCategory = categoryKey;
-        filteredShops.clear();
-
-        for (ShopModel shop : allShops) {
-            String shopCategory = safeString(shop.getCategory()).trim();
+        android.content.Context context = requireContext();
+        catalog.filter(shop -> {
             // Compare normalized keys
-            String shopKey = com.example.soukify.utils.CategoryUtils.getCategoryKey(requireContext(), shopCategory);
-            
-            if (shopKey.equalsIgnoreCase(categoryKey)) {
-                filteredShops.add(shop);
-            }
-        }
+            String shopKey = com.example.soukify.utils.CategoryUtils.getCategoryKey(context, safeString(shop.getCategory()).trim());
+            return shopKey.equalsIgnoreCase(categoryKey);
+        });
 
-        shopAdapter.notifyDataSetChanged();
         highlightCategory(categoryView);
 
         String localizedCategoryName = com.example.soukify.utils.CategoryUtils.getLocalizedCategory(requireContext(), categoryKey);
@@ -644,55 +714,9 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
             return;
         }
 
-        filteredShops.clear();
-
         String normCity = normalizeCity(cityName);
         java.util.List<String> matchingCityIds = cityNameToIds.get(normCity);
-
-        for (ShopModel shop : allShops) {
-            boolean matched = false;
-
-            // Prefer matching by cityId if we have IDs for the name
-            if (matchingCityIds != null && !matchingCityIds.isEmpty()) {
-                String shopCityId = safeString(shop.getCityId()).trim();
-                matched = !shopCityId.isEmpty() && matchingCityIds.contains(shopCityId);
-            }
-
-            // Fallback to location text matching if cityId path didn't match
-            if (!matched) {
-                String rawLocation = safeString(shop.getLocation()).trim();
-                if (!rawLocation.isEmpty()) {
-                    String[] parts = rawLocation.split(",");
-                    for (String part : parts) {
-                        String segment = normalizeCity(part.trim());
-                        if (!segment.isEmpty() && (
-                                segment.equals(normCity) ||
-                                segment.contains(normCity) ||
-                                normCity.contains(segment)
-                        )) {
-                            matched = true;
-                            break;
-                        }
-                    }
-                    if (!matched && parts.length == 1) {
-                        String normLocation = normalizeCity(rawLocation);
-                        matched = !normLocation.isEmpty() && (
-                                normLocation.equals(normCity) ||
-                                normLocation.contains(normCity) ||
-                                normCity.contains(normLocation)
-                        );
-                    }
-                }
-            }
-
-            if (matched) {
-                filteredShops.add(shop);
-            }
-        }
-
-        if (shopAdapter != null) {
-            shopAdapter.notifyDataSetChanged();
-        }
+        catalog.filter(shop -> isInCity(shop, normCity, matchingCityIds));
 
         if (filteredShops.isEmpty()) {
             showNotFoundMessage();
@@ -702,6 +726,48 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
             safeToast(getString(R.string.shops_found_count_city, filteredShops.size(), cityName));
         }
     }
+
+    private boolean isInCity(ShopModel shop, String normCity, java.util.List<String> matchingCityIds) {
+        // Prefer matching by cityId if we have IDs for the name
+        if (matchingCityIds != null && !matchingCityIds.isEmpty()) {
+            String shopCityId = safeString(shop.getCityId()).trim();
+            if (!shopCityId.isEmpty() && matchingCityIds.contains(shopCityId)) return true;
+        }
+
+        // Fallback to location text matching if cityId path didn't match
+        String rawLocation = safeString(shop.getLocation()).trim();
+        if (rawLocation.isEmpty()) return false;
+        String[] parts = rawLocation.split(",");
+        for (String part : parts) {
+            String segment = normalizeCity(part.trim());
+            if (!segment.isEmpty() && (
+                    segment.equals(normCity) ||
+                    segment.contains(normCity) ||
+                    normCity.contains(segment)
+            )) {
+                return true;
+            }
+        }
+        if (parts.length == 1) {
+            String normLocation = normalizeCity(rawLocation);
+            return !normLocation.isEmpty() && (
+                    normLocation.equals(normCity) ||
+                    normLocation.contains(normCity) ||
+                    normCity.contains(normLocation)
+            );
+        }
+        return false;
+    }
+    @Override
+    public void onDestroyView() {
+        // Stop snapshot deliveries once the list they feed is gone
+        if (shopsListener != null) {
+            shopsListener.remove();
+            shopsListener = null;
+        }
+        super.onDestroyView();
+    }
+
     @Override
     public void onResume() {
         super.onResume();
@@ -788,34 +854,7 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
 
             private void showSuggestions(String query) {
                 suggestions.clear();
-                String lowerQuery = query.toLowerCase().trim();
-
-                // Rechercher dans toutes les boutiques
-                for (ShopModel shop : allShops) {
-                    String name = safeString(shop.getName()).toLowerCase();
-                    String category = safeString(shop.getCategory()).toLowerCase();
-                    String location = safeString(shop.getLocation()).toLowerCase();
-
-                    // Ajouter le nom si correspond
-                    if (name.contains(lowerQuery) && !suggestions.contains(shop.getName())) {
-                        suggestions.add(shop.getName());
-                    }
-
-                    // Ajouter la catégorie si correspond
-                    if (category.contains(lowerQuery) && !suggestions.contains(shop.getCategory())) {
-                        suggestions.add(shop.getCategory());
-                    }
-
-                    // Ajouter la localisation si correspond
-                    if (location.contains(lowerQuery) && !suggestions.contains(shop.getLocation())) {
-                        suggestions.add(shop.getLocation());
-                    }
-
-                    // Limiter à 5-6 suggestions
-                    if (suggestions.size() >= 6) {
-                        break;
-                    }
-                }
+                suggestions.addAll(searchSuggestions.suggest(query, MAX_SUGGESTIONS));
 
                 // Afficher ou cacher la liste
                 if (suggestions.isEmpty()) {
@@ -840,44 +879,64 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
     }
 
     private void safeSearch(String query) {
+        final int generation = ++productSearchGeneration;
         try {
-            filteredShops.clear();
-
             if (query == null || query.trim().isEmpty()) {
-                filteredShops.addAll(allShops);
+                searchFilter = ShopCatalogStore.ALL;
+                catalog.filter(ShopCatalogStore.ALL);
                 hideNotFoundMessage(); // Cacher le message
             } else {
                 String lowerQuery = query.toLowerCase().trim();
-                List<ShopWithScore> scoredShops = new ArrayList<>();
-
-                for (ShopModel shop : allShops) {
-                    if (matchShop(shop, lowerQuery)) {
-                        int score = calculateRelevanceScore(shop, lowerQuery);
-                        scoredShops.add(new ShopWithScore(shop, score));
-                    }
-                }
-
-                Collections.sort(scoredShops, (s1, s2) ->
-                        Integer.compare(s2.score, s1.score)
-                );
-
-                for (ShopWithScore shopWithScore : scoredShops) {
-                    filteredShops.add(shopWithScore.shop);
-                }
+                showSearchResults(lowerQuery, Collections.emptyMap());
+
+                // Les boutiques qui vendent un produit correspondant sont ajoutées dès que l'index produits répond
+                productRepository.searchCatalog(new ProductQuery().text(query).page(0, 0),
+                        new ProductRepository.OnSearchResultListener() {
+                            @Override
+                            public void onSearchResult(ProductSearchResult result) {
+                                if (!isAdded() || generation != productSearchGeneration) return;
+                                Map<String, Integer> productMatches = result.getFacetCounts(ProductQuery.Facet.SHOP);
+                                if (!productMatches.isEmpty()) {
+                                    showSearchResults(lowerQuery, productMatches);
+                                }
+                            }
 
-                if (filteredShops.isEmpty()) {
-                    showNotFoundMessage();
-                } else {
-                    hideNotFoundMessage();
-                }
+                            @Override
+                            public void onError(String error) {
+                                // Les correspondances sur les boutiques restent affichées
+                                Log.w("SearchFragment", "Product search failed: " + error);
+                            }
+                        });
             }
 
-            if (shopAdapter != null) shopAdapter.notifyDataSetChanged();
-
         } catch (Exception e) {
             safeToast(getString(R.string.search_error_msg, e.getMessage()));
         }
     }
+
+    /**
+     * Show the shops matching {@code lowerQuery} themselves or selling one of the products that
+     * match it, {@code productMatches} being the number of matching products per shop id
+     */
+    private void showSearchResults(String lowerQuery, Map<String, Integer> productMatches) {
+        // Scores are computed once per shop, not once per comparison
+        Map<ShopModel, Integer> scores = new java.util.IdentityHashMap<>();
+        java.util.function.Function<ShopModel, Integer> score = shop -> calculateRelevanceScore(shop, lowerQuery)
+                + 10 * productMatches.getOrDefault(shop.getShopId(), 0);
+        searchFilter = shop -> matchShop(shop, lowerQuery) || productMatches.containsKey(shop.getShopId());
+        catalog.show(searchFilter,
+                (s1, s2) -> Integer.compare(
+                        scores.computeIfAbsent(s2, score),
+                        scores.computeIfAbsent(s1, score)),
+                Integer.MAX_VALUE);
+
+        if (filteredShops.isEmpty()) {
+            showNotFoundMessage();
+        } else {
+            hideNotFoundMessage();
+        }
+    }
+
     private void showNotFoundMessage() {
         if (textViewNotFound != null) {
             textViewNotFound.setVisibility(View.VISIBLE);
@@ -917,31 +976,29 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
         android.util.Log.d("RatingDebug", "User ID: " + currentUserId);
         android.util.Log.d("RatingDebug", "New Rating: " + newRating);
 
-        // 🌟 IMPORTANT : Récupérer ou créer la Map
-        Map<String, Float> userRatings = shop.getUserRatings();
+        // 🌟 IMPORTANT : Modifier une copie ; le catalogue remplace la boutique au lieu de la modifier en place
+        final ShopModel updated = new ShopModel(shop);
+        Map<String, Float> userRatings = updated.getUserRatings();
         if (userRatings == null) {
             userRatings = new java.util.HashMap<>();
-            shop.setUserRatings(userRatings);
+            updated.setUserRatings(userRatings);
         }
 
         // Mettre à jour la note de l'utilisateur
         userRatings.put(currentUserId, newRating);
 
         // Recalculer la moyenne
-        shop.calculateAverageRating();
+        updated.calculateAverageRating();
 
-        android.util.Log.d("RatingDebug", "Average Rating: " + shop.getRating());
-        android.util.Log.d("RatingDebug", "Total Reviews: " + shop.getReviews());
+        android.util.Log.d("RatingDebug", "Average Rating: " + updated.getRating());
+        android.util.Log.d("RatingDebug", "Total Reviews: " + updated.getReviews());
         android.util.Log.d("RatingDebug", "UserRatings Map: " + userRatings.toString());
 
-        // 🌟 SOLUTION : Créer une copie finale pour utiliser dans le lambda
-        final Map<String, Float> finalUserRatings = new java.util.HashMap<>(userRatings);
-
         // 🌟 CRITIQUE : Préparer les données pour Firebase
         Map<String, Object> updates = new java.util.HashMap<>();
-        updates.put("userRatings", finalUserRatings);  // Utiliser la copie finale
-        updates.put("rating", shop.getRating());
-        updates.put("reviews", shop.getReviews());
+        updates.put("userRatings", new java.util.HashMap<>(userRatings));
+        updates.put("rating", updated.getRating());
+        updates.put("reviews", updated.getReviews());
 
         // Mettre à jour Firebase
         FirebaseFirestore.getInstance()
@@ -952,24 +1009,19 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
                     android.util.Log.d("RatingDebug", "✅ Firebase mise à jour avec succès!");
                     Toast.makeText(getContext(), getString(R.string.rating_saved_prefix) + newRating + "⭐", Toast.LENGTH_SHORT).show();
 
-                    // Mettre à jour aussi dans la liste allShops
-                    for (ShopModel s : allShops) {
-                        if (s.getShopId().equals(shop.getShopId())) {
-                            s.setUserRatings(new java.util.HashMap<>(finalUserRatings));
-                            s.setRating(shop.getRating());
-                            s.setReviews(shop.getReviews());
-                            break;
-                        }
-                    }
-
-                    // Rafraîchir l'adapter
-                    if (shopAdapter != null) {
-                        shopAdapter.notifyItemChanged(position);
+                    // Mettre à jour aussi le catalogue, qui re-place la ligne selon le tri actif
+                    if (catalog != null && catalog.get(shop.getShopId()) != null) {
+                        catalog.replace(updated);
+                        searchSuggestions.updateShop(updated);
                     }
                 })
                 .addOnFailureListener(e -> {
                     android.util.Log.e("RatingDebug", "❌ Erreur Firebase: " + e.getMessage());
                     Toast.makeText(getContext(), getString(R.string.rating_error_prefix) + e.getMessage(), Toast.LENGTH_LONG).show();
+                    // L'adapter a déjà bougé les étoiles ; les remettre sur la note enregistrée
+                    if (shopAdapter != null) {
+                        shopAdapter.notifyItemChanged(position);
+                    }
                 });
     }
 
@@ -978,18 +1030,11 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
         if (btnTopRated != null) btnTopRated.setOnClickListener(v -> filterByTopSearched());
         if (btnTrend != null) btnTrend.setOnClickListener(v -> sortByTrend());
         if (btnObjectType != null) btnObjectType.setOnClickListener(v -> filterByLivraison());
+        if (btnOpenNow != null) btnOpenNow.setOnClickListener(v -> filterByOpenNow());
     }
 
     private void filterByPromotions() {
-        filteredShops.clear();
-
-        for (ShopModel shop : allShops) {
-            if (shop.isHasPromotion()) {
-                filteredShops.add(shop);
-            }
-        }
-
-        if (shopAdapter != null) shopAdapter.notifyDataSetChanged();
+        catalog.filter(ShopModel::isHasPromotion);
 
         if (filteredShops.isEmpty()) {
             safeToast(getString(R.string.no_promos_found));
@@ -1001,44 +1046,71 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
     }
 
     private void filterByTopSearched() {
-        filteredShops.clear();
-        filteredShops.addAll(allShops);
-        Collections.sort(filteredShops, (s1, s2) -> Double.compare(s2.getRating(), s1.getRating()));
-
-        if (filteredShops.size() > 10) {
-            List<ShopModel> top = new ArrayList<>(filteredShops.subList(0, 10));
-            filteredShops.clear();
-            filteredShops.addAll(top);
-        }
-
-        if (shopAdapter != null) shopAdapter.notifyDataSetChanged();
+        catalog.show(ShopCatalogStore.ALL, (s1, s2) -> Double.compare(s2.getRating(), s1.getRating()), 10);
         safeToast(getString(R.string.top_rated_shops_msg, filteredShops.size()));
     }
 
     private void sortByTrend() {
-        Collections.sort(filteredShops, (s1, s2) -> Integer.compare(s2.getSearchCount(), s1.getSearchCount()));
+        // Top N from the trending index for the current category and city: one small ordered query
+        String categoryKey = "ALL".equals(selectedCategory) ? null : selectedCategory;
+        List<String> cityIds = selectedCity != null && !selectedCity.isEmpty()
+                ? cityNameToIds.get(normalizeCity(selectedCity))
+                : null;
 
-        if (shopAdapter != null) {
-            shopAdapter.notifyDataSetChanged();
+        trendingService.getTopShops(categoryKey, cityIds, TRENDING_LIMIT)
+                .addOnSuccessListener(snapshot -> {
+                    if (!isAdded()) return;
+                    // Shop id -> trending rank, among the shops matching the text being searched
+                    Map<String, Integer> ranks = new java.util.HashMap<>();
+                    for (QueryDocumentSnapshot document : snapshot) {
+                        String shopId = document.getString(FirebaseTrendingService.FIELD_ITEM_ID);
+                        ShopModel shop = catalog.get(shopId);
+                        if (shop != null && searchFilter.test(shop)) ranks.put(shopId, ranks.size());
+                    }
+                    if (ranks.isEmpty()) {
+                        // No trending activity recorded yet for this selection
+                        sortBySearchCount();
+                        return;
+                    }
+                    catalog.show(shop -> ranks.containsKey(shop.getShopId()),
+                            (s1, s2) -> Integer.compare(ranks.get(s1.getShopId()), ranks.get(s2.getShopId())),
+                            Integer.MAX_VALUE);
+                    safeToast(getString(R.string.sorted_by_trending));
+                })
+                .addOnFailureListener(e -> {
+                    Log.w("SearchFragment", "Trending query failed, sorting locally", e);
+                    if (isAdded()) sortBySearchCount();
+                });
+    }
+
+    private void sortBySearchCount() {
+        Comparator<ShopModel> bySearchCount = (s1, s2) -> Integer.compare(s2.getSearchCount(), s1.getSearchCount());
+        if (searchFilter == ShopCatalogStore.ALL) {
+            catalog.sort(bySearchCount);
+        } else {
+            // Back to the search results, whatever filter was applied since
+            catalog.show(searchFilter, bySearchCount, Integer.MAX_VALUE);
         }
         safeToast(getString(R.string.sorted_by_trending));
     }
 
     private void filterByLivraison() {
-        filteredShops.clear();
+        catalog.filter(ShopModel::hasLivraison);
 
-        for (ShopModel shop : allShops) {
-            if (shop.hasLivraison()) {
-                filteredShops.add(shop);
-            }
+        if (filteredShops.isEmpty()) {
+            safeToast(getString(R.string.no_delivery_found));
+        } else {
+            safeToast(getString(R.string.shops_found_delivery, filteredShops.size()));
         }
+    }
 
-        if (shopAdapter != null) shopAdapter.notifyDataSetChanged();
+    private void filterByOpenNow() {
+        catalog.filter(catalog.openAt(System.currentTimeMillis()));
 
         if (filteredShops.isEmpty()) {
-            safeToast(getString(R.string.no_delivery_found));
+            safeToast(getString(R.string.no_open_shops_found));
         } else {
-            safeToast(getString(R.string.shops_found_delivery, filteredShops.size()));
+            safeToast(getString(R.string.shops_found_open, filteredShops.size()));
         }
     }
 
@@ -1065,87 +1137,33 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
 
     // Tri du plus récent au plus ancien
     private void sortByDateDescending() {
-        Collections.sort(filteredShops, (s1, s2) -> {
-            try {
-                // Récupérer les dates
-                String d1 = safeString(s1.getCreatedAtString());
-                String d2 = safeString(s2.getCreatedAtString());
-
-                // Si les dates sont vides, les mettre à la fin
-                if (d1.isEmpty()) return 1;
-                if (d2.isEmpty()) return -1;
-
-                // Parser les dates au format "dd/MM/yyyy HH:mm"
-                java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm", java.util.Locale.getDefault());
-                java.util.Date date1 = sdf.parse(d1);
-                java.util.Date date2 = sdf.parse(d2);
-
-                // Comparer les dates (récent → ancien = date2 avant date1)
-                return date2.compareTo(date1);
-
-            } catch (Exception e) {
-                // En cas d'erreur de parsing, comparer comme des strings
-                android.util.Log.e("SortError", "Erreur tri date: " + e.getMessage());
-                String d1 = safeString(s1.getCreatedAtString());
-                String d2 = safeString(s2.getCreatedAtString());
-                return d2.compareTo(d1);
-            }
-        });
+        // Shops without a date (0) go last
+        catalog.sort(Comparator.comparingLong(ShopModel::getCreatedAtMillis).reversed());
 
         isSortedByRecent = true;
-
-        if (shopAdapter != null) {
-            shopAdapter.notifyDataSetChanged();
-        }
         safeToast(getString(R.string.sorted_by_newest));
     }
 
 
     // Tri du plus ancien au plus récent (AMÉLIORÉ)
     private void sortByDateAscending() {
-        Collections.sort(filteredShops, (s1, s2) -> {
-            try {
-                // Récupérer les dates
-                String d1 = safeString(s1.getCreatedAtString());
-                String d2 = safeString(s2.getCreatedAtString());
-
-                // Si les dates sont vides, les mettre à la fin
-                if (d1.isEmpty()) return 1;
-                if (d2.isEmpty()) return -1;
-
-                // Parser les dates au format "dd/MM/yyyy HH:mm"
-                java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm", java.util.Locale.getDefault());
-                java.util.Date date1 = sdf.parse(d1);
-                java.util.Date date2 = sdf.parse(d2);
-
-                // Comparer les dates (ancien → récent = date1 avant date2)
-                return date1.compareTo(date2);
-
-            } catch (Exception e) {
-                // En cas d'erreur de parsing, comparer comme des strings
-                android.util.Log.e("SortError", "Erreur tri date: " + e.getMessage());
-                String d1 = safeString(s1.getCreatedAtString());
-                String d2 = safeString(s2.getCreatedAtString());
-                return d1.compareTo(d2);
-            }
-        });
+        catalog.sort(Comparator.comparingLong(SearchFragment::oldestFirstKey));
 
         isSortedByRecent = false;
-
-        if (shopAdapter != null) {
-            shopAdapter.notifyDataSetChanged();
-        }
         safeToast(getString(R.string.sorted_by_oldest));
     }
 
-
+    // Shops without a date (0) go last here too
+    private static long oldestFirstKey(ShopModel shop) {
+        long createdAt = shop.getCreatedAtMillis();
+        return createdAt > 0 ? createdAt : Long.MAX_VALUE;
+    }
 
     private void resetAllFilters() {
         resetCategoryHighlights();
         selectedCategory = "ALL";
-        filteredShops.clear();
-        filteredShops.addAll(allShops);
-        if (shopAdapter != null) shopAdapter.notifyDataSetChanged();
+        searchFilter = ShopCatalogStore.ALL;
+        catalog.filter(ShopCatalogStore.ALL);
         if (searchInput != null) searchInput.setText("");
         safeToast(getString(R.string.filters_reset_msg));
     }
@@ -1277,6 +1295,7 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
 
         suggestionsList.setOnItemClickListener((parent, view, position, id) -> {
             String selectedSuggestion = suggestions.get(position);
+            searchSuggestions.recordQuery(selectedSuggestion);
             searchInput.setText(selectedSuggestion);
             searchInput.setSelection(selectedSuggestion.length());
             suggestionsList.setVisibility(View.GONE);
@@ -1363,14 +1382,4 @@ public class SearchFragment extends Fragment implements ShopAdapter.OnShopClickL
 
         return false;
     }
-    // Classe helper pour trier par pertinence
-    private static class ShopWithScore {
-        ShopModel shop;
-        int score;
-
-        ShopWithScore(ShopModel shop, int score) {
-            this.shop = shop;
-            this.score = score;
-        }
-    }
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package com.example.soukify.ui.search;
 import android.content.Context;
 import android.graphics.Color;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,12 +12,18 @@ import android.widget.RatingBar;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 import com.example.soukify.R;
 import com.example.soukify.data.models.ShopModel;
+import com.example.soukify.data.counters.ImpressionPipeline;
 import com.example.soukify.data.sync.ShopSync;
+import com.example.soukify.utils.image.ImageLoader;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
@@ -28,13 +33,17 @@ import android.widget.Toast;
 import com.example.soukify.data.repositories.ChatRepository;
 import com.example.soukify.ui.chat.ChatActivity;
 import com.example.soukify.ui.conversations.ConversationsListActivity;
+import com.example.soukify.data.remote.FirestoreMeter;
+import com.example.soukify.utils.log.AppLog;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
-public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder> implements ShopSync.SyncListener {
+public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder>
+        implements ShopSync.SyncListener, ListPreloader.PreloadModelProvider<String> {
 
     private static final String TAG = "ShopAdapter";
 
@@ -53,6 +62,9 @@ public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder
     private Map<String, String> cityNamesCache = new HashMap<>();
     private FirebaseFirestore db;
 
+    // Lets the fragment's RecyclerViewPreloader request images at the size they're shown
+    private ViewPreloadSizeProvider<String> preloadSizeProvider;
+
     public ShopAdapter(Context context, List<ShopModel> shopList, OnShopClickListener listener) {
         this.context = context;
         this.shopList = shopList;
@@ -67,14 +79,14 @@ public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder
         try {
             if (FirebaseAuth.getInstance().getCurrentUser() != null) {
                 this.currentUserId = FirebaseAuth.getInstance().getCurrentUser().getUid();
-                Log.d(TAG, "✅ CurrentUserId: " + currentUserId);
+                AppLog.d(TAG, "✅ CurrentUserId: {}", currentUserId);
             } else {
                 this.currentUserId = null;
-                Log.d(TAG, "ℹ️ Aucun user connecté");
+                AppLog.d(TAG, "ℹ️ Aucun user connecté");
             }
         } catch (Exception e) {
             this.currentUserId = null;
-            Log.e(TAG, "❌ Erreur récupération userId", e);
+            AppLog.e(TAG, "❌ Erreur récupération userId", e);
         }
         
         // Précharger les régions et villes
@@ -83,8 +95,7 @@ public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder
     }
 
     private void loadRegionsAndCities() {
-        db.collection("regions")
-            .get()
+        FirestoreMeter.read("ShopAdapter.regions", db.collection("regions").get())
             .addOnSuccessListener(queryDocumentSnapshots -> {
                 for (DocumentSnapshot doc : queryDocumentSnapshots.getDocuments()) {
                     String regionId = doc.getId();
@@ -96,12 +107,11 @@ public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder
                 }
                 notifyDataSetChanged();
             })
-            .addOnFailureListener(e -> Log.e(TAG, "❌ Erreur chargement régions", e));
+            .addOnFailureListener(e -> AppLog.e(TAG, "❌ Erreur chargement régions", e));
     }
 
     private void loadCitiesForRegion(String regionId) {
-        db.collection("regions").document(regionId).collection("cities")
-            .get()
+        FirestoreMeter.read("ShopAdapter.citiesOfRegion", db.collection("regions").document(regionId).collection("cities").get())
             .addOnSuccessListener(queryDocumentSnapshots -> {
                 boolean added = false;
                 for (DocumentSnapshot doc : queryDocumentSnapshots.getDocuments()) {
@@ -117,12 +127,14 @@ public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder
     }
 
     private java.util.Set<String> fetchingCityIds = new java.util.HashSet<>();
+    // One impression per shop while this list is shown, however often its card is rebound
+    private final java.util.Set<String> impressedShopIds = new java.util.HashSet<>();
 
     private String getRegionName(String regionId) {
         if (regionId == null || regionId.isEmpty()) return context.getString(R.string.region_not_specified);
         String cachedName = regionNamesCache.get(regionId);
         if (cachedName != null) return cachedName;
-        db.collection("regions").document(regionId).get().addOnSuccessListener(doc -> {
+        FirestoreMeter.read("ShopAdapter.region", db.collection("regions").document(regionId).get()).addOnSuccessListener(doc -> {
             if (doc.exists()) {
                 String name = getLocalizedNameFromDoc(doc);
                 if (name != null) {
@@ -141,7 +153,7 @@ public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder
         if (fetchingCityIds.contains(cityId)) return cityId;
         fetchingCityIds.add(cityId);
         if (regionId != null && !regionId.isEmpty()) {
-            db.collection("regions").document(regionId).collection("cities").document(cityId).get()
+            FirestoreMeter.read("ShopAdapter.city", db.collection("regions").document(regionId).collection("cities").document(cityId).get())
                 .addOnSuccessListener(doc -> {
                     String name = getLocalizedNameFromDoc(doc);
                     if (doc.exists() && name != null) {
@@ -156,7 +168,7 @@ public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder
     }
 
     private void fetchCityFromRoot(String cityId) {
-        db.collection("cities").document(cityId).get()
+        FirestoreMeter.read("ShopAdapter.rootCity", db.collection("cities").document(cityId).get())
                 .addOnSuccessListener(doc -> {
                     String name = getLocalizedNameFromDoc(doc);
                     if (doc.exists() && name != null) {
@@ -214,6 +226,10 @@ public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder
             return;
         }
 
+        if (shop.getShopId() != null && impressedShopIds.add(shop.getShopId())) {
+            ImpressionPipeline.get().recordShopImpression(shop.getShopId());
+        }
+
         holder.nameText.setText(shop.getName() != null ? shop.getName() : context.getString(R.string.unknown_name));
         holder.categoryText.setText(com.example.soukify.utils.CategoryUtils.getLocalizedCategory(context, shop.getCategory()));
         
@@ -261,7 +277,8 @@ public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder
 
         String imageUrl = shop.getImageUrl();
         if (imageUrl != null && !imageUrl.isEmpty()) {
-            Glide.with(context).load(imageUrl).centerCrop().into(holder.shopImage);
+            ImageLoader.load(Glide.with(context), imageUrl).centerCrop().into(holder.shopImage);
+            if (preloadSizeProvider != null) preloadSizeProvider.setView(holder.shopImage);
         } else {
             Glide.with(context).load(R.drawable.ic_profile_placeholder).centerCrop().into(holder.shopImage);
         }
@@ -348,7 +365,7 @@ public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder
         if (currentUserId == null || chatBadge == null) return;
         FirebaseFirestore.getInstance().collection("Conversation")
                 .whereEqualTo("sellerId", currentUserId)
-                .addSnapshotListener((value, error) -> {
+                .addSnapshotListener(FirestoreMeter.listener("ShopAdapter.unreadCount", (value, error) -> {
                     if (error != null || value == null) {
                         chatBadge.setVisibility(View.GONE);
                         return;
@@ -360,12 +377,32 @@ public class ShopAdapter extends RecyclerView.Adapter<ShopAdapter.ShopViewHolder
                     }
                     chatBadge.setVisibility(totalUnread > 0 ? View.VISIBLE : View.GONE);
                     if (totalUnread > 0) chatBadge.setText(String.valueOf(totalUnread));
-                });
+                }));
     }
 
     @Override
     public int getItemCount() { return shopList != null ? shopList.size() : 0; }
 
+    public void setPreloadSizeProvider(ViewPreloadSizeProvider<String> preloadSizeProvider) {
+        this.preloadSizeProvider = preloadSizeProvider;
+    }
+
+    @NonNull
+    @Override
+    public List<String> getPreloadItems(int position) {
+        if (shopList == null || position < 0 || position >= shopList.size()) return Collections.emptyList();
+        String imageUrl = shopList.get(position).getImageUrl();
+        if (imageUrl == null || imageUrl.isEmpty()) return Collections.emptyList();
+        return Collections.singletonList(imageUrl);
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<?> getPreloadRequestBuilder(@NonNull String imageUrl) {
+        // Must match the request made in onBindViewHolder so the preloaded entry is a cache hit
+        return ImageLoader.load(Glide.with(context), imageUrl).centerCrop();
+    }
+
     @Override
     public long getItemId(int position) {
         ShopModel shop = shopList != null && position >= 0 && position < shopList.size() ? shopList.get(position) : null;
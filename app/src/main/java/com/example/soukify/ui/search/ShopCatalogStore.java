@@ -0,0 +1,326 @@
+package com.example.soukify.ui.search;
+
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.soukify.data.hours.OpenNowIndex;
+import com.example.soukify.data.hours.WeeklySchedule;
+import com.example.soukify.data.models.ShopModel;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Shop Catalog Store - The shops collection kept in step with a snapshot listener, and the filtered,
+ * sorted slice of it shown by the search list
+ *
+ * Only the documents a snapshot reports in getDocumentChanges() are parsed ({@link #changesOf}, off
+ * the main thread) and applied ({@link #apply}, on it): each one is put into or dropped from the
+ * id map, run through the active filter, and placed with a binary search under the active order.
+ * The adapter receives item-level inserts, removals, moves and changes for exactly those rows, so a
+ * like on one shop costs one row bind instead of a full re-filter and notifyDataSetChanged. Any
+ * batch touching a large share of the catalog is applied as one rebuild instead. The first snapshot
+ * of a (re-)subscription goes to {@link #replaceAll}, which also drops the shops deleted while no
+ * listener was attached.
+ *
+ * Shops are never edited in place: the screen hands an edited copy to {@link #replace}, so the
+ * previous instance is still where the active order put it and is found by binary search.
+ *
+ * Changing the filter or order ({@link #filter}, {@link #sort}, {@link #show}) re-evaluates the
+ * whole catalog once. Opening hours are indexed as shops are applied, so the {@link #openAt}
+ * filter is a couple of bit tests per shop. The visible list is the adapter's own list; only this
+ * class may modify it.
+ *
+ * Main thread only, except {@link #changesOf}.
+ */
+public class ShopCatalogStore {
+    // Batches larger than this share of the catalog are cheaper to apply as a rebuild
+    private static final int REBUILD_DIVISOR = 8;
+    private static final int MIN_REBUILD_CHANGES = 32;
+
+    // Firestore returns a collection in document id order; it is also the tie-breaker of every order
+    public static final Comparator<ShopModel> BY_ID = (a, b) -> a.getShopId().compareTo(b.getShopId());
+    public static final Predicate<ShopModel> ALL = shop -> true;
+    private static final TimeZone SHOP_ZONE = TimeZone.getTimeZone(WeeklySchedule.SHOP_TIME_ZONE);
+
+    /**
+     * One added, modified or removed shop; {@code shop} is null when removed
+     */
+    public static final class Change {
+        final String shopId;
+        final ShopModel shop;
+
+        Change(String shopId, ShopModel shop) {
+            this.shopId = shopId;
+            this.shop = shop;
+        }
+
+        public String getShopId() {
+            return shopId;
+        }
+
+        public ShopModel getShop() {
+            return shop;
+        }
+    }
+
+    private final Map<String, ShopModel> shops = new HashMap<>();
+    private final OpenNowIndex openNow = new OpenNowIndex();
+    // Every shop passing the filter, in order; visible is its first `limit` entries
+    private final List<ShopModel> matching = new ArrayList<>();
+    private final Set<String> matchingIds = new HashSet<>();
+    private final List<ShopModel> visible;
+    private final ListUpdateCallback updates;
+    private final Runnable dataSetChanged;
+
+    private Predicate<ShopModel> filter = ALL;
+    private Comparator<ShopModel> order = BY_ID;
+    private int limit = Integer.MAX_VALUE;
+
+    /**
+     * @param visible the adapter's backing list
+     */
+    public ShopCatalogStore(List<ShopModel> visible, RecyclerView.Adapter<?> adapter) {
+        this(visible, new AdapterListUpdateCallback(adapter), adapter::notifyDataSetChanged);
+    }
+
+    // Row-level updates go to {@code updates}, full rebuilds to {@code dataSetChanged}
+    ShopCatalogStore(List<ShopModel> visible, ListUpdateCallback updates, Runnable dataSetChanged) {
+        this.visible = visible;
+        this.updates = updates;
+        this.dataSetChanged = dataSetChanged;
+    }
+
+    /**
+     * Parse the documents that changed in {@code snapshot}; documents {@code mapper} can't read
+     * (returns null for) are skipped. Safe off the main thread.
+     */
+    public static List<Change> changesOf(QuerySnapshot snapshot, Function<DocumentSnapshot, ShopModel> mapper) {
+        List<DocumentChange> documentChanges = snapshot.getDocumentChanges();
+        List<Change> changes = new ArrayList<>(documentChanges.size());
+        for (DocumentChange documentChange : documentChanges) {
+            String shopId = documentChange.getDocument().getId();
+            if (documentChange.getType() == DocumentChange.Type.REMOVED) {
+                changes.add(new Change(shopId, null));
+            } else {
+                ShopModel shop = mapper.apply(documentChange.getDocument());
+                if (shop != null) changes.add(new Change(shopId, shop));
+            }
+        }
+        return changes;
+    }
+
+    // ==================== CATALOG ====================
+
+    public ShopModel get(String shopId) {
+        return shopId != null ? shops.get(shopId) : null;
+    }
+
+    public Collection<ShopModel> getAll() {
+        return Collections.unmodifiableCollection(shops.values());
+    }
+
+    public int size() {
+        return shops.size();
+    }
+
+    /**
+     * Make the catalog exactly the shops in {@code changes}, as the first snapshot of a listener
+     * reports them
+     */
+    public void replaceAll(List<Change> changes) {
+        shops.clear();
+        openNow.clear();
+        for (Change change : changes) {
+            if (change.shop == null) continue;
+            shops.put(change.shopId, change.shop);
+            index(change);
+        }
+        rebuild();
+    }
+
+    /**
+     * Swap in an edited copy of a shop; its row is re-filtered and re-placed like a snapshot change
+     */
+    public void replace(ShopModel shop) {
+        apply(Collections.singletonList(new Change(shop.getShopId(), shop)));
+    }
+
+    public void apply(List<Change> changes) {
+        if (changes.isEmpty()) return;
+        if (changes.size() >= Math.max(MIN_REBUILD_CHANGES, shops.size() / REBUILD_DIVISOR)) {
+            for (Change change : changes) {
+                if (change.shop == null) shops.remove(change.shopId);
+                else shops.put(change.shopId, change.shop);
+                index(change);
+            }
+            rebuild();
+            return;
+        }
+        for (Change change : changes) {
+            ShopModel previous = change.shop == null
+                    ? shops.remove(change.shopId)
+                    : shops.put(change.shopId, change.shop);
+            index(change);
+            patch(previous, change.shop);
+        }
+    }
+
+    private void index(Change change) {
+        if (change.shop == null) openNow.remove(change.shopId);
+        else openNow.put(change.shopId, change.shop.getSchedule());
+    }
+
+    // ==================== VIEW ====================
+
+    /**
+     * Filter for shops open at {@code epochMillis}, read against the shops' own time zone
+     */
+    public Predicate<ShopModel> openAt(long epochMillis) {
+        int minuteOfWeek = WeeklySchedule.minuteOfWeek(epochMillis, SHOP_ZONE);
+        return shop -> openNow.isOpen(shop.getShopId(), minuteOfWeek);
+    }
+
+    /**
+     * Show the shops passing {@code filter} in catalog order
+     */
+    public void filter(Predicate<ShopModel> filter) {
+        show(filter, BY_ID, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reorder the shops currently shown, keeping the filter
+     */
+    public void sort(Comparator<ShopModel> order) {
+        show(filter, order, limit);
+    }
+
+    /**
+     * Show at most {@code limit} shops passing {@code filter}, ordered by {@code order}
+     */
+    public void show(Predicate<ShopModel> filter, Comparator<ShopModel> order, int limit) {
+        this.filter = filter;
+        this.order = order == BY_ID ? BY_ID : order.thenComparing(BY_ID);
+        this.limit = limit;
+        rebuild();
+    }
+
+    private void rebuild() {
+        matching.clear();
+        matchingIds.clear();
+        for (ShopModel shop : shops.values()) {
+            if (filter.test(shop)) {
+                matching.add(shop);
+                matchingIds.add(shop.getShopId());
+            }
+        }
+        Collections.sort(matching, order);
+        visible.clear();
+        visible.addAll(matching.subList(0, Math.min(limit, matching.size())));
+        dataSetChanged.run();
+    }
+
+    // ==================== DELTAS ====================
+
+    private void patch(ShopModel previous, ShopModel next) {
+        boolean wasShown = previous != null && matchingIds.contains(previous.getShopId());
+        boolean isShown = next != null && filter.test(next);
+        if (!wasShown && !isShown) return;
+
+        if (wasShown && isShown) {
+            int from = positionOf(previous);
+            matching.remove(from);
+            int to = insertionPoint(next);
+            matching.add(to, next);
+            if (from == to) {
+                if (from < limit) {
+                    visible.set(from, next);
+                    updates.onChanged(from, 1, null);
+                }
+            } else {
+                moveVisible(from, to, next);
+            }
+        } else if (wasShown) {
+            int from = positionOf(previous);
+            matching.remove(from);
+            matchingIds.remove(previous.getShopId());
+            removeVisible(from);
+        } else {
+            int to = insertionPoint(next);
+            matching.add(to, next);
+            matchingIds.add(next.getShopId());
+            insertVisible(to, next);
+        }
+    }
+
+    private void insertVisible(int position, ShopModel shop) {
+        if (position >= limit) return;
+        visible.add(position, shop);
+        updates.onInserted(position, 1);
+        if (visible.size() > limit) {
+            visible.remove(limit);
+            updates.onRemoved(limit, 1);
+        }
+    }
+
+    private void removeVisible(int position) {
+        if (position >= limit) return;
+        visible.remove(position);
+        updates.onRemoved(position, 1);
+        // Pull the next match up into the freed last row
+        if (matching.size() >= limit) {
+            visible.add(matching.get(limit - 1));
+            updates.onInserted(limit - 1, 1);
+        }
+    }
+
+    private void moveVisible(int from, int to, ShopModel shop) {
+        if (from < limit && to < limit) {
+            visible.remove(from);
+            visible.add(to, shop);
+            updates.onMoved(from, to);
+            updates.onChanged(to, 1, null);
+        } else if (from < limit) {
+            // Moved past the last row: the next match takes its place
+            visible.remove(from);
+            updates.onRemoved(from, 1);
+            visible.add(matching.get(limit - 1));
+            updates.onInserted(limit - 1, 1);
+        } else if (to < limit) {
+            insertVisible(to, shop);
+        }
+    }
+
+    /**
+     * Position of {@code shop} in matching. The list is sorted and shops are replaced rather than
+     * edited, so this is a binary search; the scan only guards against a caller editing a shop's
+     * sort key in place.
+     */
+    private int positionOf(ShopModel shop) {
+        int position = Collections.binarySearch(matching, shop, order);
+        if (position >= 0 && matching.get(position) == shop) return position;
+        for (int i = 0; i < matching.size(); i++) {
+            if (matching.get(i).getShopId().equals(shop.getShopId())) return i;
+        }
+        throw new IllegalStateException("Shop " + shop.getShopId() + " is not in the list");
+    }
+
+    private int insertionPoint(ShopModel shop) {
+        int position = Collections.binarySearch(matching, shop, order);
+        return position >= 0 ? position : -position - 1;
+    }
+}
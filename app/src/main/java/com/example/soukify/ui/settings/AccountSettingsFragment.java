@@ -22,6 +22,7 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
 import com.bumptech.glide.Glide;
+import com.example.soukify.utils.image.ImageLoader;
 import com.example.soukify.R;
 import com.example.soukify.databinding.FragmentAccountSettingsBinding;
 import com.example.soukify.data.models.UserModel;
@@ -218,8 +219,7 @@ public class AccountSettingsFragment extends Fragment {
 
     private void loadProfileImage(String imageUrl) {
         if (imageUrl != null && !imageUrl.isEmpty()) {
-            Glide.with(this)
-                .load(imageUrl)
+            ImageLoader.load(Glide.with(this), imageUrl)
                 .placeholder(R.drawable.ic_profile_placeholder)
                 .error(R.drawable.ic_profile_placeholder)
                 .into(binding.profileImage);
@@ -592,8 +592,7 @@ public class AccountSettingsFragment extends Fragment {
                 selectedImageUri = selectedUri;
 
                 // Preview the image
-                Glide.with(this)
-                    .load(selectedUri)
+                ImageLoader.load(Glide.with(this), selectedUri)
                     .placeholder(R.drawable.ic_profile_placeholder)
                     .into(binding.profileImage);
 
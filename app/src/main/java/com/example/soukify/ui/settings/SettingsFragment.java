@@ -28,6 +28,7 @@ import com.example.soukify.ui.settings.SettingItemView;
 import com.example.soukify.ui.shop.ShopViewModel;
 import de.hdodenhof.circleimageview.CircleImageView;
 import com.bumptech.glide.Glide;
+import com.example.soukify.utils.image.ImageLoader;
 import com.example.soukify.data.repositories.ChatRepository;
 import com.google.firebase.auth.FirebaseAuth;
 
@@ -307,8 +308,7 @@ public class SettingsFragment extends Fragment {
             // Check if it's a Cloudinary URL (http/https) or local file
             if (uri.getScheme() != null && (uri.getScheme().equals("http") || uri.getScheme().equals("https"))) {
                 // Load Cloudinary URL with Glide
-                Glide.with(this)
-                    .load(imageUri)
+                ImageLoader.load(Glide.with(this), imageUri)
                     .placeholder(R.drawable.ic_profile_placeholder)
                     .error(R.drawable.ic_profile_placeholder)
                     .into(profileImageView);
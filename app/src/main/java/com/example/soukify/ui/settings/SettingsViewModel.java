@@ -11,6 +11,7 @@ import com.example.soukify.data.repositories.SessionRepository;
 import com.example.soukify.data.repositories.UserRepository;
 import com.example.soukify.data.models.UserModel;
 import com.example.soukify.data.remote.CloudinaryImageService;
+import com.example.soukify.data.remote.MediaReferences;
 import android.util.Log;
 import android.util.Patterns;
 import android.net.Uri;
@@ -302,11 +303,10 @@ public class SettingsViewModel extends AndroidViewModel {
                 userRepository.updateProfile(updatedUser, null, null);
 
                 // Delete old image in background (non-blocking) - don't wait for this
-                if (user.getProfileImage() != null && !user.getProfileImage().isEmpty()) {
-                    String oldPublicId = extractPublicIdFromUrl(user.getProfileImage());
-                    if (oldPublicId != null && !oldPublicId.equals(publicId)) {
-                        newThreadToDeleteImage(oldPublicId);
-                    }
+                // Content-addressed assets may be shared with listings; releaseMedia keeps those
+                String oldImageUrl = user.getProfileImage();
+                if (oldImageUrl != null && !oldImageUrl.isEmpty() && !oldImageUrl.equals(mediaUrl)) {
+                    deleteOldImage(oldImageUrl, MediaReferences.path(MediaReferences.USERS, currentUid));
                 }
 
                 isUploadingImage = false;
@@ -322,20 +322,19 @@ public class SettingsViewModel extends AndroidViewModel {
                 isLoading.postValue(false);
             }
 
-            private void newThreadToDeleteImage(String oldPublicId) {
-                new Thread(() -> {
-                    cloudinaryService.deleteMedia(oldPublicId, new CloudinaryImageService.MediaDeleteCallback() {
-                        @Override
-                        public void onSuccess() {
-                            Log.d("SettingsViewModel", "Old profile image deleted");
-                        }
-
-                        @Override
-                        public void onError(String error) {
-                            Log.w("SettingsViewModel", "Failed to delete old image: " + error);
-                        }
-                    });
-                }).start();
+            private void deleteOldImage(String oldImageUrl, String ownerPath) {
+                // releaseMedia already runs on the shared I/O lane
+                cloudinaryService.releaseMedia(oldImageUrl, ownerPath, new CloudinaryImageService.MediaDeleteCallback() {
+                    @Override
+                    public void onSuccess() {
+                        Log.d("SettingsViewModel", "Old profile image deleted");
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Log.w("SettingsViewModel", "Failed to delete old image: " + error);
+                    }
+                });
             }
 
             @Override
@@ -367,37 +366,4 @@ public class SettingsViewModel extends AndroidViewModel {
         }
         Log.d("SettingsViewModel", "ViewModel cleared and repository cleaned up");
     }
-
-    private String extractPublicIdFromUrl(String cloudinaryUrl) {
-        if (cloudinaryUrl == null || cloudinaryUrl.isEmpty()) {
-            return null;
-        }
-
-        try {
-            // Extract public ID from Cloudinary URL
-            // URL format: https://res.cloudinary.com/cloud_name/image/upload/v1234567890/folder/public_id.extension
-            String[] parts = cloudinaryUrl.split("/");
-            if (parts.length >= 2) {
-                String lastPart = parts[parts.length - 1];
-
-                // Remove file extension
-                int dotIndex = lastPart.lastIndexOf('.');
-                if (dotIndex > 0) {
-                    String publicId = lastPart.substring(0, dotIndex);
-
-                    // Include folder if exists (second to last part might be folder)
-                    if (parts.length >= 3 && !parts[parts.length - 2].matches("v\\d+")) {
-                        publicId = parts[parts.length - 2] + "/" + publicId;
-                    }
-
-                    return publicId;
-                }
-                return lastPart;
-            }
-        } catch (Exception e) {
-            Log.w("SettingsViewModel", "Failed to extract public ID from URL: " + cloudinaryUrl, e);
-        }
-
-        return null;
-    }
 }
\ No newline at end of file
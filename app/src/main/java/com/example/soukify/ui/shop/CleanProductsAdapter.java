@@ -3,7 +3,6 @@ package com.example.soukify.ui.shop;
 import android.app.Activity;
 import android.content.Context;
 import android.os.Bundle;
-import android.util.Log;
 import android.graphics.Color;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -22,7 +21,9 @@ import com.example.soukify.data.models.ProductModel;
 import com.example.soukify.utils.CurrencyHelper;
 import com.example.soukify.data.remote.firebase.FirebaseProductImageService;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.example.soukify.data.counters.ImpressionPipeline;
 import com.example.soukify.data.sync.ProductSync;
+import com.example.soukify.utils.log.AppLog;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,6 +33,8 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
     private static final String TAG = "CleanProductsAdapter";
 
     private List<ProductModel> products = new ArrayList<>();
+    // One impression per product while this list is shown, however often its card is rebound
+    private final java.util.Set<String> impressedProductIds = new java.util.HashSet<>();
     private OnProductClickListener listener;
     private Context context;
     private FirebaseProductImageService imageService;
@@ -112,7 +115,7 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
         this.products.addAll(newProducts);
         diffResult.dispatchUpdatesTo(this);
 
-        Log.d(TAG, "Updated products list with " + newProducts.size() + " items using DiffUtil");
+        AppLog.d(TAG, "Updated products list with {} items using DiffUtil", newProducts.size());
     }
 
     @NonNull
@@ -126,6 +129,9 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
     @Override
     public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
         ProductModel product = products.get(position);
+        if (product.getProductId() != null && impressedProductIds.add(product.getProductId())) {
+            ImpressionPipeline.get().recordProductImpression(product.getProductId());
+        }
         holder.bind(product, null);
     }
 
@@ -185,11 +191,10 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
 
                 navController.navigate(R.id.global_action_to_productDetail, bundle);
 
-                Log.d(TAG, "Navigated to product detail for: " + product.getName() +
-                        (isFavoritesContext ? " (from favorites)" : ""));
+                AppLog.d(TAG, "Navigated to product detail for: {}{}", product.getName(), (isFavoritesContext ? " (from favorites)" : ""));
             }
         } catch (Exception e) {
-            Log.e(TAG, "Error navigating to product detail: " + e.getMessage(), e);
+            AppLog.e(TAG, "Error navigating to product detail: {}", e.getMessage(), e);
         }
     }
 
@@ -294,17 +299,17 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
                 if (payload.containsKey("likesCount")) {
                     int likes = payload.getInt("likesCount");
                     likesCount.setText(String.valueOf(likes));
-                    Log.d(TAG, "Partial update: likesCount=" + likes);
+                    AppLog.d(TAG, "Partial update: likesCount={}", likes);
                 }
                 if (payload.containsKey("isLiked")) {
                     boolean liked = payload.getBoolean("isLiked");
                     updateLikeButton(liked);
-                    Log.d(TAG, "Partial update: isLiked=" + liked);
+                    AppLog.d(TAG, "Partial update: isLiked={}", liked);
                 }
                 if (payload.containsKey("isFavorite")) {
                     boolean favorite = payload.getBoolean("isFavorite");
                     updateFavoriteButton(favorite);
-                    Log.d(TAG, "Partial update: isFavorite=" + favorite);
+                    AppLog.d(TAG, "Partial update: isFavorite={}", favorite);
                 }
                 return;
             }
@@ -389,7 +394,7 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
             // Like button
             if (likeButton != null) {
                 likeButton.setOnClickListener(v -> {
-                    Log.d(TAG, "❤️ Like button clicked for: " + product.getName());
+                    AppLog.d(TAG, "❤️ Like button clicked for: {}", product.getName());
                     boolean newLiked = !product.isLikedByUser();
                     int newCount = product.getLikesCount() + (newLiked ? 1 : -1);
                     product.setLikedByUser(newLiked);
@@ -405,7 +410,7 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
             // Favorite button
             if (favoriteButton != null) {
                 favoriteButton.setOnClickListener(v -> {
-                    Log.d(TAG, "⭐ Favorite button clicked for: " + product.getName());
+                    AppLog.d(TAG, "⭐ Favorite button clicked for: {}", product.getName());
                     if (listener != null) {
                         listener.onFavoriteClick(product, getAdapterPosition());
                     } else {
@@ -421,7 +426,7 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
             // Shop link button (uniquement en contexte favoris)
             if (isFavoritesContext) {
                 shopLinkButton.setOnClickListener(v -> {
-                    Log.d(TAG, "🏪 Shop link button clicked for: " + product.getName());
+                    AppLog.d(TAG, "🏪 Shop link button clicked for: {}", product.getName());
                     navigateToShop(product.getShopId());
                 });
 
@@ -439,7 +444,7 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
 
         private void navigateToShop(String shopId) {
             if (shopId == null || shopId.isEmpty()) {
-                Log.w(TAG, "Shop ID is null or empty, cannot navigate");
+                AppLog.w(TAG, "Shop ID is null or empty, cannot navigate");
                 return;
             }
 
@@ -459,11 +464,10 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
 
                     navController.navigate(R.id.navigation_shop, bundle);
 
-                    Log.d(TAG, "Navigated to shop: " + shopId +
-                            (isFavoritesContext ? " (from favorites)" : ""));
+                    AppLog.d(TAG, "Navigated to shop: {}{}", shopId, (isFavoritesContext ? " (from favorites)" : ""));
                 }
             } catch (Exception e) {
-                Log.e(TAG, "Error navigating to shop: " + e.getMessage(), e);
+                AppLog.e(TAG, "Error navigating to shop: {}", e.getMessage(), e);
             }
         }
 
@@ -471,7 +475,7 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
             if (product.hasImages()) {
                 String primaryImageId = product.getPrimaryImageId();
                 if (primaryImageId != null && !primaryImageId.isEmpty()) {
-                    Log.d(TAG, "Loading primary image for product: " + product.getProductId());
+                    AppLog.d(TAG, "Loading primary image for product: {}", product.getProductId());
 
                     imageService.getProductImage(primaryImageId)
                             .addOnSuccessListener(imageModel -> {
@@ -483,13 +487,13 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
                                             new ProductImageCarousel.OnImageClickListener() {
                                                 @Override
                                                 public void onImageClick(int position, String imageUrl) {
-                                                    Log.d(TAG, "Image clicked: " + product.getName());
+                                                    AppLog.d(TAG, "Image clicked: {}", product.getName());
                                                     navigateToProductDetail(product);
                                                 }
 
                                                 @Override
                                                 public void onImageLongClick(int position, String imageUrl) {
-                                                    Log.d(TAG, "Image long clicked: " + product.getName());
+                                                    AppLog.d(TAG, "Image long clicked: {}", product.getName());
                                                     if (listener != null) {
                                                         listener.onProductLongClick(product);
                                                     }
@@ -505,40 +509,40 @@ public class CleanProductsAdapter extends RecyclerView.Adapter<CleanProductsAdap
                                         productImageCarousel.setFocusable(false);
 
                                         parentLayout.setOnClickListener(v -> {
-                                            Log.d(TAG, "Image area clicked: " + product.getName());
+                                            AppLog.d(TAG, "Image area clicked: {}", product.getName());
                                             navigateToProductDetail(product);
                                         });
                                         parentLayout.setClickable(true);
                                         parentLayout.setFocusable(true);
                                     }
                                 } else {
-                                    Log.d(TAG, "Image model null for: " + product.getProductId());
+                                    AppLog.d(TAG, "Image model null for: {}", product.getProductId());
                                     showPlaceholder(productImageCarousel);
                                 }
                             })
                             .addOnFailureListener(e -> {
-                                Log.e(TAG, "Failed to load image: " + product.getProductId(), e);
+                                AppLog.e(TAG, "Failed to load image: {}", product.getProductId(), e);
                                 showPlaceholder(productImageCarousel);
                             });
                 } else {
-                    Log.d(TAG, "No primary image ID for: " + product.getProductId());
+                    AppLog.d(TAG, "No primary image ID for: {}", product.getProductId());
                     showPlaceholder(productImageCarousel);
                 }
             } else {
-                Log.d(TAG, "No images for: " + product.getProductId());
+                AppLog.d(TAG, "No images for: {}", product.getProductId());
                 showPlaceholder(productImageCarousel);
             }
         }
 
         private void showPlaceholder(ProductImageCarousel carousel) {
-            Log.d(TAG, "Showing placeholder in carousel");
+            AppLog.d(TAG, "Showing placeholder in carousel");
             carousel.setVisibility(View.GONE);
 
             FrameLayout parentLayout = (FrameLayout) carousel.getParent();
             if (parentLayout != null) {
                 parentLayout.setOnClickListener(v -> {
                     if (currentProduct != null) {
-                        Log.d(TAG, "Placeholder clicked: " + currentProduct.getName());
+                        AppLog.d(TAG, "Placeholder clicked: {}", currentProduct.getName());
                         navigateToProductDetail(currentProduct);
                     }
                 });
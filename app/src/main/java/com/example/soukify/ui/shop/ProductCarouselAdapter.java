@@ -2,7 +2,6 @@ package com.example.soukify.ui.shop;
 
 import android.content.Intent;
 import android.net.Uri;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,8 +14,10 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.example.soukify.utils.image.ImageLoader;
 import com.example.soukify.R;
 import com.example.soukify.ui.shop.ScalableTextureVideoView;
+import com.example.soukify.utils.log.AppLog;
 
 import java.util.List;
 
@@ -80,7 +81,7 @@ public class ProductCarouselAdapter extends RecyclerView.Adapter<ProductCarousel
     @Override
     public void onBindViewHolder(@NonNull MediaViewHolder holder, int position) {
         String mediaUrl = mediaUrls.get(position);
-        android.util.Log.d("ProductCarouselAdapter", "Binding position " + position + " with URL: " + mediaUrl);
+        AppLog.d("ProductCarouselAdapter", "Binding position {} with URL: {}", position, mediaUrl);
         holder.bind(mediaUrl, position);
     }
     
@@ -117,7 +118,7 @@ public class ProductCarouselAdapter extends RecyclerView.Adapter<ProductCarousel
             }
             
             if (isVideo(mediaUrl)) {
-                android.util.Log.d("ProductCarouselAdapter", "Loading video: " + mediaUrl);
+                AppLog.d("ProductCarouselAdapter", "Loading video: {}", mediaUrl);
                 
                 videoView.setVisibility(View.VISIBLE);
                 imageView.setVisibility(View.GONE);
@@ -126,10 +127,10 @@ public class ProductCarouselAdapter extends RecyclerView.Adapter<ProductCarousel
                 try {
                     Uri videoUri = Uri.parse(mediaUrl);
                     videoView.setVideoURI(videoUri);
-                    android.util.Log.d("ProductCarouselAdapter", "Video URI set: " + videoUri);
+                    AppLog.d("ProductCarouselAdapter", "Video URI set: {}", videoUri);
                     
                 } catch (Exception e) {
-                    android.util.Log.e("ProductCarouselAdapter", "Error loading video", e);
+                    AppLog.e("ProductCarouselAdapter", "Error loading video", e);
                     videoView.setVisibility(View.GONE);
                 }
                 
@@ -142,7 +143,7 @@ public class ProductCarouselAdapter extends RecyclerView.Adapter<ProductCarousel
                 
             } else {
                 // Show ImageView
-                android.util.Log.d("ProductCarouselAdapter", "Loading image: " + mediaUrl);
+                AppLog.d("ProductCarouselAdapter", "Loading image: {}", mediaUrl);
                 
                 videoView.setVisibility(View.GONE);
                 videoIndicator.setVisibility(View.GONE);
@@ -150,13 +151,12 @@ public class ProductCarouselAdapter extends RecyclerView.Adapter<ProductCarousel
                 
                 try {
                     // Use Glide for better image loading
-                    Glide.with(itemView.getContext())
-                            .load(Uri.parse(mediaUrl))
+                    ImageLoader.load(Glide.with(itemView.getContext()), Uri.parse(mediaUrl))
                             .placeholder(R.drawable.ic_image_placeholder)
                             .error(R.drawable.ic_image_placeholder)
                             .into(imageView);
                 } catch (Exception e) {
-                    android.util.Log.e("ProductCarouselAdapter", "Error loading image", e);
+                    AppLog.e("ProductCarouselAdapter", "Error loading image", e);
                     imageView.setImageResource(R.drawable.ic_image_placeholder);
                 }
                 
@@ -197,11 +197,11 @@ public class ProductCarouselAdapter extends RecyclerView.Adapter<ProductCarousel
                 Uri uri = Uri.parse(mediaUrl);
                 String mimeType = itemView.getContext().getContentResolver().getType(uri);
                 if (mimeType != null && mimeType.startsWith("video/")) {
-                    android.util.Log.d("ProductCarouselAdapter", "Detected VIDEO by MIME: " + mimeType);
+                    AppLog.d("ProductCarouselAdapter", "Detected VIDEO by MIME: {}", mimeType);
                     return true;
                 }
             } catch (Exception e) {
-                android.util.Log.e("ProductCarouselAdapter", "Error getting MIME type", e);
+                AppLog.e("ProductCarouselAdapter", "Error getting MIME type", e);
             }
             
             // Fallback to extension check
@@ -217,7 +217,7 @@ public class ProductCarouselAdapter extends RecyclerView.Adapter<ProductCarousel
                    urlLower.endsWith(".m4v");
             
             if (isVideoExt) {
-                android.util.Log.d("ProductCarouselAdapter", "Detected VIDEO by extension");
+                AppLog.d("ProductCarouselAdapter", "Detected VIDEO by extension");
             }
             
             return isVideoExt;
@@ -26,6 +26,7 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 
 import com.bumptech.glide.Glide;
+import com.example.soukify.utils.image.ImageLoader;
 import com.example.soukify.R;
 import com.example.soukify.ui.settings.SettingsFragment;
 import com.example.soukify.utils.LocaleHelper;
@@ -45,6 +46,9 @@ import java.util.ArrayList;
 import java.util.List;
 import com.example.soukify.data.sync.ShopSync;
 import com.example.soukify.data.sync.ProductSync;
+import com.example.soukify.data.counters.ImpressionPipeline;
+import com.example.soukify.data.trending.TrendingEvent;
+import com.example.soukify.data.trending.TrendingTracker;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -139,6 +143,15 @@ public class ProductDetailFragment extends Fragment implements ProductDialogHelp
 
         if (productId != null) {
             productViewModel.loadProduct(productId);
+            if (savedInstanceState == null) {
+                // Count the open once, not on every configuration change
+                ImpressionPipeline.get().recordProductView(productId);
+                if (product != null) {
+                    TrendingTracker.get().recordProduct(product, TrendingEvent.VIEW);
+                } else {
+                    TrendingTracker.get().recordProduct(productId, TrendingEvent.VIEW);
+                }
+            }
         }
 
         productManager = new ProductManager(requireActivity().getApplication());
@@ -439,8 +452,7 @@ public class ProductDetailFragment extends Fragment implements ProductDialogHelp
                 productImageCarousel.setVisibility(View.GONE);
             }
 
-            Glide.with(requireContext())
-                    .load(imageUri)
+            ImageLoader.load(Glide.with(requireContext()), imageUri)
                     .placeholder(android.R.drawable.ic_menu_gallery)
                     .error(android.R.drawable.ic_menu_gallery)
                     .centerCrop()
@@ -14,12 +14,10 @@ import com.example.soukify.data.repositories.ProductRepository;
 import com.example.soukify.data.remote.firebase.FirebaseProductImageService;
 import com.example.soukify.data.remote.FirebaseManager;
 import com.example.soukify.data.remote.CloudinaryImageService;
-import com.example.soukify.utils.ImageUtils;
+import com.example.soukify.data.remote.MediaReferences;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Centralized manager for all product operations
@@ -33,7 +31,6 @@ public class ProductManager {
     private final FirebaseProductImageService firebaseProductImageService;
     private final CloudinaryImageService cloudinaryService;
     private final Context context;
-    private final ExecutorService executorService;
     private final MutableLiveData<List<ProductModel>> products = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
@@ -48,7 +45,6 @@ public class ProductManager {
         this.firebaseProductImageService = new FirebaseProductImageService(firebaseManager.getFirestore());
         this.cloudinaryService = new CloudinaryImageService(application);
         this.context = application.getApplicationContext();
-        this.executorService = Executors.newSingleThreadExecutor();
     }
     
     // ==================== PRODUCT LOADING ====================
@@ -402,8 +398,9 @@ public class ProductManager {
                         })
                         .addOnFailureListener(e -> {
                             Log.e(TAG, "Failed to create product image: " + e.getMessage(), e);
-                            // Delete from Cloudinary if Firebase document creation fails
-                            cloudinaryService.deleteMedia(publicId, new CloudinaryImageService.MediaDeleteCallback() {
+                            // Delete from Cloudinary if Firebase document creation fails, unless
+                            // another document uses the same content
+                            cloudinaryService.releaseMedia(mediaUrl, null, new CloudinaryImageService.MediaDeleteCallback() {
                                 @Override
                                 public void onSuccess() {
                                     Log.d(TAG, "Cloudinary media deleted due to Firebase failure");
@@ -513,8 +510,9 @@ public class ProductManager {
                         })
                         .addOnFailureListener(e -> {
                             Log.e(TAG, "Failed to create new image document: " + e.getMessage(), e);
-                            // Delete from Cloudinary if Firebase document creation fails
-                            cloudinaryService.deleteMedia(publicId, new CloudinaryImageService.MediaDeleteCallback() {
+                            // Delete from Cloudinary if Firebase document creation fails, unless
+                            // another document uses the same content
+                            cloudinaryService.releaseMedia(mediaUrl, null, new CloudinaryImageService.MediaDeleteCallback() {
                                 @Override
                                 public void onSuccess() {
                                     Log.d(TAG, "Cloudinary media deleted due to Firebase failure");
@@ -555,21 +553,18 @@ public class ProductManager {
             if (imageId != null && !imageId.isEmpty()) {
                 // Check if imageId is a URL (Cloudinary) or Firestore document ID
                 if (imageId.startsWith("http://") || imageId.startsWith("https://")) {
-                    // This is a Cloudinary URL, delete directly from Cloudinary
-                    String publicId = extractPublicIdFromUrl(imageId);
-                    if (publicId != null) {
-                        cloudinaryService.deleteMedia(publicId, new CloudinaryImageService.MediaDeleteCallback() {
-                            @Override
-                            public void onSuccess() {
-                                Log.d(TAG, "Cloudinary media deleted: " + publicId);
-                            }
-                            
-                            @Override
-                            public void onError(String error) {
-                                Log.w(TAG, "Failed to delete Cloudinary media: " + error);
-                            }
-                        });
-                    }
+                    // This is a Cloudinary URL, delete it from Cloudinary unless used elsewhere
+                    cloudinaryService.releaseMedia(imageId, null, new CloudinaryImageService.MediaDeleteCallback() {
+                        @Override
+                        public void onSuccess() {
+                            Log.d(TAG, "Cloudinary media released: " + imageId);
+                        }
+                        
+                        @Override
+                        public void onError(String error) {
+                            Log.w(TAG, "Failed to delete Cloudinary media: " + error);
+                        }
+                    });
                 } else {
                     // This is a Firestore document ID, get the image details first
                     firebaseProductImageService.getProductImage(imageId)
@@ -577,21 +572,20 @@ public class ProductManager {
                             if (productImage != null && productImage.getImageUrl() != null) {
                                 String mediaUrl = productImage.getImageUrl();
                                 
-                                // Extract public ID from Cloudinary URL and delete
-                                String publicId = extractPublicIdFromUrl(mediaUrl);
-                                if (publicId != null) {
-                                    cloudinaryService.deleteMedia(publicId, new CloudinaryImageService.MediaDeleteCallback() {
-                                        @Override
-                                        public void onSuccess() {
-                                            Log.d(TAG, "Cloudinary media deleted: " + publicId);
-                                        }
-                                        
-                                        @Override
-                                        public void onError(String error) {
-                                            Log.w(TAG, "Failed to delete Cloudinary media: " + error);
-                                        }
-                                    });
-                                }
+                                // Delete from Cloudinary once no other document uses the asset
+                                cloudinaryService.releaseMedia(mediaUrl,
+                                        MediaReferences.path(MediaReferences.PRODUCT_IMAGES, imageId),
+                                        new CloudinaryImageService.MediaDeleteCallback() {
+                                    @Override
+                                    public void onSuccess() {
+                                        Log.d(TAG, "Cloudinary media released: " + mediaUrl);
+                                    }
+                                    
+                                    @Override
+                                    public void onError(String error) {
+                                        Log.w(TAG, "Failed to delete Cloudinary media: " + error);
+                                    }
+                                });
                             }
                             
                             // Delete the Firestore document
@@ -645,30 +639,5 @@ public class ProductManager {
     public interface ImageUrlsCallback {
         void onResult(List<String> urls);
     }
-    
-    private String extractPublicIdFromUrl(String cloudinaryUrl) {
-        if (cloudinaryUrl == null || cloudinaryUrl.isEmpty()) {
-            return null;
-        }
-        
-        try {
-            // Extract public ID from Cloudinary URL
-            // URL format: https://res.cloudinary.com/cloud_name/image/upload/v1234567890/public_id.extension
-            String[] parts = cloudinaryUrl.split("/");
-            if (parts.length >= 2) {
-                String lastPart = parts[parts.length - 1];
-                // Remove file extension
-                int dotIndex = lastPart.lastIndexOf('.');
-                if (dotIndex > 0) {
-                    return lastPart.substring(0, dotIndex);
-                }
-                return lastPart;
-            }
-        } catch (Exception e) {
-            Log.w(TAG, "Failed to extract public ID from URL: " + cloudinaryUrl, e);
-        }
-        
-        return null;
-    }
 }
 
@@ -30,6 +30,7 @@ import com.example.soukify.R;
 import com.example.soukify.data.repositories.LocationRepository;
 import com.example.soukify.data.models.RegionModel;
 import com.example.soukify.data.models.CityModel;
+import com.example.soukify.data.hours.WeeklySchedule;
 import com.example.soukify.data.models.ShopModel;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.textfield.TextInputEditText;
@@ -37,6 +38,7 @@ import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.android.material.switchmaterial.SwitchMaterial;
 import com.bumptech.glide.Glide;
+import com.example.soukify.utils.image.ImageLoader;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -169,8 +171,7 @@ public class ShopFragment extends Fragment {
         args.putString("shopWebsite", shop.getWebsite() != null ? shop.getWebsite() : "");
         args.putString("shopRegionId", shop.getRegionId() != null ? shop.getRegionId() : "");
         args.putString("shopCityId", shop.getCityId() != null ? shop.getCityId() : "");
-        args.putString("shopCreatedAt", shop.getCreatedAtString() != null ? shop.getCreatedAtString() : "");
-        args.putLong("shopCreatedAtTimestamp", shop.getCreatedAtTimestamp() > 0 ? shop.getCreatedAtTimestamp() : System.currentTimeMillis());
+        args.putLong("shopCreatedAtTimestamp", shop.getCreatedAtMillis());
         args.putBoolean("hideDialogs", true); // Hide dialogs for external shops by default
         
         // Pass source parameter from parent fragment arguments
@@ -293,8 +294,7 @@ public class ShopFragment extends Fragment {
             args.putString("shopRegionId", currentShop.getRegionId() != null ? currentShop.getRegionId() : "");
             args.putString("shopCityId", currentShop.getCityId() != null ? currentShop.getCityId() : "");
             args.putString("shopUserId", currentShop.getUserId() != null ? currentShop.getUserId() : ""); // Pass owner ID
-            args.putString("shopCreatedAt", currentShop.getCreatedAtString() != null ? currentShop.getCreatedAtString() : "");
-            args.putLong("shopCreatedAtTimestamp", currentShop.getCreatedAtTimestamp() > 0 ? currentShop.getCreatedAtTimestamp() : System.currentTimeMillis());
+            args.putLong("shopCreatedAtTimestamp", currentShop.getCreatedAtMillis());
             args.putBoolean("hideDialogs", false); // Show dialogs when opened from settings
             
             // Pass source parameter from parent fragment arguments
@@ -565,9 +565,9 @@ public class ShopFragment extends Fragment {
         android.util.Log.d("ShopFragment", "Dialog will now show with these toggle states");
         
         tvShopId.setText(getString(R.string.id_format, shop.getShopId().substring(0, Math.min(8, shop.getShopId().length()))));
-        if (shop.getCreatedAtString() != null) {
-            tvCreationDate.setText(formatDate(shop.getCreatedAtTimestamp()));
-            tvShopAge.setText(calculateShopAge(shop.getCreatedAtTimestamp()));
+        if (shop.getCreatedAtMillis() > 0) {
+            tvCreationDate.setText(formatDate(shop.getCreatedAtMillis()));
+            tvShopAge.setText(calculateShopAge(shop.getCreatedAtMillis()));
         }
         tvProductsCount.setText("0");
         tvShopRating.setText("0.0");
@@ -616,8 +616,7 @@ public class ShopFragment extends Fragment {
                 // Check if it's a Cloudinary URL (http/https) and load with Glide
                 Uri imageUri = Uri.parse(shop.getImageUrl());
                 if (imageUri.getScheme() != null && (imageUri.getScheme().equals("http") || imageUri.getScheme().equals("https"))) {
-                    Glide.with(requireContext())
-                        .load(imageUri.toString())
+                    ImageLoader.load(Glide.with(requireContext()), imageUri.toString())
                         .placeholder(R.drawable.ic_image_placeholder)
                         .error(R.drawable.ic_image_placeholder)
                         .into(ivShopPreview);
@@ -652,7 +651,9 @@ public class ShopFragment extends Fragment {
                 shop.setPhone(etShopPhone.getText().toString());
                 shop.setEmail(etShopEmail.getText().toString());
                 shop.setAddress(etShopAddress.getText().toString());
-                shop.setWorkingHours(collectWorkingHoursData(dialogView));
+                String workingHours = collectWorkingHoursData(dialogView);
+                shop.setWorkingHours(workingHours);
+                shop.setOpeningHours(WeeklySchedule.parseLegacy(workingHours).toRanges());
                 shop.setWorkingDays(collectWorkingDaysData(dialogView));
                 shop.setInstagram(etShopInstagram.getText().toString());
                 shop.setFacebook(etShopFacebook.getText().toString());
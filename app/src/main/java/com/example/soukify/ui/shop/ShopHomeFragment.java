@@ -40,7 +40,9 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
 
 import com.bumptech.glide.Glide;
+import com.example.soukify.utils.image.ImageLoader;
 import com.example.soukify.R;
+import com.example.soukify.data.hours.WeeklySchedule;
 import com.example.soukify.data.models.ShopModel;
 import com.example.soukify.data.models.RegionModel;
 import com.example.soukify.data.models.CityModel;
@@ -65,6 +67,7 @@ public class ShopHomeFragment extends Fragment implements ShopSync.SyncListener
 
     private static final String TAG = "ShopHomeFragment";
     private static final int REQUEST_READ_EXTERNAL_STORAGE = 100;
+    private static final String[] DAY_NAMES = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
 
     private ShopViewModel shopViewModel;
     private ProductViewModel productViewModel;
@@ -219,7 +222,7 @@ public class ShopHomeFragment extends Fragment implements ShopSync.SyncListener
             shop.setWebsite(args.getString("shopWebsite"));
             shop.setRegionId(args.getString("shopRegionId"));
             shop.setCityId(args.getString("shopCityId"));
-            shop.setCreatedAt(args.getString("shopCreatedAt"));
+            shop.setCreatedAt(args.getLong("shopCreatedAtTimestamp"));
             return shop;
         } catch (Exception e) {
             android.util.Log.e("ShopHomeFragment", "Error creating shop from arguments", e);
@@ -1036,12 +1039,10 @@ public class ShopHomeFragment extends Fragment implements ShopSync.SyncListener
     private void updateShopWorkingHours(ShopModel shop) {
         TextView shopWorkingHours = rootView.findViewById(R.id.shop_working_hours);
         if (shopWorkingHours != null) {
-            String workingHours = shop.getWorkingHours();
-            String workingDays = shop.getWorkingDays();
+            WeeklySchedule schedule = shop.getSchedule();
 
-            if ((workingHours != null && !workingHours.isEmpty()) || (workingDays != null && !workingDays.isEmpty())) {
-                String formattedHours = formatWorkingHours(workingDays, workingHours);
-                shopWorkingHours.setText(formattedHours);
+            if (!schedule.isEmpty()) {
+                shopWorkingHours.setText(schedule.format(DAY_NAMES));
                 shopWorkingHours.setVisibility(View.VISIBLE);
             } else {
                 shopWorkingHours.setVisibility(View.GONE);
@@ -1101,8 +1102,7 @@ public class ShopHomeFragment extends Fragment implements ShopSync.SyncListener
                     }
                 } else if (imageUri.getScheme() != null && (imageUri.getScheme().equals("http") || imageUri.getScheme().equals("https"))) {
                     Log.d("ShopHomeFragment", "Firebase Storage URL detected: " + imageUri + " - loading with Glide");
-                    Glide.with(requireContext())
-                        .load(imageUri.toString())
+                    ImageLoader.load(Glide.with(requireContext()), imageUri.toString())
                         .placeholder(R.drawable.ic_image_placeholder)
                         .error(R.drawable.ic_image_placeholder)
                         .into(shopBannerImage);
@@ -1297,9 +1297,9 @@ public class ShopHomeFragment extends Fragment implements ShopSync.SyncListener
 
         tvShopId.setText(getString(R.string.id_format, shop.getShopId().substring(0, Math.min(8, shop.getShopId().length()))));
 
-        if (shop.getCreatedAtString() != null) {
-            tvCreationDate.setText(formatDate(shop.getCreatedAtTimestamp()));
-            tvShopAge.setText(calculateShopAge(shop.getCreatedAtTimestamp()));
+        if (shop.getCreatedAtMillis() > 0) {
+            tvCreationDate.setText(formatDate(shop.getCreatedAtMillis()));
+            tvShopAge.setText(calculateShopAge(shop.getCreatedAtMillis()));
         }
 
         // Populate statistics with real data
@@ -1496,8 +1496,7 @@ public class ShopHomeFragment extends Fragment implements ShopSync.SyncListener
                 // Check if it's a Cloudinary URL (http/https) and load with Glide
                 Uri imageUri = Uri.parse(shop.getImageUrl());
                 if (imageUri.getScheme() != null && (imageUri.getScheme().equals("http") || imageUri.getScheme().equals("https"))) {
-                    Glide.with(requireContext())
-                        .load(imageUri.toString())
+                    ImageLoader.load(Glide.with(requireContext()), imageUri.toString())
                         .placeholder(R.drawable.ic_image_placeholder)
                         .error(R.drawable.ic_image_placeholder)
                         .into(ivShopPreview);
@@ -1549,7 +1548,9 @@ public class ShopHomeFragment extends Fragment implements ShopSync.SyncListener
         shop.setPhone(etShopPhone.getText().toString());
         shop.setEmail(etShopEmail.getText().toString());
         shop.setAddress(etShopAddress.getText().toString());
-        shop.setWorkingHours(collectWorkingHoursData(dialogView));
+        String workingHours = collectWorkingHoursData(dialogView);
+        shop.setWorkingHours(workingHours);
+        shop.setOpeningHours(WeeklySchedule.parseLegacy(workingHours).toRanges());
         shop.setWorkingDays(collectWorkingDaysData(dialogView));
         shop.setInstagram(etShopInstagram.getText().toString());
         shop.setFacebook(etShopFacebook.getText().toString());
@@ -1883,37 +1884,6 @@ public class ShopHomeFragment extends Fragment implements ShopSync.SyncListener
         }
     }
 
-    private String formatWorkingHours(String workingDays, String workingHours) {
-        StringBuilder formatted = new StringBuilder();
-
-        if (workingHours != null && !workingHours.isEmpty()) {
-            String[] dayHours = workingHours.split("\\|");
-
-            for (String dayHour : dayHours) {
-                String trimmed = dayHour.trim();
-                if (!trimmed.isEmpty()) {
-                    if (formatted.length() > 0) {
-                        formatted.append("\n");
-                    }
-
-                    String formattedDay = trimmed
-                            .replaceAll("Mon:", "Monday:")
-                            .replaceAll("Tue:", "Tuesday:")
-                            .replaceAll("Wed:", "Wednesday:")
-                            .replaceAll("Thu:", "Thursday:")
-                            .replaceAll("Fri:", "Friday:")
-                            .replaceAll("Sat:", "Saturday:")
-                            .replaceAll("Sun:", "Sunday:")
-                            .replaceAll("-", "->");
-
-                    formatted.append(formattedDay);
-                }
-            }
-        }
-
-        return formatted.toString();
-    }
-
     private void openFacebookLink(String link) {
         openLinkWithLogging(link, "facebook");
     }
@@ -17,8 +17,8 @@ import com.example.soukify.data.models.CityModel;
 import com.example.soukify.data.models.ShopModel;
 import com.example.soukify.data.models.ProductModel;
 import com.example.soukify.data.models.UserModel;
-import com.example.soukify.utils.ImageUtils;
 import com.example.soukify.data.remote.CloudinaryImageService;
+import com.example.soukify.data.remote.MediaReferences;
 import java.util.List;
 
 import android.net.Uri;
@@ -408,24 +408,22 @@ public class ShopViewModel extends AndroidViewModel {
                             public void onSuccess(String mediaUrl) {
                                 Log.d("ShopViewModel", "Shop media uploaded to Cloudinary: " + mediaUrl);
                                 
-                                // Delete old media from Cloudinary if it exists
-                                if (currentShopData.getImageUrl() != null && !currentShopData.getImageUrl().isEmpty()) {
-                                    // Extract public ID from old URL and delete
-                                    String oldPublicId = extractPublicIdFromUrl(currentShopData.getImageUrl());
-                                    if (oldPublicId != null) {
-                                        cloudinaryService.deleteMedia(oldPublicId, 
-                                            new CloudinaryImageService.MediaDeleteCallback() {
-                                                @Override
-                                                public void onSuccess() {
-                                                    Log.d("ShopViewModel", "Old shop media deleted from Cloudinary");
-                                                }
-                                                
-                                                @Override
-                                                public void onError(String error) {
-                                                    Log.w("ShopViewModel", "Failed to delete old shop media: " + error);
-                                                }
-                                            });
-                                    }
+                                // Delete old media from Cloudinary if it exists and nothing else uses it
+                                String oldImageUrl = currentShopData.getImageUrl();
+                                if (oldImageUrl != null && !oldImageUrl.isEmpty() && !oldImageUrl.equals(mediaUrl)) {
+                                    cloudinaryService.releaseMedia(oldImageUrl,
+                                        MediaReferences.path(MediaReferences.SHOPS, shopId),
+                                        new CloudinaryImageService.MediaDeleteCallback() {
+                                            @Override
+                                            public void onSuccess() {
+                                                Log.d("ShopViewModel", "Old shop media released from Cloudinary");
+                                            }
+                                            
+                                            @Override
+                                            public void onError(String error) {
+                                                Log.w("ShopViewModel", "Failed to delete old shop media: " + error);
+                                            }
+                                        });
                                 }
                                 
                                 // Update shop with new media URL
@@ -664,29 +662,4 @@ public class ShopViewModel extends AndroidViewModel {
     public void signOut() {
         userRepository.signOut();
     }
-    
-    private String extractPublicIdFromUrl(String cloudinaryUrl) {
-        if (cloudinaryUrl == null || cloudinaryUrl.isEmpty()) {
-            return null;
-        }
-        
-        try {
-            // Extract public ID from Cloudinary URL
-            // URL format: https://res.cloudinary.com/cloud_name/image/upload/v1234567890/public_id.extension
-            String[] parts = cloudinaryUrl.split("/");
-            if (parts.length >= 2) {
-                String lastPart = parts[parts.length - 1];
-                // Remove file extension
-                int dotIndex = lastPart.lastIndexOf('.');
-                if (dotIndex > 0) {
-                    return lastPart.substring(0, dotIndex);
-                }
-                return lastPart;
-            }
-        } catch (Exception e) {
-            Log.w("ShopViewModel", "Failed to extract public ID from URL: " + cloudinaryUrl, e);
-        }
-        
-        return null;
-    }
 }
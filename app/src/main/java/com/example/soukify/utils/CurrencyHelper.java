@@ -1,38 +1,38 @@
 package com.example.soukify.utils;
 
 import android.content.Context;
-import android.content.SharedPreferences;
+
+import com.example.soukify.data.currency.ExchangeRateService;
+import com.example.soukify.data.local.KeyValueStore;
+
 import java.text.NumberFormat;
 import java.util.Currency;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Helper class for managing currency preferences and conversions
+ *
+ * Rates come from {@link ExchangeRateService}. Price formatting runs in every product bind, so the
+ * preferred currency is a memory lookup in {@link KeyValueStore} and formatters are cached per
+ * locale and currency instead of being rebuilt per call.
  */
 public class CurrencyHelper {
     
+    // Read once by KeyValueStore.migrateFrom, then deleted
     private static final String PREFS_NAME = "com.example.soukify.currency_prefs";
-    private static final String CURRENCY_KEY = "selected_currency";
+    private static final String KEY_PREFIX = "currency.";
+    private static final String CURRENCY_KEY = KEY_PREFIX + "selected_currency";
     private static final String DEFAULT_CURRENCY = "MAD";
-    
-    // Static exchange rates (simplified for demonstration)
-    // Base is MAD
-    private static final Map<String, Double> EXCHANGE_RATES = new HashMap<>();
-    
-    static {
-        EXCHANGE_RATES.put("MAD", 1.0);
-        EXCHANGE_RATES.put("USD", 0.10);  // 1 MAD = 0.10 USD
-        EXCHANGE_RATES.put("EUR", 0.092); // 1 MAD = 0.092 EUR
-    }
+    // "languageTag|currency" -> formatter; NumberFormat isn't thread-safe, so callers lock it
+    private static final Map<String, NumberFormat> FORMATTERS = new ConcurrentHashMap<>();
 
     /**
      * Get the saved currency preference
      */
     public static String getCurrency(Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        return prefs.getString(CURRENCY_KEY, DEFAULT_CURRENCY);
+        return store(context).getString(CURRENCY_KEY, DEFAULT_CURRENCY);
     }
     
     /**
@@ -41,8 +41,13 @@ public class CurrencyHelper {
     public static void setCurrency(Context context, String currencyCode) {
         // Handle input like "USD - US Dollar ($)"
         String code = extractCurrencyCode(currencyCode);
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        prefs.edit().putString(CURRENCY_KEY, code).apply();
+        store(context).putString(CURRENCY_KEY, code);
+    }
+
+    private static KeyValueStore store(Context context) {
+        KeyValueStore store = KeyValueStore.getInstance(context);
+        store.migrateFrom(context, PREFS_NAME, KEY_PREFIX);
+        return store;
     }
     
     /**
@@ -62,33 +67,29 @@ public class CurrencyHelper {
      * Convert price between currencies
      */
     public static double convert(double price, String fromCurrency, String toCurrency) {
-        if (fromCurrency == null || toCurrency == null || fromCurrency.equals(toCurrency)) {
-            return price;
-        }
-
-        Double fromRate = EXCHANGE_RATES.get(fromCurrency.toUpperCase());
-        Double toRate = EXCHANGE_RATES.get(toCurrency.toUpperCase());
-
-        if (fromRate == null || toRate == null) {
-            return price; // Fallback to original price if rate not found
-        }
-
-        // Convert to base (MAD) then to target
-        double priceInBase = price / fromRate;
-        return priceInBase * toRate;
+        // Falls back to the original price if a rate is not found
+        return ExchangeRateService.get().convert(price, fromCurrency, toCurrency);
     }
 
     /**
      * Format price with currency symbol
      */
     public static String formatPrice(double price, String currencyCode) {
-        try {
-            NumberFormat format = NumberFormat.getCurrencyInstance();
-            format.setCurrency(Currency.getInstance(currencyCode.toUpperCase()));
+        Locale locale = Locale.getDefault();
+        String key = locale.toLanguageTag() + "|" + currencyCode;
+        NumberFormat format = FORMATTERS.get(key);
+        if (format == null) {
+            try {
+                format = NumberFormat.getCurrencyInstance(locale);
+                format.setCurrency(Currency.getInstance(currencyCode.toUpperCase(Locale.ROOT)));
+            } catch (Exception e) {
+                // Fallback if currency code is not recognized by Java
+                return String.format("%.2f %s", price, currencyCode);
+            }
+            FORMATTERS.put(key, format);
+        }
+        synchronized (format) {
             return format.format(price);
-        } catch (Exception e) {
-            // Fallback if currency code is not recognized by Java
-            return String.format("%.2f %s", price, currencyCode);
         }
     }
     
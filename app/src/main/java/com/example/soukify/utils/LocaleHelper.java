@@ -1,9 +1,11 @@
 package com.example.soukify.utils;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.content.res.Configuration;
 import android.os.Build;
+
+import com.example.soukify.data.local.KeyValueStore;
+
 import java.util.Locale;
 
 /**
@@ -12,24 +14,31 @@ import java.util.Locale;
  */
 public class LocaleHelper {
     
+    // Legacy SharedPreferences file, migrated into the store on first use
     private static final String PREFS_NAME = "com.example.soukify.locale_prefs";
-    private static final String LANGUAGE_KEY = "selected_language";
+    private static final String KEY_PREFIX = "locale.";
+    private static final String LANGUAGE_KEY = KEY_PREFIX + "selected_language";
     private static final String DEFAULT_LANGUAGE = "en";
     
     /**
      * Get the saved language preference
      */
     public static String getLanguage(Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        return prefs.getString(LANGUAGE_KEY, DEFAULT_LANGUAGE);
+        return store(context).getString(LANGUAGE_KEY, DEFAULT_LANGUAGE);
     }
     
     /**
      * Save language preference locally
      */
     public static void setLanguage(Context context, String language) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        prefs.edit().putString(LANGUAGE_KEY, language).apply();
+        // Writes nothing when unchanged, as on every attachBaseContext
+        store(context).putString(LANGUAGE_KEY, language);
+    }
+
+    private static KeyValueStore store(Context context) {
+        KeyValueStore store = KeyValueStore.getInstance(context);
+        store.migrateFrom(context, PREFS_NAME, KEY_PREFIX);
+        return store;
     }
     
     /**
@@ -0,0 +1,99 @@
+package com.example.soukify.utils.concurrent;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * App Executors - Application-wide executor layer
+ *
+ * All background work goes through a few fixed lanes instead of ad-hoc threads and per-class pools,
+ * so the total thread count stays bounded no matter how many screens or repositories are alive:
+ * - io: blocking network/disk work (Firestore callbacks, Cloudinary, OneSignal, file copies)
+ * - cpu: in-memory computation (filtering, indexing, decoding); sized to the cores
+ * - serial: per-key ordering on top of the io lane
+ * - main: posts to the UI thread
+ */
+public final class AppExecutors {
+    private static final String TAG = "AppExecutors";
+
+    private static final int IO_THREADS = 4;
+    private static final int IO_QUEUE_CAPACITY = 256;
+    private static final int CPU_QUEUE_CAPACITY = 128;
+
+    private static volatile AppExecutors instance;
+
+    private final InstrumentedExecutor io;
+    private final InstrumentedExecutor cpu;
+    private final KeyedSerialExecutor serial;
+    private final MainThreadExecutor mainThread = new MainThreadExecutor();
+
+    private AppExecutors() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int cpuThreads = Math.max(2, Math.min(cores - 1, 4));
+        io = new InstrumentedExecutor("io", IO_THREADS, IO_QUEUE_CAPACITY,
+                Process.THREAD_PRIORITY_BACKGROUND);
+        cpu = new InstrumentedExecutor("cpu", cpuThreads, CPU_QUEUE_CAPACITY,
+                Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE);
+        serial = new KeyedSerialExecutor(io);
+    }
+
+    public static AppExecutors get() {
+        if (instance == null) {
+            synchronized (AppExecutors.class) {
+                if (instance == null) {
+                    instance = new AppExecutors();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public InstrumentedExecutor io() {
+        return io;
+    }
+
+    public InstrumentedExecutor cpu() {
+        return cpu;
+    }
+
+    public KeyedSerialExecutor serial() {
+        return serial;
+    }
+
+    /**
+     * Executor that runs tasks for {@code key} in order, one at a time
+     */
+    public Executor serial(String key) {
+        return serial.forKey(key);
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    public InstrumentedExecutor.Stats[] getStats() {
+        return new InstrumentedExecutor.Stats[] { io.getStats(), cpu.getStats() };
+    }
+
+    public void logStats() {
+        for (InstrumentedExecutor.Stats stats : getStats()) {
+            Log.d(TAG, stats.toString());
+        }
+        Log.d(TAG, "serial: active keys=" + serial.activeKeys());
+    }
+
+    private static final class MainThreadExecutor implements Executor {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            handler.post(command);
+        }
+    }
+}
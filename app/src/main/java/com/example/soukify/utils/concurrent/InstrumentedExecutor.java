@@ -0,0 +1,369 @@
+package com.example.soukify.utils.concurrent;
+
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Instrumented Executor - One fixed-size lane of the application executor layer
+ *
+ * Tasks are ordered by priority (foreground before background), then FIFO. The queue is bounded
+ * by {@code capacity}; when it is full, what happens depends on the producer:
+ * <ul>
+ *   <li>a worker thread of this lane runs the task inline, which slows the fan-out down instead
+ *       of growing the queue</li>
+ *   <li>the main thread must never block, so its tasks use a reserve of {@code capacity / 4} extra
+ *       slots, counted as overflow; past the reserve the task is dropped and counted as rejected,
+ *       its Future cancelled, rather than thrown at a UI callback</li>
+ *   <li>any other thread (other lanes' workers, Glide, OkHttp, SDK callbacks) waits up to
+ *       {@code admissionTimeoutMs} for a slot, and is rejected with
+ *       {@link RejectedExecutionException} if none frees up</li>
+ * </ul>
+ * The queue never holds more than {@code capacity} plus the main thread's reserve.
+ * Queue depth, wait time and run time are tracked per lane, see {@link #getStats()}.
+ */
+public class InstrumentedExecutor implements Executor {
+    private static final String TAG = "InstrumentedExecutor";
+    private static final long DEFAULT_ADMISSION_TIMEOUT_MS = 2_000;
+    // Admission result of a main-thread task that found no slot
+    private static final Semaphore DROPPED = new Semaphore(0);
+
+    public enum Priority {
+        FOREGROUND,
+        BACKGROUND
+    }
+
+    private final String name;
+    private final int capacity;
+    private final long admissionTimeoutMs;
+    // Queue slots; a task holds one from submission until a worker picks it up
+    private final Semaphore slots;
+    private final Semaphore mainThreadReserve;
+    private final Pool pool;
+    private final Executor foregroundView = this::executeForeground;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong ranInline = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitMs = new AtomicLong();
+    private final AtomicLong totalRunMs = new AtomicLong();
+    private final AtomicLong maxWaitMs = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    InstrumentedExecutor(String name, int threads, int capacity, int threadPriority) {
+        this(name, threads, capacity, threadPriority, DEFAULT_ADMISSION_TIMEOUT_MS);
+    }
+
+    InstrumentedExecutor(String name, int threads, int capacity, int threadPriority, long admissionTimeoutMs) {
+        this.name = name;
+        this.capacity = capacity;
+        this.admissionTimeoutMs = admissionTimeoutMs;
+        this.slots = new Semaphore(capacity);
+        this.mainThreadReserve = new Semaphore(Math.max(1, capacity / 4));
+        this.pool = new Pool(threads, new LaneThreadFactory(this, threadPriority));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Run a background-priority task
+     */
+    @Override
+    public void execute(@NonNull Runnable command) {
+        submit(command, Priority.BACKGROUND);
+    }
+
+    /**
+     * Run a task ahead of queued background work, e.g. something the user is waiting on
+     */
+    public void executeForeground(@NonNull Runnable command) {
+        submit(command, Priority.FOREGROUND);
+    }
+
+    /**
+     * Executor view of this lane that always uses foreground priority, for APIs taking an Executor
+     */
+    public Executor foreground() {
+        return foregroundView;
+    }
+
+    /**
+     * Queue {@code command}, or run it inline when called from a full lane's own worker. On the
+     * main thread a task that finds no slot is dropped and the returned Future is cancelled.
+     *
+     * @throws RejectedExecutionException if the queue stayed full, see the class comment
+     */
+    public Future<?> submit(@NonNull Runnable command, Priority priority) {
+        LaneTask task = new LaneTask(command, priority, sequence.getAndIncrement());
+        submitted.incrementAndGet();
+
+        task.slot = admit();
+        if (task.slot == DROPPED) {
+            task.cancel(false);
+            return task;
+        }
+        if (task.slot == null) {
+            // Back-pressure: the producer pays for the work instead of growing the queue
+            ranInline.incrementAndGet();
+            task.startedAt = System.currentTimeMillis();
+            task.run();
+            recordCompletion(task);
+            return task;
+        }
+
+        pool.execute(task);
+        updateMax(maxQueueDepth, pool.getQueue().size());
+        return task;
+    }
+
+    /**
+     * Queue {@code command} only if a slot is free right now: never inline, never waiting and
+     * never throwing. For hops between tasks that must not grow the caller's stack.
+     */
+    boolean offer(@NonNull Runnable command, Priority priority) {
+        if (!slots.tryAcquire()) return false;
+        LaneTask task = new LaneTask(command, priority, sequence.getAndIncrement());
+        submitted.incrementAndGet();
+        task.slot = slots;
+        pool.execute(task);
+        updateMax(maxQueueDepth, pool.getQueue().size());
+        return true;
+    }
+
+    /**
+     * Take a queue slot for the calling thread; null means run the task inline, {@link #DROPPED}
+     * drop it
+     */
+    private Semaphore admit() {
+        if (slots.tryAcquire()) return slots;
+        Thread thread = Thread.currentThread();
+        if (thread instanceof LaneThread && ((LaneThread) thread).lane == this) return null;
+
+        if (isMainThread()) {
+            if (mainThreadReserve.tryAcquire()) {
+                overflowed.incrementAndGet();
+                return mainThreadReserve;
+            }
+            rejected.incrementAndGet();
+            Log.e(TAG, "Dropped a main-thread task on " + name + ": queue and reserve full");
+            return DROPPED;
+        } else {
+            waited.incrementAndGet();
+            try {
+                if (slots.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS)) return slots;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        rejected.incrementAndGet();
+        Log.e(TAG, "Rejected a task on " + name + ": queue full (" + pool.getQueue().size() + ")");
+        throw new RejectedExecutionException("Lane " + name + " is saturated");
+    }
+
+    private static boolean isMainThread() {
+        Looper mainLooper = Looper.getMainLooper();
+        return mainLooper != null && mainLooper.getThread() == Thread.currentThread();
+    }
+
+    public Stats getStats() {
+        long done = completed.get();
+        return new Stats(
+                name,
+                pool.getQueue().size(),
+                maxQueueDepth.get(),
+                pool.getActiveCount(),
+                pool.getMaximumPoolSize(),
+                submitted.get(),
+                done,
+                failed.get(),
+                ranInline.get(),
+                overflowed.get(),
+                waited.get(),
+                rejected.get(),
+                done == 0 ? 0 : totalWaitMs.get() / done,
+                maxWaitMs.get(),
+                done == 0 ? 0 : totalRunMs.get() / done);
+    }
+
+    private void recordCompletion(LaneTask task) {
+        long now = System.currentTimeMillis();
+        long waitMs = task.startedAt - task.enqueuedAt;
+        totalWaitMs.addAndGet(waitMs);
+        totalRunMs.addAndGet(now - task.startedAt);
+        updateMax(maxWaitMs, waitMs);
+        completed.incrementAndGet();
+
+        // Surface task failures instead of losing them inside the FutureTask
+        if (task.isDone() && !task.isCancelled()) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                failed.incrementAndGet();
+                Log.e(TAG, "Task failed on " + name, e.getCause());
+            } catch (InterruptedException | CancellationException ignored) {
+            }
+        }
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) return;
+        }
+    }
+
+    private static void updateMax(AtomicInteger max, int value) {
+        int current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) return;
+        }
+    }
+
+    private final class Pool extends ThreadPoolExecutor {
+        Pool(int threads, ThreadFactory threadFactory) {
+            super(threads, threads, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), threadFactory);
+            // Idle lanes release their threads; they are recreated on demand
+            allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        protected void beforeExecute(Thread t, Runnable r) {
+            LaneTask task = (LaneTask) r;
+            task.slot.release();
+            task.startedAt = System.currentTimeMillis();
+        }
+
+        @Override
+        protected void afterExecute(Runnable r, Throwable t) {
+            recordCompletion((LaneTask) r);
+        }
+    }
+
+    private static final class LaneTask extends FutureTask<Void> implements Comparable<LaneTask> {
+        final Priority priority;
+        final long seq;
+        final long enqueuedAt = System.currentTimeMillis();
+        volatile long startedAt;
+        // Queue slot held while queued; null when run inline
+        Semaphore slot;
+
+        LaneTask(Runnable runnable, Priority priority, long seq) {
+            super(runnable, null);
+            this.priority = priority;
+            this.seq = seq;
+        }
+
+        @Override
+        public int compareTo(LaneTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+
+    private static final class LaneThreadFactory implements ThreadFactory {
+        private final InstrumentedExecutor lane;
+        private final String prefix;
+        private final int threadPriority;
+        private final AtomicInteger count = new AtomicInteger();
+
+        LaneThreadFactory(InstrumentedExecutor lane, int threadPriority) {
+            this.lane = lane;
+            this.prefix = "soukify-" + lane.name + "-";
+            this.threadPriority = threadPriority;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new LaneThread(lane, () -> {
+                Process.setThreadPriority(threadPriority);
+                runnable.run();
+            }, prefix + count.incrementAndGet());
+        }
+    }
+
+    private static final class LaneThread extends Thread {
+        // Lane whose pool owns this thread
+        final InstrumentedExecutor lane;
+
+        LaneThread(InstrumentedExecutor lane, Runnable runnable, String name) {
+            super(runnable, name);
+            this.lane = lane;
+        }
+    }
+
+    /**
+     * Point-in-time metrics of a lane; durations are in milliseconds
+     */
+    public static final class Stats {
+        public final String lane;
+        public final int queueDepth;
+        public final int maxQueueDepth;
+        public final int activeThreads;
+        public final int maxThreads;
+        public final long submitted;
+        public final long completed;
+        public final long failed;
+        public final long ranInline;
+        public final long overflowed;
+        public final long waited;
+        public final long rejected;
+        public final long avgWaitMs;
+        public final long maxWaitMs;
+        public final long avgRunMs;
+
+        Stats(String lane, int queueDepth, int maxQueueDepth, int activeThreads, int maxThreads,
+              long submitted, long completed, long failed, long ranInline, long overflowed,
+              long waited, long rejected, long avgWaitMs, long maxWaitMs, long avgRunMs) {
+            this.lane = lane;
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.activeThreads = activeThreads;
+            this.maxThreads = maxThreads;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.failed = failed;
+            this.ranInline = ranInline;
+            this.overflowed = overflowed;
+            this.waited = waited;
+            this.rejected = rejected;
+            this.avgWaitMs = avgWaitMs;
+            this.maxWaitMs = maxWaitMs;
+            this.avgRunMs = avgRunMs;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return lane + ": queue=" + queueDepth + " (max " + maxQueueDepth + ")"
+                    + " active=" + activeThreads + "/" + maxThreads
+                    + " done=" + completed + "/" + submitted
+                    + " failed=" + failed + " inline=" + ranInline + " overflow=" + overflowed
+                    + " waited=" + waited + " rejected=" + rejected
+                    + " wait avg=" + avgWaitMs + "ms max=" + maxWaitMs + "ms"
+                    + " run avg=" + avgRunMs + "ms";
+        }
+    }
+}
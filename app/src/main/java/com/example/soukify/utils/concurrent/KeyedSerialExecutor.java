@@ -0,0 +1,120 @@
+package com.example.soukify.utils.concurrent;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Keyed Serial Executor - Runs tasks sharing a key one at a time, in submission order
+ *
+ * Work for different keys still runs in parallel on the backing lane, so e.g. writes to one
+ * conversation or one shop document never interleave without serializing the whole app.
+ * Per-key queues only exist while they have pending work.
+ *
+ * A key moves to a fresh hop after each task, so a busy key can't monopolize a worker. When the
+ * lane has no free slot for that hop, the same worker carries on with the key's next task in a
+ * loop instead of recursing through the lane's inline path.
+ */
+public class KeyedSerialExecutor {
+    private static final String TAG = "KeyedSerialExecutor";
+
+    private final InstrumentedExecutor backing;
+    private final Map<String, SerialQueue> queues = new HashMap<>();
+
+    KeyedSerialExecutor(InstrumentedExecutor backing) {
+        this.backing = backing;
+    }
+
+    /**
+     * Executor bound to a key; cheap to create, so callers need not hold on to it
+     */
+    public Executor forKey(String key) {
+        return command -> execute(key, command);
+    }
+
+    public void execute(String key, @NonNull Runnable command) {
+        SerialQueue queue;
+        boolean start;
+        synchronized (queues) {
+            queue = queues.get(key);
+            if (queue == null) {
+                queue = new SerialQueue(key);
+                queues.put(key, queue);
+            }
+            queue.pending.add(command);
+            start = !queue.running;
+            queue.running = true;
+        }
+        if (!start) return;
+
+        Future<?> hop;
+        try {
+            hop = backing.submit(queue, InstrumentedExecutor.Priority.BACKGROUND);
+        } catch (RuntimeException e) {
+            abandonStart(queue, command);
+            throw e;
+        }
+        // Dropped by a saturated lane on the main thread
+        if (hop.isCancelled()) abandonStart(queue, command);
+    }
+
+    /**
+     * Undo the start of a queue the lane refused, so the key is not left "running" with nobody
+     * draining it. Tasks queued behind {@code command} meanwhile run with the key's next task.
+     */
+    private void abandonStart(SerialQueue queue, Runnable command) {
+        synchronized (queues) {
+            queue.pending.remove(command);
+            queue.running = false;
+            if (queue.pending.isEmpty()) queues.remove(queue.key);
+        }
+    }
+
+    public int activeKeys() {
+        synchronized (queues) {
+            return queues.size();
+        }
+    }
+
+    private final class SerialQueue implements Runnable {
+        final String key;
+        final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+        boolean running;
+
+        SerialQueue(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable next;
+                synchronized (queues) {
+                    next = pending.poll();
+                }
+                try {
+                    if (next != null) next.run();
+                } catch (RuntimeException e) {
+                    // The key's later tasks still run
+                    Log.e(TAG, "Task failed for key " + key, e);
+                }
+                synchronized (queues) {
+                    if (pending.isEmpty()) {
+                        running = false;
+                        queues.remove(key);
+                        return;
+                    }
+                }
+                // One task per hop so a busy key can't monopolize a worker thread; without a free
+                // slot, keep draining here
+                if (backing.offer(this, InstrumentedExecutor.Priority.BACKGROUND)) return;
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.soukify.utils.concurrent;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Task Scope - Groups tasks so they can be cancelled together when their owner goes away
+ *
+ * A ViewModel calls {@link #cancelAll()} from onCleared; a Fragment or Activity can use
+ * {@link #bindTo(LifecycleOwner)} instead. Queued tasks are dropped and running ones are
+ * interrupted. Tasks submitted after cancellation are ignored.
+ */
+public class TaskScope {
+
+    private final InstrumentedExecutor lane;
+    private final InstrumentedExecutor.Priority priority;
+    private final Set<Future<?>> tasks = new HashSet<>();
+    private boolean cancelled;
+
+    public TaskScope(InstrumentedExecutor lane, InstrumentedExecutor.Priority priority) {
+        this.lane = lane;
+        this.priority = priority;
+    }
+
+    /**
+     * Cancel the scope's tasks when the owner is destroyed
+     */
+    public TaskScope bindTo(LifecycleOwner owner) {
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                cancelAll();
+            }
+        });
+        return this;
+    }
+
+    public Executor asExecutor() {
+        return this::launch;
+    }
+
+    public void launch(@NonNull Runnable command) {
+        synchronized (tasks) {
+            if (cancelled) return;
+        }
+        // Submitted outside the lock: admission may wait for a slot or run the command inline,
+        // and cancelAll() on the main thread must not block behind that
+        Future<?>[] handle = new Future<?>[1];
+        Future<?> future = lane.submit(() -> {
+            try {
+                command.run();
+            } finally {
+                synchronized (tasks) {
+                    if (handle[0] != null) tasks.remove(handle[0]);
+                }
+            }
+        }, priority);
+        synchronized (tasks) {
+            if (cancelled) {
+                // Cancelled while being submitted
+                future.cancel(true);
+                return;
+            }
+            if (!future.isDone()) {
+                handle[0] = future;
+                tasks.add(future);
+            }
+        }
+    }
+
+    public void cancelAll() {
+        synchronized (tasks) {
+            cancelled = true;
+            for (Future<?> task : tasks) {
+                task.cancel(true);
+            }
+            tasks.clear();
+        }
+    }
+
+    public boolean isCancelled() {
+        synchronized (tasks) {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.soukify.utils.image;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Glide model for a Cloudinary image. Loaded through CloudinaryUrlLoader, which knows the target
+ * size and requests a matching variant from the CDN.
+ */
+public final class CloudinaryImage {
+    private final String url;
+
+    public CloudinaryImage(@NonNull String url) {
+        this.url = url;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CloudinaryImage && url.equals(((CloudinaryImage) o).url);
+    }
+
+    @Override
+    public int hashCode() {
+        return url.hashCode();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return url;
+    }
+}
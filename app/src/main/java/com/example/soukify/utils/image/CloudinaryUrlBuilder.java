@@ -0,0 +1,49 @@
+package com.example.soukify.utils.image;
+
+/**
+ * Cloudinary URL Builder - Rewrites Cloudinary delivery URLs to request a resized variant
+ * Adds w_/h_/c_fill/f_auto/q_auto right after /upload/ so the CDN serves an image sized for the
+ * target view in the best format the device accepts, instead of the full-resolution original.
+ */
+public final class CloudinaryUrlBuilder {
+
+    private static final String HOST = "res.cloudinary.com/";
+    private static final String IMAGE_UPLOAD = "/image/upload/";
+
+    // Requested sizes are rounded up to these steps so nearby views share CDN and disk cache entries
+    private static final int[] SIZE_STEPS = {32, 64, 96, 128, 192, 256, 384, 512, 640, 768, 960, 1080, 1280, 1600};
+
+    private CloudinaryUrlBuilder() {}
+
+    public static boolean isCloudinaryImage(String url) {
+        return url != null && url.contains(HOST) && url.contains(IMAGE_UPLOAD);
+    }
+
+    /**
+     * Build a sized variant. Non-positive dimensions are left out (keeps the aspect ratio).
+     * URLs that are not Cloudinary images are returned unchanged.
+     */
+    public static String build(String url, int widthPx, int heightPx) {
+        if (!isCloudinaryImage(url)) return url;
+
+        StringBuilder transformation = new StringBuilder();
+        int width = roundUp(widthPx);
+        int height = roundUp(heightPx);
+        if (width > 0) transformation.append("w_").append(width).append(',');
+        if (height > 0) transformation.append("h_").append(height).append(',');
+        if (width > 0 && height > 0) transformation.append("c_fill,g_auto,");
+        else if (width > 0 || height > 0) transformation.append("c_limit,");
+        transformation.append("f_auto,q_auto");
+
+        int insertAt = url.indexOf(IMAGE_UPLOAD) + IMAGE_UPLOAD.length();
+        return url.substring(0, insertAt) + transformation + "/" + url.substring(insertAt);
+    }
+
+    private static int roundUp(int px) {
+        if (px <= 0) return 0;
+        for (int step : SIZE_STEPS) {
+            if (px <= step) return step;
+        }
+        return SIZE_STEPS[SIZE_STEPS.length - 1];
+    }
+}
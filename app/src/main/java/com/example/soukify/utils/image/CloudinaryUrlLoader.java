@@ -0,0 +1,55 @@
+package com.example.soukify.utils.image;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.ModelCache;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.load.model.stream.BaseGlideUrlLoader;
+import com.bumptech.glide.request.target.Target;
+
+import java.io.InputStream;
+
+/**
+ * Size-aware Glide loader: turns a CloudinaryImage plus the resolved target size into the URL of
+ * a resized CDN variant
+ */
+public class CloudinaryUrlLoader extends BaseGlideUrlLoader<CloudinaryImage> {
+
+    // Never ask the CDN for more than this, even for SIZE_ORIGINAL requests
+    private static final int MAX_DIMENSION = 1600;
+
+    CloudinaryUrlLoader(ModelLoader<GlideUrl, InputStream> concreteLoader,
+                        ModelCache<CloudinaryImage, GlideUrl> modelCache) {
+        super(concreteLoader, modelCache);
+    }
+
+    @Override
+    protected String getUrl(CloudinaryImage model, int width, int height, Options options) {
+        int w = width == Target.SIZE_ORIGINAL ? MAX_DIMENSION : Math.min(width, MAX_DIMENSION);
+        int h = height == Target.SIZE_ORIGINAL ? 0 : Math.min(height, MAX_DIMENSION);
+        return CloudinaryUrlBuilder.build(model.getUrl(), w, h);
+    }
+
+    @Override
+    public boolean handles(@NonNull CloudinaryImage model) {
+        return true;
+    }
+
+    public static class Factory implements ModelLoaderFactory<CloudinaryImage, InputStream> {
+        private final ModelCache<CloudinaryImage, GlideUrl> modelCache = new ModelCache<>(500);
+
+        @NonNull
+        @Override
+        public ModelLoader<CloudinaryImage, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new CloudinaryUrlLoader(multiFactory.build(GlideUrl.class, InputStream.class), modelCache);
+        }
+
+        @Override
+        public void teardown() {
+        }
+    }
+}
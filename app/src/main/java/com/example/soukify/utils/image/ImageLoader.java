@@ -0,0 +1,41 @@
+package com.example.soukify.utils.image;
+
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+
+/**
+ * Image Loader - Single entry point for loading remote and local images with Glide
+ * Cloudinary URLs are loaded as sized CDN variants, with a tiny variant chained as a low-res
+ * preview while the full one downloads. Callers add placeholders/transformations and call into().
+ */
+public final class ImageLoader {
+
+    // The low-res preview is requested at a tenth of the target size
+    private static final float THUMBNAIL_MULTIPLIER = 0.1f;
+
+    private ImageLoader() {}
+
+    public static RequestBuilder<Drawable> load(RequestManager requestManager, String url) {
+        if (CloudinaryUrlBuilder.isCloudinaryImage(url)) {
+            CloudinaryImage model = new CloudinaryImage(url);
+            // Variants are already sized for the view, so caching the downloaded bytes is enough
+            return requestManager.load(model)
+                    .diskCacheStrategy(DiskCacheStrategy.DATA)
+                    .thumbnail(requestManager.load(model)
+                            .diskCacheStrategy(DiskCacheStrategy.DATA)
+                            .sizeMultiplier(THUMBNAIL_MULTIPLIER));
+        }
+        return requestManager.load(url);
+    }
+
+    public static RequestBuilder<Drawable> load(RequestManager requestManager, Uri uri) {
+        if (uri != null && ("http".equals(uri.getScheme()) || "https".equals(uri.getScheme()))) {
+            return load(requestManager, uri.toString());
+        }
+        return requestManager.load(uri);
+    }
+}
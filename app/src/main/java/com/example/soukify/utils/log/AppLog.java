@@ -0,0 +1,192 @@
+package com.example.soukify.utils.log;
+
+import android.util.Log;
+
+import com.example.soukify.BuildConfig;
+import com.google.firebase.crashlytics.FirebaseCrashlytics;
+
+import java.util.List;
+
+/**
+ * App Log - Logging facade used instead of android.util.Log
+ *
+ * Messages are templates with "{}" placeholders that are only formatted when the level is enabled,
+ * so a disabled call costs a branch instead of a string concatenation. Verbose and debug calls are
+ * removed entirely from minified release builds (see proguard-rules.pro), including the evaluation
+ * of their arguments. Overloads for up to three arguments avoid the varargs array.
+ *
+ * Info and above, plus debug in debug builds, are also kept in a ring buffer of recent events that
+ * is attached to Crashlytics reports when the app crashes, see {@link #installCrashReporting()}.
+ */
+public final class AppLog {
+
+    public static final boolean DEBUG = BuildConfig.DEBUG;
+
+    private static final int BUFFER_CAPACITY = 256;
+    // Release builds keep logcat for warnings and errors; the ring buffer still sees info
+    private static final int LOGCAT_MIN_PRIORITY = DEBUG ? Log.VERBOSE : Log.WARN;
+    private static final int BUFFER_MIN_PRIORITY = DEBUG ? Log.DEBUG : Log.INFO;
+
+    private static final LogRingBuffer buffer = new LogRingBuffer(BUFFER_CAPACITY);
+    private static volatile boolean crashReportingInstalled;
+
+    private AppLog() {}
+
+    public static boolean isLoggable(int priority) {
+        return priority >= Math.min(LOGCAT_MIN_PRIORITY, BUFFER_MIN_PRIORITY);
+    }
+
+    // ==================== VERBOSE / DEBUG ====================
+
+    public static void v(String tag, String message) {
+        if (DEBUG) log(Log.VERBOSE, tag, message, null);
+    }
+
+    public static void d(String tag, String message) {
+        if (DEBUG) log(Log.DEBUG, tag, message, null);
+    }
+
+    public static void d(String tag, String format, Object arg) {
+        if (DEBUG) log(Log.DEBUG, tag, format(format, arg), null);
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2) {
+        if (DEBUG) log(Log.DEBUG, tag, format(format, arg1, arg2), null);
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (DEBUG) log(Log.DEBUG, tag, format(format, arg1, arg2, arg3), null);
+    }
+
+    public static void d(String tag, String format, Object... args) {
+        if (DEBUG) log(Log.DEBUG, tag, format(format, args), null);
+    }
+
+    // ==================== INFO ====================
+
+    public static void i(String tag, String message) {
+        log(Log.INFO, tag, message, null);
+    }
+
+    public static void i(String tag, String format, Object arg) {
+        log(Log.INFO, tag, format(format, arg), null);
+    }
+
+    public static void i(String tag, String format, Object arg1, Object arg2) {
+        log(Log.INFO, tag, format(format, arg1, arg2), null);
+    }
+
+    public static void i(String tag, String format, Object... args) {
+        log(Log.INFO, tag, format(format, args), null);
+    }
+
+    // ==================== WARN / ERROR ====================
+
+    public static void w(String tag, String message) {
+        log(Log.WARN, tag, message, null);
+    }
+
+    public static void w(String tag, String message, Throwable error) {
+        log(Log.WARN, tag, message, error);
+    }
+
+    public static void w(String tag, String format, Object arg) {
+        log(Log.WARN, tag, format(format, arg), null);
+    }
+
+    public static void w(String tag, String format, Object arg1, Object arg2) {
+        log(Log.WARN, tag, format(format, arg1, arg2), null);
+    }
+
+    public static void w(String tag, String format, Object arg, Throwable error) {
+        log(Log.WARN, tag, format(format, arg), error);
+    }
+
+    public static void e(String tag, String message) {
+        log(Log.ERROR, tag, message, null);
+    }
+
+    public static void e(String tag, String message, Throwable error) {
+        log(Log.ERROR, tag, message, error);
+    }
+
+    public static void e(String tag, String format, Object arg) {
+        log(Log.ERROR, tag, format(format, arg), null);
+    }
+
+    public static void e(String tag, String format, Object arg, Throwable error) {
+        log(Log.ERROR, tag, format(format, arg), error);
+    }
+
+    public static void e(String tag, String format, Object arg1, Object arg2) {
+        log(Log.ERROR, tag, format(format, arg1, arg2), null);
+    }
+
+    // ==================== RING BUFFER ====================
+
+    /**
+     * Recent events, oldest first
+     */
+    public static List<LogRingBuffer.Event> recentEvents() {
+        return buffer.snapshot();
+    }
+
+    /**
+     * Copy the ring buffer into the Crashlytics log so it is sent with the next report
+     */
+    public static void attachToCrashReport() {
+        FirebaseCrashlytics crashlytics = FirebaseCrashlytics.getInstance();
+        for (LogRingBuffer.Event event : buffer.snapshot()) {
+            crashlytics.log(event.toString());
+        }
+    }
+
+    /**
+     * Attach the ring buffer to fatal crash reports. Crashlytics installs its own handler before
+     * Application.onCreate, so wrapping the default handler from there runs ours first.
+     */
+    public static synchronized void installCrashReporting() {
+        if (crashReportingInstalled) return;
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, error) -> {
+            try {
+                attachToCrashReport();
+            } catch (Throwable ignored) {
+                // Never let the log dump hide the original crash
+            }
+            if (previous != null) previous.uncaughtException(thread, error);
+        });
+        crashReportingInstalled = true;
+    }
+
+    // ==================== INTERNALS ====================
+
+    private static void log(int priority, String tag, String message, Throwable error) {
+        if (priority >= LOGCAT_MIN_PRIORITY) {
+            Log.println(priority, tag, error == null ? message : message + '\n' + Log.getStackTraceString(error));
+        }
+        if (priority >= BUFFER_MIN_PRIORITY) {
+            buffer.record(priority, tag, error == null ? message : message + ": " + error);
+        }
+    }
+
+    static String format(String format, Object... args) {
+        if (format == null || args == null || args.length == 0) return format;
+        StringBuilder out = new StringBuilder(format.length() + 16 * args.length);
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < args.length && (placeholder = format.indexOf("{}", start)) >= 0) {
+            out.append(format, start, placeholder).append(args[argIndex++]);
+            start = placeholder + 2;
+        }
+        out.append(format, start, format.length());
+        return out.toString();
+    }
+
+    private static String format(String format, Object arg) {
+        int placeholder = format == null ? -1 : format.indexOf("{}");
+        if (placeholder < 0) return format;
+        return format.substring(0, placeholder) + arg + format.substring(placeholder + 2);
+    }
+}
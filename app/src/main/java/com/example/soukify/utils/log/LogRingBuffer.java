@@ -0,0 +1,110 @@
+package com.example.soukify.utils.log;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Log Ring Buffer - Lock-free, fixed-size record of the most recent log events
+ *
+ * Writers claim a slot with a single atomic increment and publish the event with one volatile
+ * store, so logging from any thread never blocks or contends on a lock. Once the buffer is full the
+ * oldest events are overwritten. Each event carries its sequence number, which lets a snapshot
+ * skip slots that were overwritten while it was being read.
+ */
+public final class LogRingBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<Event> slots;
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * One recorded log line
+     */
+    public static final class Event {
+        public final long sequence;
+        public final long timeMillis;
+        public final int priority;
+        public final String tag;
+        public final String message;
+        public final String thread;
+
+        Event(long sequence, long timeMillis, int priority, String tag, String message, String thread) {
+            this.sequence = sequence;
+            this.timeMillis = timeMillis;
+            this.priority = priority;
+            this.tag = tag;
+            this.message = message;
+            this.thread = thread;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            SimpleDateFormat format = new SimpleDateFormat("MM-dd HH:mm:ss.SSS", Locale.US);
+            return format.format(new Date(timeMillis)) + " " + levelLetter(priority)
+                    + "/" + tag + " [" + thread + "]: " + message;
+        }
+    }
+
+    /**
+     * @param capacity number of events kept, rounded up to a power of two
+     */
+    public LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public void record(int priority, String tag, String message) {
+        long sequence = head.getAndIncrement();
+        slots.set((int) (sequence & mask), new Event(sequence, System.currentTimeMillis(),
+                priority, tag, message, Thread.currentThread().getName()));
+    }
+
+    /**
+     * Copy of the retained events, oldest first
+     */
+    public List<Event> snapshot() {
+        long end = head.get();
+        long start = Math.max(0, end - capacity());
+        List<Event> events = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Event event = slots.get((int) (sequence & mask));
+            // Null: claimed but not yet published. Other sequence: overwritten by a newer event.
+            if (event != null && event.sequence == sequence) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    static char levelLetter(int priority) {
+        switch (priority) {
+            case Log.VERBOSE: return 'V';
+            case Log.DEBUG: return 'D';
+            case Log.INFO: return 'I';
+            case Log.WARN: return 'W';
+            case Log.ERROR: return 'E';
+            default: return '?';
+        }
+    }
+}
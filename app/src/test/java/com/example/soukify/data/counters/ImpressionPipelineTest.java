@@ -0,0 +1,101 @@
+package com.example.soukify.data.counters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+public class ImpressionPipelineTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("journal", ".log").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void readJournalCoalescesPerCounter() throws IOException {
+        write("shops\ts1\tsearchCount\n"
+                + "shops\ts1\timpressionCount\n"
+                + "shops\ts1\tsearchCount\n"
+                + "products\tp1\tviewCount\n"
+                + "shops\ts1\tsearchCount\n");
+
+        Map<String, Long> deltas = ImpressionPipeline.readJournal(file);
+
+        assertEquals(3, deltas.size());
+        assertEquals(Long.valueOf(3), deltas.get("shops\ts1\tsearchCount"));
+        assertEquals(Long.valueOf(1), deltas.get("shops\ts1\timpressionCount"));
+        assertEquals(Long.valueOf(1), deltas.get("products\tp1\tviewCount"));
+        // Sorted, so a replay splits the journal into the same chunks
+        assertEquals(Arrays.asList("products\tp1\tviewCount", "shops\ts1\timpressionCount", "shops\ts1\tsearchCount"),
+                new ArrayList<>(deltas.keySet()));
+    }
+
+    @Test
+    public void readJournalSkipsTornAndUnknownLines() throws IOException {
+        write("shops\ts1\tsearchCount\n"
+                + "shops\ts1\tviewCount\n"
+                + "products\tp1\tsearchCount\n"
+                + "users\tu1\timpressionCount\n"
+                + "shops\t\timpressionCount\n"
+                + "shops\ts1\timpressionCount\textra\n"
+                + "\n"
+                // Cut short by process death: no newline
+                + "shops\ts2\tsearchCo");
+
+        Map<String, Long> deltas = ImpressionPipeline.readJournal(file);
+
+        assertEquals(1, deltas.size());
+        assertEquals(Long.valueOf(1), deltas.get("shops\ts1\tsearchCount"));
+    }
+
+    @Test
+    public void readJournalOfMissingFileIsEmpty() {
+        file.delete();
+        assertTrue(ImpressionPipeline.readJournal(file).isEmpty());
+    }
+
+    @Test
+    public void onlyRejectionsArePermanent() {
+        assertTrue(ImpressionPipeline.isPermanent(
+                new FirebaseFirestoreException("rules", FirebaseFirestoreException.Code.PERMISSION_DENIED)));
+        assertTrue(ImpressionPipeline.isPermanent(
+                new FirebaseFirestoreException("bad", FirebaseFirestoreException.Code.INVALID_ARGUMENT)));
+
+        assertFalse(ImpressionPipeline.isPermanent(
+                new FirebaseFirestoreException("offline", FirebaseFirestoreException.Code.UNAVAILABLE)));
+        assertFalse(ImpressionPipeline.isPermanent(
+                new FirebaseFirestoreException("contention", FirebaseFirestoreException.Code.ABORTED)));
+        // Handled before classification by dropping the deleted documents
+        assertFalse(ImpressionPipeline.isPermanent(
+                new FirebaseFirestoreException("gone", FirebaseFirestoreException.Code.NOT_FOUND)));
+        assertFalse(ImpressionPipeline.isPermanent(new IOException("network")));
+        assertFalse(ImpressionPipeline.isPermanent(null));
+    }
+
+    private void write(String content) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
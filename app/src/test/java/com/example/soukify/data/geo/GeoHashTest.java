@@ -0,0 +1,60 @@
+package com.example.soukify.data.geo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+public class GeoHashTest {
+
+    @Test
+    public void encodesKnownPoints() {
+        assertEquals("ezs42", GeoHash.encode(42.605, -5.603, 5));
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+        // Shorter hashes are prefixes of longer ones
+        assertEquals("u4pr", GeoHash.encode(57.64911, 10.40744, 4));
+    }
+
+    @Test
+    public void coverContainsEveryPointOfTheBox() {
+        double north = 34.1, east = -6.7, south = 33.4, west = -7.8;
+        Set<String> cells = GeoHash.cover(north, east, south, west, 12, 6);
+
+        assertTrue(cells.size() <= 12);
+        int precision = cells.iterator().next().length();
+        for (int i = 0; i <= 20; i++) {
+            for (int j = 0; j <= 20; j++) {
+                double latitude = south + (north - south) * i / 20;
+                double longitude = west + (east - west) * j / 20;
+                String hash = GeoHash.encode(latitude, longitude, precision);
+                assertTrue(hash + " not covered", cells.contains(hash));
+            }
+        }
+    }
+
+    @Test
+    public void coverUsesTheFinestPrecisionThatFits() {
+        // Roughly a city: precision 4 cells are ~39 x 20 km
+        Set<String> city = GeoHash.cover(33.65, -7.45, 33.50, -7.70, 12, 6);
+        assertEquals(4, city.iterator().next().length());
+
+        // A street-level view is capped at the maximum precision
+        Set<String> street = GeoHash.cover(33.5735, -7.5890, 33.5730, -7.5900, 12, 6);
+        assertEquals(6, street.iterator().next().length());
+
+        // Where precision 1 already needs more cells, precision 1 is used anyway
+        Set<String> world = GeoHash.cover(80, 170, -80, -170, 4, 6);
+        assertEquals(1, world.iterator().next().length());
+        assertEquals(32, world.size());
+    }
+
+    @Test
+    public void shopsOfACellShareItsPrefix() {
+        String shop = GeoHash.encode(33.5731, -7.5898, 9);
+        Set<String> cells = GeoHash.cover(33.58, -7.58, 33.56, -7.60, 1, 6);
+        assertEquals(Collections.singleton(shop.substring(0, cells.iterator().next().length())), cells);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.soukify.data.hours;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class OpenNowIndexTest {
+    private static final int MONDAY_10 = 10 * 60;
+    private static final int MONDAY_8_30 = 8 * 60 + 30;
+
+    @Test
+    public void answersFromTheIndexedSchedules() {
+        OpenNowIndex index = new OpenNowIndex();
+        index.put("day", WeeklySchedule.parseLegacy("Mon: 9:00-17:00"));
+        index.put("early", WeeklySchedule.parseLegacy("Mon: 8:15-8:45"));
+        index.put("closed", WeeklySchedule.EMPTY);
+
+        assertTrue(index.isOpen("day", MONDAY_10));
+        assertFalse(index.isOpen("day", MONDAY_8_30));
+        assertTrue(index.isOpen("early", MONDAY_8_30));
+        assertFalse(index.isOpen("early", 8 * 60 + 50));
+        assertFalse(index.isOpen("closed", MONDAY_10));
+        assertFalse(index.isOpen("unknown", MONDAY_10));
+    }
+
+    @Test
+    public void putReplacesAShopsSchedule() {
+        OpenNowIndex index = new OpenNowIndex();
+        index.put("shop", WeeklySchedule.parseLegacy("Mon: 9:00-17:00"));
+        index.put("shop", WeeklySchedule.parseLegacy("Tue: 9:00-17:00"));
+
+        assertFalse(index.isOpen("shop", MONDAY_10));
+        assertTrue(index.isOpen("shop", WeeklySchedule.MINUTES_PER_DAY + MONDAY_10));
+    }
+
+    @Test
+    public void removedSlotsAreReusedWithoutLeakingBits() {
+        OpenNowIndex index = new OpenNowIndex();
+        index.put("old", WeeklySchedule.parseLegacy("Mon: 9:00-17:00"));
+        index.remove("old");
+        index.put("new", WeeklySchedule.parseLegacy("Tue: 9:00-17:00"));
+
+        assertFalse(index.isOpen("old", MONDAY_10));
+        assertFalse(index.isOpen("new", MONDAY_10));
+        assertTrue(index.isOpen("new", WeeklySchedule.MINUTES_PER_DAY + MONDAY_10));
+    }
+
+    @Test
+    public void clearForgetsEveryShop() {
+        OpenNowIndex index = new OpenNowIndex();
+        index.put("shop", WeeklySchedule.parseLegacy("Mon: 0:00-24:00"));
+        index.clear();
+
+        assertFalse(index.isOpen("shop", MONDAY_10));
+        index.put("shop", WeeklySchedule.parseLegacy("Mon: 9:00-17:00"));
+        assertTrue(index.isOpen("shop", MONDAY_10));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.soukify.data.hours;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+public class WeeklyScheduleTest {
+    private static final int DAY = WeeklySchedule.MINUTES_PER_DAY;
+    private static final String[] DAY_NAMES =
+            {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+
+    private static int at(int day, int hour, int minute) {
+        return day * DAY + hour * 60 + minute;
+    }
+
+    @Test
+    public void parseLegacyReadsEachDay() {
+        WeeklySchedule schedule = WeeklySchedule.parseLegacy("Mon: 9:00-17:00 | Wed: 09:30-12:00");
+
+        assertEquals(Arrays.asList(540L, 1020L, (long) at(2, 9, 30), (long) at(2, 12, 0)), schedule.toRanges());
+        assertTrue(schedule.isOpenAt(at(0, 9, 0)));
+        assertTrue(schedule.isOpenAt(at(0, 16, 59)));
+        assertFalse(schedule.isOpenAt(at(0, 17, 0)));
+        assertFalse(schedule.isOpenAt(at(1, 10, 0)));
+        assertFalse(schedule.isOpenAt(at(2, 9, 29)));
+        assertTrue(schedule.isOpenAt(at(2, 9, 30)));
+    }
+
+    @Test
+    public void parseLegacyAcceptsOtherTimeShapesAndSkipsJunk() {
+        WeeklySchedule schedule = WeeklySchedule.parseLegacy("monday: 9h30-18 | Tue: soon | Xyz: 1:00-2:00 | Fri: 10:00-24:00");
+
+        assertEquals(Arrays.asList((long) at(0, 9, 30), (long) at(0, 18, 0), (long) at(4, 10, 0), (long) at(5, 0, 0)),
+                schedule.toRanges());
+    }
+
+    @Test
+    public void parseLegacyOfNothingIsEmpty() {
+        assertSame(WeeklySchedule.EMPTY, WeeklySchedule.parseLegacy(null));
+        assertSame(WeeklySchedule.EMPTY, WeeklySchedule.parseLegacy("  "));
+        assertSame(WeeklySchedule.EMPTY, WeeklySchedule.parseLegacy("closed"));
+        assertFalse(WeeklySchedule.EMPTY.isOpenAt(at(3, 12, 0)));
+    }
+
+    @Test
+    public void overnightHoursRunIntoTheNextDay() {
+        WeeklySchedule schedule = WeeklySchedule.parseLegacy("Fri: 20:00-2:00");
+
+        assertTrue(schedule.isOpenAt(at(4, 20, 0)));
+        assertTrue(schedule.isOpenAt(at(4, 23, 59)));
+        assertTrue(schedule.isOpenAt(at(5, 1, 59)));
+        assertFalse(schedule.isOpenAt(at(5, 2, 0)));
+        assertFalse(schedule.isOpenAt(at(4, 19, 59)));
+        assertEquals("Friday: 20:00->24:00\nSaturday: 0:00->2:00", schedule.format(DAY_NAMES));
+    }
+
+    @Test
+    public void sundayNightWrapsToMondayMorning() {
+        WeeklySchedule schedule = WeeklySchedule.parseLegacy("Sun: 22:00-3:00");
+
+        assertEquals(Arrays.asList(0L, 180L, (long) at(6, 22, 0), (long) WeeklySchedule.MINUTES_PER_WEEK),
+                schedule.toRanges());
+        assertTrue(schedule.isOpenAt(at(6, 23, 0)));
+        assertTrue(schedule.isOpenAt(at(0, 2, 59)));
+        assertFalse(schedule.isOpenAt(at(0, 3, 0)));
+        // Minutes past the end of the week wrap around
+        assertTrue(schedule.isOpenAt(WeeklySchedule.MINUTES_PER_WEEK + 60));
+        assertTrue(schedule.isOpenAt(-30));
+    }
+
+    @Test
+    public void overlappingAndTouchingRangesAreMerged() {
+        WeeklySchedule schedule = new WeeklySchedule.Builder()
+                .add(0, 9 * 60, 12 * 60)
+                .add(0, 11 * 60, 14 * 60)
+                .add(0, 14 * 60, 15 * 60)
+                .add(0, 16 * 60, 17 * 60)
+                .build();
+
+        assertEquals(Arrays.asList(540L, 900L, 960L, 1020L), schedule.toRanges());
+        assertTrue(schedule.isOpenAt(at(0, 14, 30)));
+        assertFalse(schedule.isOpenAt(at(0, 15, 30)));
+    }
+
+    @Test
+    public void partialHoursCheckTheRanges() {
+        WeeklySchedule schedule = WeeklySchedule.parseLegacy("Tue: 8:15-8:45");
+
+        assertTrue(schedule.isPartialHour(24 + 8));
+        assertFalse(schedule.isFullHour(24 + 8));
+        assertFalse(schedule.isOpenAt(at(1, 8, 14)));
+        assertTrue(schedule.isOpenAt(at(1, 8, 15)));
+        assertTrue(schedule.isOpenAt(at(1, 8, 44)));
+        assertFalse(schedule.isOpenAt(at(1, 8, 45)));
+    }
+
+    @Test
+    public void rangesRoundTrip() {
+        WeeklySchedule schedule = WeeklySchedule.parseLegacy("Mon: 9:00-12:30 | Mon: 14:00-18:00 | Sun: 23:00-1:00");
+
+        WeeklySchedule decoded = WeeklySchedule.fromRanges(schedule.toRanges());
+
+        assertEquals(schedule.toRanges(), decoded.toRanges());
+        assertEquals("Monday: 0:00->1:00, 9:00->12:30, 14:00->18:00\nSunday: 23:00->24:00", decoded.format(DAY_NAMES));
+    }
+
+    @Test
+    public void fromRangesDropsInvalidValues() {
+        WeeklySchedule schedule = WeeklySchedule.fromRanges(Arrays.asList(-5L, 10L, 100L, 200L, 300L,
+                (long) WeeklySchedule.MINUTES_PER_WEEK + 1, 400L));
+
+        assertEquals(Arrays.asList(100L, 200L), schedule.toRanges());
+        assertSame(WeeklySchedule.EMPTY, WeeklySchedule.fromRanges(null));
+    }
+
+    @Test
+    public void minuteOfWeekUsesTheZone() {
+        // 2024-01-08 was a Monday; 10:00 UTC
+        long mondayTenUtc = 1704708000000L;
+
+        assertEquals(600, WeeklySchedule.minuteOfWeek(mondayTenUtc, TimeZone.getTimeZone("UTC")));
+        assertEquals(660, WeeklySchedule.minuteOfWeek(mondayTenUtc, TimeZone.getTimeZone("Africa/Casablanca")));
+        assertEquals(300, WeeklySchedule.minuteOfWeek(mondayTenUtc, TimeZone.getTimeZone("America/New_York")));
+        // Six hours earlier it is still Sunday night in New York
+        assertEquals(at(6, 23, 0), WeeklySchedule.minuteOfWeek(mondayTenUtc - 6 * 3_600_000L, TimeZone.getTimeZone("America/New_York")));
+    }
+}
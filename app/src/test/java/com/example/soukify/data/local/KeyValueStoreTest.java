@@ -0,0 +1,136 @@
+package com.example.soukify.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class KeyValueStoreTest {
+    private File dir;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("kv").toFile();
+        file = new File(dir, "kv.store");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void valuesSurviveReopen() {
+        KeyValueStore store = new KeyValueStore(file);
+        store.putString("s", "value");
+        store.putBoolean("b", true);
+        store.putInt("i", 42);
+        store.putLong("l", 1L << 40);
+        store.putFloat("f", 1.5f);
+        store.putStringSet("set", Arrays.asList("a", "b"));
+        store.addToSet("set", "c");
+        store.removeFromSet("set", "a");
+        store.putString("gone", "x");
+        store.remove("gone");
+
+        KeyValueStore reopened = new KeyValueStore(file);
+        assertEquals("value", reopened.getString("s", null));
+        assertTrue(reopened.getBoolean("b", false));
+        assertEquals(42, reopened.getInt("i", 0));
+        assertEquals(1L << 40, reopened.getLong("l", 0));
+        assertEquals(1.5f, reopened.getFloat("f", 0), 0f);
+        assertEquals(new HashSet<>(Arrays.asList("b", "c")), reopened.getStringSet("set"));
+        assertFalse(reopened.contains("gone"));
+    }
+
+    @Test
+    public void recordPastCommittedLengthIsIgnored() throws IOException {
+        KeyValueStore store = new KeyValueStore(file);
+        store.putString("kept", "1");
+        int committed = committedLength();
+        store.putString("lost", "2");
+        // A crash between writing the record and moving the header
+        setCommittedLength(committed);
+
+        KeyValueStore reopened = new KeyValueStore(file);
+        assertEquals("1", reopened.getString("kept", null));
+        assertNull(reopened.getString("lost", null));
+    }
+
+    @Test
+    public void corruptRecordDropsTheRestOfTheJournal() throws IOException {
+        KeyValueStore store = new KeyValueStore(file);
+        store.putString("kept", "1");
+        int corrupt = committedLength();
+        store.putString("damaged", "2");
+        store.putString("after", "3");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // Flip a payload byte of the "damaged" record, past its length and checksum
+            raf.seek(corrupt + 10);
+            int b = raf.read();
+            raf.seek(corrupt + 10);
+            raf.write(b ^ 0xff);
+        }
+
+        KeyValueStore reopened = new KeyValueStore(file);
+        assertEquals("1", reopened.getString("kept", null));
+        assertNull(reopened.getString("damaged", null));
+        assertNull(reopened.getString("after", null));
+        // Writes after recovery append where the valid journal ended
+        reopened.putString("next", "4");
+        assertEquals("4", new KeyValueStore(file).getString("next", null));
+    }
+
+    @Test
+    public void compactionKeepsLiveValues() {
+        KeyValueStore store = new KeyValueStore(file);
+        // Well past the initial 64 KB file, so it is compacted several times
+        for (int i = 0; i < 5000; i++) store.putInt("counter", i);
+        store.putString("other", "x");
+
+        KeyValueStore reopened = new KeyValueStore(file);
+        assertEquals(4999, reopened.getInt("counter", -1));
+        assertEquals("x", reopened.getString("other", null));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void unknownHeaderStartsEmpty() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.writeInt(0xdeadbeef);
+            raf.writeInt(1024);
+        }
+        KeyValueStore store = new KeyValueStore(file);
+        assertFalse(store.contains("anything"));
+        store.putString("k", "v");
+        assertEquals("v", new KeyValueStore(file).getString("k", null));
+    }
+
+    private int committedLength() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(4);
+            return raf.readInt();
+        }
+    }
+
+    private void setCommittedLength(int length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(4);
+            raf.writeInt(length);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.soukify.data.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.FieldValue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+public class EpochMillisTest {
+    private static final ZoneId ZONE = ZoneId.of("Africa/Casablanca");
+    // 05/03/2023 14:30 as shops stored it
+    private static final long MARCH_5 = LocalDateTime.of(2023, 3, 5, 14, 30).atZone(ZONE).toInstant().toEpochMilli();
+
+    private Locale deviceLocale;
+    private TimeZone deviceZone;
+
+    @Before
+    public void setUp() {
+        deviceLocale = Locale.getDefault();
+        deviceZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone(ZONE));
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(deviceLocale);
+        TimeZone.setDefault(deviceZone);
+    }
+
+    @Test
+    public void decodesTypedValues() {
+        assertEquals(MARCH_5, EpochMillis.decode(new Timestamp(new Date(MARCH_5))));
+        assertEquals(MARCH_5, EpochMillis.decode(new Date(MARCH_5)));
+        assertEquals(MARCH_5, EpochMillis.decode(MARCH_5));
+        assertEquals(1234, EpochMillis.decode(1234));
+    }
+
+    @Test
+    public void decodesProductMillisText() {
+        assertEquals(MARCH_5, EpochMillis.decode(String.valueOf(MARCH_5)));
+        assertEquals(MARCH_5, EpochMillis.decode(" " + MARCH_5 + "\n"));
+    }
+
+    @Test
+    public void decodesShopDateText() {
+        assertEquals(MARCH_5, EpochMillis.decode("05/03/2023 14:30"));
+
+        Locale.setDefault(Locale.FRANCE);
+        assertEquals(MARCH_5, EpochMillis.decode("05/03/2023 14:30"));
+    }
+
+    @Test
+    public void decodesShopDateTextWithArabicDigits() {
+        Locale.setDefault(new Locale("ar", "MA"));
+
+        // Arabic-Indic digits, as an Arabic locale formats them
+        assertEquals(MARCH_5, EpochMillis.decode("٠٥/٠٣/٢٠٢٣ ١٤:٣٠"));
+        // Persian digits, wrapped in right-to-left marks
+        assertEquals(MARCH_5, EpochMillis.decode("\u200F۰۵/۰۳/۲۰۲۳ ۱۴:۳۰\u200F"));
+        // Millis written with Arabic digits
+        assertEquals(1234, EpochMillis.decode("١٢٣٤"));
+    }
+
+    @Test
+    public void missingOrUnreadableIsZero() {
+        assertEquals(0, EpochMillis.decode(null));
+        assertEquals(0, EpochMillis.decode(""));
+        assertEquals(0, EpochMillis.decode("5 mars 2023"));
+        assertEquals(0, EpochMillis.decode(true));
+    }
+
+    @Test
+    public void latinDigitsLeavesLatinTextAlone() {
+        String text = "05/03/2023 14:30";
+        assertSame(text, EpochMillis.latinDigits(text));
+        assertEquals("05/03/2023", EpochMillis.latinDigits("٠٥/٠٣/\u061C٢٠٢٣"));
+    }
+
+    @Test
+    public void unreadableDateIsWrittenBackAsRead() {
+        ShopModel shop = new ShopModel();
+        shop.setCreatedAt("5 mars 2023");
+
+        assertEquals(0, shop.getCreatedAtMillis());
+        assertEquals("5 mars 2023", shop.getCreatedAt());
+        assertEquals("5 mars 2023", new ShopModel(shop).getCreatedAt());
+    }
+
+    @Test
+    public void readableDateIsWrittenBackAsTimestamp() {
+        ProductModel product = new ProductModel();
+        product.setCreatedAt("05/03/2023 14:30");
+
+        assertEquals(MARCH_5, product.getCreatedAtMillis());
+        assertEquals(MARCH_5, ((Timestamp) product.getCreatedAt()).toDate().getTime());
+    }
+
+    @Test
+    public void serverTimeIsOnlyAskedForOnCreate() {
+        ShopModel shop = new ShopModel();
+        assertNull(shop.getCreatedAt());
+        shop.setCreatedAt("");
+        assertNull(shop.getCreatedAt());
+
+        shop.stampCreatedAt();
+        assertTrue(shop.getCreatedAt() instanceof FieldValue);
+
+        // Once read back, the stored date is kept
+        shop.setCreatedAt(new Timestamp(new Date(MARCH_5)));
+        assertEquals(MARCH_5, ((Timestamp) shop.getCreatedAt()).toDate().getTime());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.soukify.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.soukify.ui.debug.ScreenReadBudgets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FirestoreMeterTest {
+    private static final String[] HOT_SCREENS = {
+            ScreenReadBudgets.HOME,
+            ScreenReadBudgets.SEARCH,
+            ScreenReadBudgets.SHOP_HOME,
+            ScreenReadBudgets.PRODUCT_DETAIL,
+            ScreenReadBudgets.FAVORITES,
+    };
+
+    private boolean wasEnabled;
+
+    @Before
+    public void setUp() {
+        wasEnabled = FirestoreMeter.isEnabled();
+        FirestoreMeter.setEnabled(true);
+        FirestoreMeter.reset();
+        ScreenReadBudgets.install();
+    }
+
+    @After
+    public void tearDown() {
+        FirestoreMeter.reset();
+        FirestoreMeter.setEnabled(wasEnabled);
+    }
+
+    @Test
+    public void hotScreensHaveBudgets() {
+        for (String screen : HOT_SCREENS) {
+            assertTrue(screen, FirestoreMeter.getReadBudget(screen) > 0);
+        }
+        assertEquals(-1, FirestoreMeter.getReadBudget("SettingsFragment"));
+    }
+
+    @Test
+    public void visitWithinBudgetPasses() {
+        for (String screen : HOT_SCREENS) {
+            long budget = FirestoreMeter.getReadBudget(screen);
+            FirestoreMeter.enterScreen(screen);
+            // Initial snapshot, then a page of changes
+            FirestoreMeter.recordReads("Test.listener", screen, budget - 10, false, 0, true);
+            FirestoreMeter.recordReads("Test.listener", screen, 10, false, 0, true);
+
+            FirestoreMeter.assertReadBudget(screen, budget);
+        }
+    }
+
+    @Test
+    public void searchVisitOverBudgetFails() {
+        String screen = ScreenReadBudgets.SEARCH;
+        FirestoreMeter.enterScreen(screen);
+        // The shop catalog read again on every keystroke instead of filtered in memory
+        for (int keystroke = 0; keystroke < 10; keystroke++) {
+            FirestoreMeter.recordReads("Test.catalog", screen, 400, false, 0, false);
+        }
+
+        try {
+            FirestoreMeter.assertReadBudget(screen, ScreenReadBudgets.SEARCH_READS);
+            fail("4000 reads passed a budget of " + ScreenReadBudgets.SEARCH_READS);
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(screen));
+            assertTrue(e.getMessage(), e.getMessage().contains("Test.catalog"));
+        }
+    }
+
+    @Test
+    public void cachedReadsAreFree() {
+        String screen = ScreenReadBudgets.HOME;
+        FirestoreMeter.enterScreen(screen);
+        FirestoreMeter.recordReads("Test.cells", screen, 5 * ScreenReadBudgets.HOME_READS, true, 0, true);
+
+        FirestoreMeter.assertReadBudget(screen, ScreenReadBudgets.HOME_READS);
+        assertEquals(0, FirestoreMeter.getVisitUsage(screen).getReads());
+        assertEquals(5 * ScreenReadBudgets.HOME_READS, FirestoreMeter.getVisitUsage(screen).getCachedReads());
+    }
+
+    @Test
+    public void enteringAScreenAgainStartsANewVisit() {
+        String screen = ScreenReadBudgets.PRODUCT_DETAIL;
+        FirestoreMeter.enterScreen(screen);
+        FirestoreMeter.recordReads("Test.product", screen, ScreenReadBudgets.PRODUCT_DETAIL_READS, false, 0, false);
+        FirestoreMeter.enterScreen(ScreenReadBudgets.SHOP_HOME);
+        FirestoreMeter.enterScreen(screen);
+        FirestoreMeter.recordReads("Test.product", screen, ScreenReadBudgets.PRODUCT_DETAIL_READS, false, 0, false);
+
+        FirestoreMeter.assertReadBudget(screen, ScreenReadBudgets.PRODUCT_DETAIL_READS);
+        assertEquals(2 * ScreenReadBudgets.PRODUCT_DETAIL_READS, FirestoreMeter.getScreenUsage(screen).getReads());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.soukify.data.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class AutocompleteIndexTest {
+
+    @Test
+    public void completesEveryWordStartHeaviestFirst() {
+        AutocompleteIndex index = new AutocompleteIndex();
+        index.adjust("Poterie de Safi", 2);
+        index.adjust("Atelier Poterie", 5);
+        index.adjust("Tapis", 9);
+
+        assertEquals(Arrays.asList("Atelier Poterie", "Poterie de Safi"), index.complete("pot", 10));
+        assertEquals(Collections.singletonList("Atelier Poterie"), index.complete("pot", 1));
+        assertEquals(Collections.singletonList("Poterie de Safi"), index.complete("saf", 10));
+    }
+
+    @Test
+    public void ignoresAccentsAndCase() {
+        AutocompleteIndex index = new AutocompleteIndex();
+        index.adjust("Céramique Fès", 1);
+
+        assertEquals(Collections.singletonList("Céramique Fès"), index.complete("CERAM", 10));
+        assertEquals(Collections.singletonList("Céramique Fès"), index.complete("fes", 10));
+    }
+
+    @Test
+    public void labelsFoldingAlikeAreOneEntry() {
+        AutocompleteIndex index = new AutocompleteIndex();
+        index.adjust("Argan", 1);
+        index.adjust("ARGAN ", 1);
+
+        assertEquals(1, index.size());
+        assertEquals(Collections.singletonList("Argan"), index.complete("arg", 10));
+    }
+
+    @Test
+    public void weightsMoveAndZeroRemoves() {
+        AutocompleteIndex index = new AutocompleteIndex();
+        index.adjust("Babouches", 3);
+        index.adjust("Bijoux", 2);
+        assertEquals(Arrays.asList("Babouches", "Bijoux"), index.complete("b", 10));
+
+        index.adjust("Bijoux", 2);
+        assertEquals(Arrays.asList("Bijoux", "Babouches"), index.complete("b", 10));
+
+        index.adjust("Bijoux", -4);
+        assertEquals(Collections.singletonList("Babouches"), index.complete("b", 10));
+        assertEquals(1, index.size());
+
+        // Withdrawing from an unknown label does not create it
+        index.adjust("Bijoux", -1);
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void unknownOrEmptyPrefixHasNoCompletions() {
+        AutocompleteIndex index = new AutocompleteIndex();
+        assertTrue(index.complete("a", 10).isEmpty());
+
+        index.adjust("Argan", 1);
+        assertTrue(index.complete("z", 10).isEmpty());
+        assertTrue(index.complete("  ", 10).isEmpty());
+        assertTrue(index.complete("arg", 0).isEmpty());
+    }
+}
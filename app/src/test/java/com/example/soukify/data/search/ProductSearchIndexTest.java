@@ -0,0 +1,85 @@
+package com.example.soukify.data.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.soukify.data.models.ProductModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class ProductSearchIndexTest {
+
+    @Test
+    public void textMatchesFoldedNameAndDescriptionTokens() {
+        ProductSearchIndex index = new ProductSearchIndex(Arrays.asList(
+                product("p1", "s1", "Théière en cuivre", "Faite main", 300),
+                product("p2", "s2", "Tapis berbère", "Laine et cuivre", 900),
+                product("p3", "s2", "Plateau", "Bois de thuya", 150)));
+
+        assertEquals(Arrays.asList("p1", "p2"), ids(index.search(new ProductQuery().text("CUIVRE "))));
+        // Accents are folded and the word being typed matches as a prefix
+        assertEquals(Arrays.asList("p1"), ids(index.search(new ProductQuery().text("theie"))));
+        assertEquals(Arrays.asList("p3"), ids(index.search(new ProductQuery().text("bois thu"))));
+    }
+
+    @Test
+    public void shopCountsCoverAllMatchesWithoutAPage() {
+        ProductSearchIndex index = new ProductSearchIndex(Arrays.asList(
+                product("p1", "s1", "Tajine rouge", "", 120),
+                product("p2", "s2", "Tajine décoré", "", 200),
+                product("p3", "s2", "Tajine bleu", "", 180),
+                product("p4", "s3", "Babouches", "", 250)));
+
+        // How the shop search asks which shops sell a product matching the query
+        ProductSearchResult result = index.search(new ProductQuery().text("tajine").page(0, 0));
+
+        assertTrue(result.getProducts().isEmpty());
+        assertEquals(3, result.getTotalCount());
+        Map<String, Integer> shops = result.getFacetCounts(ProductQuery.Facet.SHOP);
+        assertEquals(2, shops.size());
+        assertEquals(Integer.valueOf(1), shops.get("s1"));
+        assertEquals(Integer.valueOf(2), shops.get("s2"));
+    }
+
+    @Test
+    public void facetCountsIgnoreTheirOwnSelection() {
+        ProductSearchIndex index = new ProductSearchIndex(Arrays.asList(
+                product("p1", "s1", "Vase", "", 100),
+                product("p2", "s2", "Vase", "", 400),
+                product("p3", "s2", "Lampe", "", 250)));
+
+        ProductSearchResult result = index.search(new ProductQuery()
+                .facet(ProductQuery.Facet.SHOP, "s1")
+                .range(ProductQuery.Range.PRICE, 50.0, 300.0));
+
+        assertEquals(Arrays.asList("p1"), ids(result));
+        // Still lists the other shop within the price range, so the selection can be widened
+        Map<String, Integer> shops = result.getFacetCounts(ProductQuery.Facet.SHOP);
+        assertEquals(Integer.valueOf(1), shops.get("s1"));
+        assertEquals(Integer.valueOf(1), shops.get("s2"));
+    }
+
+    private static List<String> ids(ProductSearchResult result) {
+        List<String> ids = new ArrayList<>();
+        for (ProductModel product : result.getProducts()) ids.add(product.getProductId());
+        return ids;
+    }
+
+    private static ProductModel product(String id, String shopId, String name, String description, double price) {
+        ProductModel product = new ProductModel();
+        product.setProductId(id);
+        product.setShopId(shopId);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(price);
+        product.setCurrency("MAD");
+        // Set as saved, so indexing doesn't need the rate table
+        product.setBasePrice(price);
+        return product;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.soukify.data.trending;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TrendingScoreTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final long NOW = TrendingScore.EPOCH_MILLIS + 100 * DAY;
+
+    @Test
+    public void freshEventIsWorthItsWeight() {
+        double stored = TrendingScore.forwardWeight(3, NOW);
+        assertEquals(3, TrendingScore.decayed(stored, NOW), 1e-9);
+    }
+
+    @Test
+    public void scoreHalvesEveryHalfLife() {
+        double stored = TrendingScore.forwardWeight(1, NOW);
+        assertEquals(0.5, TrendingScore.decayed(stored, NOW + TrendingScore.HALF_LIFE_MILLIS), 1e-9);
+        assertEquals(0.25, TrendingScore.decayed(stored, NOW + 2 * TrendingScore.HALF_LIFE_MILLIS), 1e-9);
+    }
+
+    @Test
+    public void storedOrderIsDecayedOrder() {
+        // Ten views a week ago against three views today
+        double old = TrendingScore.forwardWeight(10, NOW - 7 * DAY);
+        double recent = TrendingScore.forwardWeight(3, NOW);
+        assertTrue(recent > old);
+        assertTrue(TrendingScore.decayed(recent, NOW + DAY) > TrendingScore.decayed(old, NOW + DAY));
+    }
+
+    @Test
+    public void sumsOfIncrementsDecayTogether() {
+        double stored = TrendingScore.forwardWeight(1, NOW - TrendingScore.HALF_LIFE_MILLIS)
+                + TrendingScore.forwardWeight(1, NOW);
+        assertEquals(1.5, TrendingScore.decayed(stored, NOW), 1e-9);
+    }
+
+    @Test
+    public void bucketsAreCreditedAtTheirMidpoint() {
+        long bucket = TrendingScore.bucketOf(NOW + 5 * 60_000);
+        assertEquals(0, Math.floorMod(bucket, TrendingScore.BUCKET_MILLIS));
+        assertEquals(bucket, TrendingScore.bucketOf(bucket + TrendingScore.BUCKET_MILLIS - 1));
+        assertEquals(bucket + TrendingScore.BUCKET_MILLIS / 2, TrendingScore.bucketTime(bucket));
+        // Before 1970 too
+        assertEquals(-TrendingScore.BUCKET_MILLIS, TrendingScore.bucketOf(-1));
+    }
+}
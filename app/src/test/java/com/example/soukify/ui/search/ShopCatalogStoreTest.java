@@ -0,0 +1,189 @@
+package com.example.soukify.ui.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.example.soukify.data.hours.WeeklySchedule;
+import com.example.soukify.data.models.ShopModel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TimeZone;
+
+public class ShopCatalogStoreTest {
+    private static final ZoneId SHOP_ZONE = ZoneId.of(WeeklySchedule.SHOP_TIME_ZONE);
+    // 2024-01-08 was a Monday
+    private static final long MONDAY_10 = millis(2024, 1, 8, 10, 0);
+    private static final long SATURDAY_1 = millis(2024, 1, 13, 1, 0);
+    private static final Comparator<ShopModel> BY_RATING = (a, b) -> Double.compare(b.getRating(), a.getRating());
+
+    private final List<ShopModel> visible = new ArrayList<>();
+    private ShopCatalogStore catalog;
+    private TimeZone deviceZone;
+
+    @Before
+    public void setUp() {
+        deviceZone = TimeZone.getDefault();
+        catalog = new ShopCatalogStore(visible, new NoUpdates(), () -> { });
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(deviceZone);
+    }
+
+    @Test
+    public void openNowFiltersByIndexedHours() {
+        catalog.apply(Arrays.asList(
+                change(withRanges("a", "Mon: 9:00-17:00")),
+                change(withRanges("b", "Fri: 20:00-2:00")),
+                change(shop("c")),
+                change(withLegacyHours("d", "Mon: 8:00-12:00"))));
+
+        catalog.filter(catalog.openAt(MONDAY_10));
+        assertEquals(Arrays.asList("a", "d"), ids());
+
+        catalog.filter(catalog.openAt(SATURDAY_1));
+        assertEquals(Collections.singletonList("b"), ids());
+    }
+
+    @Test
+    public void openNowIgnoresTheDeviceTimeZone() {
+        catalog.apply(Collections.singletonList(change(withRanges("a", "Mon: 9:00-17:00"))));
+
+        // Monday 10:00 in Morocco is 4:00 in New York and 18:00 in Tokyo
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        catalog.filter(catalog.openAt(MONDAY_10));
+        assertEquals(Collections.singletonList("a"), ids());
+
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        catalog.filter(catalog.openAt(MONDAY_10));
+        assertEquals(Collections.singletonList("a"), ids());
+    }
+
+    @Test
+    public void changedAndRemovedShopsUpdateTheIndex() {
+        catalog.apply(Arrays.asList(
+                change(withRanges("a", "Mon: 9:00-17:00")),
+                change(withRanges("b", "Mon: 9:00-17:00"))));
+        catalog.filter(catalog.openAt(MONDAY_10));
+        assertEquals(Arrays.asList("a", "b"), ids());
+
+        // Applied as row patches under the active filter
+        catalog.apply(Arrays.asList(
+                change(withRanges("a", "Tue: 9:00-17:00")),
+                new ShopCatalogStore.Change("b", null),
+                change(withRanges("c", "Mon: 10:00-11:00"))));
+        assertEquals(Collections.singletonList("c"), ids());
+
+        catalog.filter(catalog.openAt(MONDAY_10 + 24 * 60 * 60_000L));
+        assertEquals(Collections.singletonList("a"), ids());
+    }
+
+    @Test
+    public void replaceAllDropsShopsMissingFromTheNewSnapshot() {
+        catalog.apply(Arrays.asList(
+                change(withRanges("a", "Mon: 9:00-17:00")),
+                change(withRanges("b", "Mon: 9:00-17:00"))));
+        catalog.filter(catalog.openAt(MONDAY_10));
+
+        // A re-subscription whose first snapshot no longer has "a"
+        catalog.replaceAll(Arrays.asList(
+                change(withRanges("b", "Mon: 9:00-17:00")),
+                change(withRanges("c", "Mon: 9:00-17:00"))));
+
+        assertEquals(Arrays.asList("b", "c"), ids());
+        assertEquals(2, catalog.size());
+        assertNull(catalog.get("a"));
+        assertFalse(catalog.openAt(MONDAY_10).test(shop("a")));
+    }
+
+    @Test
+    public void replacedCopyMovesUnderTheActiveOrder() {
+        ShopModel a = rated("a", 4);
+        catalog.apply(Arrays.asList(change(a), change(rated("b", 3)), change(rated("c", 2))));
+        catalog.sort(BY_RATING);
+        assertEquals(Arrays.asList("a", "b", "c"), ids());
+
+        ShopModel edited = new ShopModel(a);
+        edited.setRating(1);
+        catalog.replace(edited);
+
+        assertEquals(Arrays.asList("b", "c", "a"), ids());
+        assertSame(edited, catalog.get("a"));
+        // The original is untouched, so the row it came from was found by binary search
+        assertEquals(4, a.getRating(), 0);
+    }
+
+    private List<String> ids() {
+        List<String> ids = new ArrayList<>();
+        for (ShopModel shop : visible) ids.add(shop.getShopId());
+        return ids;
+    }
+
+    private static ShopCatalogStore.Change change(ShopModel shop) {
+        return new ShopCatalogStore.Change(shop.getShopId(), shop);
+    }
+
+    private static ShopModel shop(String id) {
+        ShopModel shop = new ShopModel();
+        shop.setShopId(id);
+        return shop;
+    }
+
+    private static ShopModel rated(String id, double rating) {
+        ShopModel shop = shop(id);
+        shop.setRating(rating);
+        return shop;
+    }
+
+    // As saved by this version: ranges alongside the text
+    private static ShopModel withRanges(String id, String hours) {
+        ShopModel shop = shop(id);
+        shop.setWorkingHours(hours);
+        shop.setOpeningHours(WeeklySchedule.parseLegacy(hours).toRanges());
+        return shop;
+    }
+
+    // As saved by older versions: text only
+    private static ShopModel withLegacyHours(String id, String hours) {
+        ShopModel shop = shop(id);
+        shop.setWorkingHours(hours);
+        return shop;
+    }
+
+    private static long millis(int year, int month, int day, int hour, int minute) {
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, SHOP_ZONE).toInstant().toEpochMilli();
+    }
+
+    private static final class NoUpdates implements ListUpdateCallback {
+        @Override
+        public void onInserted(int position, int count) {
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.soukify.utils.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class InstrumentedExecutorTest {
+
+    @Test
+    public void externalProducerIsRejectedWhenTheQueueStaysFull() throws Exception {
+        InstrumentedExecutor lane = new InstrumentedExecutor("test", 1, 2, 0, 50);
+        CountDownLatch release = occupy(lane);
+        lane.execute(() -> { });
+        lane.execute(() -> { });
+
+        try {
+            lane.execute(() -> { });
+            fail("Expected the third queued task to be rejected");
+        } catch (RejectedExecutionException expected) {
+        }
+
+        InstrumentedExecutor.Stats stats = lane.getStats();
+        assertEquals(2, stats.queueDepth);
+        assertEquals(1, stats.waited);
+        assertEquals(1, stats.rejected);
+        release.countDown();
+    }
+
+    @Test
+    public void externalProducerWaitsForASlot() throws Exception {
+        InstrumentedExecutor lane = new InstrumentedExecutor("test", 1, 1, 0, 5_000);
+        CountDownLatch release = occupy(lane);
+        lane.execute(() -> { });
+        new Thread(() -> {
+            sleep(100);
+            release.countDown();
+        }).start();
+
+        CountDownLatch ran = new CountDownLatch(1);
+        lane.execute(ran::countDown);
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertEquals(1, lane.getStats().waited);
+        assertEquals(0, lane.getStats().rejected);
+    }
+
+    @Test
+    public void workerRunsInlineWhenItsLaneIsFull() throws Exception {
+        InstrumentedExecutor lane = new InstrumentedExecutor("test", 1, 1, 0, 5_000);
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        AtomicReference<Thread> inline = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        lane.execute(() -> {
+            worker.set(Thread.currentThread());
+            lane.execute(() -> { });
+            lane.execute(() -> inline.set(Thread.currentThread()));
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(worker.get(), inline.get());
+        assertEquals(1, lane.getStats().ranInline);
+    }
+
+    @Test
+    public void workerOfAnotherLaneIsNotRunInline() throws Exception {
+        InstrumentedExecutor cpu = new InstrumentedExecutor("cpu", 1, 1, 0, 50);
+        InstrumentedExecutor io = new InstrumentedExecutor("io", 1, 1, 0, 50);
+        CountDownLatch release = occupy(cpu);
+        cpu.execute(() -> { });
+
+        AtomicReference<Throwable> outcome = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        io.execute(() -> {
+            try {
+                cpu.execute(() -> { });
+            } catch (RejectedExecutionException e) {
+                outcome.set(e);
+            }
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(outcome.get() instanceof RejectedExecutionException);
+        assertEquals(0, cpu.getStats().ranInline);
+        assertEquals(1, cpu.getStats().waited);
+        release.countDown();
+    }
+
+    @Test
+    public void offerNeverRunsInlineOrWaits() throws Exception {
+        InstrumentedExecutor lane = new InstrumentedExecutor("test", 1, 1, 0, 5_000);
+        CountDownLatch release = occupy(lane);
+        assertTrue(lane.offer(() -> { }, InstrumentedExecutor.Priority.BACKGROUND));
+        assertFalse(lane.offer(() -> { }, InstrumentedExecutor.Priority.BACKGROUND));
+
+        InstrumentedExecutor.Stats stats = lane.getStats();
+        assertEquals(0, stats.ranInline);
+        assertEquals(0, stats.waited);
+        assertEquals(0, stats.rejected);
+        release.countDown();
+    }
+
+    // Keeps the lane's only worker busy until the returned latch is released
+    private static CountDownLatch occupy(InstrumentedExecutor lane) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        lane.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
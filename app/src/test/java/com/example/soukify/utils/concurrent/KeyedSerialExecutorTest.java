@@ -0,0 +1,79 @@
+package com.example.soukify.utils.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class KeyedSerialExecutorTest {
+
+    @Test
+    public void busyKeyOnAFullLaneDrainsWithoutRecursing() throws Exception {
+        InstrumentedExecutor lane = new InstrumentedExecutor("test", 1, 1, 0, 5_000);
+        KeyedSerialExecutor serial = new KeyedSerialExecutor(lane);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        serial.execute("k", () -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // Holds the lane's only slot, so no hop of the key finds one
+        CountDownLatch fillerRan = new CountDownLatch(1);
+        lane.execute(fillerRan::countDown);
+
+        int tasks = 50_000;
+        AtomicInteger ran = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < tasks; i++) {
+            serial.execute("k", () -> {
+                if (ran.incrementAndGet() == tasks) done.countDown();
+            });
+        }
+        release.countDown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(fillerRan.await(5, TimeUnit.SECONDS));
+        assertEquals(tasks, ran.get());
+    }
+
+    @Test
+    public void keyIsNotStuckAfterTheLaneRefusedIt() throws Exception {
+        InstrumentedExecutor lane = new InstrumentedExecutor("test", 1, 1, 0, 50);
+        KeyedSerialExecutor serial = new KeyedSerialExecutor(lane);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        lane.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        lane.execute(() -> { });
+
+        try {
+            serial.execute("k", () -> { });
+            fail("Expected the key's first task to be rejected");
+        } catch (RejectedExecutionException expected) {
+        }
+        assertEquals(0, serial.activeKeys());
+
+        release.countDown();
+        CountDownLatch ran = new CountDownLatch(1);
+        serial.execute("k", ran::countDown);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
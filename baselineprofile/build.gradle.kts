@@ -0,0 +1,38 @@
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.baselineprofile)
+}
+
+// Baseline profile producer and macrobenchmarks for :app.
+//   ./gradlew :app:generateBaselineProfile      regenerate app/src/release/generated/baselineProfiles
+//   ./gradlew :baselineprofile:connectedBenchmarkReleaseAndroidTest   startup and jank, with and without the profile
+// Both need a physical device or an API 33+ emulator; the chat journey needs a signed-in account.
+android {
+    namespace = "com.example.soukify.baselineprofile"
+    compileSdk = 36
+
+    defaultConfig {
+        minSdk = 28
+        targetSdk = 36
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+    }
+
+    targetProjectPath = ":app"
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+}
+
+baselineProfile {
+    useConnectedDevices = true
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.espresso.core)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
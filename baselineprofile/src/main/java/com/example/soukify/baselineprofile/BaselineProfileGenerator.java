@@ -0,0 +1,44 @@
+package com.example.soukify.baselineprofile;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Baseline Profile Generator - Records the code the journeys run so it ships precompiled
+ *
+ * The startup profile covers launch alone and also drives dex layout; the journey profile adds
+ * search, shop, product scrolling and chat. Run with ./gradlew :app:generateBaselineProfile,
+ * which copies the result into app/src/release/generated/baselineProfiles.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class BaselineProfileGenerator {
+    private static final int MAX_ITERATIONS = 15;
+    private static final int STABLE_ITERATIONS = 3;
+
+    @Rule
+    public final BaselineProfileRule rule = new BaselineProfileRule();
+
+    @Test
+    public void startup() {
+        rule.collect(Journeys.targetPackage(), MAX_ITERATIONS, STABLE_ITERATIONS, "startup", true, scope -> {
+            Journeys.launch(scope);
+            return Unit.INSTANCE;
+        });
+    }
+
+    @Test
+    public void journeys() {
+        rule.collect(Journeys.targetPackage(), MAX_ITERATIONS, STABLE_ITERATIONS, "journeys", false, scope -> {
+            Journeys.all(scope);
+            return Unit.INSTANCE;
+        });
+    }
+}
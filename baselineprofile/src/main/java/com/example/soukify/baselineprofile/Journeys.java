@@ -0,0 +1,112 @@
+package com.example.soukify.baselineprofile;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.BySelector;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * Journeys - The user paths that profiles are generated from and benchmarks measure
+ *
+ * Launch, search, open a shop, scroll its products and open a chat with the seller, driven through
+ * UI Automator by view id. Each step waits for its screen and gives up quietly when the data isn't
+ * there (no shops in the selected city, signed out for chat), so a sparse test account still
+ * produces a profile for the steps it could reach.
+ */
+final class Journeys {
+    private static final long TIMEOUT_MS = 10_000;
+    private static final int FLINGS = 3;
+
+    private Journeys() {
+    }
+
+    /**
+     * Package of the app under test, passed by the baselineprofile plugin
+     */
+    static String targetPackage() {
+        String packageName = InstrumentationRegistry.getArguments().getString("targetAppId");
+        return packageName != null ? packageName : "com.example.soukify";
+    }
+
+    static void launch(MacrobenchmarkScope scope) {
+        scope.pressHome();
+        scope.startActivityAndWait();
+        waitFor(scope, By.res(scope.getPackageName(), "nav_view"));
+    }
+
+    /**
+     * Open the search tab, type a query so suggestions run, and scroll the shop results
+     */
+    static void search(MacrobenchmarkScope scope) {
+        UiObject2 tab = waitFor(scope, By.res(scope.getPackageName(), "navigation_search"));
+        if (tab == null) return;
+        tab.click();
+        UiObject2 input = waitFor(scope, By.res(scope.getPackageName(), "search_input"));
+        if (input != null) {
+            input.setText("ta");
+            scope.getDevice().waitForIdle();
+            input.setText("");
+        }
+        if (waitFor(scope, By.res(scope.getPackageName(), "item_shop_layout")) != null) {
+            flingContent(scope.getDevice());
+        }
+    }
+
+    /**
+     * From search results, open the first shop and scroll its products
+     */
+    static boolean openShopAndScrollProducts(MacrobenchmarkScope scope) {
+        UiObject2 shop = waitFor(scope, By.res(scope.getPackageName(), "item_shop_layout"));
+        if (shop == null) return false;
+        shop.click();
+        if (waitFor(scope, By.res(scope.getPackageName(), "productsRecyclerView")) == null) return false;
+        flingContent(scope.getDevice());
+        return true;
+    }
+
+    /**
+     * From search results, open a chat with the first shop's seller. Needs a signed-in account
+     */
+    static void openChat(MacrobenchmarkScope scope) {
+        UiObject2 chat = waitFor(scope, By.res(scope.getPackageName(), "btnChat"));
+        if (chat == null) return;
+        chat.click();
+        if (waitFor(scope, By.res(scope.getPackageName(), "rvMessages")) != null) {
+            scope.getDevice().pressBack();
+        }
+    }
+
+    /**
+     * Everything above, in the order a visitor would go
+     */
+    static void all(MacrobenchmarkScope scope) {
+        launch(scope);
+        search(scope);
+        openChat(scope);
+        if (openShopAndScrollProducts(scope)) scope.getDevice().pressBack();
+    }
+
+    static UiObject2 waitFor(MacrobenchmarkScope scope, BySelector selector) {
+        return scope.getDevice().wait(Until.findObject(selector), TIMEOUT_MS);
+    }
+
+    /**
+     * Fling the main scrollable container down and back up
+     */
+    static void flingContent(UiDevice device) {
+        UiObject2 content = device.findObject(By.scrollable(true));
+        if (content == null) return;
+        // Keep gestures clear of the system navigation area
+        content.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < FLINGS; i++) {
+            content.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+        content.fling(Direction.UP);
+        device.waitForIdle();
+    }
+}
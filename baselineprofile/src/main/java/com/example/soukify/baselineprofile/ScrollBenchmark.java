@@ -0,0 +1,85 @@
+package com.example.soukify.baselineprofile;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Scroll Benchmark - Frame times of the first scroll through search results and shop products
+ *
+ * Each iteration kills and relaunches the app, so the measured scrolls are the first ones, when
+ * SearchFragment, ShopHomeFragment and CleanProductsAdapter would otherwise still be interpreted.
+ * Compares no compilation against the baseline profile, as StartupBenchmark does.
+ */
+@RunWith(Parameterized.class)
+@LargeTest
+public class ScrollBenchmark {
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public final MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+
+    public ScrollBenchmark(String name, CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> modes() {
+        return Arrays.asList(
+                new Object[]{"None", new CompilationMode.None()},
+                new Object[]{"BaselineProfile", new CompilationMode.Partial(BaselineProfileMode.Require)});
+    }
+
+    @Test
+    public void scrollSearchResults() {
+        rule.measureRepeated(Journeys.targetPackage(),
+                Collections.singletonList(new FrameTimingMetric()),
+                compilationMode,
+                null,
+                ITERATIONS,
+                scope -> {
+                    // A fresh process each time, so the scroll below is the first one
+                    scope.killProcess();
+                    Journeys.launch(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.search(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    @Test
+    public void scrollShopProducts() {
+        rule.measureRepeated(Journeys.targetPackage(),
+                Collections.singletonList(new FrameTimingMetric()),
+                compilationMode,
+                null,
+                ITERATIONS,
+                scope -> {
+                    scope.killProcess();
+                    Journeys.launch(scope);
+                    Journeys.search(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.openShopAndScrollProducts(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.soukify.baselineprofile;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Startup Benchmark - Cold start time without and with the baseline profile
+ *
+ * "None" is the app as a fresh install runs it before any profile (interpreted and JIT);
+ * "BaselineProfile" requires the generated profile, so the difference between the two runs is
+ * what the profile buys. Run on the benchmarkRelease build, which is minified like release.
+ */
+@RunWith(Parameterized.class)
+@LargeTest
+public class StartupBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public final MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+
+    public StartupBenchmark(String name, CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> modes() {
+        return Arrays.asList(
+                new Object[]{"None", new CompilationMode.None()},
+                new Object[]{"BaselineProfile", new CompilationMode.Partial(BaselineProfileMode.Require)});
+    }
+
+    @Test
+    public void coldStartup() {
+        rule.measureRepeated(Journeys.targetPackage(),
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.launch(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
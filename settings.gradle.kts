@@ -22,4 +22,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "Soukify"
 include(":app")
+include(":baselineprofile")
  
\ No newline at end of file